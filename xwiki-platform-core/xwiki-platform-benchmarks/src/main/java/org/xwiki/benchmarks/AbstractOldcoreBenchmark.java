@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.test.MockitoOldcore;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Base class of the benchmarks which need an oldcore environment. The environment is initialized the same way as
+ * for the oldcore unit tests, so the components to load are indicated with the same annotations (for example
+ * {@code @ComponentList} or {@code @AllComponents}) on the benchmark class.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractOldcoreBenchmark
+{
+    protected MockitoComponentManager componentManager;
+
+    protected MockitoOldcore oldcore;
+
+    /**
+     * Initialize the oldcore environment.
+     *
+     * @throws Exception when failing to initialize the environment
+     */
+    @Setup(Level.Trial)
+    public void setUpOldcore() throws Exception
+    {
+        this.componentManager = new MockitoComponentManager();
+        this.oldcore = new MockitoOldcore(this.componentManager);
+
+        this.componentManager.initializeTest(this, this.componentManager, this.oldcore);
+        this.oldcore.before(getClass());
+
+        setUp();
+    }
+
+    /**
+     * Dispose the oldcore environment.
+     *
+     * @throws Exception when failing to dispose the environment
+     */
+    @TearDown(Level.Trial)
+    public void tearDownOldcore() throws Exception
+    {
+        this.oldcore.after();
+        this.componentManager.dispose();
+    }
+
+    /**
+     * Initialize the benchmark, called once the oldcore environment is ready.
+     *
+     * @throws Exception when failing to initialize the benchmark
+     */
+    protected abstract void setUp() throws Exception;
+
+    /**
+     * Register a {@link CacheManager} creating {@link MapCache} instances.
+     *
+     * @throws Exception when failing to register the cache manager
+     */
+    protected void registerMapCacheManager() throws Exception
+    {
+        CacheManager cacheManager = this.componentManager.registerMockComponent(CacheManager.class);
+        when(cacheManager.createNewCache(any(CacheConfiguration.class))).thenAnswer(invocation -> new MapCache<>());
+    }
+
+    protected XWikiContext getXWikiContext()
+    {
+        return this.oldcore.getXWikiContext();
+    }
+}
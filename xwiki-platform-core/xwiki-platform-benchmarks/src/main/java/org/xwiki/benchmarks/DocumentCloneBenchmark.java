@@ -0,0 +1,94 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+/**
+ * Benchmark the copy of documents, which happens each time a document coming from the cache is modified.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@ReferenceComponentList
+public class DocumentCloneBenchmark extends AbstractOldcoreBenchmark
+{
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference("xwiki", "Space", "Class");
+
+    @Param({ "10", "1000" })
+    private int objects;
+
+    private XWikiDocument document;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        this.document = new XWikiDocument(new DocumentReference("xwiki", "Space", "Page"));
+        this.document.setContent("content");
+
+        for (int i = 0; i < this.objects; ++i) {
+            BaseObject xobject = new BaseObject();
+            xobject.setXClassReference(CLASS_REFERENCE);
+            xobject.setStringValue("string", "value" + i);
+            xobject.setLargeStringValue("textarea", "large value " + i);
+            xobject.setIntValue("number", i);
+            this.document.addXObject(xobject);
+        }
+    }
+
+    /**
+     * @return a full copy of the document
+     */
+    @Benchmark
+    public XWikiDocument cloneDocument()
+    {
+        return this.document.clone();
+    }
+
+    /**
+     * @return a copy of the document sharing its objects until they are modified
+     */
+    @Benchmark
+    public XWikiDocument cloneCopyOnWrite()
+    {
+        return this.document.cloneCopyOnWrite();
+    }
+
+    /**
+     * @return a copy of the document sharing its objects until they are modified, with a single modified object
+     */
+    @Benchmark
+    public XWikiDocument cloneCopyOnWriteAndModify()
+    {
+        XWikiDocument clone = this.document.cloneCopyOnWrite();
+
+        clone.unshareXObject(clone.getXObject(CLASS_REFERENCE, 0)).setStringValue("string", "modified");
+
+        return clone;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
+import org.xwiki.test.annotation.ComponentList;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.model.reference.UidStringEntityReferenceSerializer;
+import com.xpn.xwiki.store.XWikiCacheStore;
+
+/**
+ * Benchmark the loading of documents through {@link XWikiCacheStore}, in front of an in-memory store.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@ComponentList(UidStringEntityReferenceSerializer.class)
+public class DocumentStoreBenchmark extends AbstractOldcoreBenchmark
+{
+    @Param({ "100" })
+    private int documents;
+
+    private XWikiCacheStore store;
+
+    private DocumentReference existingReference;
+
+    private DocumentReference missingReference;
+
+    private List<DocumentReference> references;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        this.componentManager.registerMockComponent(RemoteObservationManagerContext.class);
+        this.componentManager.registerMockComponent(ObservationManager.class);
+        registerMapCacheManager();
+
+        this.references = new ArrayList<>(this.documents);
+        for (int i = 0; i < this.documents; ++i) {
+            XWikiDocument document = new XWikiDocument(new DocumentReference("xwiki", "Space", "Page" + i));
+            document.setContent("content " + i);
+            this.oldcore.getSpyXWiki().saveDocument(document, getXWikiContext());
+            this.references.add(document.getDocumentReference());
+        }
+        this.existingReference = this.references.get(this.documents / 2);
+        this.missingReference = new DocumentReference("xwiki", "Space", "Missing");
+
+        this.store = new XWikiCacheStore(this.oldcore.getMockStore(), getXWikiContext());
+
+        // Warm the cache
+        this.store.loadXWikiDocs(this.references, getXWikiContext());
+    }
+
+    /**
+     * @return the cached document
+     * @throws Exception when failing to load the document
+     */
+    @Benchmark
+    public XWikiDocument loadCached() throws Exception
+    {
+        return this.store.loadXWikiDoc(new XWikiDocument(this.existingReference), getXWikiContext());
+    }
+
+    /**
+     * @return the new document returned for a reference which does not exist
+     * @throws Exception when failing to load the document
+     */
+    @Benchmark
+    public XWikiDocument loadMissing() throws Exception
+    {
+        return this.store.loadXWikiDoc(new XWikiDocument(this.missingReference), getXWikiContext());
+    }
+
+    /**
+     * @return all the cached documents
+     * @throws Exception when failing to load the documents
+     */
+    @Benchmark
+    public Map<DocumentReference, XWikiDocument> loadCachedInBulk() throws Exception
+    {
+        return this.store.loadXWikiDocs(this.references, getXWikiContext());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.annotation.AllComponents;
+
+import com.xpn.xwiki.api.DocumentSection;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Benchmark the access to the XDOM of a document of about 5000 blocks. Run it with
+ * {@code -Dbenchmarks.arguments="DocumentXDOMBenchmark -prof gc"} to compare the memory allocated by each operation.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@AllComponents
+public class DocumentXDOMBenchmark extends AbstractOldcoreBenchmark
+{
+    private static final int SECTIONS = 50;
+
+    private static final int PARAGRAPHS = 10;
+
+    private XWikiDocument document;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < SECTIONS; ++i) {
+            content.append("= Section ").append(i).append(" =\n\n");
+            for (int j = 0; j < PARAGRAPHS; ++j) {
+                content.append("Some **bold** text with a [[link>>Space.Page").append(j).append("]].\n\n");
+            }
+        }
+
+        this.document = new XWikiDocument(new DocumentReference("xwiki", "Space", "Page"));
+        this.document.setSyntax(Syntax.XWIKI_2_1);
+        this.document.setContent(content.toString());
+
+        // Parse and cache the XDOM
+        this.document.getReadOnlyXDOM();
+    }
+
+    /**
+     * @return a copy of the XDOM
+     */
+    @Benchmark
+    public XDOM getXDOM()
+    {
+        return this.document.getXDOM();
+    }
+
+    /**
+     * @return the shared XDOM
+     */
+    @Benchmark
+    public XDOM getReadOnlyXDOM()
+    {
+        return this.document.getReadOnlyXDOM();
+    }
+
+    /**
+     * @return the sections of the document
+     * @throws Exception when failing to extract the sections
+     */
+    @Benchmark
+    public List<DocumentSection> getSections() throws Exception
+    {
+        return this.document.getSections();
+    }
+}
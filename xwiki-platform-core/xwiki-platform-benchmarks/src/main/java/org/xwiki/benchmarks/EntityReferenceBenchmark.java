@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+/**
+ * Benchmark the parsing and serialization of entity references, which happen all the time when manipulating
+ * documents.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@ReferenceComponentList
+public class EntityReferenceBenchmark extends AbstractOldcoreBenchmark
+{
+    @Param({ "Page", "Space.Page", "wiki:Space1.Space2.Page", "wiki:Space\\.With\\.Dots.Page" })
+    private String reference;
+
+    private EntityReference entityReference;
+
+    private EntityReferenceResolver<String> resolver;
+
+    private EntityReferenceSerializer<String> serializer;
+
+    private EntityReferenceSerializer<String> localSerializer;
+
+    private EntityReferenceSerializer<String> uidSerializer;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        this.resolver = this.componentManager.getInstance(EntityReferenceResolver.TYPE_STRING);
+        this.serializer = this.componentManager.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        this.localSerializer = this.componentManager.getInstance(EntityReferenceSerializer.TYPE_STRING, "local");
+        this.uidSerializer = this.componentManager.getInstance(EntityReferenceSerializer.TYPE_STRING, "uid");
+
+        this.entityReference = this.resolver.resolve(this.reference, EntityType.DOCUMENT);
+    }
+
+    /**
+     * @return the resolved reference
+     */
+    @Benchmark
+    public EntityReference resolve()
+    {
+        return this.resolver.resolve(this.reference, EntityType.DOCUMENT);
+    }
+
+    /**
+     * @return the serialized reference
+     */
+    @Benchmark
+    public String serialize()
+    {
+        return this.serializer.serialize(this.entityReference);
+    }
+
+    /**
+     * @return the serialized reference, without the wiki
+     */
+    @Benchmark
+    public String serializeLocal()
+    {
+        return this.localSerializer.serialize(this.entityReference);
+    }
+
+    /**
+     * @return the unique identifier of the reference, as used for cache keys
+     */
+    @Benchmark
+    public String serializeUid()
+    {
+        return this.uidSerializer.serialize(this.entityReference);
+    }
+}
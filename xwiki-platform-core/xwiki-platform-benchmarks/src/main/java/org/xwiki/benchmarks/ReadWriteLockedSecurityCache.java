@@ -0,0 +1,183 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.xwiki.security.GroupSecurityReference;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.UserSecurityReference;
+import org.xwiki.security.authorization.SecurityAccessEntry;
+import org.xwiki.security.authorization.SecurityRuleEntry;
+import org.xwiki.security.authorization.cache.ConflictingInsertionException;
+import org.xwiki.security.authorization.cache.ParentEntryEvictedException;
+import org.xwiki.security.authorization.cache.SecurityShadowEntry;
+import org.xwiki.security.authorization.cache.internal.SecurityCache;
+
+/**
+ * A {@link SecurityCache} serializing the calls to another security cache with a single fair read-write lock, like the
+ * default security cache used to do before its read path became lock-free. It's used as the baseline of the
+ * contention benchmarks.
+ *
+ * @version $Id$
+ */
+public class ReadWriteLockedSecurityCache implements SecurityCache
+{
+    private final SecurityCache cache;
+
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock(true);
+
+    private final Lock readLock = this.readWriteLock.readLock();
+
+    private final Lock writeLock = this.readWriteLock.writeLock();
+
+    /**
+     * @param cache the security cache to protect
+     */
+    public ReadWriteLockedSecurityCache(SecurityCache cache)
+    {
+        this.cache = cache;
+    }
+
+    private <T> T read(Callable<T> callable)
+    {
+        this.readLock.lock();
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            this.readLock.unlock();
+        }
+    }
+
+    private interface Insertion
+    {
+        void run() throws ParentEntryEvictedException, ConflictingInsertionException;
+    }
+
+    private void write(Insertion insertion) throws ParentEntryEvictedException, ConflictingInsertionException
+    {
+        this.writeLock.lock();
+        try {
+            insertion.run();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public SecurityAccessEntry get(UserSecurityReference user, SecurityReference entity)
+    {
+        return read(() -> this.cache.get(user, entity));
+    }
+
+    @Override
+    public SecurityRuleEntry get(SecurityReference entity)
+    {
+        return read(() -> this.cache.get(entity));
+    }
+
+    @Override
+    public void remove(UserSecurityReference user, SecurityReference entity)
+    {
+        this.writeLock.lock();
+        try {
+            this.cache.remove(user, entity);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(SecurityReference entity)
+    {
+        this.writeLock.lock();
+        try {
+            this.cache.remove(entity);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void add(SecurityRuleEntry entry) throws ParentEntryEvictedException, ConflictingInsertionException
+    {
+        write(() -> this.cache.add(entry));
+    }
+
+    @Override
+    public void add(SecurityAccessEntry entry) throws ParentEntryEvictedException, ConflictingInsertionException
+    {
+        write(() -> this.cache.add(entry));
+    }
+
+    @Override
+    public void add(SecurityAccessEntry entry, SecurityReference wiki)
+        throws ParentEntryEvictedException, ConflictingInsertionException
+    {
+        write(() -> this.cache.add(entry, wiki));
+    }
+
+    @Override
+    public void add(SecurityRuleEntry entry, Collection<GroupSecurityReference> groups)
+        throws ParentEntryEvictedException, ConflictingInsertionException
+    {
+        write(() -> this.cache.add(entry, groups));
+    }
+
+    @Override
+    public void add(SecurityShadowEntry entry, Collection<GroupSecurityReference> groups)
+        throws ParentEntryEvictedException, ConflictingInsertionException
+    {
+        write(() -> this.cache.add(entry, groups));
+    }
+
+    @Override
+    public Collection<GroupSecurityReference> getImmediateGroupsFor(UserSecurityReference user)
+    {
+        return read(() -> this.cache.getImmediateGroupsFor(user));
+    }
+
+    @Override
+    public Collection<GroupSecurityReference> getGroupsFor(UserSecurityReference user,
+        SecurityReference entityWiki)
+    {
+        return read(() -> this.cache.getGroupsFor(user, entityWiki));
+    }
+
+    @Override
+    public void suspendInvalidation()
+    {
+        this.cache.suspendInvalidation();
+    }
+
+    @Override
+    public void resumeInvalidation()
+    {
+        this.cache.resumeInvalidation();
+    }
+}
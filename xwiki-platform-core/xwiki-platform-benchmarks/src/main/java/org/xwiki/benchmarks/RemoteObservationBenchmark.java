@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.classloader.ClassLoaderManager;
+import org.xwiki.classloader.NamespaceURLClassLoader;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.remote.NetworkAdapter;
+import org.xwiki.observation.remote.RemoteEventData;
+import org.xwiki.observation.remote.RemoteObservationManager;
+import org.xwiki.observation.remote.RemoteObservationManagerConfiguration;
+import org.xwiki.observation.remote.internal.jgroups.DefaultJGroupsReceiver;
+import org.xwiki.observation.remote.internal.jgroups.JGroupsNetworkAdapter;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark the transport of a burst of document events (like the ones produced by an import) between two cluster
+ * members running in the same JVM and connected through the loopback interface. Compare the
+ * {@code batchDelay=0} (one network message per event) and {@code batchDelay=5} (events grouped in batches) results
+ * to measure the gain of the {@code observation.remote.batch.delay} configuration.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@ComponentList({ JGroupsNetworkAdapter.class, DefaultJGroupsReceiver.class })
+public class RemoteObservationBenchmark
+{
+    private static final int EVENTS = 1000;
+
+    private static final String CHANNEL = "tcp";
+
+    /**
+     * The maximum time to wait for other events before sending a batch, 0 to send each event right away.
+     */
+    @Param({ "0", "5" })
+    private long batchDelay;
+
+    private MockitoComponentManager sender;
+
+    private MockitoComponentManager receiver;
+
+    private NetworkAdapter senderAdapter;
+
+    private NetworkAdapter receiverAdapter;
+
+    /**
+     * Released each time the receiver gets an event.
+     */
+    private final Semaphore received = new Semaphore(0);
+
+    private RemoteEventData[] events;
+
+    /**
+     * Start the two cluster members.
+     *
+     * @throws Exception when failing to start the members
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        System.setProperty("jgroups.bind_addr", "localhost");
+
+        this.sender = createMember();
+        this.receiver = createMember();
+
+        RemoteObservationManager remoteObservationManager =
+            this.receiver.registerMockComponent(RemoteObservationManager.class);
+        doAnswer(invocation -> {
+            this.received.release();
+            return null;
+        }).when(remoteObservationManager).notify(any());
+
+        this.receiverAdapter = this.receiver.getInstance(NetworkAdapter.class, "jgroups");
+        this.receiverAdapter.startChannel(CHANNEL);
+        this.senderAdapter = this.sender.getInstance(NetworkAdapter.class, "jgroups");
+        this.senderAdapter.startChannel(CHANNEL);
+
+        // The payload produced by the document event converter
+        this.events = new RemoteEventData[EVENTS];
+        for (int i = 0; i < EVENTS; ++i) {
+            DocumentReference reference = new DocumentReference("xwiki", "Import", "Page" + i);
+            HashMap<String, Serializable> source = new HashMap<>();
+            source.put("docname", reference);
+            source.put("docversion", "1.1");
+            source.put("doclanguage", "");
+            HashMap<String, Serializable> data = new HashMap<>();
+            data.put("contextwiki", "xwiki");
+            data.put("contextuser", "XWiki.Admin");
+
+            this.events[i] = new RemoteEventData(new DocumentUpdatedEvent(reference), source, data);
+        }
+    }
+
+    private MockitoComponentManager createMember() throws Exception
+    {
+        MockitoComponentManager componentManager = new MockitoComponentManager();
+        componentManager.initializeTest(this);
+
+        RemoteObservationManagerConfiguration configuration =
+            componentManager.registerMockComponent(RemoteObservationManagerConfiguration.class);
+        when(configuration.getBatchDelay()).thenReturn(this.batchDelay);
+        when(configuration.getBatchMaxSize()).thenReturn(EVENTS);
+
+        // Use the JGroups embedded configuration
+        componentManager.registerMockComponent(Environment.class);
+
+        ClassLoaderManager classLoaderManager = componentManager.registerMockComponent(ClassLoaderManager.class);
+        when(classLoaderManager.getURLClassLoader(any(), anyBoolean()))
+            .thenReturn(new NamespaceURLClassLoader(new URI[0], getClass().getClassLoader(), null));
+
+        return componentManager;
+    }
+
+    /**
+     * Stop the two cluster members.
+     *
+     * @throws Exception when failing to stop the members
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        this.senderAdapter.stopAllChannels();
+        this.receiverAdapter.stopAllChannels();
+        this.sender.dispose();
+        this.receiver.dispose();
+    }
+
+    /**
+     * Send a burst of events and wait until they are all received by the other cluster member.
+     *
+     * @throws Exception when the events are not received in time
+     */
+    @Benchmark
+    public void sendEvents() throws Exception
+    {
+        for (RemoteEventData event : this.events) {
+            this.senderAdapter.send(event);
+        }
+
+        if (!this.received.tryAcquire(EVENTS, 1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("The events were not received");
+        }
+    }
+}
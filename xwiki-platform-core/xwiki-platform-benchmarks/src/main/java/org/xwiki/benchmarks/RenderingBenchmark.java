@@ -0,0 +1,145 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.display.internal.DisplayConfiguration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.annotation.AllComponents;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.render.OldRendering;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark the parsing and rendering of xwiki/2.1 content.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@AllComponents
+public class RenderingBenchmark extends AbstractOldcoreBenchmark
+{
+    @Param({ "10", "100" })
+    private int paragraphs;
+
+    private String content;
+
+    private XWikiDocument document;
+
+    private XDOM xdom;
+
+    private Parser parser;
+
+    private BlockRenderer renderer;
+
+    private OldRendering oldRendering;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        DisplayConfiguration displayConfiguration =
+            this.componentManager.registerMockComponent(DisplayConfiguration.class);
+        when(displayConfiguration.getDocumentDisplayerHint()).thenReturn("default");
+        when(displayConfiguration.getTitleHeadingDepth()).thenReturn(2);
+
+        when(this.oldcore.getMockAuthorizationManager().hasAccess(any(), any(), any())).thenReturn(true);
+        when(this.oldcore.getMockContextualAuthorizationManager().hasAccess(any(Right.class))).thenReturn(true);
+
+        this.componentManager.registerComponent(ConfigurationSource.class, "xwikicfg",
+            this.oldcore.getConfigurationSource());
+
+        this.content = generateContent();
+
+        this.document = new XWikiDocument(new DocumentReference("xwiki", "Space", "Page"));
+        this.document.setSyntax(Syntax.XWIKI_2_1);
+        this.document.setContent(this.content);
+        this.document.setNew(false);
+        getXWikiContext().setDoc(this.document);
+
+        this.parser = this.componentManager.getInstance(Parser.class, Syntax.XWIKI_2_1.toIdString());
+        this.renderer = this.componentManager.getInstance(BlockRenderer.class, Syntax.XHTML_1_0.toIdString());
+        this.oldRendering = this.componentManager.getInstance(OldRendering.class);
+
+        this.xdom = this.parser.parse(new StringReader(this.content));
+    }
+
+    private String generateContent()
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < this.paragraphs; ++i) {
+            builder.append("= Heading ").append(i).append(" =\n\n");
+            builder.append("Some **bold** and //italic// text with a [[link>>Space.Page").append(i)
+                .append("]] and a [[external link>>https://www.xwiki.org]].\n\n");
+            builder.append(String.join("\n", List.of("* item 1", "** item 1.1", "* item 2"))).append("\n\n");
+            builder.append("|=Header 1|=Header 2\n|Cell 1|Cell 2\n\n");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * @return the parsed content
+     * @throws Exception when failing to parse the content
+     */
+    @Benchmark
+    public XDOM parse() throws Exception
+    {
+        return this.parser.parse(new StringReader(this.content));
+    }
+
+    /**
+     * @return the result of the rendering of an already parsed content
+     */
+    @Benchmark
+    public String render()
+    {
+        WikiPrinter printer = new DefaultWikiPrinter();
+        this.renderer.render(this.xdom, printer);
+
+        return printer.toString();
+    }
+
+    /**
+     * @return the result of the full parsing, transformation and rendering of the content
+     */
+    @Benchmark
+    public String renderText()
+    {
+        return this.oldRendering.renderText(this.content, this.document, getXWikiContext());
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.model.internal.reference.DefaultStringEntityReferenceSerializer;
+import org.xwiki.model.internal.reference.DefaultSymbolScheme;
+import org.xwiki.model.internal.reference.EntityReferenceFactory;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.security.DefaultSecurityReferenceFactory;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.SecurityReferenceFactory;
+import org.xwiki.security.UserSecurityReference;
+import org.xwiki.security.authorization.SecurityAccess;
+import org.xwiki.security.authorization.SecurityAccessEntry;
+import org.xwiki.security.authorization.SecurityRule;
+import org.xwiki.security.authorization.SecurityRuleEntry;
+import org.xwiki.security.authorization.cache.internal.DefaultSecurityCache;
+import org.xwiki.security.authorization.cache.internal.SecurityCache;
+import org.xwiki.security.authorization.internal.AbstractSecurityAccessEntry;
+import org.xwiki.security.authorization.internal.AbstractSecurityRuleEntry;
+import org.xwiki.security.authorization.internal.XWikiSecurityAccess;
+import org.xwiki.security.internal.XWikiBridge;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark the lookup and insertion of entries in {@link DefaultSecurityCache}, which happen for each right check.
+ * <p>
+ * The {@code locked} implementation puts all the calls behind a single fair read-write lock, like the cache used to
+ * do, to compare the contention before and after its read path became lock-free.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@ComponentList({ DefaultSecurityCache.class, DefaultSecurityReferenceFactory.class,
+    DefaultStringEntityReferenceSerializer.class, DefaultSymbolScheme.class, EntityReferenceFactory.class })
+public class SecurityCacheBenchmark
+{
+    private static final int DOCUMENTS = 100;
+
+    /**
+     * The security cache implementation to measure: {@code default} for the current one, {@code locked} for the same
+     * one behind a global read-write lock.
+     */
+    @Param({ "default", "locked" })
+    private String implementation;
+
+    private MockitoComponentManager componentManager;
+
+    private SecurityCache securityCache;
+
+    private SecurityReferenceFactory factory;
+
+    private SecurityReference document;
+
+    private UserSecurityReference user;
+
+    private SecurityReference[] documents;
+
+    /**
+     * The reference of the user used by each thread to insert access entries, to not conflict with the other threads.
+     *
+     * @version $Id$
+     */
+    @State(Scope.Thread)
+    public static class ThreadUser
+    {
+        private UserSecurityReference user;
+
+        /**
+         * Insert the thread user in the cache.
+         *
+         * @param benchmark the benchmark state
+         * @throws Exception when failing to insert the user
+         */
+        @Setup(Level.Trial)
+        public void setUp(SecurityCacheBenchmark benchmark) throws Exception
+        {
+            this.user = benchmark.factory.newUserReference(new DocumentReference("xwiki", "XWiki",
+                "user" + Thread.currentThread().getId()));
+            benchmark.securityCache.add(new RuleEntry(this.user), null);
+        }
+    }
+
+    private static final class RuleEntry extends AbstractSecurityRuleEntry
+    {
+        private final SecurityReference reference;
+
+        RuleEntry(SecurityReference reference)
+        {
+            this.reference = reference;
+        }
+
+        @Override
+        public SecurityReference getReference()
+        {
+            return this.reference;
+        }
+
+        @Override
+        public Collection<SecurityRule> getRules()
+        {
+            return Collections.emptyList();
+        }
+    }
+
+    private static final class AccessEntry extends AbstractSecurityAccessEntry
+    {
+        private final SecurityReference reference;
+
+        private final UserSecurityReference user;
+
+        AccessEntry(UserSecurityReference user, SecurityReference reference)
+        {
+            this.user = user;
+            this.reference = reference;
+        }
+
+        @Override
+        public SecurityReference getReference()
+        {
+            return this.reference;
+        }
+
+        @Override
+        public UserSecurityReference getUserReference()
+        {
+            return this.user;
+        }
+
+        @Override
+        public SecurityAccess getAccess()
+        {
+            return XWikiSecurityAccess.getDefaultAccess();
+        }
+    }
+
+    /**
+     * Fill the cache with a wiki, a space containing some documents and a user having an access entry on each document.
+     *
+     * @throws Exception when failing to initialize the cache
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        this.componentManager = new MockitoComponentManager();
+        this.componentManager.initializeTest(this);
+
+        CacheManager cacheManager = this.componentManager.registerMockComponent(CacheManager.class);
+        when(cacheManager.createNewCache(any(CacheConfiguration.class))).thenAnswer(invocation -> new MapCache<>());
+        XWikiBridge bridge = this.componentManager.registerMockComponent(XWikiBridge.class);
+        when(bridge.getMainWikiReference()).thenReturn(new WikiReference("xwiki"));
+        when(bridge.toCompatibleEntityReference(any(EntityReference.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        this.securityCache = this.componentManager.getInstance(SecurityCache.class);
+        if ("locked".equals(this.implementation)) {
+            this.securityCache = new ReadWriteLockedSecurityCache(this.securityCache);
+        }
+        this.factory = this.componentManager.getInstance(SecurityReferenceFactory.class);
+
+        WikiReference wikiReference = new WikiReference("xwiki");
+        SpaceReference spaceReference = new SpaceReference("Space", wikiReference);
+        this.securityCache.add(new RuleEntry(this.factory.newEntityReference(wikiReference)));
+        this.securityCache.add(new RuleEntry(this.factory.newEntityReference(spaceReference)));
+        // The XWiki space is required to insert users
+        this.securityCache.add(
+            new RuleEntry(this.factory.newEntityReference(new SpaceReference("XWiki", wikiReference))));
+
+        this.user = this.factory.newUserReference(new DocumentReference("user", new SpaceReference("XWiki",
+            wikiReference)));
+        this.securityCache.add(new RuleEntry(this.user), null);
+
+        this.documents = new SecurityReference[DOCUMENTS];
+        for (int i = 0; i < DOCUMENTS; ++i) {
+            this.documents[i] =
+                this.factory.newEntityReference(new DocumentReference("Page" + i, spaceReference));
+            this.securityCache.add(new RuleEntry(this.documents[i]));
+            this.securityCache.add(new AccessEntry(this.user, this.documents[i]));
+        }
+        this.document = this.documents[DOCUMENTS / 2];
+    }
+
+    /**
+     * Dispose the components.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        this.componentManager.dispose();
+    }
+
+    /**
+     * @return the rule entry of a document
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public SecurityRuleEntry getRuleEntry()
+    {
+        return this.securityCache.get(this.document);
+    }
+
+    /**
+     * @return the access entry of a user on a document
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public SecurityAccessEntry getAccessEntry()
+    {
+        return this.securityCache.get(this.user, this.document);
+    }
+
+    /**
+     * Insert and remove an access entry, which requires an exclusive access to the cache.
+     *
+     * @param threadUser the user of the current thread
+     * @throws Exception when failing to insert the entry
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void addAndRemoveAccessEntry(ThreadUser threadUser) throws Exception
+    {
+        this.securityCache.add(new AccessEntry(threadUser.user, this.document));
+        this.securityCache.remove(threadUser.user, this.document);
+    }
+}
@@ -20,8 +20,11 @@
 package org.xwiki.bridge;
 
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.NotImplementedException;
@@ -194,6 +197,31 @@ default DocumentModelBridge getTranslatedDocumentInstance(EntityReference entity
     @Deprecated
     boolean exists(String documentReference) throws Exception;
 
+    /**
+     * Check the existence of several documents at once.
+     * <p>
+     * The default implementation checks the documents one by one, implementations are expected to override it with
+     * something more efficient when they can.
+     *
+     * @param documentReferences the references of the documents to check
+     * @return the references of the passed documents which exist
+     * @throws Exception when failing to check the documents existence
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default Set<DocumentReference> getExistingDocuments(Collection<DocumentReference> documentReferences)
+        throws Exception
+    {
+        Set<DocumentReference> existingDocuments = new HashSet<>();
+        for (DocumentReference documentReference : documentReferences) {
+            if (exists(documentReference)) {
+                existingDocuments.add(documentReference);
+            }
+        }
+
+        return existingDocuments;
+    }
+
     /**
      * Updates the target document with the new content provided. If the target document does not exist, a new one will
      * be created.
@@ -164,6 +164,33 @@ default XDOM getPreparedXDOM()
         return getXDOM();
     }
 
+    /**
+     * Return the document content as {@link XDOM}, without copying it when possible. The returned XDOM can be shared
+     * with other callers and must not be modified in any way (including by setting it as parent of its blocks, for
+     * example by passing them to a new {@link XDOM}): clone it or clone the blocks to modify.
+     *
+     * @return the XDOM for the document, which must not be modified
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default XDOM getReadOnlyXDOM()
+    {
+        return getXDOM();
+    }
+
+    /**
+     * Return the prepared document content as {@link XDOM}, without copying it when possible. The returned XDOM can be
+     * shared with other callers and must not be modified in any way: clone it or clone the blocks to modify.
+     *
+     * @return the prepared version of the XDOM, which must not be modified
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default XDOM getReadOnlyPreparedXDOM()
+    {
+        return getPreparedXDOM();
+    }
+
     /**
      * @return the document's content author user reference
      * @since 7.2M1
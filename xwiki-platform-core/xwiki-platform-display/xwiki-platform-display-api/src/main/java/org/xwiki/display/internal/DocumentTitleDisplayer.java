@@ -68,12 +68,14 @@ protected XDOM extractTitleFromContent(DocumentModelBridge document, DocumentDis
         // at the moment since it would be too costly to do so. In the future we will even probably remove the feature
         // of generating the title from the content.
         List<HeaderBlock> blocks =
-            document.getPreparedXDOM().getBlocks(new ClassBlockMatcher(HeaderBlock.class), Block.Axes.DESCENDANT);
+            document.getReadOnlyPreparedXDOM().getBlocks(new ClassBlockMatcher(HeaderBlock.class),
+                Block.Axes.DESCENDANT);
         if (!blocks.isEmpty()) {
             HeaderBlock heading = blocks.get(0);
             // Check the heading depth after which we should return null if no heading was found.
             if (heading.getLevel().getAsInt() <= displayConfiguration.getTitleHeadingDepth()) {
-                XDOM headingXDOM = new XDOM(Collections.<Block> singletonList(heading));
+                // Only copy the heading to transform, the document's XDOM is shared
+                XDOM headingXDOM = new XDOM(Collections.<Block> singletonList(heading.clone()));
                 try {
                     TransformationContext txContext =
                         new TransformationContext(headingXDOM, document.getSyntax(),
@@ -19,6 +19,7 @@
  */
 package org.xwiki.eventstream;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -27,6 +28,8 @@
 import java.util.concurrent.CompletableFuture;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.eventstream.query.SimpleEventQuery;
+import org.xwiki.stability.Unstable;
 
 /**
  * Save and access store events.
@@ -67,6 +70,36 @@
      */
     CompletableFuture<EventStatus> saveMailEntityEvent(EntityEvent event);
 
+    /**
+     * Asynchronously save in the storage the given statuses.
+     * 
+     * @param statuses the statuses to save
+     * @return the new {@link CompletableFuture} completed when all the statuses have been saved
+     * @since 16.3.0RC1
+     * @see #saveEventStatus(EventStatus)
+     */
+    @Unstable
+    default CompletableFuture<Void> saveEventStatuses(Collection<EventStatus> statuses)
+    {
+        return CompletableFuture
+            .allOf(statuses.stream().map(this::saveEventStatus).toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Asynchronously save in the storage the given mail statuses.
+     * 
+     * @param events the mail statuses to save
+     * @return the new {@link CompletableFuture} completed when all the mail statuses have been saved
+     * @since 16.3.0RC1
+     * @see #saveMailEntityEvent(EntityEvent)
+     */
+    @Unstable
+    default CompletableFuture<Void> saveMailEntityEvents(Collection<EntityEvent> events)
+    {
+        return CompletableFuture
+            .allOf(events.stream().map(this::saveMailEntityEvent).toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Asynchronously deleted the event matching the passed identifier and all associated statuses.
      * 
@@ -173,4 +206,51 @@ default List<EventStatus> getEventStatuses(Collection<Event> events, Collection<
     {
         return List.of();
     }
+
+    /**
+     * Get the mail statuses concerning the given events and the given entities.
+     * <p>
+     * The default implementation executes a search for each pair of event/entity, stores are expected to override it
+     * with something more efficient.
+     *
+     * @param events a list of events
+     * @param entityIds a list of ids of entities (users and groups)
+     * @return the mail statuses corresponding to each pair of event/entity
+     * @throws Exception if an error occurs
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default List<EntityEvent> getMailEntityEvents(Collection<Event> events, Collection<String> entityIds)
+        throws Exception
+    {
+        List<EntityEvent> entityEvents = new ArrayList<>();
+        for (Event event : events) {
+            for (String entityId : entityIds) {
+                SimpleEventQuery query = new SimpleEventQuery(0, 0);
+                query.eq(Event.FIELD_ID, event.getId());
+                query.withMail(entityId);
+
+                try (EventSearchResult result = search(query)) {
+                    if (result.getTotalHits() > 0) {
+                        entityEvents.add(new EntityEvent()
+                        {
+                            @Override
+                            public Event getEvent()
+                            {
+                                return event;
+                            }
+
+                            @Override
+                            public String getEntityId()
+                            {
+                                return entityId;
+                            }
+                        });
+                    }
+                }
+            }
+        }
+
+        return entityEvents;
+    }
 }
@@ -29,6 +29,7 @@
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
@@ -52,6 +53,8 @@
 import org.xwiki.eventstream.events.MailEntityDeleteEvent;
 import org.xwiki.eventstream.internal.events.EventStatusAddOrUpdatedEvent;
 import org.xwiki.eventstream.internal.events.EventStatusDeletedEvent;
+import org.xwiki.eventstream.internal.jmx.JMXEventStore;
+import org.xwiki.management.JMXBeanRegistration;
 import org.xwiki.observation.ObservationManager;
 
 /**
@@ -183,6 +186,9 @@ public EventStoreTaskType getType()
     @Inject
     private Execution execution;
 
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
     private Thread thread;
 
     private int queueCapacity;
@@ -195,6 +201,14 @@ public EventStoreTaskType getType()
 
     private boolean disposed;
 
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private final AtomicLong taskCount = new AtomicLong();
+
+    private volatile int lastBatchSize;
+
+    private volatile int maxBatchSize;
+
     /**
      * Give an estimation of the number of events that are going to be added to the store. Can be negative if there is
      * more deletes than add.
@@ -223,6 +237,60 @@ public int getQueueSize()
         return size;
     }
 
+    /**
+     * @return the number of tasks currently waiting in the queue
+     * @since 16.3.0RC1
+     */
+    public int getQueueDepth()
+    {
+        return this.queue.size();
+    }
+
+    /**
+     * @return the maximum number of tasks which can wait in the queue
+     * @since 16.3.0RC1
+     */
+    public int getQueueCapacity()
+    {
+        return this.queueCapacity;
+    }
+
+    /**
+     * @return the number of batches of tasks executed since the store was initialized
+     * @since 16.3.0RC1
+     */
+    public long getBatchCount()
+    {
+        return this.batchCount.get();
+    }
+
+    /**
+     * @return the number of tasks executed since the store was initialized
+     * @since 16.3.0RC1
+     */
+    public long getTaskCount()
+    {
+        return this.taskCount.get();
+    }
+
+    /**
+     * @return the number of tasks in the last executed batch
+     * @since 16.3.0RC1
+     */
+    public int getLastBatchSize()
+    {
+        return this.lastBatchSize;
+    }
+
+    /**
+     * @return the highest number of tasks executed in a single batch since the store was initialized
+     * @since 16.3.0RC1
+     */
+    public int getMaxBatchSize()
+    {
+        return this.maxBatchSize;
+    }
+
     private <O, I> CompletableFuture<O> addTask(I input, EventStoreTaskType type)
     {
         // Remember a few standard things from the context
@@ -331,33 +399,116 @@ private void processTasks(EventStoreTask<?, ?> firstTask)
 
         // Make sure to not treat more than the queue capacity in a single batch
         List<EventStoreTask<?, ?>> tasks = new ArrayList<>(this.queueCapacity);
+        // The consecutive tasks of the same type, executed together
+        List<EventStoreTask<?, ?>> sequence = new ArrayList<>();
+        int size = 0;
         try {
             for (EventStoreTask<?, ?> task = firstTask; task != null; task = this.queue.poll()) {
                 if (task == EventStoreTask.STOP) {
                     break;
                 }
 
-                try {
-                    // Execute the task
-                    processTask(task);
+                if (!sequence.isEmpty() && sequence.get(0).type != task.type) {
+                    processSequence(sequence, tasks);
+                }
 
-                    // Add a successful task to the batch
-                    tasks.add(task);
+                sequence.add(task);
 
-                    // Stop if the batch has been reached
-                    if (tasks.size() == this.queueCapacity) {
-                        break;
-                    }
-                } catch (Exception e) {
-                    // Indicate that the task failed
-                    task.future.completeExceptionally(e);
+                // Stop if the batch has been reached
+                if (++size == this.queueCapacity) {
+                    break;
                 }
             }
+
+            processSequence(sequence, tasks);
         } finally {
             // Give a chance to the extended class to do something before the tasks are declared complete
             afterTasks(tasks);
 
             this.execution.removeContext();
+
+            updateMetrics(size);
+        }
+    }
+
+    private void updateMetrics(int size)
+    {
+        this.batchCount.incrementAndGet();
+        this.taskCount.addAndGet(size);
+        this.lastBatchSize = size;
+        if (size > this.maxBatchSize) {
+            this.maxBatchSize = size;
+        }
+    }
+
+    private void processSequence(List<EventStoreTask<?, ?>> sequence, List<EventStoreTask<?, ?>> tasks)
+    {
+        if (sequence.size() > 1 && isBatchable(sequence.get(0).type)) {
+            try {
+                // Execute the tasks
+                processBatch(sequence);
+
+                // Add the successful tasks to the batch
+                tasks.addAll(sequence);
+
+                sequence.clear();
+
+                return;
+            } catch (Exception e) {
+                this.logger.debug("Failed to execute a batch of [{}] tasks of type [{}], trying them one by one",
+                    sequence.size(), sequence.get(0).type, e);
+            }
+        }
+
+        for (EventStoreTask<?, ?> task : sequence) {
+            try {
+                // Execute the task
+                processTask(task);
+
+                // Add a successful task to the batch
+                tasks.add(task);
+            } catch (Exception e) {
+                // Indicate that the task failed
+                task.future.completeExceptionally(e);
+            }
+        }
+
+        sequence.clear();
+    }
+
+    private boolean isBatchable(EventStoreTaskType type)
+    {
+        return type == EventStoreTaskType.SAVE_EVENT || type == EventStoreTaskType.SAVE_STATUS
+            || type == EventStoreTaskType.SAVE_MAIL_ENTITY;
+    }
+
+    private void processBatch(List<EventStoreTask<?, ?>> sequence) throws EventStreamException
+    {
+        List<Object> inputs = new ArrayList<>(sequence.size());
+        for (EventStoreTask<?, ?> task : sequence) {
+            inputs.add(task.input);
+        }
+
+        List<?> outputs;
+        switch (sequence.get(0).type) {
+            case SAVE_EVENT:
+                outputs = syncSaveEvents((List) inputs);
+                break;
+
+            case SAVE_STATUS:
+                outputs = syncSaveEventStatuses((List) inputs);
+                break;
+
+            case SAVE_MAIL_ENTITY:
+                outputs = syncSaveMailEntityEvents((List) inputs);
+                break;
+
+            default:
+                throw new EventStreamException("Unsupported batch of tasks of type " + sequence.get(0).type);
+        }
+
+        for (int i = 0; i < sequence.size(); ++i) {
+            processTaskOutput((EventStoreTask<Object, ?>) sequence.get(i), outputs.get(i));
         }
     }
 
@@ -507,6 +658,64 @@ private <O, I> void complete(EventStoreTask<O, I> task, O output)
      */
     protected abstract Event syncSaveEvent(Event event) throws EventStreamException;
 
+    /**
+     * Save several events at once. The default implementation calls {@link #syncSaveEvent(Event)} for each event,
+     * stores are encouraged to override it when they support bulk writes.
+     * 
+     * @param events the events to save
+     * @return the saved events, in the same order
+     * @throws EventStreamException when failing to save the events
+     * @since 16.3.0RC1
+     */
+    protected List<Event> syncSaveEvents(List<Event> events) throws EventStreamException
+    {
+        List<Event> result = new ArrayList<>(events.size());
+        for (Event event : events) {
+            result.add(syncSaveEvent(event));
+        }
+
+        return result;
+    }
+
+    /**
+     * Save several statuses at once. The default implementation calls {@link #syncSaveEventStatus(EventStatus)} for
+     * each status, stores are encouraged to override it when they support bulk writes.
+     * 
+     * @param statuses the statuses to save
+     * @return the saved statuses, in the same order
+     * @throws EventStreamException when failing to save the statuses
+     * @since 16.3.0RC1
+     */
+    protected List<EventStatus> syncSaveEventStatuses(List<EventStatus> statuses) throws EventStreamException
+    {
+        List<EventStatus> result = new ArrayList<>(statuses.size());
+        for (EventStatus status : statuses) {
+            result.add(syncSaveEventStatus(status));
+        }
+
+        return result;
+    }
+
+    /**
+     * Save several event/entity relations at once. The default implementation calls
+     * {@link #syncSaveMailEntityEvent(EntityEvent)} for each relation, stores are encouraged to override it when they
+     * support bulk writes.
+     * 
+     * @param events the event/entity relations to save
+     * @return the saved relations, in the same order
+     * @throws EventStreamException when failing to save the relations
+     * @since 16.3.0RC1
+     */
+    protected List<EntityEvent> syncSaveMailEntityEvents(List<EntityEvent> events) throws EventStreamException
+    {
+        List<EntityEvent> result = new ArrayList<>(events.size());
+        for (EntityEvent event : events) {
+            result.add(syncSaveMailEntityEvent(event));
+        }
+
+        return result;
+    }
+
     /**
      * @param event the event to save update
      * @since 12.6
@@ -562,6 +771,14 @@ protected void initialize(int queueCapacity, boolean notifyEach, boolean notifyA
         this.thread.setName("Asynchronous handler for event store [" + descriptor.getRoleHint() + "]");
         this.thread.setPriority(Thread.NORM_PRIORITY - 1);
         this.thread.start();
+
+        // Expose the state of the queue
+        this.jmxRegistration.registerMBean(new JMXEventStore(this), getMBeanName());
+    }
+
+    private String getMBeanName()
+    {
+        return "type=EventStore,name=" + this.descriptor.getRoleHint();
     }
 
     @Override
@@ -569,6 +786,8 @@ public void dispose() throws ComponentLifecycleException
     {
         this.disposed = true;
 
+        this.jmxRegistration.unregisterMBean(getMBeanName());
+
         // Make sure to wake up the thread
         addTask(EventStoreTask.STOP);
 
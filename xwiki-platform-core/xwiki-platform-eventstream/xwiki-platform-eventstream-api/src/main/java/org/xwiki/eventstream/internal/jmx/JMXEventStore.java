@@ -0,0 +1,83 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.eventstream.internal.jmx;
+
+import org.xwiki.eventstream.internal.AbstractAsynchronousEventStore;
+
+/**
+ * Implementation of the JMXEventStore MBean.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class JMXEventStore implements JMXEventStoreMBean
+{
+    private final AbstractAsynchronousEventStore store;
+
+    /**
+     * @param store the store to expose
+     */
+    public JMXEventStore(AbstractAsynchronousEventStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    public int getQueueDepth()
+    {
+        return this.store.getQueueDepth();
+    }
+
+    @Override
+    public int getQueueCapacity()
+    {
+        return this.store.getQueueCapacity();
+    }
+
+    @Override
+    public int getQueueSize()
+    {
+        return this.store.getQueueSize();
+    }
+
+    @Override
+    public long getBatchCount()
+    {
+        return this.store.getBatchCount();
+    }
+
+    @Override
+    public long getTaskCount()
+    {
+        return this.store.getTaskCount();
+    }
+
+    @Override
+    public int getLastBatchSize()
+    {
+        return this.store.getLastBatchSize();
+    }
+
+    @Override
+    public int getMaxBatchSize()
+    {
+        return this.store.getMaxBatchSize();
+    }
+}
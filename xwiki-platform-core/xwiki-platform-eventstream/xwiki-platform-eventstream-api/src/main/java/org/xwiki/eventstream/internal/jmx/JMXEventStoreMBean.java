@@ -0,0 +1,64 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.eventstream.internal.jmx;
+
+/**
+ * Interface of the {@link JMXEventStore} MBean.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public interface JMXEventStoreMBean
+{
+    /**
+     * @return the number of tasks waiting in the queue
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the maximum number of tasks which can wait in the queue
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return an estimation of the number of events that are going to be added to the store
+     */
+    int getQueueSize();
+
+    /**
+     * @return the number of batches of tasks executed since the store was initialized
+     */
+    long getBatchCount();
+
+    /**
+     * @return the number of tasks executed since the store was initialized
+     */
+    long getTaskCount();
+
+    /**
+     * @return the number of tasks in the last executed batch
+     */
+    int getLastBatchSize();
+
+    /**
+     * @return the highest number of tasks executed in a single batch
+     */
+    int getMaxBatchSize();
+}
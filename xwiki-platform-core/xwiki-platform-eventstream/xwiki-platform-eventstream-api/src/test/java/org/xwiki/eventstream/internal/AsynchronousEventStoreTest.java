@@ -27,6 +27,7 @@
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -94,6 +95,8 @@ EventEntry getEventEntry(String eventId, boolean create)
 
         ReentrantLock lock = new ReentrantLock();
 
+        List<Integer> eventBatches = new CopyOnWriteArrayList<>();
+
         @Override
         public Optional<Event> getEvent(String eventId) throws EventStreamException
         {
@@ -170,6 +173,14 @@ protected Event syncSaveEvent(Event event)
             }
         }
 
+        @Override
+        protected List<Event> syncSaveEvents(List<Event> events) throws EventStreamException
+        {
+            this.eventBatches.add(events.size());
+
+            return super.syncSaveEvents(events);
+        }
+
         @Override
         protected Event syncPrefilterEvent(Event event)
         {
@@ -332,6 +343,34 @@ void getQueueSize() throws InterruptedException
         }
     }
 
+    @Test
+    void saveEventsInBatch() throws InterruptedException, ExecutionException
+    {
+        // Lock, add an event and wait for the lock to be in place in the store thread
+        this.store.lock.lock();
+
+        CompletableFuture<Event> future;
+        try {
+            this.store.saveEvent(event(""));
+            Thread.sleep(10);
+
+            this.store.saveEvent(event("id1"));
+            this.store.saveEvent(event("id2"));
+            future = this.store.saveEvent(event("id3"));
+
+            assertEquals(3, this.store.getQueueDepth());
+        } finally {
+            this.store.lock.unlock();
+        }
+
+        future.get();
+
+        assertEquals(List.of(3), this.store.eventBatches);
+        assertTrue(this.store.getEvent("id1").isPresent());
+        assertTrue(this.store.getEvent("id2").isPresent());
+        assertTrue(this.store.getEvent("id3").isPresent());
+    }
+
     @Test
     void event() throws InterruptedException, ExecutionException, EventStreamException
     {
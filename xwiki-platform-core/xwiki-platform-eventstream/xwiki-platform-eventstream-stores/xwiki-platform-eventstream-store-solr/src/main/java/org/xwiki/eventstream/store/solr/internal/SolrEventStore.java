@@ -60,6 +60,7 @@
 import org.xwiki.eventstream.EventStore;
 import org.xwiki.eventstream.EventStreamException;
 import org.xwiki.eventstream.internal.AbstractAsynchronousEventStore;
+import org.xwiki.eventstream.internal.DefaultEntityEvent;
 import org.xwiki.eventstream.internal.DefaultEvent;
 import org.xwiki.eventstream.internal.DefaultEventStatus;
 import org.xwiki.eventstream.internal.StreamEventSearchResult;
@@ -186,6 +187,59 @@ protected Event syncSaveEvent(Event event) throws EventStreamException
         return event;
     }
 
+    @Override
+    protected List<Event> syncSaveEvents(List<Event> events) throws EventStreamException
+    {
+        List<SolrInputDocument> documents = new ArrayList<>(events.size());
+        for (Event event : events) {
+            documents.add(toSolrInputDocument(event));
+        }
+
+        try {
+            this.client.add(documents);
+        } catch (Exception e) {
+            throw new EventStreamException(String.format("Failed to save [%s] events", events.size()), e);
+        }
+
+        return events;
+    }
+
+    @Override
+    protected List<EventStatus> syncSaveEventStatuses(List<EventStatus> statuses) throws EventStreamException
+    {
+        List<SolrInputDocument> documents = new ArrayList<>(statuses.size());
+        for (EventStatus status : statuses) {
+            documents.add(toEventStatusDocument(status.getEvent().getId(), status.getEntityId(), status.isRead(),
+                !status.isRead()));
+        }
+
+        try {
+            this.client.add(documents);
+        } catch (Exception e) {
+            throw new EventStreamException(String.format("Failed to save [%s] event statuses", statuses.size()), e);
+        }
+
+        return statuses;
+    }
+
+    @Override
+    protected List<EntityEvent> syncSaveMailEntityEvents(List<EntityEvent> events) throws EventStreamException
+    {
+        List<SolrInputDocument> documents = new ArrayList<>(events.size());
+        for (EntityEvent event : events) {
+            documents.add(toMailEntityEventDocument(event.getEvent().getId(), event.getEntityId(), true));
+        }
+
+        try {
+            this.client.add(documents);
+        } catch (Exception e) {
+            throw new EventStreamException(String.format("Failed to save [%s] event mail statuses", events.size()),
+                e);
+        }
+
+        return events;
+    }
+
     @Override
     protected EventStatus syncSaveEventStatus(EventStatus status) throws EventStreamException
     {
@@ -263,6 +317,19 @@ protected Event syncPrefilterEvent(Event event) throws EventStreamException
 
     private void saveEventStatus(String eventId, String entityId, boolean read, boolean unread)
         throws EventStreamException
+    {
+        SolrInputDocument document = toEventStatusDocument(eventId, entityId, read, unread);
+
+        try {
+            this.client.add(document);
+        } catch (Exception e) {
+            throw new EventStreamException(
+                String.format("Failed to update the event status for event [%s] and entity id [%s]", eventId, entityId),
+                e);
+        }
+    }
+
+    private SolrInputDocument toEventStatusDocument(String eventId, String entityId, boolean read, boolean unread)
     {
         SolrInputDocument document = new SolrInputDocument();
 
@@ -275,16 +342,22 @@ private void saveEventStatus(String eventId, String entityId, boolean read, bool
             unread ? SolrUtils.ATOMIC_UPDATE_MODIFIER_ADD_DISTINCT : SolrUtils.ATOMIC_UPDATE_MODIFIER_REMOVE,
             EventsSolrCoreInitializer.SOLR_FIELD_UNREADLISTENERS, entityId, document);
 
+        return document;
+    }
+
+    private void saveMailEntityEvent(String eventId, String entityId, boolean add) throws EventStreamException
+    {
+        SolrInputDocument document = toMailEntityEventDocument(eventId, entityId, add);
+
         try {
             this.client.add(document);
         } catch (Exception e) {
-            throw new EventStreamException(
-                String.format("Failed to update the event status for event [%s] and entity id [%s]", eventId, entityId),
-                e);
+            throw new EventStreamException(String.format(
+                "Failed to update the event mail status for event [%s] and entity id [%s]", eventId, entityId), e);
         }
     }
 
-    private void saveMailEntityEvent(String eventId, String entityId, boolean add) throws EventStreamException
+    private SolrInputDocument toMailEntityEventDocument(String eventId, String entityId, boolean add)
     {
         SolrInputDocument document = new SolrInputDocument();
 
@@ -294,12 +367,7 @@ private void saveMailEntityEvent(String eventId, String entityId, boolean add) t
             add ? SolrUtils.ATOMIC_UPDATE_MODIFIER_ADD_DISTINCT : SolrUtils.ATOMIC_UPDATE_MODIFIER_REMOVE,
             EventsSolrCoreInitializer.SOLR_FIELD_MAILLISTENERS, entityId, document);
 
-        try {
-            this.client.add(document);
-        } catch (Exception e) {
-            throw new EventStreamException(String.format(
-                "Failed to update the event mail status for event [%s] and entity id [%s]", eventId, entityId), e);
-        }
+        return document;
     }
 
     private SolrInputDocument toSolrInputDocument(Event event)
@@ -452,6 +520,48 @@ public List<EventStatus> getEventStatuses(Collection<Event> events, Collection<S
         return statuses;
     }
 
+    @Override
+    public List<EntityEvent> getMailEntityEvents(Collection<Event> events, Collection<String> entityIds)
+        throws Exception
+    {
+        SolrQuery solrQuery = new SolrQuery();
+
+        solrQuery.addFilterQuery(serializeInCondition(EventsSolrCoreInitializer.SOLR_FIELD_ID,
+            events.stream().map(Event::getId).collect(Collectors.toList())));
+
+        solrQuery.addFilterQuery(serializeInCondition(EventsSolrCoreInitializer.SOLR_FIELD_MAILLISTENERS, entityIds));
+
+        // Without it the query will only return 10 first results.
+        solrQuery.setRows(events.size());
+
+        QueryResponse response;
+        try {
+            response = this.client.query(solrQuery);
+        } catch (Exception e) {
+            throw new EventStreamException("Failed to execute Solr query", e);
+        }
+
+        SolrDocumentList documents = response.getResults();
+
+        List<EntityEvent> entityEvents = new ArrayList<>();
+        for (SolrDocument solrDocument : documents) {
+            Event event = toEvent(solrDocument);
+
+            Set<String> mailListeners =
+                this.utils.getSet(EventsSolrCoreInitializer.SOLR_FIELD_MAILLISTENERS, solrDocument);
+
+            if (mailListeners != null) {
+                for (String entityId : entityIds) {
+                    if (mailListeners.contains(entityId)) {
+                        entityEvents.add(new DefaultEntityEvent(event, entityId));
+                    }
+                }
+            }
+        }
+
+        return entityEvents;
+    }
+
     private Event toEvent(SolrDocument document)
     {
         if (document == null) {
@@ -395,8 +395,7 @@ void eventStatuses() throws Exception
     }
 
     @Test
-    void allSearch()
-        throws EventStreamException, InterruptedException, ExecutionException, SolrServerException, IOException
+    void allSearch() throws Exception
     {
         // Misc
 
@@ -718,8 +717,7 @@ private void searchStatus()
         assertSearch(Arrays.asList(EVENT2), new SimpleEventQuery().withStatus("entity1", false));
     }
 
-    private void searchMail()
-        throws EventStreamException, InterruptedException, ExecutionException, SolrServerException, IOException
+    private void searchMail() throws Exception
     {
         DefaultEntityEvent mail11 = entityevent(EVENT1, "entity1");
         DefaultEntityEvent mail12 = entityevent(EVENT1, "entity2");
@@ -744,6 +742,10 @@ private void searchMail()
         assertSearch(Arrays.asList(EVENT1), new SimpleEventQuery().withMail("entity2"));
 
         assertSearch(Arrays.asList(EVENT2), new SimpleEventQuery().withMail("entity3"));
+
+        assertEquals(List.of(), this.eventStore.getMailEntityEvents(List.of(EVENT1, EVENT2), List.of("entity6")));
+        assertEquals(Set.of(mail11, mail12, mail21), new HashSet<>(
+            this.eventStore.getMailEntityEvents(List.of(EVENT1, EVENT2), List.of("entity1", "entity2"))));
     }
 
     private void searchFields() throws EventStreamException
@@ -24,6 +24,7 @@
 import org.xwiki.properties.annotation.PropertyDescription;
 import org.xwiki.properties.annotation.PropertyName;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
 
 /**
  * @version $Id$
@@ -56,6 +57,16 @@ public class DocumentInstanceOutputProperties extends EntityInstanceOutputProper
      */
     private boolean stoppedWhenSaveFail = true;
 
+    /**
+     * @see #isBulk()
+     */
+    private boolean bulk;
+
+    /**
+     * @see #getBulkBatchSize()
+     */
+    private int bulkBatchSize = 100;
+
     /**
      * @return The base reference to use to resolve reference from events
      */
@@ -151,4 +162,51 @@ public void setStoppedWhenSaveFail(boolean stoppedWhenSaveFail)
     {
         this.stoppedWhenSaveFail = stoppedWhenSaveFail;
     }
+
+    /**
+     * @return Indicate if the documents should be saved by batches, each batch being committed in a single transaction
+     *         and the indexing of the saved documents being delayed until the batch is committed
+     * @since 16.3.0RC1
+     */
+    @PropertyName("Bulk import")
+    @PropertyDescription("Indicate if the documents should be saved by batches, each batch being committed in a single"
+        + " transaction and the indexing of the saved documents being delayed until the batch is committed."
+        + " A document failing to be saved cancels the whole batch.")
+    @Unstable
+    public boolean isBulk()
+    {
+        return this.bulk;
+    }
+
+    /**
+     * @param bulk Indicate if the documents should be saved by batches
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public void setBulk(boolean bulk)
+    {
+        this.bulk = bulk;
+    }
+
+    /**
+     * @return The number of documents to save in each transaction when {@link #isBulk()} is enabled
+     * @since 16.3.0RC1
+     */
+    @PropertyName("Bulk batch size")
+    @PropertyDescription("The number of documents to save in each transaction when the bulk import is enabled")
+    @Unstable
+    public int getBulkBatchSize()
+    {
+        return this.bulkBatchSize;
+    }
+
+    /**
+     * @param bulkBatchSize The number of documents to save in each transaction when {@link #isBulk()} is enabled
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public void setBulkBatchSize(int bulkBatchSize)
+    {
+        this.bulkBatchSize = bulkBatchSize;
+    }
 }
@@ -78,6 +78,9 @@ public class LiveTableLiveDataEntryStore extends WithParameters implements LiveD
     @Inject
     private LiveTableLiveDataResultsRenderer resultsRenderer;
 
+    @Inject
+    private XClassLiveTableResults classResults;
+
     @Inject
     @Named("current")
     private DocumentReferenceResolver<String> currentDocumentReferenceResolver;
@@ -98,7 +101,21 @@ public Optional<Map<String, Object>> get(Object entryId)
     @Override
     public LiveData get(LiveDataQuery query) throws LiveDataException
     {
+        // Merge the parameters of this live data source with the parameters from the given query.
+        Source originalSource = query.getSource();
+        query.setSource(new Source(ROLE_HINT));
+        query.getSource().getParameters().putAll(getParameters());
+        if (originalSource != null) {
+            query.getSource().getParameters().putAll(originalSource.getParameters());
+        }
+
         try {
+            // Compute the results of the class tables directly when possible.
+            Optional<LiveData> classLiveData = this.classResults.get(query);
+            if (classLiveData.isPresent()) {
+                return classLiveData.get();
+            }
+
             // We need to allow backslash escaping because some live table sources are generating the JSON by hand
             // instead of serializing a map.
             ObjectMapper objectMapper =
@@ -113,37 +130,26 @@ public LiveData get(LiveDataQuery query) throws LiveDataException
             return liveData;
         } catch (Exception e) {
             throw new LiveDataException("Failed to execute the live data query.", e);
+        } finally {
+            // Restore the original query source.
+            query.setSource(originalSource);
         }
     }
 
     private JsonNode getLiveTableResultsJSON(LiveDataQuery query, ObjectMapper objectMapper) throws Exception
     {
-        // Merge the parameters of this live data source with the parameters from the given query.
-        Source originalSource = query.getSource();
-        query.setSource(new Source(ROLE_HINT));
-        query.getSource().getParameters().putAll(getParameters());
-        if (originalSource != null) {
-            query.getSource().getParameters().putAll(originalSource.getParameters());
+        Object template = query.getSource().getParameters().get(LiveTableRequestHandler.TEMPLATE);
+        Object resultPage = query.getSource().getParameters().get(LiveTableRequestHandler.RESULT_PAGE);
+        String liveTableResultsJSON;
+        if (template instanceof String) {
+            liveTableResultsJSON = this.resultsRenderer.getLiveTableResultsFromTemplate((String) template, query);
+        } else if (resultPage instanceof String) {
+            liveTableResultsJSON = this.resultsRenderer.getLiveTableResultsFromPage((String) resultPage, query);
+        } else {
+            liveTableResultsJSON = this.resultsRenderer.getLiveTableResultsFromPage("XWiki.LiveTableResults", query);
         }
 
-        try {
-            Object template = query.getSource().getParameters().get(LiveTableRequestHandler.TEMPLATE);
-            Object resultPage = query.getSource().getParameters().get(LiveTableRequestHandler.RESULT_PAGE);
-            String liveTableResultsJSON;
-            if (template instanceof String) {
-                liveTableResultsJSON = this.resultsRenderer.getLiveTableResultsFromTemplate((String) template, query);
-            } else if (resultPage instanceof String) {
-                liveTableResultsJSON = this.resultsRenderer.getLiveTableResultsFromPage((String) resultPage, query);
-            } else {
-                liveTableResultsJSON =
-                    this.resultsRenderer.getLiveTableResultsFromPage("XWiki.LiveTableResults", query);
-            }
-
-            return objectMapper.readTree(liveTableResultsJSON);
-        } finally {
-            // Restore the original query source.
-            query.setSource(originalSource);
-        }
+        return objectMapper.readTree(liveTableResultsJSON);
     }
 
     private List<Map<String, Object>> convertLiveTableRowsToLiveDataEntries(ArrayNode rows, ObjectMapper objectMapper)
@@ -0,0 +1,155 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.internal.livetable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.xwiki.query.QueryFilter;
+
+import com.xpn.xwiki.objects.classes.PropertyClass;
+
+/**
+ * The HQL query computing the live table results of a class, as built by {@link XClassLiveTableQueryBuilder}.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class XClassLiveTableQuery
+{
+    private final String className;
+
+    private final StringBuilder from = new StringBuilder();
+
+    private final StringBuilder where = new StringBuilder();
+
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    private final Set<String> joinedProperties = new HashSet<>();
+
+    private final Map<String, PropertyClass> propertyClasses = new LinkedHashMap<>();
+
+    private final List<QueryFilter> queryFilters;
+
+    private final String translationPrefix;
+
+    private String order = "";
+
+    /**
+     * @param className the name of the class of the objects to list
+     * @param queryFilters the filters to apply to the query
+     * @param translationPrefix the prefix of the translation keys used to display the results
+     */
+    public XClassLiveTableQuery(String className, List<QueryFilter> queryFilters, String translationPrefix)
+    {
+        this.className = className;
+        this.queryFilters = queryFilters;
+        this.translationPrefix = translationPrefix;
+    }
+
+    /**
+     * @return the name of the class of the objects to list
+     */
+    public String getClassName()
+    {
+        return this.className;
+    }
+
+    /**
+     * @return the short form HQL statement returning the full name of the documents to list
+     */
+    public String getStatement()
+    {
+        return String.format(", BaseObject as obj%s where obj.name=doc.fullName and obj.className = :className"
+            + " and doc.fullName not in (:classTemplate1, :classTemplate2)%s%s", this.from, this.where, this.order);
+    }
+
+    /**
+     * @return the values to bind to the statement parameters
+     */
+    public Map<String, Object> getParameters()
+    {
+        return Collections.unmodifiableMap(this.parameters);
+    }
+
+    /**
+     * @return the filters to apply to the query
+     */
+    public List<QueryFilter> getQueryFilters()
+    {
+        return this.queryFilters;
+    }
+
+    /**
+     * @return the class of each displayed property, in display order
+     */
+    public Map<String, PropertyClass> getPropertyClasses()
+    {
+        return Collections.unmodifiableMap(this.propertyClasses);
+    }
+
+    /**
+     * @return the prefix of the translation keys used to display the results
+     */
+    public String getTranslationPrefix()
+    {
+        return this.translationPrefix;
+    }
+
+    void addPropertyClass(String property, PropertyClass propertyClass)
+    {
+        this.propertyClasses.put(property, propertyClass);
+    }
+
+    /**
+     * @param alias the alias of the property table
+     * @param table the property table
+     * @return {@code true} if the property table was not joined yet
+     */
+    boolean join(String alias, String table)
+    {
+        if (this.joinedProperties.add(alias)) {
+            this.from.append(String.format(", %s as %s", table, alias));
+
+            return true;
+        }
+
+        return false;
+    }
+
+    void where(String clause)
+    {
+        this.where.append(clause);
+    }
+
+    void bindValue(String parameter, Object value)
+    {
+        this.parameters.put(parameter, value);
+    }
+
+    void setOrder(String order)
+    {
+        this.order = order;
+    }
+}
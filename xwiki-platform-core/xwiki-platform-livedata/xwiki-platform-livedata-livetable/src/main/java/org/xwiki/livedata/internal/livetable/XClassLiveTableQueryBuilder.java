@@ -0,0 +1,402 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.internal.livetable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.livedata.LiveDataQuery;
+import org.xwiki.livedata.LiveDataQuery.Constraint;
+import org.xwiki.livedata.LiveDataQuery.Filter;
+import org.xwiki.livedata.LiveDataQuery.SortEntry;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.objects.classes.BooleanClass;
+import com.xpn.xwiki.objects.classes.DateClass;
+import com.xpn.xwiki.objects.classes.NumberClass;
+import com.xpn.xwiki.objects.classes.PropertyClass;
+import com.xpn.xwiki.objects.classes.StringClass;
+
+/**
+ * Build the HQL query computing the live table results of a class, with the same semantics as
+ * {@code XWiki.LiveTableResults}.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = XClassLiveTableQueryBuilder.class)
+@Singleton
+public class XClassLiveTableQueryBuilder
+{
+    private static final String CLASS_NAME = "className";
+
+    private static final String TRANSLATION_PREFIX = "translationPrefix";
+
+    private static final String QUERY_FILTERS = "queryFilters";
+
+    /**
+     * The source parameters that don't prevent from computing the results directly.
+     */
+    private static final Set<String> SUPPORTED_PARAMETERS =
+        Set.of(CLASS_NAME, TRANSLATION_PREFIX, QUERY_FILTERS, LiveTableRequestHandler.CONTEXT_DOC);
+
+    /**
+     * The property types for which the value displayed in view mode doesn't depend on the document holding the object.
+     */
+    private static final Set<Class<?>> SUPPORTED_PROPERTY_CLASSES =
+        Set.of(StringClass.class, NumberClass.class, BooleanClass.class, DateClass.class);
+
+    /**
+     * The document fields that can be filtered and sorted, the other ones require to load the document.
+     */
+    private static final Set<String> SUPPORTED_DOCUMENT_FIELDS = Set.of("fullName", "name", "space");
+
+    /**
+     * The document fields that are computed from the document reference.
+     */
+    private static final Set<String> DOCUMENT_REFERENCE_FIELDS = Set.of("fullName", "name", "space", "wiki", "url");
+
+    private static final String DOC_PREFIX = "doc.";
+
+    private static final String PROPERTY_ALIAS_PREFIX = "prop_";
+
+    private static final String ACTIONS = "_actions";
+
+    private static final String AND = " and ";
+
+    private static final String OR = " or ";
+
+    private static final String EMPTY = "empty";
+
+    private static final String VALUE = ".value";
+
+    private static final String INTEGER = "integer";
+
+    private static final double PRECISION = 0.000001;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> currentDocumentReferenceResolver;
+
+    /**
+     * @param query the live data query, with the parameters of the live data source merged
+     * @return the class query, or an empty optional when the live data query can only be answered by the live table
+     *         results page
+     * @throws XWikiException when failing to load the class
+     * @throws ComponentLookupException when failing to lookup the query filters
+     */
+    public Optional<XClassLiveTableQuery> build(LiveDataQuery query) throws XWikiException, ComponentLookupException
+    {
+        Map<String, Object> parameters = query.getSource().getParameters();
+        Object className = parameters.get(CLASS_NAME);
+        if (!(className instanceof String) || StringUtils.isEmpty((String) className)
+            || !SUPPORTED_PARAMETERS.containsAll(parameters.keySet())) {
+            return Optional.empty();
+        }
+
+        BaseClass xclass = getXClass((String) className);
+        if (xclass == null) {
+            return Optional.empty();
+        }
+
+        XClassLiveTableQuery classQuery = new XClassLiveTableQuery((String) className,
+            getQueryFilters(parameters.get(QUERY_FILTERS)), (String) parameters.getOrDefault(TRANSLATION_PREFIX, ""));
+        if (!addProperties(query, xclass, classQuery)) {
+            return Optional.empty();
+        }
+
+        classQuery.bindValue(CLASS_NAME, className);
+        classQuery.bindValue("classTemplate1", className + "Template");
+        classQuery.bindValue("classTemplate2", ((String) className).replaceAll("Class$", "Template"));
+        if (!addFilters(query, xclass, classQuery) || !addSort(query, xclass, classQuery)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(classQuery);
+    }
+
+    private BaseClass getXClass(String className) throws XWikiException
+    {
+        DocumentReference classReference = this.currentDocumentReferenceResolver.resolve(className);
+        if (!this.authorization.hasAccess(Right.VIEW, classReference)) {
+            return null;
+        }
+
+        XWikiContext xcontext = this.xcontextProvider.get();
+        BaseClass xclass = xcontext.getWiki().getXClass(classReference, xcontext);
+
+        return xclass != null && !xclass.getPropertyList().isEmpty() ? xclass : null;
+    }
+
+    private boolean addProperties(LiveDataQuery query, BaseClass xclass, XClassLiveTableQuery classQuery)
+    {
+        List<String> properties = query.getProperties() != null ? query.getProperties() : List.of();
+        for (String property : properties) {
+            if (property.startsWith(DOC_PREFIX)) {
+                if (!DOCUMENT_REFERENCE_FIELDS.contains(StringUtils.removeStart(property, DOC_PREFIX))) {
+                    return false;
+                }
+            } else if (!ACTIONS.equals(property)) {
+                PropertyClass propertyClass = getSupportedPropertyClass(xclass, property);
+                if (propertyClass == null) {
+                    return false;
+                }
+                classQuery.addPropertyClass(property, propertyClass);
+            }
+        }
+
+        return true;
+    }
+
+    private PropertyClass getSupportedPropertyClass(BaseClass xclass, String property)
+    {
+        PropertyClass propertyClass = (PropertyClass) xclass.get(property);
+        if (propertyClass != null && SUPPORTED_PROPERTY_CLASSES.contains(propertyClass.getClass())
+            && !propertyClass.isCustomDisplayed(this.xcontextProvider.get())) {
+            return propertyClass;
+        }
+
+        return null;
+    }
+
+    private List<QueryFilter> getQueryFilters(Object queryFilters) throws ComponentLookupException
+    {
+        List<QueryFilter> filters = new ArrayList<>();
+        if (queryFilters != null) {
+            ComponentManager componentManager = this.componentManagerProvider.get();
+            for (String hint : StringUtils.split(queryFilters.toString(), ", ")) {
+                filters.add(componentManager.getInstance(QueryFilter.class, hint));
+            }
+        }
+
+        return filters;
+    }
+
+    private boolean addFilters(LiveDataQuery query, BaseClass xclass, XClassLiveTableQuery classQuery)
+    {
+        if (query.getFilters() != null) {
+            for (Filter filter : query.getFilters()) {
+                List<Constraint> constraints = filter.getConstraints().stream()
+                    .filter(constraint -> constraint != null && constraint.getValue() != null)
+                    .collect(Collectors.toList());
+                // Like the live table results page, ignore the filters without value.
+                if (!constraints.isEmpty() && (!constraints.get(0).getValue().toString().isEmpty()
+                    || EMPTY.equals(constraints.get(0).getOperator()))
+                    && !addFilter(filter, constraints, xclass, classQuery)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean addFilter(Filter filter, List<Constraint> constraints, BaseClass xclass,
+        XClassLiveTableQuery classQuery)
+    {
+        String property = filter.getProperty();
+        if (property.startsWith(DOC_PREFIX)) {
+            String field = StringUtils.removeStart(property, DOC_PREFIX);
+            if (!SUPPORTED_DOCUMENT_FIELDS.contains(field)) {
+                return false;
+            }
+
+            // Like the live table results page, only the first value is used to filter the document fields.
+            String parameter = "doc_" + field + "_filter";
+            classQuery.where(String.format(" and upper(str(doc.%s)) like upper(:%s)", field, parameter));
+            classQuery.bindValue(parameter, "%" + constraints.get(0).getValue() + "%");
+
+            return true;
+        }
+
+        PropertyClass propertyClass = getSupportedPropertyClass(xclass, property);
+        if (propertyClass instanceof StringClass) {
+            String alias = joinProperty(property, propertyClass, classQuery);
+            addStringFilter(alias, filter.isMatchAll() ? AND : OR, constraints, classQuery);
+
+            return true;
+        } else if (propertyClass instanceof NumberClass) {
+            String alias = joinProperty(property, propertyClass, classQuery);
+            return addNumberFilter(alias, (NumberClass) propertyClass, constraints, classQuery);
+        }
+
+        return false;
+    }
+
+    private void addStringFilter(String alias, String joinOperator, List<Constraint> constraints,
+        XClassLiveTableQuery classQuery)
+    {
+        String column = alias + VALUE;
+        List<String> clauses = new ArrayList<>();
+        for (int i = 0; i < constraints.size(); i++) {
+            Constraint constraint = constraints.get(i);
+            String parameter = alias + "_value_" + (i + 1);
+            String value = constraint.getValue().toString();
+            if ("contains".equals(constraint.getOperator())) {
+                clauses.add(String.format("upper(%s) like upper(:%s)", column, parameter));
+                classQuery.bindValue(parameter, "%" + value + "%");
+            } else if ("startsWith".equals(constraint.getOperator())) {
+                clauses.add(String.format("upper(%s) like upper(:%s)", column, parameter));
+                classQuery.bindValue(parameter, value + "%");
+            } else if (EMPTY.equals(constraint.getOperator())) {
+                // Oracle stores the empty string as a NULL value.
+                clauses.add(String.format("(%s like :%s or %s is null)", column, parameter, column));
+                classQuery.bindValue(parameter, "");
+            } else {
+                clauses.add(String.format("%s = :%s", column, parameter));
+                classQuery.bindValue(parameter, value);
+            }
+        }
+        classQuery.where(" and (" + StringUtils.join(clauses, joinOperator) + ')');
+    }
+
+    private boolean addNumberFilter(String alias, NumberClass numberClass, List<Constraint> constraints,
+        XClassLiveTableQuery classQuery)
+    {
+        // Like the live table results page, only the first value is used to filter the numbers.
+        String value = constraints.get(0).getValue().toString();
+        if (!NumberUtils.isCreatable(value)) {
+            return false;
+        }
+
+        String parameter = alias + "_value";
+        String numberType = numberClass.getNumberType();
+        Number number = NumberUtils.createNumber(value);
+        if (INTEGER.equals(numberType) || "long".equals(numberType)) {
+            classQuery.where(String.format(" and %s.value = :%s", alias, parameter));
+            classQuery.bindValue(parameter,
+                INTEGER.equals(numberType) ? (Object) number.intValue() : (Object) number.longValue());
+        } else {
+            classQuery.where(String.format(" and abs(:%s - %s.value) <= %s", parameter, alias, PRECISION));
+            classQuery.bindValue(parameter,
+                "float".equals(numberType) ? (Object) number.floatValue() : (Object) number.doubleValue());
+        }
+
+        return true;
+    }
+
+    private boolean addSort(LiveDataQuery query, BaseClass xclass, XClassLiveTableQuery classQuery)
+    {
+        // Like the live table results page, only the first sort entry is used.
+        if (query.getSort() == null || query.getSort().isEmpty()) {
+            return true;
+        }
+
+        SortEntry sortEntry = query.getSort().get(0);
+        String direction = sortEntry.isDescending() ? "desc" : "asc";
+        String property = sortEntry.getProperty();
+        if (property.startsWith(DOC_PREFIX)) {
+            String field = StringUtils.removeStart(property, DOC_PREFIX);
+            if (!SUPPORTED_DOCUMENT_FIELDS.contains(field)) {
+                return false;
+            }
+            classQuery.setOrder(getOrderClause(DOC_PREFIX + field, direction, false));
+
+            return true;
+        }
+
+        PropertyClass propertyClass = getSupportedPropertyClass(xclass, property);
+        if (propertyClass == null) {
+            return false;
+        }
+
+        String alias = joinProperty(property, propertyClass, classQuery);
+        // Compare the string values ignoring the case first, the other types have unique values by design.
+        classQuery.setOrder(getOrderClause(alias + VALUE, direction, !(propertyClass instanceof StringClass)));
+
+        return true;
+    }
+
+    private String getOrderClause(String column, String direction, boolean raw)
+    {
+        if (raw) {
+            return String.format(" order by %s %s", column, direction);
+        }
+
+        // Ignore the case first (so that 'aaa' equals 'AAA') but still order the equal values (so that 'AAA' comes
+        // before 'aaa').
+        return String.format(" order by lower(%s) %s, %s %s", column, direction, column, direction);
+    }
+
+    private String joinProperty(String property, PropertyClass propertyClass, XClassLiveTableQuery classQuery)
+    {
+        // Force a prefix to avoid the cases when the property name is a reserved SQL keyword.
+        String alias = PROPERTY_ALIAS_PREFIX + property.replaceAll("\\W", "");
+        if (classQuery.join(alias, getPropertyTable(propertyClass))) {
+            String parameter = alias + "_id_name";
+            classQuery.where(String.format(" and obj.id = %s.id.id and %s.id.name = :%s", alias, alias, parameter));
+            classQuery.bindValue(parameter, property);
+        }
+
+        return alias;
+    }
+
+    private String getPropertyTable(PropertyClass propertyClass)
+    {
+        if (propertyClass instanceof NumberClass) {
+            String numberType = ((NumberClass) propertyClass).getNumberType();
+            if (INTEGER.equals(numberType)) {
+                return "IntegerProperty";
+            } else if ("float".equals(numberType)) {
+                return "FloatProperty";
+            } else if ("double".equals(numberType)) {
+                return "DoubleProperty";
+            }
+            return "LongProperty";
+        } else if (propertyClass instanceof BooleanClass) {
+            return "IntegerProperty";
+        } else if (propertyClass instanceof DateClass) {
+            return "DateProperty";
+        }
+
+        return "StringProperty";
+    }
+}
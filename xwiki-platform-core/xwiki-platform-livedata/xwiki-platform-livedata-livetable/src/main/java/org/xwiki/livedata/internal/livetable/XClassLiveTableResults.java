@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.internal.livetable;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.livedata.LiveData;
+import org.xwiki.livedata.LiveDataQuery;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+
+/**
+ * Compute the live table results of a class directly from the database, without rendering
+ * {@code XWiki.LiveTableResults} and parsing the JSON it produces. Only the queries that can be answered exactly like
+ * {@code XWiki.LiveTableResults} would are handled, the others are left to the live table results page.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = XClassLiveTableResults.class)
+@Singleton
+public class XClassLiveTableResults
+{
+    private static final int DEFAULT_LIMIT = 15;
+
+    @Inject
+    private XClassLiveTableQueryBuilder queryBuilder;
+
+    @Inject
+    private XClassLiveTableResultsRenderer resultsRenderer;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    /**
+     * @param query the live data query, with the parameters of the live data source merged
+     * @return the live data, or an empty optional when the query can only be answered by the live table results page
+     * @throws Exception when failing to compute the results
+     */
+    public Optional<LiveData> get(LiveDataQuery query) throws Exception
+    {
+        Optional<XClassLiveTableQuery> classQuery = this.queryBuilder.build(query);
+        if (classQuery.isEmpty()) {
+            return Optional.empty();
+        }
+
+        long offset = query.getOffset() != null ? Math.max(query.getOffset(), 0) : 0;
+        int limit = query.getLimit() != null ? query.getLimit() : DEFAULT_LIMIT;
+
+        Query rowsQuery = createQuery(classQuery.get());
+        rowsQuery.setOffset((int) offset);
+        if (limit > 0) {
+            rowsQuery.setLimit(limit);
+        }
+        // The statement only selects the full name of the documents.
+        List<String> fullNames = rowsQuery.execute();
+
+        Query countQuery = createQuery(classQuery.get());
+        countQuery.addFilter(this.componentManagerProvider.get().getInstance(QueryFilter.class, "count"));
+        long count = countQuery.<Long>execute().get(0);
+
+        return Optional.of(this.resultsRenderer.render(classQuery.get(), fullNames, count, offset));
+    }
+
+    private Query createQuery(XClassLiveTableQuery classQuery) throws QueryException
+    {
+        Query query = this.queryManager.createQuery(classQuery.getStatement(), Query.HQL);
+        classQuery.getParameters().forEach(query::bindValue);
+        classQuery.getQueryFilters().forEach(query::addFilter);
+
+        return query;
+    }
+}
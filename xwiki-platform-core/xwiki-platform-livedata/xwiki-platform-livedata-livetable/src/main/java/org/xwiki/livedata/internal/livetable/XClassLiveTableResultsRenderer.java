@@ -0,0 +1,275 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.internal.livetable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.livedata.LiveData;
+import org.xwiki.localization.ContextualLocalizationManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.user.CurrentUserReference;
+import org.xwiki.user.UserPropertiesResolver;
+import org.xwiki.user.UserType;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.classes.PropertyClass;
+
+/**
+ * Produce the live data entries of the documents listed by a {@link XClassLiveTableQuery}, with the same fields as
+ * {@code XWiki.LiveTableResults}.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = XClassLiveTableResultsRenderer.class)
+@Singleton
+public class XClassLiveTableResultsRenderer
+{
+    private static final String VIEW = "view";
+
+    private static final String VIEWABLE = "doc.viewable";
+
+    private static final String FULL_NAME = "doc.fullName";
+
+    private static final String EDIT = "edit";
+
+    private static final String WEB_PREFERENCES = "WebPreferences";
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    private ContextualLocalizationManager l10n;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> currentDocumentReferenceResolver;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localEntityReferenceSerializer;
+
+    @Inject
+    @Named("all")
+    private UserPropertiesResolver userPropertiesResolver;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @param classQuery the query which listed the documents
+     * @param fullNames the full names of the documents of the requested page
+     * @param count the total number of documents matched by the query
+     * @param offset the index of the first document of the page
+     * @return the live data
+     * @throws QueryException when failing to load the displayed properties
+     */
+    public LiveData render(XClassLiveTableQuery classQuery, List<String> fullNames, long count, long offset)
+        throws QueryException
+    {
+        // Check the rights of all the rows at once.
+        Map<String, DocumentReference> references = new LinkedHashMap<>();
+        for (String fullName : fullNames) {
+            references.computeIfAbsent(fullName, this.currentDocumentReferenceResolver::resolve);
+        }
+        Set<DocumentReference> viewable = new HashSet<>(this.authorization.filterAccessible(Right.VIEW,
+            references.values()));
+        Set<DocumentReference> editable = new HashSet<>(this.authorization.filterAccessible(Right.EDIT, viewable));
+        Set<DocumentReference> deletable =
+            new HashSet<>(this.authorization.filterAccessible(Right.DELETE, viewable));
+
+        // Load the displayed properties of all the viewable rows at once.
+        Map<String, Map<String, BaseProperty>> values =
+            getPropertyValues(references, viewable, classQuery.getClassName(), classQuery.getPropertyClasses());
+
+        XWikiContext xcontext = this.xcontextProvider.get();
+        boolean hasAdmin = this.authorization.hasAccess(Right.ADMIN, xcontext.getWikiReference());
+        // Same as $isAdvancedUser
+        boolean advancedUser = (xcontext.getUserReference() == null && hasAdmin)
+            || this.userPropertiesResolver.resolve(CurrentUserReference.INSTANCE).getType() == UserType.ADVANCED;
+        String emptyValue = getTranslation(classQuery.getTranslationPrefix() + "emptyvalue");
+
+        LiveData liveData = new LiveData();
+        for (String fullName : fullNames) {
+            DocumentReference reference = references.get(fullName);
+            Map<String, Object> entry = new HashMap<>();
+            if (viewable.contains(reference)) {
+                addDocumentFields(entry, reference, hasAdmin, advancedUser, editable.contains(reference),
+                    deletable.contains(reference), xcontext);
+                addPropertyFields(entry, values.getOrDefault(fullName, Map.of()), classQuery.getPropertyClasses(),
+                    emptyValue, xcontext);
+            } else {
+                entry.put(VIEWABLE, false);
+                entry.put(FULL_NAME, "obfuscated");
+            }
+            liveData.getEntries().add(entry);
+        }
+
+        // Like the live table results page, remove the obfuscated rows when it has no impact on the pagination.
+        liveData.setCount(count);
+        if (count <= fullNames.size()) {
+            liveData.getEntries().removeIf(entry -> Boolean.FALSE.equals(entry.get(VIEWABLE)));
+            liveData.setCount(liveData.getEntries().size() + offset);
+        }
+
+        return liveData;
+    }
+
+    private Map<String, Map<String, BaseProperty>> getPropertyValues(Map<String, DocumentReference> references,
+        Set<DocumentReference> viewable, String className, Map<String, PropertyClass> propertyClasses)
+        throws QueryException
+    {
+        Set<String> names = new LinkedHashSet<>();
+        references.forEach((fullName, reference) -> {
+            if (viewable.contains(reference)) {
+                names.add(fullName);
+            }
+        });
+
+        Map<String, Map<String, BaseProperty>> values = new HashMap<>();
+        if (!names.isEmpty() && !propertyClasses.isEmpty()) {
+            List<Object[]> rows = this.queryManager.createQuery("select obj.name, prop from BaseObject obj, "
+                + "BaseProperty prop where obj.className = :className and obj.name in (:names) and prop.id.id = obj.id"
+                + " and prop.id.name in (:properties) order by obj.number", Query.HQL)
+                .bindValue("className", className)
+                .bindValue("names", names)
+                .bindValue("properties", propertyClasses.keySet())
+                .execute();
+            for (Object[] row : rows) {
+                BaseProperty property = (BaseProperty) row[1];
+                // Like the live table results page, display the property of the first object.
+                values.computeIfAbsent((String) row[0], key -> new HashMap<>()).putIfAbsent(property.getName(),
+                    property);
+            }
+        }
+
+        return values;
+    }
+
+    private void addDocumentFields(Map<String, Object> entry, DocumentReference reference, boolean hasAdmin,
+        boolean advancedUser, boolean hasEdit, boolean hasDelete, XWikiContext xcontext)
+    {
+        XWiki xwiki = xcontext.getWiki();
+
+        entry.put(VIEWABLE, true);
+        entry.put(FULL_NAME, this.localEntityReferenceSerializer.serialize(reference));
+        entry.put("doc.name", reference.getName());
+        entry.put("doc.space", this.localEntityReferenceSerializer.serialize(reference.getParent()));
+        entry.put("doc.url", xwiki.getURL(reference, VIEW, xcontext));
+        entry.put("doc.space_url", xwiki.getURL(reference.getParent(), VIEW, xcontext));
+        entry.put("doc.wiki", reference.getWikiReference().getName());
+        entry.put("doc.wiki_url", xwiki.getURL(reference.getWikiReference(), VIEW, xcontext));
+        entry.put("doc.hasadmin", hasAdmin);
+        entry.put("doc.hasedit", hasEdit);
+        entry.put("doc.hasdelete", hasDelete);
+        entry.put("doc.edit_url", getEditURL(reference, hasEdit, xcontext));
+        entry.put("doc.copy_url", xwiki.getURL(reference, VIEW, "xpage=copy", null, xcontext));
+        entry.put("doc.delete_url", xwiki.getURL(reference, "delete", xcontext));
+        entry.put("doc.rename_url", xwiki.getURL(reference, VIEW, "xpage=rename&step=1", null, xcontext));
+        entry.put("doc.hascopy", true);
+        entry.put("doc.hasrename", hasDelete);
+        entry.put("doc.hasrights", hasEdit && advancedUser);
+        if (reference.getName().equals(xwiki.getDefaultPage(xcontext))) {
+            // For nested pages, use the page administration.
+            entry.put("doc.rights_url",
+                xwiki.getURL(new DocumentReference(WEB_PREFERENCES, reference.getLastSpaceReference()), "admin",
+                    "editor=spaceadmin&section=PageRights", null, xcontext));
+        } else {
+            // For terminal pages, use the old rights editor.
+            entry.put("doc.rights_url", xwiki.getURL(reference, EDIT, "editor=rights", null, xcontext));
+        }
+    }
+
+    private String getEditURL(DocumentReference reference, boolean hasEdit, XWikiContext xcontext)
+    {
+        XWiki xwiki = xcontext.getWiki();
+
+        // The edit action is only displayed when the document can be edited, no need to load the others
+        String editMode = EDIT;
+        if (hasEdit) {
+            try {
+                editMode = xwiki.getDocument(reference, xcontext).getDefaultEditMode(xcontext);
+            } catch (XWikiException e) {
+                this.logger.warn("Failed to get the default edit mode of document [{}]. Root cause is [{}].",
+                    reference, ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return xwiki.getURL(reference, editMode, xcontext);
+    }
+
+    private void addPropertyFields(Map<String, Object> entry, Map<String, BaseProperty> values,
+        Map<String, PropertyClass> propertyClasses, String emptyValue, XWikiContext xcontext)
+    {
+        propertyClasses.forEach((property, propertyClass) -> {
+            BaseProperty value = values.get(property);
+            String display = "";
+            if (value != null) {
+                BaseObject object = new BaseObject();
+                object.safeput(property, value.clone());
+                StringBuffer buffer = new StringBuffer();
+                propertyClass.displayView(buffer, property, "", object, xcontext);
+                display = buffer.toString();
+            }
+
+            entry.put(property, display.isEmpty() ? emptyValue : display);
+            entry.put(property + "_value",
+                value != null && value.getValue() != null ? String.valueOf(value.getValue()) : "");
+            entry.put(property + "_url", "");
+        });
+    }
+
+    private String getTranslation(String key)
+    {
+        return StringUtils.defaultIfEmpty(this.l10n.getTranslationPlain(key), key);
+    }
+}
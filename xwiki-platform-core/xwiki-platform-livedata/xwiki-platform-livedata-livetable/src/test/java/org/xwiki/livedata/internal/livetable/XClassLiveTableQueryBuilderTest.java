@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.internal.livetable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.livedata.LiveDataQuery;
+import org.xwiki.livedata.LiveDataQuery.Filter;
+import org.xwiki.livedata.LiveDataQuery.SortEntry;
+import org.xwiki.livedata.LiveDataQuery.Source;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.template.TemplateManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.web.Utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XClassLiveTableQueryBuilder}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XClassLiveTableQueryBuilderTest
+{
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference("wiki", "Space", "MyClass");
+
+    @InjectMockComponents
+    private XClassLiveTableQueryBuilder queryBuilder;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorization;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> currentDocumentReferenceResolver;
+
+    @MockComponent
+    private TemplateManager templateManager;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    @Mock
+    private XWiki xwiki;
+
+    @Mock
+    private QueryFilter hiddenFilter;
+
+    @BeforeEach
+    void beforeEach(MockitoComponentManager componentManager) throws Exception
+    {
+        // Needed to look for the custom displayers of the class properties.
+        Utils.setComponentManager(componentManager);
+
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.xcontext.getWikiId()).thenReturn("wiki");
+        when(this.xcontext.isMainWiki()).thenReturn(true);
+
+        BaseClass xclass = new BaseClass();
+        xclass.setDocumentReference(CLASS_REFERENCE);
+        xclass.addTextField("status", "Status", 30);
+        xclass.addNumberField("age", "Age", 5, "integer");
+        when(this.currentDocumentReferenceResolver.resolve("Space.MyClass")).thenReturn(CLASS_REFERENCE);
+        when(this.authorization.hasAccess(Right.VIEW, CLASS_REFERENCE)).thenReturn(true);
+        when(this.xwiki.getXClass(CLASS_REFERENCE, this.xcontext)).thenReturn(xclass);
+
+        when(this.contextComponentManager.getInstance(QueryFilter.class, "hidden")).thenReturn(this.hiddenFilter);
+    }
+
+    private LiveDataQuery createQuery(String... properties)
+    {
+        LiveDataQuery query = new LiveDataQuery();
+        query.setSource(new Source(LiveTableLiveDataEntryStore.ROLE_HINT));
+        query.getSource().setParameter("className", "Space.MyClass");
+        query.getSource().setParameter("queryFilters", "hidden");
+        query.setProperties(List.of(properties));
+
+        return query;
+    }
+
+    @Test
+    void build() throws Exception
+    {
+        LiveDataQuery query = createQuery("doc.fullName", "status", "_actions");
+        query.setFilters(List.of(new Filter("status", "contains", "pend"), new Filter("age", "equals", "42")));
+        query.setSort(List.of(new SortEntry("status", true)));
+
+        Optional<XClassLiveTableQuery> classQuery = this.queryBuilder.build(query);
+
+        assertEquals(", BaseObject as obj, StringProperty as prop_status, IntegerProperty as prop_age"
+            + " where obj.name=doc.fullName and obj.className = :className"
+            + " and doc.fullName not in (:classTemplate1, :classTemplate2)"
+            + " and obj.id = prop_status.id.id and prop_status.id.name = :prop_status_id_name"
+            + " and (upper(prop_status.value) like upper(:prop_status_value_1))"
+            + " and obj.id = prop_age.id.id and prop_age.id.name = :prop_age_id_name"
+            + " and prop_age.value = :prop_age_value"
+            + " order by lower(prop_status.value) desc, prop_status.value desc", classQuery.get().getStatement());
+        assertEquals(Map.of("className", "Space.MyClass", "classTemplate1", "Space.MyClassTemplate",
+            "classTemplate2", "Space.MyTemplate", "prop_status_id_name", "status", "prop_status_value_1", "%pend%",
+            "prop_age_id_name", "age", "prop_age_value", 42), classQuery.get().getParameters());
+        assertEquals(List.of("status"), List.copyOf(classQuery.get().getPropertyClasses().keySet()));
+        assertEquals(List.of(this.hiddenFilter), classQuery.get().getQueryFilters());
+        assertEquals("", classQuery.get().getTranslationPrefix());
+    }
+
+    @Test
+    void buildWithUnsupportedProperty() throws Exception
+    {
+        assertFalse(this.queryBuilder.build(createQuery("doc.title", "status")).isPresent());
+    }
+
+    @Test
+    void buildWithUnsupportedFilter() throws Exception
+    {
+        LiveDataQuery query = createQuery("status");
+        query.setFilters(List.of(new Filter("doc.author", "contains", "Admin")));
+
+        assertFalse(this.queryBuilder.build(query).isPresent());
+    }
+
+    @Test
+    void buildWithCustomSourceParameter() throws Exception
+    {
+        LiveDataQuery query = createQuery("status");
+        query.getSource().setParameter("tag", "news");
+
+        assertFalse(this.queryBuilder.build(query).isPresent());
+
+        verify(this.xwiki, never()).getXClass(any(), any());
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.internal.livetable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.livedata.LiveData;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.template.TemplateManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+import org.xwiki.user.CurrentUserReference;
+import org.xwiki.user.UserProperties;
+import org.xwiki.user.UserPropertiesResolver;
+import org.xwiki.user.UserType;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.StringProperty;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.objects.classes.PropertyClass;
+import com.xpn.xwiki.web.Utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XClassLiveTableResultsRenderer}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XClassLiveTableResultsRendererTest
+{
+    private static final DocumentReference DOC1 = new DocumentReference("wiki", "Space", "Doc1");
+
+    private static final DocumentReference DOC2 = new DocumentReference("wiki", "Space", "Doc2");
+
+    private static final DocumentReference HOME = new DocumentReference("wiki", "Space", "WebHome");
+
+    @InjectMockComponents
+    private XClassLiveTableResultsRenderer resultsRenderer;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorization;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> currentDocumentReferenceResolver;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localEntityReferenceSerializer;
+
+    @MockComponent
+    private TemplateManager templateManager;
+
+    @MockComponent
+    @Named("all")
+    private UserPropertiesResolver userPropertiesResolver;
+
+    @Mock
+    private UserProperties userProperties;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    @Mock
+    private XWiki xwiki;
+
+    @Mock
+    private Query propertiesQuery;
+
+    private XClassLiveTableQuery classQuery = new XClassLiveTableQuery("Space.MyClass", List.of(), "");
+
+    @BeforeEach
+    void beforeEach(MockitoComponentManager componentManager) throws Exception
+    {
+        // Needed to display the class properties.
+        Utils.setComponentManager(componentManager);
+
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.xwiki.getDefaultPage(this.xcontext)).thenReturn("WebHome");
+        when(this.userPropertiesResolver.resolve(CurrentUserReference.INSTANCE)).thenReturn(this.userProperties);
+        when(this.userProperties.getType()).thenReturn(UserType.SIMPLE);
+
+        BaseClass xclass = new BaseClass();
+        xclass.setDocumentReference(new DocumentReference("wiki", "Space", "MyClass"));
+        xclass.addTextField("status", "Status", 30);
+        this.classQuery.addPropertyClass("status", (PropertyClass) xclass.get("status"));
+
+        when(this.currentDocumentReferenceResolver.resolve("Space.Doc1")).thenReturn(DOC1);
+        when(this.currentDocumentReferenceResolver.resolve("Space.Doc2")).thenReturn(DOC2);
+        when(this.localEntityReferenceSerializer.serialize(DOC1)).thenReturn("Space.Doc1");
+        when(this.authorization.filterAccessible(eq(Right.VIEW), any())).thenReturn(List.of(DOC1));
+        when(this.authorization.filterAccessible(eq(Right.EDIT), any())).thenReturn(List.of(DOC1));
+
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(this.xwiki.getDocument(DOC1, this.xcontext)).thenReturn(document);
+        when(document.getDefaultEditMode(this.xcontext)).thenReturn("inline");
+
+        when(this.queryManager.createQuery(startsWith("select obj.name, prop"), eq(Query.HQL)))
+            .thenReturn(this.propertiesQuery);
+        when(this.propertiesQuery.bindValue(anyString(), any())).thenReturn(this.propertiesQuery);
+    }
+
+    @Test
+    void render() throws Exception
+    {
+        StringProperty status = new StringProperty();
+        status.setName("status");
+        status.setValue("pending & done");
+        when(this.propertiesQuery.execute()).thenReturn(List.of(new Object[] {"Space.Doc1", status}));
+
+        LiveData liveData = this.resultsRenderer.render(this.classQuery, List.of("Space.Doc1", "Space.Doc2"), 2, 0);
+
+        // The row which can't be viewed is removed since all the rows fit in the page.
+        assertEquals(1, liveData.getCount());
+        assertEquals(1, liveData.getEntries().size());
+        Map<String, Object> entry = liveData.getEntries().get(0);
+        assertEquals("Space.Doc1", entry.get("doc.fullName"));
+        assertEquals("Doc1", entry.get("doc.name"));
+        assertEquals(true, entry.get("doc.hasedit"));
+        assertEquals(false, entry.get("doc.hasdelete"));
+        assertEquals("pending &#38; done", entry.get("status"));
+        assertEquals("pending & done", entry.get("status_value"));
+        assertEquals("", entry.get("status_url"));
+
+        // Only the properties of the rows which can be viewed are loaded.
+        verify(this.propertiesQuery).bindValue("className", "Space.MyClass");
+        verify(this.propertiesQuery).bindValue("names", Set.of("Space.Doc1"));
+        verify(this.propertiesQuery).bindValue("properties", Set.of("status"));
+    }
+
+    @Test
+    void renderActions() throws Exception
+    {
+        when(this.userProperties.getType()).thenReturn(UserType.ADVANCED);
+        when(this.currentDocumentReferenceResolver.resolve("Space.WebHome")).thenReturn(HOME);
+        when(this.authorization.filterAccessible(eq(Right.VIEW), any())).thenReturn(List.of(DOC1, HOME));
+        when(this.authorization.filterAccessible(eq(Right.DELETE), any())).thenReturn(List.of(DOC1));
+        when(this.propertiesQuery.execute()).thenReturn(List.of());
+
+        when(this.xwiki.getURL(DOC1, "inline", this.xcontext)).thenReturn("/inline/Doc1");
+        when(this.xwiki.getURL(DOC1, "edit", "editor=rights", null, this.xcontext)).thenReturn("/rights/Doc1");
+        when(this.xwiki.getURL(DOC1, "delete", this.xcontext)).thenReturn("/delete/Doc1");
+        when(this.xwiki.getURL(HOME, "edit", this.xcontext)).thenReturn("/edit/WebHome");
+        when(this.xwiki.getURL(new DocumentReference("wiki", "Space", "WebPreferences"), "admin",
+            "editor=spaceadmin&section=PageRights", null, this.xcontext)).thenReturn("/admin/WebPreferences");
+
+        LiveData liveData =
+            this.resultsRenderer.render(this.classQuery, List.of("Space.Doc1", "Space.WebHome"), 2, 0);
+
+        // Same action fields as the live table results page
+        Map<String, Object> entry = liveData.getEntries().get(0);
+        assertEquals(true, entry.get("doc.hasedit"));
+        assertEquals("/inline/Doc1", entry.get("doc.edit_url"));
+        assertEquals(true, entry.get("doc.hasdelete"));
+        assertEquals("/delete/Doc1", entry.get("doc.delete_url"));
+        assertEquals(true, entry.get("doc.hasrename"));
+        assertEquals(true, entry.get("doc.hasrights"));
+        assertEquals("/rights/Doc1", entry.get("doc.rights_url"));
+
+        entry = liveData.getEntries().get(1);
+        assertEquals(false, entry.get("doc.hasedit"));
+        assertEquals("/edit/WebHome", entry.get("doc.edit_url"));
+        assertEquals(false, entry.get("doc.hasrename"));
+        assertEquals(false, entry.get("doc.hasrights"));
+        assertEquals("/admin/WebPreferences", entry.get("doc.rights_url"));
+
+        // Only the documents which can be edited are loaded to get their edit mode
+        verify(this.xwiki).getDocument(DOC1, this.xcontext);
+        verify(this.xwiki, never()).getDocument(HOME, this.xcontext);
+    }
+
+    @Test
+    void renderWithMoreRows() throws Exception
+    {
+        when(this.authorization.filterAccessible(eq(Right.VIEW), any())).thenReturn(List.of());
+
+        LiveData liveData = this.resultsRenderer.render(this.classQuery, List.of("Space.Doc1", "Space.Doc2"), 5, 0);
+
+        // The rows which can't be viewed are obfuscated to not break the pagination.
+        assertEquals(5, liveData.getCount());
+        assertEquals(2, liveData.getEntries().size());
+        assertEquals(Map.of("doc.viewable", false, "doc.fullName", "obfuscated"), liveData.getEntries().get(0));
+
+        verifyNoInteractions(this.queryManager);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.internal.livetable;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.livedata.LiveData;
+import org.xwiki.livedata.LiveDataQuery;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XClassLiveTableResults}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XClassLiveTableResultsTest
+{
+    @InjectMockComponents
+    private XClassLiveTableResults classResults;
+
+    @MockComponent
+    private XClassLiveTableQueryBuilder queryBuilder;
+
+    @MockComponent
+    private XClassLiveTableResultsRenderer resultsRenderer;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @Mock
+    private Query rowsQuery;
+
+    @Mock
+    private Query countQuery;
+
+    @Mock
+    private QueryFilter hiddenFilter;
+
+    @Mock
+    private QueryFilter countFilter;
+
+    private XClassLiveTableQuery classQuery;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.classQuery = new XClassLiveTableQuery("Space.MyClass", List.of(this.hiddenFilter), "");
+        this.classQuery.bindValue("className", "Space.MyClass");
+
+        when(this.contextComponentManager.getInstance(QueryFilter.class, "count")).thenReturn(this.countFilter);
+    }
+
+    @Test
+    void get() throws Exception
+    {
+        LiveDataQuery query = new LiveDataQuery();
+        query.setOffset(20L);
+        query.setLimit(10);
+        when(this.queryBuilder.build(query)).thenReturn(Optional.of(this.classQuery));
+
+        when(this.queryManager.createQuery(this.classQuery.getStatement(), Query.HQL)).thenReturn(this.rowsQuery,
+            this.countQuery);
+        when(this.rowsQuery.execute()).thenReturn(List.of("Space.Doc1", "Space.Doc2"));
+        when(this.countQuery.execute()).thenReturn(List.of(22L));
+
+        LiveData liveData = new LiveData();
+        when(this.resultsRenderer.render(this.classQuery, List.of("Space.Doc1", "Space.Doc2"), 22, 20))
+            .thenReturn(liveData);
+
+        assertSame(liveData, this.classResults.get(query).get());
+
+        verify(this.rowsQuery).bindValue("className", "Space.MyClass");
+        verify(this.rowsQuery).addFilter(this.hiddenFilter);
+        verify(this.rowsQuery).setOffset(20);
+        verify(this.rowsQuery).setLimit(10);
+        verify(this.countQuery).bindValue("className", "Space.MyClass");
+        verify(this.countQuery).addFilter(this.hiddenFilter);
+        verify(this.countQuery).addFilter(this.countFilter);
+    }
+
+    @Test
+    void getWithUnsupportedQuery() throws Exception
+    {
+        LiveDataQuery query = new LiveDataQuery();
+        when(this.queryBuilder.build(query)).thenReturn(Optional.empty());
+
+        assertFalse(this.classResults.get(query).isPresent());
+
+        verifyNoInteractions(this.queryManager);
+        verifyNoInteractions(this.resultsRenderer);
+    }
+}
@@ -78,6 +78,17 @@ default int getAsyncPoolSize()
         return 2;
     }
 
+    /**
+     * @return the number of threads to use for pre-filtering the events for each user, {@code 1} or less to pre-filter
+     *         them in the dispatching thread
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default int getPrefilteringPoolSize()
+    {
+        return 2;
+    }
+
     /**
      * @return the hint of the component to be used for the email grouping strategy.
      * @since 15.5RC1
@@ -79,6 +79,12 @@ public int getAsyncPoolSize()
         return configurationSource.getProperty(CONFIGURATION_PREFIX + "async.poolSize", 2);
     }
 
+    @Override
+    public int getPrefilteringPoolSize()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "prefiltering.poolSize", 2);
+    }
+
     @Override
     public String getEmailGroupingStrategyHint()
     {
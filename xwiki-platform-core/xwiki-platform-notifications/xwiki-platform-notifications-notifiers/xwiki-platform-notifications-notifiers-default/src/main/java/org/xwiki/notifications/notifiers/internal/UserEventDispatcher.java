@@ -20,9 +20,18 @@
 package org.xwiki.notifications.notifiers.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -30,15 +39,23 @@
 import javax.inject.Singleton;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.context.ExecutionContextException;
 import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.eventstream.EntityEvent;
 import org.xwiki.eventstream.Event;
 import org.xwiki.eventstream.EventSearchResult;
+import org.xwiki.eventstream.EventStatus;
 import org.xwiki.eventstream.EventStore;
 import org.xwiki.eventstream.EventStreamException;
 import org.xwiki.eventstream.RecordableEventDescriptor;
@@ -66,16 +83,89 @@
 
 /**
  * Dispatch generated event to each user.
+ * <p>
+ * The users interested in each event of a batch are computed in parallel (by chunks of users) but the resulting
+ * statuses are always saved in the order of the events, so that the events associated with a given user are stored in
+ * the order in which they were produced.
  * 
  * @version $Id$
  * @since 12.1RC1
  */
 @Component(roles = UserEventDispatcher.class)
 @Singleton
-public class UserEventDispatcher
+public class UserEventDispatcher implements Initializable, Disposable
 {
     private static final long BATCH_SIZE = 100;
 
+    /**
+     * The number of users evaluated by a single pre-filtering task.
+     */
+    private static final int USERS_BATCH_SIZE = 100;
+
+    /**
+     * The number of seconds to wait for the pending pre-filtering tasks when the component is disposed.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 30;
+
+    /**
+     * The users which should be associated with an event, computed for a chunk of the users targeted by the event.
+     * 
+     * @version $Id$
+     */
+    private static final class Recipients
+    {
+        private final List<EventStatus> statuses = new ArrayList<>();
+
+        private final List<EntityEvent> mails = new ArrayList<>();
+    }
+
+    /**
+     * The pre-filtering of an event in progress.
+     * 
+     * @version $Id$
+     */
+    private static final class EventDispatch
+    {
+        private final Event event;
+
+        private final Collection<DocumentReference> users;
+
+        private final List<CompletableFuture<Recipients>> recipients = new ArrayList<>();
+
+        EventDispatch(Event event, Collection<DocumentReference> users)
+        {
+            this.event = event;
+            this.users = users;
+        }
+    }
+
+    /**
+     * A pre-filtering task, which needs to be known to cancel its future when it's discarded.
+     * 
+     * @version $Id$
+     */
+    private static final class RecipientsTask implements Runnable
+    {
+        private final CompletableFuture<Recipients> future = new CompletableFuture<>();
+
+        private final Callable<Recipients> callable;
+
+        RecipientsTask(Callable<Recipients> callable)
+        {
+            this.callable = callable;
+        }
+
+        @Override
+        public void run()
+        {
+            try {
+                this.future.complete(this.callable.call());
+            } catch (Exception e) {
+                this.future.completeExceptionally(e);
+            }
+        }
+    }
+
     @Inject
     private UsersCache userCache;
 
@@ -122,6 +212,49 @@
     @Inject
     private Logger logger;
 
+    private ExecutorService executor;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        int poolSize = this.notificationConfiguration.getPrefilteringPoolSize();
+
+        if (poolSize > 1) {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki notifications pre-filtering thread %d").daemon(true)
+                .priority(Thread.NORM_PRIORITY - 1).build();
+            this.executor = Executors.newFixedThreadPool(poolSize, factory);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.executor != null) {
+            // Let the tasks already submitted finish so that the flush waiting for them is not blocked forever
+            this.executor.shutdown();
+
+            try {
+                if (!this.executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                    cancel(this.executor.shutdownNow());
+                }
+            } catch (InterruptedException e) {
+                cancel(this.executor.shutdownNow());
+
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void cancel(List<Runnable> tasks)
+    {
+        for (Runnable task : tasks) {
+            if (task instanceof RecipientsTask) {
+                ((RecipientsTask) task).future.cancel(false);
+            }
+        }
+    }
+
     private Set<String> getSupportedEventTypes() throws EventStreamException
     {
         List<RecordableEventDescriptor> descriptorList =
@@ -168,42 +301,58 @@ public void flush() throws Exception
                     break;
                 }
 
-                // Pre-filter all the found events
-                Iterable<Event> it = () -> result.stream().iterator();
-                for (Event event : it) {
-                    try {
-                        CompletableFuture<?> completableFuture = prefilterEvent(event, types);
-                        completableFuture.join();
-                    } catch (Exception e) {
-                        this.logger.warn("Failed to pre filter event with id [{}]: {}", event.getId(),
-                            ExceptionUtils.getRootCauseMessage(e));
-                        // Remember the failed event to not query it again
-                        failedEvents.add(event.getId());
-                    }
-                }
+                prefilterEvents(result.stream().collect(Collectors.toList()), types, failedEvents);
             }
         } while (true);
     }
 
-    private CompletableFuture<?> prefilterEvent(Event event, Set<String> types) throws EventStreamException
+    private void prefilterEvents(List<Event> batch, Set<String> types, List<String> failedEvents)
     {
-        if (types.contains(event.getType())) {
-            return dispatch(event);
-        } else {
-            // Remember this event does not need to be pre-filtered
-            return this.events.prefilterEvent(event);
+        // Start evaluating the users of all the events of the batch
+        List<EventDispatch> dispatches = new ArrayList<>(batch.size());
+        for (Event event : batch) {
+            try {
+                dispatches.add(startDispatch(event, types));
+            } catch (Exception e) {
+                failed(event, e, failedEvents);
+            }
+        }
+
+        // Save the results in the order of the events
+        Map<Event, CompletableFuture<?>> futures = new HashMap<>();
+        for (EventDispatch dispatch : dispatches) {
+            try {
+                futures.put(dispatch.event, finishDispatch(dispatch));
+            } catch (Exception e) {
+                failed(dispatch.event, e, failedEvents);
+            }
+        }
+
+        // Make sure the whole batch is stored before searching for the next one
+        for (Map.Entry<Event, CompletableFuture<?>> entry : futures.entrySet()) {
+            try {
+                entry.getValue().join();
+            } catch (Exception e) {
+                failed(entry.getKey(), e, failedEvents);
+            }
         }
     }
 
-    /**
-     * Associate an event with the users located in the event's wiki and in the main wiki or with explicitly targeted
-     * users.
-     * 
-     * @param event the event to associate with the user
-     * @throws EventStreamException when failing to pre filter the event
-     */
-    private CompletableFuture<?> dispatch(Event event) throws EventStreamException
+    private void failed(Event event, Exception e, List<String> failedEvents)
     {
+        this.logger.warn("Failed to pre filter event with id [{}]: {}", event.getId(),
+            ExceptionUtils.getRootCauseMessage(e));
+        // Remember the failed event to not query it again
+        failedEvents.add(event.getId());
+    }
+
+    private EventDispatch startDispatch(Event event, Set<String> types) throws EventStreamException
+    {
+        if (!types.contains(event.getType())) {
+            // Nothing to evaluate, this event only needs to be marked as pre-filtered
+            return new EventDispatch(event, List.of());
+        }
+
         // Keeping the same ExecutionContext forever can lead to memory leak and cache problems since
         // most of the code expect it to be short lived
         try {
@@ -212,34 +361,44 @@ private CompletableFuture<?> dispatch(Event event) throws EventStreamException
             throw new EventStreamException("Failed to push a new execution context", e);
         }
 
+        EventDispatch dispatch;
         try {
-            return dispatchInContext(event);
+            dispatch = new EventDispatch(event, getUsers(event));
         } finally {
             // Get rid of current context
             this.ecm.popContext();
         }
+
+        boolean mailEnabled = this.notificationConfiguration.areEmailsEnabled();
+        for (List<DocumentReference> users : ListUtils.partition(new ArrayList<>(dispatch.users), USERS_BATCH_SIZE)) {
+            dispatch.recipients.add(submit(() -> getRecipients(event, users, mailEnabled)));
+        }
+
+        return dispatch;
     }
 
-    private CompletableFuture<?> dispatchInContext(Event event)
+    // Find the users located in the event's wiki and in the main wiki or the explicitly targeted users
+    private Collection<DocumentReference> getUsers(Event event)
     {
-        CompletableFuture<?> result = new CompletableFuture<>();
+        // Make sure to evaluate each user only once
+        Set<DocumentReference> users = new LinkedHashSet<>();
+        // The members of the groups targeted by the event (only kept for this event so that membership changes are
+        // taken into account by the next ones)
+        Map<DocumentReference, Collection<DocumentReference>> groupMembers = new HashMap<>();
         WikiReference eventWiki = event.getWiki();
 
         if (CollectionUtils.isNotEmpty(event.getTarget())) {
             // The event explicitly indicate with which entities the event is associated with
-
-            boolean mailEnabled = this.notificationConfiguration.areEmailsEnabled();
             for (String entity : event.getTarget()) {
                 DocumentReference entityReference = this.resolver.resolve(entity, event.getWiki());
                 UserReference userReference = this.documentReferenceUserReferenceResolver.resolve(entityReference);
 
                 try {
                     if (this.userManager.exists(userReference)) {
-                        dispatch(event, entityReference, mailEnabled);
+                        users.add(entityReference);
                     } else {
                         // Also recursively associate the members of the entity if it's a group
-                        this.groupManager.getMembers(entityReference, true)
-                            .forEach(userDocumentReference -> dispatch(event, userDocumentReference, mailEnabled));
+                        users.addAll(getMembers(entityReference, groupMembers));
                     }
                 } catch (UserException e) {
                     this.logger.warn("Failed to verify if user [{}] exists. Cause: [{}]", userReference,
@@ -249,106 +408,149 @@ private CompletableFuture<?> dispatchInContext(Event event)
                         ExceptionUtils.getRootCauseMessage(e));
                 }
             }
-
-            // Remember we are done pre filtering this event
-            result = this.events.prefilterEvent(event);
         } else {
             // Try to find users listening to this event
 
             // Associated event with event's wiki users
-            result = dispatch(event, this.userCache.getUsers(eventWiki, true));
+            users.addAll(this.userCache.getUsers(eventWiki, true));
 
             // Also take into account global users (main wiki users) if the event is on a subwiki
             if (!this.wikiManager.isMainWiki(eventWiki.getName())) {
-                List<DocumentReference> userList =
-                    this.userCache.getUsers(new WikiReference(this.wikiManager.getMainWikiId()), true);
-                result = dispatch(event, userList);
+                users.addAll(this.userCache.getUsers(new WikiReference(this.wikiManager.getMainWikiId()), true));
             }
         }
-        return result;
+
+        return users;
     }
 
-    private CompletableFuture<?> dispatch(Event event, DocumentReference user, boolean mailEnabled)
+    private Collection<DocumentReference> getMembers(DocumentReference group,
+        Map<DocumentReference, Collection<DocumentReference>> groupMembers) throws GroupException
     {
-        // Get the entity id
-        String entityId = this.entityReferenceSerializer.serialize(user);
-        CompletableFuture<?> result = new CompletableFuture<>();
-
-        // Make sure the event is not already pre filtered
-        // Make sure the user asked to be alerted about this event
-        if (!isStatusPrefiltered(event, entityId)
-            && this.userEventManager.isListening(event, user, NotificationFormat.ALERT)) {
-            // Associate the event with the user
-            result = saveEventStatus(event, entityId);
+        Collection<DocumentReference> members = groupMembers.get(group);
+        if (members == null) {
+            members = this.groupManager.getMembers(group, true);
+            groupMembers.put(group, members);
         }
 
-        // Make sure the notification module is allowed to send mails
-        // Make sure the event is not already pre filtered
-        // Make sure the user asked to receive mails about this event
-        if (mailEnabled && !isMailPrefiltered(event, entityId)
-            && this.userEventManager.isListening(event, user, NotificationFormat.EMAIL)) {
-            // Associate the event with the user
-            result = saveMailEntityEvent(event, entityId);
-        }
+        return members;
+    }
 
-        // FIXME: reuse constant from EventType once it's moved (see https://jira.xwiki.org/browse/XWIKI-21669)
-        if (StringUtils.equals(event.getType(), "delete")) {
-            this.cleanUpFilterProcessingQueue.addCleanUpTask(user, event.getDocument());
+    private CompletableFuture<Recipients> submit(Callable<Recipients> callable)
+    {
+        Callable<Recipients> contextCallable = () -> {
+            // Each task get its own short lived context
+            this.ecm.pushContext(new ExecutionContext(), false);
+
+            try {
+                return callable.call();
+            } finally {
+                this.ecm.popContext();
+            }
+        };
+
+        RecipientsTask task = new RecipientsTask(contextCallable);
+        if (this.executor != null) {
+            try {
+                this.executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // The component is being disposed
+                task.future.completeExceptionally(e);
+            }
+        } else {
+            task.run();
         }
 
-        return result;
+        return task.future;
     }
 
-    private boolean isStatusPrefiltered(Event event, String entityId)
+    private Recipients getRecipients(Event event, List<DocumentReference> users, boolean mailEnabled)
     {
-        return isPrefiltered(event, entityId, false);
-    }
+        Map<DocumentReference, String> entityIds = new HashMap<>(users.size());
+        for (DocumentReference user : users) {
+            entityIds.put(user, this.entityReferenceSerializer.serialize(user));
+        }
 
-    private boolean isMailPrefiltered(Event event, String entityId)
-    {
-        return isPrefiltered(event, entityId, true);
+        // Find in a single request the users already associated with the event
+        Set<String> statusPrefiltered = getStatusPrefiltered(event, entityIds.values());
+        Set<String> mailPrefiltered = mailEnabled ? getMailPrefiltered(event, entityIds.values()) : Set.of();
+
+        Recipients recipients = new Recipients();
+        for (DocumentReference user : users) {
+            String entityId = entityIds.get(user);
+
+            // Make sure the event is not already pre filtered
+            // Make sure the user asked to be alerted about this event
+            if (!statusPrefiltered.contains(entityId)
+                && this.userEventManager.isListening(event, user, NotificationFormat.ALERT)) {
+                // Associate the event with the user
+                recipients.statuses.add(new DefaultEventStatus(event, entityId, false));
+            }
+
+            // Make sure the notification module is allowed to send mails
+            // Make sure the event is not already pre filtered
+            // Make sure the user asked to receive mails about this event
+            if (mailEnabled && !mailPrefiltered.contains(entityId)
+                && this.userEventManager.isListening(event, user, NotificationFormat.EMAIL)) {
+                // Associate the event with the user
+                recipients.mails.add(new DefaultEntityEvent(event, entityId));
+            }
+        }
+
+        return recipients;
     }
 
-    private boolean isPrefiltered(Event event, String entityId, boolean mail)
+    private Set<String> getStatusPrefiltered(Event event, Collection<String> entityIds)
     {
-        SimpleEventQuery eventQuery = new SimpleEventQuery(0, 0);
-
-        eventQuery.eq(Event.FIELD_ID, event.getId());
+        try {
+            return this.events.getEventStatuses(List.of(event), entityIds).stream().map(EventStatus::getEntityId)
+                .collect(Collectors.toSet());
+        } catch (Exception e) {
+            this.logger.error("Failed to check status for event [{}] and entities {}", event.getId(), entityIds, e);
 
-        if (mail) {
-            eventQuery.withMail(entityId);
-        } else {
-            eventQuery.withStatus(entityId);
+            return Set.of();
         }
+    }
 
-        try (EventSearchResult result = this.events.search(eventQuery)) {
-            return result.getTotalHits() > 0;
+    private Set<String> getMailPrefiltered(Event event, Collection<String> entityIds)
+    {
+        try {
+            return this.events.getMailEntityEvents(List.of(event), entityIds).stream().map(EntityEvent::getEntityId)
+                .collect(Collectors.toSet());
         } catch (Exception e) {
-            this.logger.error("Failed to check status for event [{}] and entity [{}]", event.getId(), entityId, e);
+            this.logger.error("Failed to check mail status for event [{}] and entities {}", event.getId(), entityIds,
+                e);
 
-            return false;
+            return Set.of();
         }
     }
 
-    private CompletableFuture<?> dispatch(Event event, List<DocumentReference> users)
+    private CompletableFuture<?> finishDispatch(EventDispatch dispatch)
     {
-        boolean mailEnabled = this.notificationConfiguration.areEmailsEnabled();
+        List<EventStatus> statuses = new ArrayList<>();
+        List<EntityEvent> mails = new ArrayList<>();
+        for (CompletableFuture<Recipients> future : dispatch.recipients) {
+            Recipients recipients = future.join();
 
-        for (DocumentReference user : users) {
-            dispatch(event, user, mailEnabled);
+            statuses.addAll(recipients.statuses);
+            mails.addAll(recipients.mails);
         }
 
-        // Remember we are done pre filtering this event
-        return this.events.prefilterEvent(event);
-    }
+        // Associate the event with the users
+        if (!statuses.isEmpty()) {
+            this.events.saveEventStatuses(statuses);
+        }
+        if (!mails.isEmpty()) {
+            this.events.saveMailEntityEvents(mails);
+        }
 
-    private CompletableFuture<?> saveEventStatus(Event event, String entityId)
-    {
-        return this.events.saveEventStatus(new DefaultEventStatus(event, entityId, false));
-    }
+        // FIXME: reuse constant from EventType once it's moved (see https://jira.xwiki.org/browse/XWIKI-21669)
+        if (StringUtils.equals(dispatch.event.getType(), "delete")) {
+            for (DocumentReference user : dispatch.users) {
+                this.cleanUpFilterProcessingQueue.addCleanUpTask(user, dispatch.event.getDocument());
+            }
+        }
 
-    private CompletableFuture<?> saveMailEntityEvent(Event event, String entityId)
-    {
-        return this.events.saveMailEntityEvent(new DefaultEntityEvent(event, entityId));
+        // Remember we are done pre filtering this event
+        return this.events.prefilterEvent(dispatch.event);
     }
 }
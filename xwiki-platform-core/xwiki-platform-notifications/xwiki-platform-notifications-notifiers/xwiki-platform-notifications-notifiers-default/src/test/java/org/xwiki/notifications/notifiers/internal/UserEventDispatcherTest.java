@@ -23,6 +23,7 @@
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import javax.inject.Named;
@@ -47,6 +48,7 @@
 import org.xwiki.notifications.NotificationConfiguration;
 import org.xwiki.notifications.NotificationFormat;
 import org.xwiki.observation.remote.RemoteObservationManagerConfiguration;
+import org.xwiki.test.annotation.BeforeComponent;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
@@ -57,9 +59,11 @@
 import org.xwiki.user.internal.group.UsersCache;
 import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -145,6 +149,32 @@ void setup() throws EventStreamException
 
     @Test
     void flush() throws Exception
+    {
+        assertFlush();
+    }
+
+    @BeforeComponent("flushConcurrently")
+    void beforeFlushConcurrently()
+    {
+        when(this.notificationConfiguration.getPrefilteringPoolSize()).thenReturn(2);
+    }
+
+    @Test
+    void flushConcurrently() throws Exception
+    {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> threads.add(Thread.currentThread().getName())).when(this.ecm).pushContext(any(),
+            eq(false));
+
+        assertFlush();
+
+        // The users were evaluated by the pre-filtering threads
+        assertTrue(threads.stream().anyMatch(name -> name.startsWith("XWiki notifications pre-filtering thread")));
+
+        this.dispatcher.dispose();
+    }
+
+    private void assertFlush() throws Exception
     {
         EventSearchResult result1 = mock(EventSearchResult.class, "result1");
         EventSearchResult result2 = mock(EventSearchResult.class, "result2");
@@ -208,84 +238,30 @@ void flush() throws Exception
         when(this.entityReferenceSerializer.serialize(mainUserFoo)).thenReturn(mainUserFooStr);
         when(this.entityReferenceSerializer.serialize(mainUserBar)).thenReturn(mainUserBarStr);
 
-        SimpleEventQuery queryStatusE2R1 = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event2Result1Id)
-            .withStatus(mainUserFooStr);
-        EventSearchResult searchResult0Hit = mock(EventSearchResult.class, "searchResult0Hit");
-        when(searchResult0Hit.getTotalHits()).thenReturn(0L);
-        when(this.events.search(queryStatusE2R1)).thenReturn(searchResult0Hit);
-        when(this.userEventManager.isListening(event2Result1, mainUserFoo, NotificationFormat.ALERT)).thenReturn(true);
-        // verify(this.events).saveEventStatus(new DefaultEventStatus(event2Result1, mainUserFooStr, false))
+        // mainUserBar is already associated with event2Result1
+        when(this.events.getEventStatuses(eq(List.of(event2Result1)), any()))
+            .thenReturn(List.of(new DefaultEventStatus(event2Result1, mainUserBarStr, false)));
+        when(this.events.getMailEntityEvents(eq(List.of(event2Result1)), any()))
+            .thenReturn(List.of(new DefaultEntityEvent(event2Result1, mainUserBarStr)));
 
-        SimpleEventQuery queryMailE2R1 = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event2Result1Id)
-            .withMail(mainUserFooStr);
-        when(this.events.search(queryMailE2R1)).thenReturn(searchResult0Hit);
+        when(this.userEventManager.isListening(event2Result1, mainUserFoo, NotificationFormat.ALERT)).thenReturn(true);
         when(this.userEventManager.isListening(event2Result1, mainUserFoo, NotificationFormat.EMAIL)).thenReturn(true);
-        // verify(this.events).saveMailEntityEvent(new DefaultEventStatus(event2Result1, mainUserFooStr))
-
-        SimpleEventQuery queryStatusE2R1Bar = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event2Result1Id)
-            .withStatus(mainUserBarStr);
-        EventSearchResult searchResultHits = mock(EventSearchResult.class, "searchResultHits");
-        when(searchResultHits.getTotalHits()).thenReturn(1L);
-        when(this.events.search(queryStatusE2R1Bar)).thenReturn(searchResultHits);
-
-        // verify(this.userEventManager, never()).isListening(event2Result1, mainUserBar, NotificationFormat.ALERT)
-        // verify(this.events, never()).saveEventStatus(new DefaultEventStatus(event2Result1, mainUserBarStr, false))
-
-        SimpleEventQuery queryMailE2R1Bar = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event2Result1Id)
-            .withMail(mainUserBarStr);
-        when(this.events.search(queryMailE2R1Bar)).thenReturn(searchResultHits);
-
-        // verify(this.userEventManager, never()).isListening(event2Result1, mainUserBar, NotificationFormat.EMAIL)
-        // verify(this.events, never()).saveMailEntityEvent(new DefaultEventStatus(event2Result1, mainUserBarStr))
 
         CompletableFuture futureE2R1 = mock(CompletableFuture.class, "futureE2R1");
         when(this.events.prefilterEvent(event2Result1)).thenReturn(futureE2R1);
 
-        // verify(this.events).prefilterEvent(event2Result1);
-        // verify(futureE2R1).join();
-
         // Handling of Event3R1
         when(event3Result1.getType()).thenReturn(SUPPORTED_TYPE1);
         when(event3Result1.getWiki()).thenReturn(mainWiki);
 
-        SimpleEventQuery queryStatusE3R1 = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event3Result1Id)
-            .withStatus(mainUserFooStr);
-        when(this.events.search(queryStatusE3R1)).thenReturn(searchResult0Hit);
         when(this.userEventManager.isListening(event3Result1, mainUserFoo, NotificationFormat.ALERT)).thenReturn(false);
-        // verify(this.events, never()).saveEventStatus(new DefaultEventStatus(event3Result1, mainUserFooStr, false))
-
-        SimpleEventQuery queryMailE3R1 = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event3Result1Id)
-            .withMail(mainUserFooStr);
-        when(this.events.search(queryMailE3R1)).thenReturn(searchResult0Hit);
         when(this.userEventManager.isListening(event3Result1, mainUserFoo, NotificationFormat.EMAIL)).thenReturn(false);
-        // verify(this.events, never()).saveMailEntityEvent(new DefaultEventStatus(event3Result1, mainUserFooStr))
-
-        SimpleEventQuery queryStatusE3R1Bar = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event3Result1Id)
-            .withStatus(mainUserBarStr);
-        when(this.events.search(queryStatusE3R1Bar)).thenReturn(searchResult0Hit);
         when(this.userEventManager.isListening(event3Result1, mainUserBar, NotificationFormat.ALERT)).thenReturn(true);
-        // verify(this.events).saveEventStatus(new DefaultEventStatus(event3Result1, mainUserBarStr, false))
-
-        SimpleEventQuery queryMailE3R1Bar = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event3Result1Id)
-            .withMail(mainUserBarStr);
-        when(this.events.search(queryMailE3R1Bar)).thenReturn(searchResult0Hit);
         when(this.userEventManager.isListening(event3Result1, mainUserBar, NotificationFormat.EMAIL)).thenReturn(true);
-        // verify(this.events).saveMailEntityEvent(new DefaultEventStatus(event3Result1, mainUserBarStr))
 
         CompletableFuture futureE3R1 = mock(CompletableFuture.class, "futureE3R1");
         when(this.events.prefilterEvent(event3Result1)).thenReturn(futureE3R1);
 
-        // verify(this.events).prefilterEvent(event3Result1);
-        // verify(futureE3R1).join();
-
         // Handling of event1R2
         when(event1Result2.getType()).thenReturn(SUPPORTED_TYPE1);
         when(event1Result2.getWiki()).thenReturn(mainWiki);
@@ -300,6 +276,7 @@ void flush() throws Exception
         when(this.documentReferenceUserReferenceResolver.resolve(mainUserFoo)).thenReturn(fooUserRef);
         when(this.documentReferenceUserReferenceResolver.resolve(mainUserBar)).thenReturn(barUserRef);
 
+        // mainUserFoo is not a user, and an empty group
         when(this.userManager.exists(fooUserRef)).thenReturn(false);
         when(this.userManager.exists(barUserRef)).thenReturn(true);
 
@@ -310,73 +287,58 @@ void flush() throws Exception
             .eq(Event.FIELD_ID, event1Result2Id)
             .withMail(mainUserFooStr);
 
-        // verify(this.events, never()).search(queryStatusE1R2)
-        // verify(this.events, never()).search(queryMailE1R2)
-
-        SimpleEventQuery queryStatusE1R2Bar = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event1Result2Id)
-            .withStatus(mainUserBarStr);
-        when(this.events.search(queryStatusE1R2Bar)).thenReturn(searchResultHits);
-        // verify(this.userEventManager, never()).isListening(event1Result2, mainUserBar, NotificationFormat.ALERT))
-        // verify(this.events, never()).saveEventStatus(new DefaultEventStatus(event1Result2, mainUserBarStr, false))
-
-        SimpleEventQuery queryMailE1R2Bar = new SimpleEventQuery(0, 0)
-            .eq(Event.FIELD_ID, event1Result2Id)
-            .withMail(mainUserBarStr);
-        when(this.events.search(queryMailE1R2Bar)).thenReturn(searchResult0Hit);
+        when(this.events.getEventStatuses(eq(List.of(event1Result2)), any()))
+            .thenReturn(List.of(new DefaultEventStatus(event1Result2, mainUserBarStr, false)));
         when(this.userEventManager.isListening(event1Result2, mainUserBar, NotificationFormat.EMAIL)).thenReturn(true);
-        // verify(this.events).saveMailEntityEvent(new DefaultEventStatus(event1Result2, mainUserBarStr))
-
-        assertNotEquals(queryMailE1R2Bar, queryStatusE1R2Bar);
 
         CompletableFuture futureE1R2 = mock(CompletableFuture.class, "futureE1R2");
         when(this.events.prefilterEvent(event1Result2)).thenReturn(futureE1R2);
 
-        // verify(this.events).prefilterEvent(event1Result2);
-        // verify(futureE1R2).join();
-
         // Handling of event2R2
         when(event2Result2.getType()).thenReturn("bar");
         when(event2Result2.getWiki()).thenReturn(mainWiki);
         CompletableFuture futureE2R2 = mock(CompletableFuture.class, "futureE2R2");
         when(this.events.prefilterEvent(event2Result2)).thenReturn(futureE2R2);
-        // verify(this.events).prefilterEvent(event2Result2);
-        // verify(futureE2R2).join();
 
         this.dispatcher.flush();
 
         verify(this.events).prefilterEvent(event1Result1);
         verify(futureE1R1).join();
 
-        verify(this.events).saveEventStatus(new DefaultEventStatus(event2Result1, mainUserFooStr, false));
-        verify(this.events).saveMailEntityEvent(new DefaultEntityEvent(event2Result1, mainUserFooStr));
+        // mainUserBar, already associated with the event, is not part of the saved batches
+        verify(this.events).saveEventStatuses(List.of(new DefaultEventStatus(event2Result1, mainUserFooStr, false)));
+        verify(this.events).saveMailEntityEvents(List.of(new DefaultEntityEvent(event2Result1, mainUserFooStr)));
         verify(this.userEventManager, never()).isListening(event2Result1, mainUserBar, NotificationFormat.ALERT);
-        verify(this.events, never()).saveEventStatus(new DefaultEventStatus(event2Result1, mainUserBarStr, false));
         verify(this.userEventManager, never()).isListening(event2Result1, mainUserBar, NotificationFormat.EMAIL);
-        verify(this.events, never()).saveMailEntityEvent(new DefaultEntityEvent(event2Result1, mainUserBarStr));
         verify(this.events).prefilterEvent(event2Result1);
         verify(futureE2R1).join();
 
-        verify(this.events, never()).saveEventStatus(new DefaultEventStatus(event3Result1, mainUserFooStr, false));
-        verify(this.events, never()).saveMailEntityEvent(new DefaultEntityEvent(event3Result1, mainUserFooStr));
-        verify(this.events).saveEventStatus(new DefaultEventStatus(event3Result1, mainUserBarStr, false));
-        verify(this.events).saveMailEntityEvent(new DefaultEntityEvent(event3Result1, mainUserBarStr));
+        // mainUserFoo, not listening to the event, is not part of the saved batches
+        verify(this.events).saveEventStatuses(List.of(new DefaultEventStatus(event3Result1, mainUserBarStr, false)));
+        verify(this.events).saveMailEntityEvents(List.of(new DefaultEntityEvent(event3Result1, mainUserBarStr)));
         verify(this.events).prefilterEvent(event3Result1);
         verify(futureE3R1).join();
 
         verify(this.events, never()).search(queryStatusE1R2);
         verify(this.events, never()).search(queryMailE1R2);
         verify(this.userEventManager, never()).isListening(event1Result2, mainUserBar, NotificationFormat.ALERT);
-        verify(this.events, never()).saveEventStatus(new DefaultEventStatus(event1Result2, mainUserBarStr, false));
-        verify(this.events).saveMailEntityEvent(new DefaultEntityEvent(event1Result2, mainUserBarStr));
+        verify(this.events, never()).saveEventStatuses(
+            argThat(statuses -> statuses.stream().anyMatch(status -> status.getEvent() == event1Result2)));
+        verify(this.userEventManager, never()).isListening(event1Result2, mainUserFoo, NotificationFormat.ALERT);
+        verify(this.events).saveMailEntityEvents(List.of(new DefaultEntityEvent(event1Result2, mainUserBarStr)));
         verify(this.events).prefilterEvent(event1Result2);
         verify(futureE1R2).join();
 
         verify(this.events).prefilterEvent(event2Result2);
         verify(futureE2R2).join();
 
-        verify(this.ecm, times(3)).pushContext(any(), eq(false));
-        verify(this.ecm, times(3)).popContext();
-
+        // Only the (3) supported events are dispatched: one context to find the users and one for each chunk of users
+        verify(this.ecm, times(6)).pushContext(any(), eq(false));
+        verify(this.ecm, times(6)).popContext();
+        // The statuses are only saved in batches
+        verify(this.events, times(2)).saveEventStatuses(any());
+        verify(this.events, times(3)).saveMailEntityEvents(any());
+        verify(this.events, never()).saveEventStatus(any());
+        verify(this.events, never()).saveMailEntityEvent(any());
     }
 }
\ No newline at end of file
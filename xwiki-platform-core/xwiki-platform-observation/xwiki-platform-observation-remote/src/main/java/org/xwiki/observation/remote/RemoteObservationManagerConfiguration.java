@@ -22,6 +22,7 @@
 import java.util.List;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Provide configuration for remote observation manager.
@@ -56,4 +57,25 @@ default String getId()
     {
         return null;
     }
+
+    /**
+     * @return the maximum time to wait, in milliseconds, for other events to send with an event in a single network
+     *     message, or 0 to send each event right away in its own message
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default long getBatchDelay()
+    {
+        return 0;
+    }
+
+    /**
+     * @return the maximum number of events to send in a single network message
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default int getBatchMaxSize()
+    {
+        return 1000;
+    }
 }
@@ -83,6 +83,18 @@ public String getNetworkAdapter()
         return this.configurationSource.getProperty("observation.remote.networkadapter", "jgroups");
     }
 
+    @Override
+    public long getBatchDelay()
+    {
+        return this.configurationSource.getProperty("observation.remote.batch.delay", 0L);
+    }
+
+    @Override
+    public int getBatchMaxSize()
+    {
+        return this.configurationSource.getProperty("observation.remote.batch.maxSize", 1000);
+    }
+
     @Override
     public String getId()
     {
@@ -19,6 +19,8 @@
  */
 package org.xwiki.observation.remote.internal.jgroups;
 
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -85,11 +87,36 @@ public RemoteObservationManager getRemoteObservationManager()
     public void receive(Message msg)
     {
         if (msg instanceof BytesMessage) {
-            RemoteEventData remoteEvent = (RemoteEventData) ((BytesMessage) msg)
-                .getObject(this.classLoaderManager.getURLClassLoader(null, false));
+            ClassLoader classLoader = this.classLoaderManager.getURLClassLoader(null, false);
+            Object object = ((BytesMessage) msg).getObject(classLoader);
+
+            if (object instanceof RemoteEventBatch) {
+                receive((RemoteEventBatch) object, classLoader);
+            } else {
+                RemoteEventData remoteEvent = (RemoteEventData) object;
+
+                this.logger.debug("Received JGroups remote event [{}]", remoteEvent);
 
-            this.logger.debug("Received JGroups remote event [{}]", remoteEvent);
+                getRemoteObservationManager().notify(remoteEvent);
+            }
+        }
+    }
+
+    private void receive(RemoteEventBatch batch, ClassLoader classLoader)
+    {
+        this.logger.debug("Received a batch of [{}] JGroups remote events", batch.size());
+
+        List<RemoteEventData> remoteEvents;
+        try {
+            remoteEvents = batch.getEvents(classLoader);
+        } catch (Exception e) {
+            this.logger.error("Failed to unserialize a batch of [{}] remote events", batch.size(), e);
+
+            return;
+        }
 
+        // Replay the events in the order in which they were produced
+        for (RemoteEventData remoteEvent : remoteEvents) {
             getRemoteObservationManager().notify(remoteEvent);
         }
     }
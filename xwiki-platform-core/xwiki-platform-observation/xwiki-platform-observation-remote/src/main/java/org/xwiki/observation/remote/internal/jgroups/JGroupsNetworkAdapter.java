@@ -23,8 +23,14 @@
 import java.io.InputStream;
 import java.lang.management.ManagementFactory;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -41,12 +47,17 @@
 import org.jgroups.jmx.JmxConfigurator;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
 import org.xwiki.environment.Environment;
 import org.xwiki.observation.remote.NetworkAdapter;
 import org.xwiki.observation.remote.RemoteEventData;
 import org.xwiki.observation.remote.RemoteEventException;
+import org.xwiki.observation.remote.RemoteObservationManagerConfiguration;
 import org.xwiki.observation.remote.jgroups.JGroupsReceiver;
 
 /**
@@ -58,7 +69,7 @@
 @Component
 @Named("jgroups")
 @Singleton
-public class JGroupsNetworkAdapter implements NetworkAdapter
+public class JGroupsNetworkAdapter implements NetworkAdapter, Initializable, Disposable
 {
     /**
      * Relative path where to find jgroups channels configurations.
@@ -77,26 +88,149 @@ public class JGroupsNetworkAdapter implements NetworkAdapter
     @Inject
     private Logger logger;
 
+    @Inject
+    private RemoteObservationManagerConfiguration configuration;
+
     /**
      * The network channels.
      */
     private Map<String, JChannel> channels = new ConcurrentHashMap<>();
 
+    private long batchDelay;
+
+    private int batchMaxSize;
+
+    /**
+     * The events waiting to be sent in the next batch.
+     */
+    private final List<RemoteEventData> pendingEvents = new ArrayList<>();
+
+    /**
+     * Make sure the batches are sent in the order in which their events were produced.
+     */
+    private final Object sendLock = new Object();
+
+    private ScheduledExecutorService batchExecutor;
+
+    private ScheduledFuture<?> scheduledBatch;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.batchDelay = this.configuration.getBatchDelay();
+        this.batchMaxSize = this.configuration.getBatchMaxSize();
+
+        if (this.batchDelay > 0) {
+            this.batchExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "XWiki remote events batch sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.batchExecutor != null) {
+            sendPendingEvents();
+
+            this.batchExecutor.shutdownNow();
+        }
+    }
+
     @Override
     public void send(RemoteEventData remoteEvent)
     {
         this.logger.debug("Send JGroups remote event [{}]", remoteEvent.toString());
 
-        // Send the message to the whole group
-        Message message = new BytesMessage(null,  remoteEvent);
+        if (this.batchExecutor == null) {
+            // Send the message to the whole group
+            sendEvent(remoteEvent);
+        } else {
+            boolean full;
+            synchronized (this.pendingEvents) {
+                this.pendingEvents.add(remoteEvent);
+
+                full = this.pendingEvents.size() >= this.batchMaxSize;
+                if (!full && this.scheduledBatch == null) {
+                    this.scheduledBatch =
+                        this.batchExecutor.schedule(this::sendPendingEvents, this.batchDelay, TimeUnit.MILLISECONDS);
+                }
+            }
+
+            if (full) {
+                sendPendingEvents();
+            }
+        }
+    }
+
+    private void sendPendingEvents()
+    {
+        synchronized (this.sendLock) {
+            List<RemoteEventData> events;
+            synchronized (this.pendingEvents) {
+                if (this.scheduledBatch != null) {
+                    this.scheduledBatch.cancel(false);
+                    this.scheduledBatch = null;
+                }
+
+                events = new ArrayList<>(this.pendingEvents);
+                this.pendingEvents.clear();
+            }
+
+            if (events.size() == 1) {
+                sendEvent(events.get(0));
+            } else if (!events.isEmpty()) {
+                sendBatch(events);
+            }
+        }
+    }
+
+    private void sendBatch(List<RemoteEventData> events)
+    {
+        RemoteEventBatch batch;
+        try {
+            batch = new RemoteEventBatch(events);
+        } catch (IOException e) {
+            // Only lose the events which cannot be serialized.
+            this.logger.warn("Failed to serialize a batch of [{}] remote events, sending them one by one",
+                events.size(), e);
+
+            events.forEach(this::sendEvent);
+
+            return;
+        }
 
+        this.logger.debug("Send a batch of [{}] JGroups remote events ([{}] bytes)", batch.size(),
+            batch.getLength());
+
+        send(new BytesMessage(null, batch), batch);
+    }
+
+    private void sendEvent(RemoteEventData event)
+    {
+        Message message;
+        try {
+            message = new BytesMessage(null, event);
+        } catch (IllegalArgumentException e) {
+            // JGroups failed to serialize the event
+            this.logger.error("Failed to serialize remote event [{}]", event, e);
+
+            return;
+        }
+
+        send(message, event);
+    }
+
+    private void send(Message message, Object content)
+    {
         // Send message to JGroups channels
         for (Map.Entry<String, JChannel> entry : this.channels.entrySet()) {
             try {
                 entry.getValue().send(message);
             } catch (Exception e) {
-                this.logger.error("Failed to send message [{}] to the channel [{}]", remoteEvent.toString(),
-                    entry.getKey(), e);
+                this.logger.error("Failed to send message [{}] to the channel [{}]", content, entry.getKey(), e);
             }
         }
     }
@@ -132,6 +266,9 @@ public void startChannel(String channelId) throws RemoteEventException
     @Override
     public void stopChannel(String channelId) throws RemoteEventException
     {
+        // Don't lose the events waiting to be sent
+        sendPendingEvents();
+
         JChannel channel = this.channels.get(channelId);
 
         if (channel == null) {
@@ -226,6 +363,9 @@ private InputStream getChannelConfiguration(String channelId) throws IOException
     @Override
     public void stopAllChannels() throws RemoteEventException
     {
+        // Don't lose the events waiting to be sent
+        sendPendingEvents();
+
         for (Map.Entry<String, JChannel> channelEntry : this.channels.entrySet()) {
             channelEntry.getValue().close();
         }
@@ -0,0 +1,147 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.xwiki.observation.remote.RemoteEventData;
+
+/**
+ * Several remote events sent in a single network message.
+ * <p>
+ * The events are serialized in a single compressed stream: the descriptions of the classes and the references to
+ * shared objects are written only once for the whole batch, and the strings which are repeated from one event to
+ * another (wiki, space and user names, etc.) are compressed.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class RemoteEventBatch implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final int size;
+
+    private final byte[] events;
+
+    /**
+     * Resolve the classes of the events with the passed class loader.
+     */
+    private static final class ClassLoaderObjectInputStream extends ObjectInputStream
+    {
+        private final ClassLoader classLoader;
+
+        ClassLoaderObjectInputStream(InputStream stream, ClassLoader classLoader) throws IOException
+        {
+            super(stream);
+
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+        {
+            if (this.classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, this.classLoader);
+                } catch (ClassNotFoundException e) {
+                    // Fallback on the default resolution (primitive types, etc.)
+                }
+            }
+
+            return super.resolveClass(desc);
+        }
+    }
+
+    /**
+     * @param events the events to send
+     * @throws IOException when failing to serialize the events
+     */
+    public RemoteEventBatch(List<RemoteEventData> events) throws IOException
+    {
+        this.size = events.size();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (ObjectOutputStream stream = new ObjectOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            for (RemoteEventData event : events) {
+                stream.writeObject(event.getEvent());
+                stream.writeObject(event.getSource());
+                stream.writeObject(event.getData());
+            }
+        } finally {
+            deflater.end();
+        }
+
+        this.events = bytes.toByteArray();
+    }
+
+    /**
+     * @return the number of events in the batch
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * @return the size in bytes of the serialized events
+     */
+    public int getLength()
+    {
+        return this.events.length;
+    }
+
+    /**
+     * @param classLoader the class loader to use to resolve the classes of the events
+     * @return the events, in the order in which they were sent
+     * @throws IOException when failing to unserialize the events
+     * @throws ClassNotFoundException when the class of an event cannot be found
+     */
+    public List<RemoteEventData> getEvents(ClassLoader classLoader) throws IOException, ClassNotFoundException
+    {
+        List<RemoteEventData> result = new ArrayList<>(this.size);
+
+        try (ObjectInputStream stream = new ClassLoaderObjectInputStream(
+            new InflaterInputStream(new ByteArrayInputStream(this.events)), classLoader)) {
+            for (int i = 0; i < this.size; ++i) {
+                Serializable event = (Serializable) stream.readObject();
+                Serializable source = (Serializable) stream.readObject();
+                Serializable data = (Serializable) stream.readObject();
+
+                result.add(new RemoteEventData(event, source, data));
+            }
+        }
+
+        return result;
+    }
+}
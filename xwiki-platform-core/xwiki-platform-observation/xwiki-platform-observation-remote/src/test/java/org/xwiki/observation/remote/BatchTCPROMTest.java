@@ -0,0 +1,139 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.remote.test.AbstractROMTestCase;
+import org.xwiki.observation.remote.test.TestEvent;
+import org.xwiki.test.annotation.AllComponents;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration test checking that events sent in batches are transported from one cluster member to another.
+ *
+ * @version $Id$
+ */
+@AllComponents
+class BatchTCPROMTest extends AbstractROMTestCase
+{
+    private static final int EVENTS = 2500;
+
+    /**
+     * Data which is declared serializable but fails to be serialized.
+     */
+    private static final class UnserializableData implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Object value = new Object();
+
+        @Override
+        public String toString()
+        {
+            return "unserializable " + this.value.getClass().getName();
+        }
+    }
+
+    @Override
+    @BeforeEach
+    public void beforeEach() throws Exception
+    {
+        super.beforeEach();
+
+        System.setProperty("jgroups.bind_addr", "localhost");
+
+        getConfigurationSource1().setProperty("observation.remote.batch.delay", 50L);
+        getConfigurationSource2().setProperty("observation.remote.batch.delay", 50L);
+
+        getConfigurationSource1().setProperty("observation.remote.channels", Arrays.asList("tcp"));
+        RemoteObservationManager rom = getComponentManager2().getInstance(RemoteObservationManager.class);
+        rom.startChannel("tcp");
+    }
+
+    /**
+     * Validate that many events are received in the order in which they were sent.
+     */
+    @Test
+    void batchedEvents()
+    {
+        EventListener remoteListener = mock(EventListener.class, "remote");
+
+        TestEvent event = new TestEvent();
+
+        when(remoteListener.getName()).thenReturn("mylistener");
+        when(remoteListener.getEvents()).thenReturn(Arrays.asList(event));
+
+        getObservationManager2().addListener(remoteListener);
+
+        // More events than the maximum size of a batch
+        for (int i = 0; i < EVENTS; ++i) {
+            getObservationManager1().notify(event, "source" + i, "data");
+        }
+
+        verify(remoteListener, timeout(10000).times(EVENTS)).onEvent(eq(event), any(), eq("data"));
+
+        InOrder inOrder = inOrder(remoteListener);
+        for (int i = 0; i < EVENTS; ++i) {
+            inOrder.verify(remoteListener).onEvent(event, "source" + i, "data");
+        }
+    }
+
+    /**
+     * Validate that an event which cannot be serialized doesn't prevent the other events of its batch to be sent.
+     */
+    @Test
+    void batchWithUnserializableEvent()
+    {
+        EventListener remoteListener = mock(EventListener.class, "remote");
+
+        TestEvent event = new TestEvent();
+
+        when(remoteListener.getName()).thenReturn("mylistener");
+        when(remoteListener.getEvents()).thenReturn(Arrays.asList(event));
+
+        getObservationManager2().addListener(remoteListener);
+
+        // Sent in the same batch
+        getObservationManager1().notify(event, "source1", "data");
+        getObservationManager1().notify(event, "source2", new UnserializableData());
+        getObservationManager1().notify(event, "source3", "data");
+
+        verify(remoteListener, timeout(10000).times(2)).onEvent(eq(event), any(), eq("data"));
+
+        InOrder inOrder = inOrder(remoteListener);
+        inOrder.verify(remoteListener).onEvent(event, "source1", "data");
+        inOrder.verify(remoteListener).onEvent(event, "source3", "data");
+        verify(remoteListener, never()).onEvent(eq(event), eq("source2"), any());
+    }
+}
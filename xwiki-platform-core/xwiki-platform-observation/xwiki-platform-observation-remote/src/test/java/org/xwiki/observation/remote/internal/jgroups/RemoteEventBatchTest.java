@@ -0,0 +1,101 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.observation.remote.RemoteEventData;
+import org.xwiki.observation.remote.test.TestEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link RemoteEventBatch}.
+ *
+ * @version $Id$
+ */
+class RemoteEventBatchTest
+{
+    private static final int SIZE = 100;
+
+    private List<RemoteEventData> createEvents()
+    {
+        List<RemoteEventData> events = new ArrayList<>();
+        for (int i = 0; i < SIZE; ++i) {
+            HashMap<String, Serializable> source = new HashMap<>();
+            source.put("docname", "xwiki:Import.Page" + i);
+            source.put("docversion", "1.1");
+            HashMap<String, Serializable> data = new HashMap<>();
+            data.put("contextwiki", "xwiki");
+            data.put("contextuser", "XWiki.Admin");
+
+            events.add(new RemoteEventData(new TestEvent(), source, data));
+        }
+
+        return events;
+    }
+
+    @Test
+    void getEvents() throws Exception
+    {
+        List<RemoteEventData> events = createEvents();
+
+        RemoteEventBatch batch = new RemoteEventBatch(events);
+
+        assertEquals(SIZE, batch.size());
+
+        List<RemoteEventData> result = batch.getEvents(getClass().getClassLoader());
+        assertEquals(SIZE, result.size());
+        for (int i = 0; i < SIZE; ++i) {
+            assertEquals(events.get(i).getEvent(), result.get(i).getEvent());
+            assertEquals(events.get(i).getSource(), result.get(i).getSource());
+            assertEquals(events.get(i).getData(), result.get(i).getData());
+        }
+    }
+
+    @Test
+    void getLength() throws Exception
+    {
+        List<RemoteEventData> events = createEvents();
+
+        // The size of the events when each one is sent in its own message
+        int separateLength = 0;
+        for (RemoteEventData event : events) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+                stream.writeObject(event);
+            }
+            separateLength += bytes.size();
+        }
+
+        RemoteEventBatch batch = new RemoteEventBatch(events);
+
+        assertTrue(batch.getLength() * 10 < separateLength,
+            String.format("The batch takes [%s] bytes while the separate events take [%s] bytes", batch.getLength(),
+                separateLength));
+    }
+}
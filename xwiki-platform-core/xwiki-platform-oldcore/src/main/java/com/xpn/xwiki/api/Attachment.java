@@ -233,6 +233,11 @@ public List<Version> getVersionList() throws XWikiException
     public XWikiAttachment getAttachment()
     {
         if (hasProgrammingRights()) {
+            // The caller may modify the attachment, which must not be shared with the cached document
+            if (this.doc != null) {
+                this.attachment = this.doc.getDoc().unshareAttachment(this.attachment);
+            }
+
             return this.attachment;
         } else {
             return null;
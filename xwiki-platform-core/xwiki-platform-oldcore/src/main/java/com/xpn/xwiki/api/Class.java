@@ -34,6 +34,11 @@
 
 public class Class extends Collection
 {
+    /**
+     * The document from which the class was taken, if any.
+     */
+    Document document;
+
     public Class(BaseClass obj, XWikiContext context)
     {
         super(obj, context);
@@ -289,6 +294,11 @@ public Element get(String name)
     public BaseClass getXWikiClass()
     {
         if (hasProgrammingRights()) {
+            // The caller may modify the class, which must not be shared with the cached document
+            if (this.document != null) {
+                this.element = this.document.getDoc().unshareXClass((BaseClass) getCollection());
+            }
+
             return (BaseClass) getCollection();
         } else {
             return null;
@@ -41,6 +41,11 @@ public Class getxWikiClass()
         return new Class(getCollection().getXClass(getXWikiContext()), getXWikiContext());
     }
 
+    Property newProperty(BaseProperty property)
+    {
+        return new Property(property, getXWikiContext());
+    }
+
     @Override
     public String getName()
     {
@@ -72,7 +77,7 @@ public Element[] getProperties()
         Property[] properties = new Property[coll.size()];
         int i = 0;
         for (BaseProperty prop : coll) {
-            properties[i++] = new Property(prop, getXWikiContext());
+            properties[i++] = newProperty(prop);
         }
         return properties;
     }
@@ -85,7 +90,7 @@ public Property getProperty(String name)
                 return null;
             }
 
-            return new Property((BaseProperty) prop, getXWikiContext());
+            return newProperty((BaseProperty) prop);
         } catch (Exception e) {
             return null;
         }
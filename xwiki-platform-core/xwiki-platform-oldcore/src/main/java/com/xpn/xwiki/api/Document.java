@@ -208,6 +208,11 @@ public Document(XWikiDocument doc, XWikiContext context)
     public XWikiDocument getDocument()
     {
         if (hasProgrammingRights()) {
+            // The caller may modify the elements of the document
+            if (this.doc != this.initialDoc) {
+                this.doc.unshareElements();
+            }
+
             return this.doc;
         } else {
             return null;
@@ -222,7 +227,8 @@ public XWikiDocument getDocument()
     protected XWikiDocument getDoc()
     {
         if (this.initialDoc == this.doc) {
-            this.doc = this.initialDoc.clone();
+            // The cached document is not supposed to be modified so it's safe to share its elements with the clone
+            this.doc = this.initialDoc.isCached() ? this.initialDoc.cloneCopyOnWrite() : this.initialDoc.clone();
         }
 
         return this.doc;
@@ -1089,7 +1095,12 @@ public Class getxWikiClass()
         if (bclass == null) {
             return null;
         } else {
-            return new Class(bclass, getXWikiContext());
+            Class classApi = new Class(bclass, getXWikiContext());
+
+            // Allow the class to be copied before being modified when it's shared with the cached document
+            classApi.document = this;
+
+            return classApi;
         }
     }
 
@@ -1387,7 +1398,14 @@ public Object getObject(ObjectReference objectReference, boolean create)
 
     private Object newObjectApi(BaseObject obj, XWikiContext context)
     {
-        return obj.newObjectApi(obj, context);
+        Object object = obj.newObjectApi(obj, context);
+
+        // Allow the object to be copied before being modified when it's shared with the cached document
+        if (object != null) {
+            object.document = this;
+        }
+
+        return object;
     }
 
     public String getXMLContent() throws XWikiException
@@ -2713,6 +2731,9 @@ private void saveDocument(String comment, boolean minorEdit, boolean checkSaving
     {
         XWikiDocument doc = getDoc();
 
+        // Saving the document modifies its elements
+        doc.unshareElements();
+
         UserReference currentUserReference = getCurrentUserReferenceResolver().resolve(CurrentUserReference.INSTANCE);
         doc.getAuthors().setEffectiveMetadataAuthor(currentUserReference);
 
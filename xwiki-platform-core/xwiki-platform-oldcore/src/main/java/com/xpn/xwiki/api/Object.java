@@ -31,9 +31,15 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.BaseObjectReference;
+import com.xpn.xwiki.objects.BaseProperty;
 
 public class Object extends Collection
 {
+    /**
+     * The document from which the object was taken, if any.
+     */
+    Document document;
+
     public Object(BaseObject obj, XWikiContext context)
     {
         super(obj, context);
@@ -44,10 +50,33 @@ protected BaseObject getBaseObject()
         return (BaseObject) getCollection();
     }
 
+    /**
+     * @return the object to modify, which is not shared with the cached document anymore
+     */
+    BaseObject getModifiableBaseObject()
+    {
+        if (this.document != null) {
+            this.element = this.document.getDoc().unshareXObject(getBaseObject());
+        }
+
+        return getBaseObject();
+    }
+
+    @Override
+    Property newProperty(BaseProperty property)
+    {
+        Property propertyApi = super.newProperty(property);
+
+        // Allow the property to be copied before being modified when it's shared with the cached document
+        propertyApi.object = this;
+
+        return propertyApi;
+    }
+
     public BaseObject getXWikiObject()
     {
         if (hasProgrammingRights()) {
-            return (BaseObject) getCollection();
+            return getModifiableBaseObject();
         } else {
             return null;
         }
@@ -60,7 +89,7 @@ public String getGuid()
 
     public void setGuid(String guid)
     {
-        getBaseObject().setGuid(guid);
+        getModifiableBaseObject().setGuid(guid);
     }
 
     /**
@@ -134,10 +163,11 @@ public void set(String fieldname, java.lang.Object value)
     {
         XWikiContext xcontext = getXWikiContext();
 
-        getBaseObject().set(fieldname, value, xcontext);
+        BaseObject baseObject = getModifiableBaseObject();
+        baseObject.set(fieldname, value, xcontext);
 
         // Temporary set as author of the document the current script author (until the document is saved)
-        getBaseObject().getOwnerDocument().setAuthorReference(xcontext.getAuthorReference());
+        baseObject.getOwnerDocument().setAuthorReference(xcontext.getAuthorReference());
     }
 
     @Override
@@ -29,6 +29,11 @@
  */
 public class Property extends Element
 {
+    /**
+     * The object from which the property was taken, if any.
+     */
+    Object object;
+
     /**
      * The Constructor.
      *
@@ -54,6 +59,15 @@ protected BaseProperty getBaseProperty()
     public BaseProperty getProperty()
     {
         if (hasProgrammingRights()) {
+            // The caller may modify the property, which must not be shared with the cached document
+            if (this.object != null) {
+                BaseProperty property =
+                    (BaseProperty) this.object.getModifiableBaseObject().safeget(getBaseProperty().getName());
+                if (property != null) {
+                    this.element = property;
+                }
+            }
+
             return (BaseProperty) this.element;
         } else {
             return null;
@@ -22,9 +22,11 @@
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -265,6 +267,18 @@ public boolean exists(String documentReference) throws XWikiException
         }
     }
 
+    @Override
+    public Set<DocumentReference> getExistingDocuments(Collection<DocumentReference> documentReferences)
+        throws XWikiException
+    {
+        XWikiContext context = getContext();
+        if (context != null) {
+            return context.getWiki().getStore().getExistingDocuments(documentReferences, context);
+        } else {
+            return Collections.emptySet();
+        }
+    }
+
     @Override
     public void setDocumentContent(DocumentReference documentReference, String content, String editComment,
         boolean isMinorEdit) throws Exception
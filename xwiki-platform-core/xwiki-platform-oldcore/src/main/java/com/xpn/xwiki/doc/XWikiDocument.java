@@ -137,6 +137,7 @@
 import org.xwiki.rendering.block.match.ClassBlockMatcher;
 import org.xwiki.rendering.block.match.MacroBlockMatcher;
 import org.xwiki.rendering.internal.parser.LinkParser;
+import org.xwiki.rendering.internal.wiki.DocumentAvailabilityPrefetcher;
 import org.xwiki.rendering.listener.reference.ResourceReference;
 import org.xwiki.rendering.listener.reference.ResourceType;
 import org.xwiki.rendering.parser.ContentParser;
@@ -148,6 +149,7 @@
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.syntax.SyntaxRegistry;
+import org.xwiki.rendering.syntax.SyntaxType;
 import org.xwiki.rendering.transformation.RenderingContext;
 import org.xwiki.rendering.transformation.Transformation;
 import org.xwiki.rendering.util.ErrorBlockGenerator;
@@ -296,6 +298,12 @@ public String toString()
     private static final Pattern HTML_TAG_PATTERN = Pattern.compile(
         "</?+(html|img|a|i|br?|embed|script|form|input|textarea|object|font|li|[dou]l|table|center|hr|p) ?([^>]*+)>");
 
+    /**
+     * The types of syntaxes for which the renderer checks the existence of the documents targeted by links.
+     */
+    private static final Set<SyntaxType> LINK_CHECKING_SYNTAX_TYPES =
+        Set.of(SyntaxType.XHTML, SyntaxType.HTML, SyntaxType.ANNOTATED_XHTML, SyntaxType.ANNOTATED_HTML);
+
     public static final EntityReference COMMENTSCLASS_REFERENCE = new LocalDocumentReference("XWiki", "XWikiComments");
 
     public static final EntityReference SHEETCLASS_REFERENCE = new LocalDocumentReference("XWiki", "SheetClass");
@@ -536,6 +544,11 @@ private static Transformation getMacroTransformation()
     // Meta Data
     private BaseClass xClass;
 
+    /**
+     * The class shared with the document this document was cloned from, copied the first time it's accessed.
+     */
+    private BaseClass sharedXClass;
+
     private String xClassXML;
 
     /**
@@ -629,6 +642,11 @@ public Set<Entry<DocumentReference, List<BaseObject>>> entrySet()
     // Caching
     private boolean fromCache = false;
 
+    /**
+     * Indicate if this instance is the one stored in the document cache (not copied when cloning the document).
+     */
+    private boolean cached;
+
     private List<BaseObject> xObjectsToRemove = new ArrayList<BaseObject>();
 
     private List<XWikiAttachmentToRemove> attachmentsToRemove = new ArrayList<XWikiAttachmentToRemove>();
@@ -1388,7 +1406,7 @@ private String display(Syntax targetSyntax, boolean executionContextIsolated, bo
                 XDOM contentXDOM = getDocumentDisplayer().display(this, parameters);
 
                 // Render the result
-                renderedContent = renderXDOM(contentXDOM, targetSyntax);
+                renderedContent = renderContentXDOM(contentXDOM, targetSyntax);
 
                 getRenderingCache().setRenderedContent(getDocumentReference(), translatedContent, renderedContent,
                     xcontext);
@@ -2740,6 +2758,11 @@ public List<String> getRevisions(RevisionCriteria criteria, XWikiContext context
 
     public XWikiRCSNodeInfo getRevisionInfo(String version, XWikiContext context) throws XWikiException
     {
+        // Avoid loading the whole archive (e.g. for each version displayed in the history)
+        if (getDocumentArchive() == null && !isNew()) {
+            return getVersioningStore(context).getXWikiDocVersionInfo(this, new Version(version), context);
+        }
+
         return getDocumentArchive(context).getNode(new Version(version));
     }
 
@@ -2767,6 +2790,11 @@ public void setMostRecent(boolean mostRecent)
      */
     public BaseClass getXClass()
     {
+        // The shared class is only copied when the document is modified (see #unshareElements())
+        if (this.xClass == null && this.sharedXClass != null) {
+            return this.sharedXClass;
+        }
+
         if (this.xClass == null) {
             BaseClass emptyClass = new BaseClass();
             // Make sure not to cause any false document versions if this document is saved.
@@ -2785,6 +2813,17 @@ public void setXClass(BaseClass xwikiClass)
         xwikiClass.setOwnerDocument(this);
 
         this.xClass = xwikiClass;
+        this.sharedXClass = null;
+    }
+
+    private synchronized void copySharedXClass()
+    {
+        if (this.sharedXClass != null) {
+            // Copying the class should not make the document dirty
+            boolean metaDataDirty = isMetaDataDirty();
+            setXClass(this.sharedXClass.clone());
+            setMetaDataDirty(metaDataDirty);
+        }
     }
 
     /**
@@ -3503,6 +3542,138 @@ private void cloneXObjects(XWikiDocument templatedoc, boolean keepsIdentity)
         }
     }
 
+    /**
+     * Share the xobjects of the passed document, each xobject being copied only when it needs to be modified (see
+     * {@link #unshareXObject(BaseObject)}).
+     */
+    private void shareXObjects(XWikiDocument sourceDocument)
+    {
+        // clean map
+        this.xObjects.clear();
+
+        // fill map
+        sourceDocument.xObjects.forEach((classReference, objects) -> {
+            if (!objects.isEmpty()) {
+                this.xObjects.put(classReference, new BaseObjects(objects, this::copySharedXObject));
+            }
+        });
+    }
+
+    private BaseObject copySharedXObject(BaseObject object)
+    {
+        BaseObject copy = object.clone();
+        copy.setOwnerDocument(this);
+
+        return copy;
+    }
+
+    /**
+     * Make sure the passed xobject is not shared with the document this document was cloned from (see
+     * {@link #cloneCopyOnWrite()}) anymore, so that it can be modified.
+     * <p>
+     * The xobject is searched by class reference and number, so the passed instance can also be an xobject which was
+     * already copied since it was obtained (e.g. by {@link #unshareElements()}).
+     *
+     * @param xobject an xobject of this document
+     * @return the xobject to modify, which is a copy of the passed xobject if it was shared, or a detached copy if it
+     *         was shared and is not part of this document anymore
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public BaseObject unshareXObject(BaseObject xobject)
+    {
+        // The xobjects which are not shared belong to this document (or to no document at all)
+        if (xobject == null || xobject.getOwnerDocument() == null || xobject.getOwnerDocument() == this) {
+            return xobject;
+        }
+
+        if (xobject.getXClassReference() != null) {
+            BaseObjects objects = this.xObjects.get(xobject.getXClassReference());
+            int number = xobject.getNumber();
+            if (objects != null && number >= 0 && number < objects.size() && objects.get(number) != null) {
+                // Copying an xobject should not make the document dirty
+                boolean metaDataDirty = isMetaDataDirty();
+                BaseObject object = objects.unshare(number);
+                setMetaDataDirty(metaDataDirty);
+
+                return object;
+            }
+        }
+
+        // The xobject was removed from this document: make sure the document it's shared with is not modified
+        BaseObject copy = xobject.clone();
+        copy.setOwnerDocument(null);
+
+        return copy;
+    }
+
+    /**
+     * Make sure the passed attachment is not shared with the document this document was cloned from (see
+     * {@link #cloneCopyOnWrite()}) anymore, so that it can be modified.
+     * <p>
+     * The attachment is searched by file name, so the passed instance can also be an attachment which was already
+     * copied since it was obtained (e.g. by {@link #unshareElements()}).
+     *
+     * @param attachment an attachment of this document
+     * @return the attachment to modify, a copy of the passed attachment if it was still shared
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public XWikiAttachment unshareAttachment(XWikiAttachment attachment)
+    {
+        if (attachment != null && attachment.getDoc() != this
+            && this.attachmentList.getByFilename(attachment.getFilename()) != null) {
+            // Copying an attachment should not make the document dirty
+            boolean metaDataDirty = isMetaDataDirty();
+            XWikiAttachment copy = this.attachmentList.unshare(attachment.getFilename());
+            setMetaDataDirty(metaDataDirty);
+
+            return copy;
+        }
+
+        return attachment;
+    }
+
+    /**
+     * Make sure the passed xclass is not shared with the document this document was cloned from (see
+     * {@link #cloneCopyOnWrite()}) anymore, so that it can be modified.
+     *
+     * @param xclass the xclass of this document, possibly obtained before it was copied
+     * @return the xclass to modify
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public BaseClass unshareXClass(BaseClass xclass)
+    {
+        if (xclass != null && xclass.getOwnerDocument() != null && xclass.getOwnerDocument() != this
+            && getDocumentReference().equals(xclass.getOwnerDocument().getDocumentReference())) {
+            copySharedXClass();
+
+            return getXClass();
+        }
+
+        return xclass;
+    }
+
+    /**
+     * Make sure none of the xobjects, attachments and xclass of this document are shared with the document it was
+     * cloned from (see {@link #cloneCopyOnWrite()}) anymore, so that they can be modified.
+     *
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public void unshareElements()
+    {
+        boolean metaDataDirty = isMetaDataDirty();
+
+        this.xObjects.values().forEach(BaseObjects::unshareAll);
+        this.attachmentList.unshareAll();
+        copySharedXClass();
+
+        // Copying the elements should not make the document dirty
+        setMetaDataDirty(metaDataDirty);
+    }
+
     /**
      * @since 2.2M1
      */
@@ -4110,6 +4281,27 @@ public void setFromCache(boolean fromCache)
         this.fromCache = fromCache;
     }
 
+    /**
+     * @return true if this instance is the one stored in the document cache, in which case it's not supposed to be
+     *         modified
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public boolean isCached()
+    {
+        return this.cached;
+    }
+
+    /**
+     * @param cached true if this instance is the one stored in the document cache
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public void setCached(boolean cached)
+    {
+        this.cached = cached;
+    }
+
     public void readDocMetaFromForm(EditForm eform, XWikiContext context) throws XWikiException
     {
         String defaultLanguage = eform.getDefaultLanguage();
@@ -4522,7 +4714,26 @@ public void clone(XWikiDocument document)
     @Override
     public XWikiDocument clone()
     {
-        return cloneInternal(getDocumentReference(), true, false);
+        return cloneInternal(getDocumentReference(), true, false, false);
+    }
+
+    /**
+     * Clone the document, the xobjects, attachments and xclass of the clone being shared with this document until they
+     * are modified. It makes modifying a few elements of a document with a lot of xobjects or attachments much cheaper
+     * than with {@link #clone()}, but this document must not be modified as long as the clone is in use (which is the
+     * case of the document stored in the cache, see {@link #isCached()}).
+     * <p>
+     * The shared elements must be unshared before being modified from the clone, with
+     * {@link #unshareXObject(BaseObject)}, {@link #unshareAttachment(XWikiAttachment)} or
+     * {@link #unshareElements()}. Adding, removing or replacing elements does not require anything specific.
+     *
+     * @return the cloned document
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public XWikiDocument cloneCopyOnWrite()
+    {
+        return cloneInternal(getDocumentReference(), true, false, true);
     }
 
     /**
@@ -4532,7 +4743,7 @@ public XWikiDocument clone()
      */
     public XWikiDocument duplicate(DocumentReference newDocumentReference)
     {
-        return cloneInternal(newDocumentReference, false, false);
+        return cloneInternal(newDocumentReference, false, false, false);
     }
 
     private void cloneDocumentArchive(XWikiDocument originalDocument) throws XWikiException
@@ -4544,7 +4755,7 @@ private void cloneDocumentArchive(XWikiDocument originalDocument) throws XWikiEx
     }
 
     private XWikiDocument cloneInternal(DocumentReference newDocumentReference, boolean keepsIdentity,
-        boolean cloneArchive)
+        boolean cloneArchive, boolean copyOnWrite)
     {
         XWikiDocument doc = null;
 
@@ -4591,14 +4802,22 @@ private XWikiDocument cloneInternal(DocumentReference newDocumentReference, bool
             doc.setHidden(isHidden());
             doc.setRestricted(isRestricted());
 
-            if (this.xClass != null) {
-                doc.setXClass(this.xClass.clone());
+            BaseClass sourceXClass = this.xClass != null ? this.xClass : this.sharedXClass;
+            if (copyOnWrite) {
+                doc.sharedXClass = sourceXClass;
+            } else if (sourceXClass != null) {
+                doc.setXClass(sourceXClass.clone());
             }
 
             if (keepsIdentity) {
                 doc.setXClassXML(getXClassXML());
-                doc.cloneXObjects(this);
-                doc.cloneAttachments(this);
+                if (copyOnWrite) {
+                    doc.shareXObjects(this);
+                    doc.attachmentList.share(this.attachmentList, doc::copySharedAttachment);
+                } else {
+                    doc.cloneXObjects(this);
+                    doc.cloneAttachments(this);
+                }
             } else {
                 doc.getXClass().setCustomMapping(null);
                 doc.duplicateXObjects(this);
@@ -4618,6 +4837,11 @@ private XWikiDocument cloneInternal(DocumentReference newDocumentReference, bool
         return doc;
     }
 
+    private XWikiAttachment copySharedAttachment(XWikiAttachment attachment)
+    {
+        return attachment.clone();
+    }
+
     /**
      * Clone attachments from another document. This implementation expects that this document is the same as the other
      * document and thus attachments will be saved in the database in the same place as the ones which they are cloning.
@@ -5740,7 +5964,7 @@ private Set<EntityReference> getUniqueLinkedEntityReferences(XWikiContext contex
                 references = new LinkedHashSet<>();
 
                 // Document content
-                XDOM dom = getXDOM();
+                XDOM dom = getReadOnlyXDOM();
                 getUniqueLinkedEntityReferences(dom, entityTypes, references);
 
                 // XObjects
@@ -6095,7 +6319,7 @@ private List<String> getIncludedPagesInternal(XWikiContext context)
             return getIncludedPagesForXWiki10Syntax(getContent(), context);
         } else {
             // Find all include macros listed on the page
-            XDOM dom = getXDOM();
+            XDOM dom = getReadOnlyXDOM();
 
             List<String> result = new ArrayList<String>();
             List<MacroBlock> macroBlocks =
@@ -6297,7 +6521,7 @@ public XWikiAttachment setAttachment(String fileName, InputStream content, XWiki
 
         String filename = fileName.substring(i + 1);
 
-        XWikiAttachment attachment = getExactAttachment(filename);
+        XWikiAttachment attachment = unshareAttachment(getExactAttachment(filename));
         if (attachment == null) {
             attachment = new XWikiAttachment(this, filename);
 
@@ -7269,7 +7493,7 @@ public XWikiDocument cloneRename(DocumentReference newDocumentReference, XWikiCo
     {
         loadAttachments(context);
         loadArchive(context);
-        return this.cloneInternal(newDocumentReference, true, true);
+        return this.cloneInternal(newDocumentReference, true, true, false);
     }
 
     /**
@@ -7292,7 +7516,7 @@ public XWikiDocument copyDocument(DocumentReference newDocumentReference, boolea
             loadArchive(context);
         }
 
-        XWikiDocument newdoc = cloneInternal(newDocumentReference, false, cloneArchive);
+        XWikiDocument newdoc = cloneInternal(newDocumentReference, false, cloneArchive, false);
 
         // If the copied document has a title set to the original page name then set the new title to be the new page
         // name.
@@ -7489,7 +7713,7 @@ private String getDefaultEditModeInternal(XWikiContext context) throws XWikiExce
             // Find all include macros and extract the document names
             // TODO: Is there a good way not to hardcode the macro name? The macro itself shouldn't know
             // its own name since it's a deployment time concern.
-            for (Block macroBlock : getXDOM().getBlocks(new MacroBlockMatcher("include"), Axes.CHILD)) {
+            for (Block macroBlock : getReadOnlyXDOM().getBlocks(new MacroBlockMatcher("include"), Axes.CHILD)) {
                 // Find the document reference to include by checking the macro's "reference" parameter.
                 // For backward-compatibility we also check for a "document" parameter since this is the parameter name
                 // that was used prior to XWiki 3.4M1 when the "reference" one was introduced and thus when the
@@ -7963,7 +8187,7 @@ public BaseObject updateXObjectFromRequest(EntityReference classReference, Strin
     {
         DocumentReference absoluteClassReference = resolveClassReference(classReference);
         int nb;
-        BaseObject oldobject = getXObject(absoluteClassReference, num);
+        BaseObject oldobject = unshareXObject(getXObject(absoluteClassReference, num));
         if (oldobject == null) {
             nb = createXObject(classReference, context);
             oldobject = getXObject(absoluteClassReference, nb);
@@ -8124,9 +8348,11 @@ public boolean removeXObject(BaseObject object)
         }
         // We don't remove objects, but set null in their place, so that the object number corresponds to its position
         // in the vector
+        // Don't modify the object if it's shared with the cached document
+        BaseObject removedObject = unshareXObject(objects.get(objectPosition));
         objects.set(objectPosition, null);
         // Schedule the object for removal from the storage
-        addXObjectToRemove(object);
+        addXObjectToRemove(removedObject);
 
         return true;
     }
@@ -8224,7 +8450,7 @@ public List<DocumentSection> getSections() throws XWikiException
             return getSections10();
         } else {
             List<DocumentSection> splitSections = new ArrayList<DocumentSection>();
-            List<HeaderBlock> headers = getFilteredHeaders();
+            List<HeaderBlock> headers = getFilteredHeaders(getReadOnlyXDOM());
 
             int sectionNumber = 1;
             for (HeaderBlock header : headers) {
@@ -8234,8 +8460,11 @@ public List<DocumentSection> getSections() throws XWikiException
                 // Need to do the same thing than 1.0 content here
                 String documentSectionLevel = StringUtils.repeat("1.", header.getLevel().getAsInt() - 1) + "1";
 
+                // Clone the header content since creating a XDOM modifies the parent of the blocks
+                List<Block> headerContent =
+                    header.getChildren().stream().map(Block::clone).collect(Collectors.toList());
                 DocumentSection docSection = new DocumentSection(sectionNumber++, documentSectionIndex,
-                    documentSectionLevel, renderXDOM(new XDOM(header.getChildren()), getSyntax()));
+                    documentSectionLevel, renderXDOM(new XDOM(headerContent), getSyntax()));
                 splitSections.add(docSection);
             }
 
@@ -8262,9 +8491,10 @@ private XWikiContext getXWikiContext()
     /**
      * Filter the headers from a document XDOM based on xwiki.section.depth property from xwiki.cfg file.
      *
+     * @param xdom the XDOM of the document
      * @return the filtered headers
      */
-    private List<HeaderBlock> getFilteredHeaders()
+    private List<HeaderBlock> getFilteredHeaders(XDOM xdom)
     {
         List<HeaderBlock> filteredHeaders = new ArrayList<HeaderBlock>();
 
@@ -8302,7 +8532,6 @@ private List<HeaderBlock> getFilteredHeaders()
         //
         // Which obviously is not correct...
 
-        final XDOM xdom = getXDOM();
         if (!xdom.getChildren().isEmpty()) {
             Block currentBlock = xdom.getChildren().get(0);
             while (currentBlock != null) {
@@ -8389,10 +8618,11 @@ public String getContentOfSection(int sectionNumber) throws XWikiException
         if (is10Syntax()) {
             content = getContentOfSection10(sectionNumber);
         } else {
-            List<HeaderBlock> headers = getFilteredHeaders();
+            List<HeaderBlock> headers = getFilteredHeaders(getReadOnlyXDOM());
 
             if (headers.size() >= sectionNumber) {
-                SectionBlock section = headers.get(sectionNumber - 1).getSection();
+                // Clone the section since creating a XDOM modifies the parent of the blocks
+                Block section = headers.get(sectionNumber - 1).getSection().clone();
                 content = renderXDOM(new XDOM(Collections.<Block>singletonList(section)), getSyntax());
             }
         }
@@ -8454,7 +8684,7 @@ public String updateDocumentSection(int sectionNumber, String newSectionContent)
             content = updateDocumentSection10(sectionNumber, newSectionContent);
         } else {
             // Get the current section block
-            HeaderBlock header = getFilteredHeaders().get(sectionNumber - 1);
+            HeaderBlock header = getFilteredHeaders(getXDOM()).get(sectionNumber - 1);
 
             XDOM xdom = (XDOM) header.getRoot();
 
@@ -8850,14 +9080,24 @@ public void setAsContextDoc(XWikiContext context)
      */
     public String getPreviousVersion()
     {
-        XWikiDocumentArchive archive = loadDocumentArchive();
+        Version prevVersion = null;
+
+        XWikiDocumentArchive archive = getDocumentArchive();
         if (archive != null) {
-            Version prevVersion = archive.getPrevVersion(getRCSVersion());
-            if (prevVersion != null) {
-                return prevVersion.toString();
+            prevVersion = archive.getPrevVersion(getRCSVersion());
+        } else if (!isNew()) {
+            // Only load the previous version instead of the whole archive
+            XWikiContext xcontext = getXWikiContext();
+            try {
+                prevVersion = getVersioningStore(xcontext).getXWikiDocPreviousVersion(this, getRCSVersion(), xcontext);
+            } catch (Exception e) {
+                // The versioning store may throw an XWikiException, and xcontext or the versioning store may be null
+                // (tests)
+                LOGGER.warn("Could not get the previous version of document [{}]", getDocumentReference(), e);
             }
         }
-        return null;
+
+        return prevVersion != null ? prevVersion.toString() : null;
     }
 
     @Override
@@ -8922,6 +9162,7 @@ public void convertSyntax(Syntax targetSyntax, XWikiContext context) throws XWik
         setContent(performSyntaxConversion(getContent(), getDocumentReference(), getSyntax(), targetSyntax));
 
         // convert objects
+        unshareElements();
         Map<DocumentReference, List<BaseObject>> objectsByClass = getXObjects();
 
         for (List<BaseObject> objects : objectsByClass.values()) {
@@ -8965,19 +9206,49 @@ private XDOM parseContentNoException()
      * NOTE: This method caches the XDOM and returns a clone that can be safely modified.
      *
      * @return the XDOM corresponding to the document's string content
+     * @see #getReadOnlyXDOM()
      */
     @Override
     public XDOM getXDOM()
     {
-        if (this.xdomCache == null) {
-            this.xdomCache = parseContentNoException();
+        return getReadOnlyXDOM().clone();
+    }
+
+    /**
+     * NOTE: This method caches the XDOM and returns it directly, it must not be modified.
+     *
+     * @return the XDOM corresponding to the document's string content
+     * @since 16.3.0RC1
+     */
+    @Override
+    @Unstable
+    public XDOM getReadOnlyXDOM()
+    {
+        XDOM xdom = this.xdomCache;
+
+        if (xdom == null) {
+            xdom = parseContentNoException();
+            this.xdomCache = xdom;
         }
 
-        return this.xdomCache.clone();
+        return xdom;
     }
 
     @Override
     public XDOM getPreparedXDOM()
+    {
+        return getReadOnlyPreparedXDOM().clone();
+    }
+
+    /**
+     * NOTE: This method caches the prepared XDOM and returns it directly, it must not be modified.
+     *
+     * @return the prepared XDOM corresponding to the document's string content
+     * @since 16.3.0RC1
+     */
+    @Override
+    @Unstable
+    public XDOM getReadOnlyPreparedXDOM()
     {
         LocalDateTime xdomPrepareDate = this.xdomCachePrepareDate;
         XDOM xdom = this.xdomCache;
@@ -8985,7 +9256,7 @@ public XDOM getPreparedXDOM()
         // If the content is prepared and it's allowed to use the cache, return it
         if (xdomPrepareDate != null) {
             if (getCacheControl().isCacheReadAllowed(xdomPrepareDate)) {
-                return xdom.clone();
+                return xdom;
             }
 
             // Start from scratch if it's not allowed to reuse the already prepared XDOM
@@ -8995,6 +9266,9 @@ public XDOM getPreparedXDOM()
         // Parse the content if not already done
         if (xdom == null) {
             xdom = parseContentNoException();
+        } else {
+            // The cached XDOM might be in use by read only callers, don't modify it
+            xdom = xdom.clone();
         }
 
         // Prepare the content
@@ -9005,7 +9279,7 @@ public XDOM getPreparedXDOM()
         this.xdomCache = xdom;
         this.xdomCachePrepareDate = xdomPrepareDate;
 
-        return xdom.clone();
+        return xdom;
     }
 
     private void resetXDOM()
@@ -9122,6 +9396,32 @@ protected static String renderXDOM(XDOM content, Syntax targetSyntax) throws XWi
         }
     }
 
+    /**
+     * Render the displayed content, checking at once the existence of all the documents it links to since the HTML
+     * renderers otherwise check them one by one.
+     *
+     * @param content the XDOM content to render
+     * @param targetSyntax the syntax identifier of the rendered content
+     * @return the rendered content
+     * @throws XWikiException if an exception occurred during the rendering process
+     */
+    private static String renderContentXDOM(XDOM content, Syntax targetSyntax) throws XWikiException
+    {
+        if (LINK_CHECKING_SYNTAX_TYPES.contains(targetSyntax.getType())
+            && Utils.getComponentManager().hasComponent(DocumentAvailabilityPrefetcher.class)) {
+            DocumentAvailabilityPrefetcher prefetcher = Utils.getComponent(DocumentAvailabilityPrefetcher.class);
+
+            Map<DocumentReference, Boolean> previous = prefetcher.prefetch(content);
+            try {
+                return renderXDOM(content, targetSyntax);
+            } finally {
+                prefetcher.restore(previous);
+            }
+        }
+
+        return renderXDOM(content, targetSyntax);
+    }
+
     private XDOM parseContent(String content) throws XWikiException
     {
         return parseContent(getSyntax(), content, getDocumentReference());
@@ -154,10 +154,9 @@ protected XWikiRCSNodeContent makePatch(XWikiRCSNodeInfo newnode, XWikiDocument
         newnode.setContent(result);
         XWikiRCSNodeInfo latestNode = getLatestNode();
         if (latestNode != null) {
-            int nodesCount = getNodes().size();
             int nodesPerFull = context.getWiki() == null ? 5
                 : Integer.parseInt(context.getWiki().getConfig().getProperty("xwiki.store.rcs.nodesPerFull", "5"));
-            if (nodesPerFull <= 0 || (nodesCount % nodesPerFull) != 0) {
+            if (nodesPerFull <= 0 || getLatestPatchesCount() < nodesPerFull - 1) {
                 XWikiRCSNodeContent latestContent = latestNode.getContent(context);
                 latestContent.getPatch().setDiffVersion(latestContent.getPatch().getContent(), doc, context);
                 latestNode.setContent(latestContent);
@@ -168,6 +167,23 @@ protected XWikiRCSNodeContent makePatch(XWikiRCSNodeInfo newnode, XWikiDocument
         return result;
     }
 
+    /**
+     * @return the number of loaded nodes stored as patches right before the latest node, i.e. since the previous full
+     *         version or the first loaded node
+     */
+    private int getLatestPatchesCount()
+    {
+        int count = 0;
+        // The nodes are sorted from the most recent one, which is always a full version
+        Iterator<XWikiRCSNodeInfo> it = this.versionToNode.values().iterator();
+        it.next();
+        while (it.hasNext() && it.next().isDiff()) {
+            count++;
+        }
+
+        return count;
+    }
+
     /**
      * @return the wikiReference the wiki of the document
      * @since 13.10.7
@@ -20,9 +20,13 @@
 package com.xpn.xwiki.internal.doc;
 
 import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.UnaryOperator;
 
 import com.xpn.xwiki.objects.BaseObject;
 
@@ -42,6 +46,11 @@ public class BaseObjects extends AbstractList<BaseObject>
 
     private int size;
 
+    // The indexes of the objects still shared with another list and which need to be copied before being modified
+    private Set<Integer> shared;
+
+    private UnaryOperator<BaseObject> copier;
+
     /**
      * Constructs an empty list.
      */
@@ -50,6 +59,24 @@ public BaseObjects()
 
     }
 
+    /**
+     * Constructs a list sharing the objects of the passed list. The shared objects are returned as is by
+     * {@link #get(int)} and are only copied with the passed function when they need to be modified (see
+     * {@link #unshare(int)}). The source list and its objects are expected to not be modified afterward.
+     * 
+     * @param source the list to copy
+     * @param copier the function used to copy an object
+     * @since 16.3.0RC1
+     */
+    public BaseObjects(BaseObjects source, UnaryOperator<BaseObject> copier)
+    {
+        this.size = source.size;
+        this.map.putAll(source.map);
+        this.shared = ConcurrentHashMap.newKeySet();
+        this.shared.addAll(source.map.keySet());
+        this.copier = copier;
+    }
+
     /**
      * Constructs a list containing the elements of the specified collection, in the order they are returned by the
      * collection's iterator.
@@ -69,6 +96,49 @@ public BaseObject get(int index)
         return this.map.get(index);
     }
 
+    /**
+     * Make sure the object at the passed index is not shared with another list anymore, so that it can be modified.
+     * 
+     * @param index the index of the object
+     * @return the object at the passed index, a copy of the shared object if it was still shared
+     * @since 16.3.0RC1
+     */
+    public synchronized BaseObject unshare(int index)
+    {
+        rangeCheck(index);
+
+        if (this.shared != null && this.shared.remove(index)) {
+            BaseObject sharedObject = this.map.get(index);
+            if (sharedObject != null) {
+                this.map.put(index, this.copier.apply(sharedObject));
+            }
+        }
+
+        return this.map.get(index);
+    }
+
+    /**
+     * Make sure none of the objects are shared with another list anymore.
+     * 
+     * @since 16.3.0RC1
+     */
+    public synchronized void unshareAll()
+    {
+        if (this.shared != null) {
+            for (Integer index : new ArrayList<>(this.shared)) {
+                if (index < this.size) {
+                    unshare(index);
+                }
+            }
+            this.shared = null;
+        }
+    }
+
+    private boolean isShared(int index, BaseObject element)
+    {
+        return this.shared != null && this.shared.contains(index) && this.map.get(index) == element;
+    }
+
     @Override
     public int size()
     {
@@ -77,6 +147,15 @@ public int size()
 
     private BaseObject put(int index, BaseObject element)
     {
+        // Setting back a shared object at its own place does not modify anything
+        if (element != null && isShared(index, element)) {
+            return element;
+        }
+
+        if (this.shared != null) {
+            this.shared.remove(index);
+        }
+
         BaseObject old;
         if (element == null) {
             // We don't want to keep null values in memory
@@ -102,10 +181,10 @@ public void add(int index, BaseObject element)
         // Check if the index is valid
         rangeCheckForAdd(index);
 
-        // Shifts right values to the right
+        // Shifts right values to the right (the number of a shifted object is modified)
         if (index < this.size) {
             for (int i = this.size - 1; i >= index; --i) {
-                put(i + 1, get(i));
+                put(i + 1, unshare(i));
             }
         }
 
@@ -128,12 +207,13 @@ public BaseObject remove(int index)
     {
         rangeCheck(index);
 
-        BaseObject previous = this.map.remove(index);
+        BaseObject previous = get(index);
+        put(index, null);
 
-        // Shifts right values to the left
+        // Shifts right values to the left (the number of a shifted object is modified)
         if (index < this.size - 1) {
             for (int i = index; i < this.size - 1; ++i) {
-                put(i, get(i + 1));
+                put(i, unshare(i + 1));
             }
         }
 
@@ -146,6 +226,7 @@ public BaseObject remove(int index)
     @Override
     public void clear()
     {
+        this.shared = null;
         this.map.clear();
         this.size = 0;
     }
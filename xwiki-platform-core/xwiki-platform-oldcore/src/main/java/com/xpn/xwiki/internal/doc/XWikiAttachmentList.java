@@ -23,8 +23,11 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
 
 import org.apache.commons.collections4.list.AbstractListDecorator;
 
@@ -49,6 +52,11 @@ public class XWikiAttachmentList extends AbstractListDecorator<XWikiAttachment>
 
     private final XWikiDocument document;
 
+    // The names of the attachments still shared with another list and which need to be copied before being modified
+    private Set<String> shared;
+
+    private UnaryOperator<XWikiAttachment> copier;
+
     /**
      * Initializes the map.
      * 
@@ -61,6 +69,91 @@ public XWikiAttachmentList(XWikiDocument document)
         this.document = document;
     }
 
+    /**
+     * Share the attachments of the passed list. The shared attachments are returned as is by the list and are only
+     * copied with the passed function when they need to be modified (see {@link #unshare(String)}). The source list
+     * and its attachments are expected to not be modified afterward.
+     * 
+     * @param source the list to copy
+     * @param copier the function used to copy an attachment
+     * @since 16.3.0RC1
+     */
+    public void share(XWikiAttachmentList source, UnaryOperator<XWikiAttachment> copier)
+    {
+        this.map.clear();
+        this.emptyNameAttachments.clear();
+
+        this.map.putAll(source.map);
+        this.copier = copier;
+        this.shared = ConcurrentHashMap.newKeySet();
+        this.shared.addAll(source.map.keySet());
+
+        // Retro compatibility for very bad old code
+        for (XWikiAttachment attachment : source.emptyNameAttachments) {
+            XWikiAttachment copy = copier.apply(attachment);
+            this.emptyNameAttachments.add(copy);
+            added(copy);
+        }
+
+        // Sharing the attachments should not make the document dirty
+        setCollection(getValues());
+    }
+
+    /**
+     * Make sure the attachment with the passed name is not shared with another list anymore, so that it can be
+     * modified.
+     * 
+     * @param filename the name of the attachment
+     * @return the attachment with the passed name, a copy of the shared attachment if it was still shared
+     * @since 16.3.0RC1
+     */
+    public synchronized XWikiAttachment unshare(String filename)
+    {
+        if (filename != null && this.shared != null && this.shared.remove(filename)) {
+            XWikiAttachment attachment = this.map.get(filename);
+            if (attachment != null) {
+                XWikiAttachment copy = this.copier.apply(attachment);
+                this.map.put(filename, copy);
+                added(copy);
+
+                // Copying an attachment should not make the document dirty
+                setCollection(getValues());
+            }
+        }
+
+        return getByFilename(filename);
+    }
+
+    /**
+     * Make sure none of the attachments are shared with another list anymore.
+     * 
+     * @since 16.3.0RC1
+     */
+    public synchronized void unshareAll()
+    {
+        if (this.shared != null) {
+            for (String filename : new ArrayList<>(this.shared)) {
+                unshare(filename);
+            }
+            this.shared = null;
+        }
+    }
+
+    private void forget(String filename)
+    {
+        if (this.shared != null && filename != null) {
+            this.shared.remove(filename);
+        }
+    }
+
+    private List<XWikiAttachment> getValues()
+    {
+        List<XWikiAttachment> list = new ArrayList<>(this.map.values());
+        list.addAll(this.emptyNameAttachments);
+
+        return list;
+    }
+
     /**
      * Adds attachment to the list in order of filename.
      * 
@@ -89,6 +182,7 @@ public void add(int index, XWikiAttachment attachment)
     @Override
     public void clear()
     {
+        this.shared = null;
         this.map.clear();
 
         updateList();
@@ -105,6 +199,7 @@ public boolean addAll(Collection<? extends XWikiAttachment> c)
         boolean changed = false;
         for (XWikiAttachment x : c) {
             XWikiAttachment put = this.map.put(x.getFilename(), x);
+            forget(x.getFilename());
             if (put != x) {
                 changed = true;
                 added(x);
@@ -133,8 +228,10 @@ public boolean addAll(int index, Collection<? extends XWikiAttachment> c)
     @Override
     public XWikiAttachment remove(int index)
     {
-        XWikiAttachment removedAttachment = this.map.remove(this.decorated().get(index).getFilename());
+        String filename = this.decorated().get(index).getFilename();
+        XWikiAttachment removedAttachment = this.map.remove(filename);
         if (removedAttachment != null) {
+            forget(filename);
             updateList();
         }
 
@@ -154,6 +251,7 @@ public boolean remove(Object attachment)
         if (xwikiAttachment != null) {
             if (xwikiAttachment.getFilename() != null) {
                 if (this.map.remove(xwikiAttachment.getFilename()) != null) {
+                    forget(xwikiAttachment.getFilename());
                     updateList();
 
                     return true;
@@ -182,6 +280,7 @@ public XWikiAttachment set(XWikiAttachment attachment)
         if (attachment.getFilename() != null) {
             previous = this.map.put(attachment.getFilename(), attachment);
             if (previous != attachment) {
+                forget(attachment.getFilename());
                 added(attachment);
                 updateList();
             }
@@ -225,6 +324,7 @@ public boolean removeAll(Collection<?> c)
         for (XWikiAttachment x : (Collection<? extends XWikiAttachment>) c) {
             if (this.map.get(x.getFilename()) == x) {
                 this.map.remove(x.getFilename());
+                forget(x.getFilename());
                 changed = true;
             }
         }
@@ -243,6 +343,7 @@ public boolean retainAll(Collection<?> c)
         for (XWikiAttachment x : values) {
             if (!c.contains(x)) {
                 this.map.remove(x.getFilename());
+                forget(x.getFilename());
                 changed = true;
             }
         }
@@ -261,10 +362,7 @@ private void updateList()
     {
         this.document.setMetaDataDirty(true);
 
-        List<XWikiAttachment> list = new ArrayList<>(this.map.values());
-        list.addAll(this.emptyNameAttachments);
-
-        this.setCollection(list);
+        this.setCollection(getValues());
     }
 
     /**
@@ -288,6 +386,7 @@ public void onAttachmentNameModified(String previousAttachmentName, XWikiAttachm
         boolean removed;
         if (previousAttachmentName != null) {
             removed = this.map.remove(previousAttachmentName) == attachment;
+            forget(previousAttachmentName);
         } else {
             removed = this.emptyNameAttachments.remove(attachment);
         }
@@ -20,6 +20,8 @@
 package com.xpn.xwiki.internal.filter.output;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 import javax.inject.Inject;
@@ -39,13 +41,20 @@
 import org.xwiki.logging.marker.TranslationMarker;
 import org.xwiki.model.document.DocumentAuthors;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.ObservationManager;
 import org.xwiki.user.UserReference;
 import org.xwiki.user.UserReferenceResolver;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.internal.event.DocumentsImportedEvent;
+import com.xpn.xwiki.internal.event.DocumentsImportingEvent;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.store.XWikiCacheStore;
 
 /**
  * @version $Id$
@@ -66,6 +75,28 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
     private static final TranslationMarker LOG_DOCUMENT_FAILSAVE =
         new TranslationMarker("filter.instance.log.document.failsave", WikiDocumentFilter.LOG_DOCUMENT_ERROR);
 
+    private static final TranslationMarker LOG_BATCH_SAVED =
+        new TranslationMarker("filter.instance.log.document.batch.saved");
+
+    private static final TranslationMarker LOG_BATCH_FAILED =
+        new TranslationMarker("filter.instance.log.document.batch.failed");
+
+    private static final TranslationMarker LOG_BULK_DONE =
+        new TranslationMarker("filter.instance.log.document.bulk.done");
+
+    private static final class BatchEntry
+    {
+        private final XWikiDocument inputDocument;
+
+        private final boolean firstVersion;
+
+        BatchEntry(XWikiDocument inputDocument, boolean firstVersion)
+        {
+            this.inputDocument = inputDocument;
+            this.firstVersion = firstVersion;
+        }
+    }
+
     @Inject
     private FilterDescriptorManager filterManager;
 
@@ -79,6 +110,12 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
     @Named("document")
     private UserReferenceResolver<DocumentReference> documentReferenceUserReferenceResolver;
 
+    @Inject
+    private ObservationManager observation;
+
+    @Inject
+    private Provider<HibernateStore> hibernateStoreProvider;
+
     @Inject
     private Logger logger;
 
@@ -88,6 +125,26 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
 
     private FilterEventParameters currentRevisionParameters;
 
+    /**
+     * The documents saved in the current batch when in bulk mode, {@code null} when no batch is in progress.
+     */
+    private List<DocumentReference> batchDocuments;
+
+    /**
+     * What's needed to save again the documents of the current batch if it's cancelled.
+     */
+    private List<BatchEntry> batchEntries;
+
+    private WikiReference batchWiki;
+
+    private boolean batchTransaction;
+
+    private long batchStart;
+
+    private long bulkStart;
+
+    private int bulkCount;
+
     @Override
     protected Object createFilter() throws FilterException
     {
@@ -97,7 +154,20 @@ protected Object createFilter() throws FilterException
     @Override
     public void close() throws IOException
     {
-        // Nothing to close
+        if (this.properties != null && this.properties.isBulk()) {
+            try {
+                // Commit the last batch
+                endBatch(true, this.xcontextProvider.get());
+            } catch (Exception e) {
+                throw new IOException("Failed to commit the last batch of documents", e);
+            }
+
+            if (this.bulkCount > 0) {
+                long duration = System.currentTimeMillis() - this.bulkStart;
+                this.logger.info(LOG_BULK_DONE, "Imported [{}] documents in [{}] ms ([{}] documents per second)",
+                    this.bulkCount, duration, getThroughput(this.bulkCount, duration));
+            }
+        }
     }
 
     @Override
@@ -177,106 +247,258 @@ private void maybeSaveDocument() throws FilterException
             return;
         }
 
-        boolean hasJRCSHistory = inputDocument.getDocumentArchive() != null;
-
         XWikiContext xcontext = this.xcontextProvider.get();
 
         try {
-            XWikiDocument databaseDocument =
-                xcontext.getWiki().getDocument(inputDocument.getDocumentReferenceWithLocale(), xcontext);
+            if (this.properties.isBulk()) {
+                beginBatch(inputDocument.getDocumentReference().getWikiReference(), xcontext);
 
-            // Remember if it's a creation or an update
-            boolean isnew = databaseDocument.isNew();
+                // Remember how to save the document again in case the batch is cancelled (the input document is
+                // modified when it's saved as is)
+                XWikiDocument batchDocument = this.firstVersion && this.properties.isPreviousDeleted()
+                    ? inputDocument.clone() : inputDocument;
 
-            // Make sure document's attachments content are loaded from the store
-            databaseDocument.loadAttachmentsContentSafe(xcontext);
+                XWikiDocument document = saveDocument(inputDocument, this.firstVersion, xcontext);
 
-            XWikiDocument document;
-            if (this.firstVersion && this.properties.isPreviousDeleted()) {
-                // We want to replace the existing document
-                document = inputDocument;
-
-                // But it's still an update from outside world point of view
-                document.setOriginalDocument(databaseDocument);
+                addToBatch(new BatchEntry(batchDocument, this.firstVersion), document.getDocumentReferenceWithLocale(),
+                    xcontext);
             } else {
-                // Safer to clone for thread safety and in case the save fail
-                document = databaseDocument.clone();
+                saveDocument(inputDocument, this.firstVersion, xcontext);
+            }
+        } catch (Exception e) {
+            this.logger.error(LOG_DOCUMENT_FAILSAVE, "Failed to save document [{}]",
+                inputDocument.getDocumentReferenceWithLocale(), e);
+
+            if (this.properties.isBulk()) {
+                cancelBatch(xcontext);
+            }
+
+            if (this.properties.isStoppedWhenSaveFail()) {
+                throw new FilterException("Failed to save document", e);
+            }
+        }
+    }
+
+    private XWikiDocument saveDocument(XWikiDocument inputDocument, boolean firstVersion, XWikiContext xcontext)
+        throws XWikiException
+    {
+        XWikiDocument databaseDocument =
+            xcontext.getWiki().getDocument(inputDocument.getDocumentReferenceWithLocale(), xcontext);
+
+        // Remember if it's a creation or an update
+        boolean isnew = databaseDocument.isNew();
 
-                // We want to update the existing document
-                document.apply(inputDocument);
+        // Make sure document's attachments content are loaded from the store
+        databaseDocument.loadAttachmentsContentSafe(xcontext);
 
-                // Get the version from the input document
-                document.setMinorEdit(inputDocument.isMinorEdit());
+        XWikiDocument document;
+        if (firstVersion && this.properties.isPreviousDeleted()) {
+            // We want to replace the existing document
+            document = inputDocument;
 
-                // Copy input document authors if they should be preserved
-                if (this.properties.isAuthorPreserved()) {
-                    setAuthors(document, inputDocument);
-                }
+            // But it's still an update from outside world point of view
+            document.setOriginalDocument(databaseDocument);
+        } else {
+            // Safer to clone for thread safety and in case the save fail
+            document = databaseDocument.clone();
+
+            // We want to update the existing document
+            document.apply(inputDocument);
+
+            // Get the version from the input document
+            document.setMinorEdit(inputDocument.isMinorEdit());
+
+            // Copy input document authors if they should be preserved
+            if (this.properties.isAuthorPreserved()) {
+                setAuthors(document, inputDocument);
             }
+        }
+
+        // Authors
 
-            // Authors
-
-            if (!this.properties.isAuthorPreserved()) {
-                if (this.properties.isAuthorSet()) {
-                    setAuthorReference(document, this.properties.getAuthor());
-                } else {
-                    setAuthorReference(document, xcontext.getUserReference());
-                }
-                DocumentAuthors authors = document.getAuthors();
-                authors.setContentAuthor(authors.getEffectiveMetadataAuthor());
-                if (document.isNew()) {
-                    authors.setCreator(authors.getEffectiveMetadataAuthor());
-                }
+        if (!this.properties.isAuthorPreserved()) {
+            if (this.properties.isAuthorSet()) {
+                setAuthorReference(document, this.properties.getAuthor());
+            } else {
+                setAuthorReference(document, xcontext.getUserReference());
             }
+            DocumentAuthors authors = document.getAuthors();
+            authors.setContentAuthor(authors.getEffectiveMetadataAuthor());
+            if (document.isNew()) {
+                authors.setCreator(authors.getEffectiveMetadataAuthor());
+            }
+        }
 
-            // Version related information and save
-
-            if (this.properties.isVersionPreserved()) {
-                // Make sure to use metadata coming from the input document
-                document.setVersion(inputDocument.getVersion());
-                document.setDate(inputDocument.getDate());
-                document.setContentUpdateDate(inputDocument.getContentUpdateDate());
-                for (XWikiAttachment attachment : document.getAttachmentList()) {
-                    attachment.setVersion(inputDocument.getAttachment(attachment.getFilename()).getVersion());
-                }
-                if (document.isNew()) {
-                    document.setCreationDate(inputDocument.getCreationDate());
-                    document.setDocumentArchive(inputDocument.getDocumentArchive());
-                }
-
-                // Make sure the document is stored exactly as is (don't increment version, etc.)
-                document.setMetaDataDirty(false);
-                document.setContentDirty(false);
-                document.getAttachmentList().forEach(a -> a.setMetaDataDirty(false));
-
-                xcontext.getWiki().saveDocument(document, inputDocument.getComment(), inputDocument.isMinorEdit(),
-                    xcontext);
+        // Version related information and save
+
+        if (this.properties.isVersionPreserved()) {
+            // Make sure to use metadata coming from the input document
+            document.setVersion(inputDocument.getVersion());
+            document.setDate(inputDocument.getDate());
+            document.setContentUpdateDate(inputDocument.getContentUpdateDate());
+            for (XWikiAttachment attachment : document.getAttachmentList()) {
+                attachment.setVersion(inputDocument.getAttachment(attachment.getFilename()).getVersion());
+            }
+            if (document.isNew()) {
+                document.setCreationDate(inputDocument.getCreationDate());
+                document.setDocumentArchive(inputDocument.getDocumentArchive());
+            }
+
+            // Make sure the document is stored exactly as is (don't increment version, etc.)
+            document.setMetaDataDirty(false);
+            document.setContentDirty(false);
+            document.getAttachmentList().forEach(a -> a.setMetaDataDirty(false));
+
+            xcontext.getWiki().saveDocument(document, inputDocument.getComment(), inputDocument.isMinorEdit(),
+                xcontext);
+        } else {
+            // Forget the input history to let the store do its standard job
+            document.setDocumentArchive((XWikiDocumentArchive) null);
+
+            xcontext.getWiki().saveDocument(document, this.properties.getSaveComment(), xcontext);
+        }
+
+        if (this.properties.isVerbose()) {
+            if (isnew) {
+                this.logger.info(LOG_DOCUMENT_CREATED, "Created document [{}]",
+                    document.getDocumentReferenceWithLocale());
             } else {
-                // Forget the input history to let the store do its standard job
-                document.setDocumentArchive((XWikiDocumentArchive) null);
+                this.logger.info(LOG_DOCUMENT_UPDATED, "Updated document [{}]",
+                    document.getDocumentReferenceWithLocale());
+            }
+        }
+
+        return document;
+    }
 
-                xcontext.getWiki().saveDocument(document, this.properties.getSaveComment(), xcontext);
+    private void beginBatch(WikiReference wiki, XWikiContext xcontext) throws XWikiException
+    {
+        if (this.batchDocuments != null) {
+            if (wiki.equals(this.batchWiki)) {
+                return;
             }
 
-            if (this.properties.isVerbose()) {
-                if (isnew) {
-                    this.logger.info(LOG_DOCUMENT_CREATED, "Created document [{}]",
-                        document.getDocumentReferenceWithLocale());
-                } else {
-                    this.logger.info(LOG_DOCUMENT_UPDATED, "Updated document [{}]",
-                        document.getDocumentReferenceWithLocale());
-                }
+            // A transaction cannot span several wikis
+            endBatch(true, xcontext);
+        }
+
+        // Open the transaction in which all the documents of the batch are going to be saved (the store reuses the
+        // transaction it finds in the context instead of committing each document). Listeners accessing another wiki
+        // during the batch get their own transaction while the batch one is suspended.
+        boolean transaction = false;
+        if (xcontext.getWiki().getHibernateStore() != null) {
+            WikiReference currentWiki = xcontext.getWikiReference();
+            try {
+                xcontext.setWikiReference(wiki);
+                transaction = this.hibernateStoreProvider.get().beginBatchTransaction();
+            } finally {
+                xcontext.setWikiReference(currentWiki);
             }
+        }
+
+        this.batchDocuments = new ArrayList<>();
+        this.batchEntries = new ArrayList<>();
+        this.batchWiki = wiki;
+        this.batchTransaction = transaction;
+        this.batchStart = System.currentTimeMillis();
+        if (this.bulkStart == 0) {
+            this.bulkStart = this.batchStart;
+        }
+
+        // Listeners are expected to skip the events of each document and handle the batch once it's committed
+        this.observation.notify(DocumentsImportingEvent.EVENT, null, xcontext);
+    }
+
+    private void addToBatch(BatchEntry entry, DocumentReference documentReference, XWikiContext xcontext)
+    {
+        this.batchEntries.add(entry);
+        this.batchDocuments.add(documentReference);
+
+        if (this.batchDocuments.size() >= this.properties.getBulkBatchSize()) {
+            endBatch(true, xcontext);
+        }
+    }
+
+    private void cancelBatch(XWikiContext xcontext)
+    {
+        endBatch(false, xcontext);
+    }
+
+    private void endBatch(boolean commit, XWikiContext xcontext)
+    {
+        if (this.batchDocuments == null) {
+            return;
+        }
+
+        List<DocumentReference> documents = this.batchDocuments;
+        List<BatchEntry> entries = this.batchEntries;
+        this.batchDocuments = null;
+        this.batchEntries = null;
+        this.batchWiki = null;
+
+        boolean committed = false;
+        try {
+            if (this.batchTransaction) {
+                this.hibernateStoreProvider.get().endTransaction(commit);
+            }
+            committed = commit;
         } catch (Exception e) {
-            this.logger.error(LOG_DOCUMENT_FAILSAVE, "Failed to save document [{}]",
-                inputDocument.getDocumentReferenceWithLocale(), e);
+            this.logger.error("Failed to commit the current batch of documents", e);
+        } finally {
+            // Other threads might have cached the previous version of the documents while the batch was not
+            // committed, and they must not keep the version of a cancelled batch either
+            invalidate(documents, xcontext);
 
-            if (this.properties.isStoppedWhenSaveFail()) {
-                throw new FilterException("Failed to save document", e);
+            this.observation.notify(DocumentsImportedEvent.EVENT, committed ? documents : List.of(), xcontext);
+        }
+
+        if (committed) {
+            this.bulkCount += documents.size();
+
+            long duration = System.currentTimeMillis() - this.batchStart;
+            this.logger.info(LOG_BATCH_SAVED, "Saved a batch of [{}] documents in [{}] ms ([{}] documents per second)",
+                documents.size(), duration, getThroughput(documents.size(), duration));
+        } else if (!entries.isEmpty()) {
+            replay(entries, xcontext);
+        }
+    }
+
+    /**
+     * Save again, one by one and outside of any batch, the documents of a cancelled batch so that a single failing
+     * document does not make the import lose the other documents of its batch.
+     */
+    private void replay(List<BatchEntry> entries, XWikiContext xcontext)
+    {
+        this.logger.warn(LOG_BATCH_FAILED, "The batch of [{}] documents was cancelled, saving them one by one",
+            entries.size());
+
+        for (BatchEntry entry : entries) {
+            try {
+                saveDocument(entry.inputDocument, entry.firstVersion, xcontext);
+
+                this.bulkCount++;
+            } catch (Exception e) {
+                this.logger.error(LOG_DOCUMENT_FAILSAVE, "Failed to save document [{}]",
+                    entry.inputDocument.getDocumentReferenceWithLocale(), e);
             }
         }
     }
 
+    private void invalidate(List<DocumentReference> documents, XWikiContext xcontext)
+    {
+        if (xcontext.getWiki().getStore() instanceof XWikiCacheStore) {
+            XWikiCacheStore cacheStore = (XWikiCacheStore) xcontext.getWiki().getStore();
+            for (DocumentReference documentReference : documents) {
+                cacheStore.invalidate(new XWikiDocument(documentReference));
+            }
+        }
+    }
+
+    private static long getThroughput(int count, long duration)
+    {
+        return duration > 0 ? count * 1000L / duration : count;
+    }
+
     private void setAuthorReference(XWikiDocument document, DocumentReference authorReference)
     {
         // Document author
@@ -0,0 +1,247 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * A probabilistic index of the documents which exist in each wiki, used as a hint that a document does not exist.
+ * <p>
+ * The index of a wiki is built in the background from the list of document ids found in the database and is then
+ * updated with each document which might have been created. Since deleted documents cannot be removed from it, the
+ * index can only tell that a document is probably missing, and has to be rebuilt when too many documents were added to
+ * it. Documents created without going through the cache store (e.g. with SQL) are not indexed, so the cache has to be
+ * flushed after such a change, which also rebuilds the index.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class DocumentExistenceIndex
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentExistenceIndex.class);
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    /**
+     * Leave room for the documents created after the index is built.
+     */
+    private static final long MIN_FREE_CAPACITY = 10000;
+
+    private static final int BATCH_SIZE = 10000;
+
+    private static final String ID_PARAMETER = "id";
+
+    private static final class WikiIndex
+    {
+        private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+        private final AtomicLong count = new AtomicLong();
+
+        private volatile LongBloomFilter filter;
+
+        /**
+         * @return true if the index is saturated and need to be rebuilt
+         */
+        boolean add(long id)
+        {
+            LongBloomFilter currentFilter = this.filter;
+
+            if (currentFilter == null) {
+                // Remember the documents created while the index is being built
+                this.pending.add(id);
+
+                // Make sure the filter was not made available before the pending documents were added to it
+                currentFilter = this.filter;
+                if (currentFilter == null) {
+                    return false;
+                }
+            }
+
+            currentFilter.put(id);
+
+            return this.count.incrementAndGet() > currentFilter.getCapacity();
+        }
+    }
+
+    private final Supplier<QueryManager> queryManagerSupplier;
+
+    private final Executor executor;
+
+    private final Map<String, WikiIndex> wikis = new ConcurrentHashMap<>();
+
+    /**
+     * The wikis for which the index can be built (i.e. the database is ready).
+     */
+    private final Set<String> buildableWikis = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param queryManagerSupplier provide the query manager to use to list the documents of a wiki
+     * @param executor the executor used to build the indexes in the background
+     */
+    public DocumentExistenceIndex(Supplier<QueryManager> queryManagerSupplier, Executor executor)
+    {
+        this.queryManagerSupplier = queryManagerSupplier;
+        this.executor = executor;
+    }
+
+    /**
+     * @param document the document to check
+     * @return {@code true} if the document is probably missing (it still needs to be confirmed), {@code false} if it
+     *         might exist or the index of the wiki is not ready
+     */
+    public boolean isMissing(XWikiDocument document)
+    {
+        String wiki = document.getDocumentReference().getWikiReference().getName();
+
+        WikiIndex index = this.wikis.get(wiki);
+        if (index == null) {
+            // The index was flushed or saturated
+            if (this.buildableWikis.contains(wiki)) {
+                build(wiki);
+            }
+
+            return false;
+        }
+
+        LongBloomFilter filter = index.filter;
+
+        return filter != null && !filter.mightContain(document.getId());
+    }
+
+    /**
+     * Indicate that a document might exist.
+     *
+     * @param document the document which might exist
+     */
+    public void add(XWikiDocument document)
+    {
+        String wiki = document.getDocumentReference().getWikiReference().getName();
+
+        WikiIndex index = this.wikis.get(wiki);
+        if (index != null && index.add(document.getId())) {
+            LOGGER.debug("The document existence index of wiki [{}] is saturated", wiki);
+
+            // The false positive probability became too high, the index will be rebuilt when next needed
+            this.wikis.remove(wiki, index);
+        }
+    }
+
+    /**
+     * Start building the index of the passed wiki in the background, unless it's already being built.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void build(String wiki)
+    {
+        this.buildableWikis.add(wiki);
+
+        WikiIndex index = new WikiIndex();
+        if (this.wikis.putIfAbsent(wiki, index) != null) {
+            // Already built or being built
+            return;
+        }
+
+        // The index is not used until it's fully built, so there is no point in making the caller wait
+        try {
+            this.executor.execute(() -> build(wiki, index));
+        } catch (RejectedExecutionException e) {
+            this.wikis.remove(wiki, index);
+        }
+    }
+
+    private void build(String wiki, WikiIndex index)
+    {
+        try {
+            QueryManager queryManager = this.queryManagerSupplier.get();
+
+            List<Long> count = queryManager.createQuery("select count(doc.id) from XWikiDocument doc", Query.HQL)
+                .setWiki(wiki).execute();
+            LongBloomFilter filter = new LongBloomFilter(count.get(0) * 2 + MIN_FREE_CAPACITY,
+                FALSE_POSITIVE_PROBABILITY);
+
+            Query query = queryManager
+                .createQuery("select doc.id from XWikiDocument doc where doc.id > :id order by doc.id", Query.HQL)
+                .setWiki(wiki).setLimit(BATCH_SIZE);
+            long size = 0;
+            List<Long> ids;
+            long lastId = Long.MIN_VALUE;
+            do {
+                ids = query.bindValue(ID_PARAMETER, lastId).execute();
+                for (Long id : ids) {
+                    filter.put(id);
+                }
+                size += ids.size();
+                if (!ids.isEmpty()) {
+                    lastId = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == BATCH_SIZE);
+
+            // Make the index available, and then add the documents created in the meantime
+            index.count.set(size);
+            index.filter = filter;
+            for (Long id : index.pending) {
+                index.add(id);
+            }
+
+            LOGGER.debug("Built the document existence index of wiki [{}] with [{}] documents", wiki, size);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to build the document existence index of wiki [{}]: {}", wiki,
+                ExceptionUtils.getRootCauseMessage(e));
+
+            this.wikis.remove(wiki, index);
+            // Don't try again until the wiki is ready again
+            this.buildableWikis.remove(wiki);
+        }
+    }
+
+    /**
+     * Forget everything about the passed wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void remove(String wiki)
+    {
+        this.buildableWikis.remove(wiki);
+        this.wikis.remove(wiki);
+    }
+
+    /**
+     * Drop all the indexes, they will be rebuilt when next needed.
+     */
+    public void clear()
+    {
+        this.wikis.clear();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+
+/**
+ * Estimate the memory used by a document, in bytes. The goal is not to be exact but to give a much bigger weight to
+ * documents with a large content or a lot of xobjects than to standard documents, without having to go through the
+ * whole graph of objects.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class DocumentWeigher implements ToLongFunction<XWikiDocument>
+{
+    /**
+     * The estimated memory used by a document without any content, xobject or attachment.
+     */
+    public static final long DOCUMENT_WEIGHT = 2048;
+
+    /**
+     * The estimated memory used by an xobject without any property.
+     */
+    public static final long OBJECT_WEIGHT = 256;
+
+    /**
+     * The estimated memory used by a property without counting its value.
+     */
+    public static final long PROPERTY_WEIGHT = 128;
+
+    /**
+     * The estimated memory used by the metadata of an attachment.
+     */
+    public static final long ATTACHMENT_WEIGHT = 512;
+
+    /**
+     * The content is stored as a {@link String} but is also kept parsed in the document.
+     */
+    private static final int CONTENT_FACTOR = 4;
+
+    private static final int CHAR_WEIGHT = 2;
+
+    @Override
+    public long applyAsLong(XWikiDocument document)
+    {
+        long weight = DOCUMENT_WEIGHT;
+
+        weight += weigh(document.getContent()) * CONTENT_FACTOR;
+        weight += weigh(document.getTitle());
+        weight += weigh(document.getXClassXML());
+
+        for (List<BaseObject> objects : document.getXObjects().values()) {
+            for (BaseObject object : objects) {
+                if (object != null) {
+                    weight += weigh(object);
+                }
+            }
+        }
+
+        for (XWikiAttachment attachment : document.getAttachmentList()) {
+            weight += ATTACHMENT_WEIGHT + weigh(attachment.getFilename()) + weigh(attachment.getMimeType());
+        }
+
+        return weight;
+    }
+
+    private long weigh(BaseObject object)
+    {
+        long weight = OBJECT_WEIGHT;
+
+        for (Object field : object.getFieldList()) {
+            weight += PROPERTY_WEIGHT;
+
+            if (field instanceof BaseProperty) {
+                Object value = ((BaseProperty<?>) field).getValue();
+                if (value instanceof String) {
+                    weight += weigh((String) value);
+                } else if (value instanceof List) {
+                    weight += ((List<?>) value).size() * PROPERTY_WEIGHT;
+                }
+            }
+        }
+
+        return weight;
+    }
+
+    private long weigh(String value)
+    {
+        return value != null ? (long) value.length() * CHAR_WEIGHT : 0;
+    }
+}
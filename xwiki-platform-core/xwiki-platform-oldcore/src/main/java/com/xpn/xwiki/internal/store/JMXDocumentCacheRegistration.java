@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.management.JMXBeanRegistration;
+
+/**
+ * Expose the statistics of the document cache through JMX.
+ * <p>
+ * The cache store is instantiated for each lookup, so the MBean is owned by this singleton to make sure it's
+ * registered only once and always exposes the statistics of the latest document cache.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = JMXDocumentCacheRegistration.class)
+@Singleton
+public class JMXDocumentCacheRegistration implements Disposable
+{
+    private static final String MBEAN_NAME = "type=Store,name=DocumentCache";
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    private boolean registered;
+
+    /**
+     * Expose the statistics of the passed cache instead of the previously registered one.
+     *
+     * @param cache the document cache to expose
+     */
+    public synchronized void register(WeightedCache<?> cache)
+    {
+        if (this.registered) {
+            this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+        }
+
+        this.jmxRegistration.registerMBean(new JMXWeightedCache(cache), MBEAN_NAME);
+        this.registered = true;
+    }
+
+    @Override
+    public synchronized void dispose() throws ComponentLifecycleException
+    {
+        if (this.registered) {
+            this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+            this.registered = false;
+        }
+    }
+}
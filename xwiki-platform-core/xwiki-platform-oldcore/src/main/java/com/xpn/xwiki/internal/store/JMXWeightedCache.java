@@ -0,0 +1,84 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+/**
+ * Implementation of the JMXWeightedCache MBean.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class JMXWeightedCache implements JMXWeightedCacheMBean
+{
+    private final WeightedCache<?> cache;
+
+    /**
+     * @param cache the cache to expose
+     */
+    public JMXWeightedCache(WeightedCache<?> cache)
+    {
+        this.cache = cache;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return this.cache.getSize();
+    }
+
+    @Override
+    public long getWeight()
+    {
+        return this.cache.getWeight();
+    }
+
+    @Override
+    public long getMaxWeight()
+    {
+        return this.cache.getMaxWeight();
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return this.cache.getHitCount();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return this.cache.getMissCount();
+    }
+
+    @Override
+    public double getHitRate()
+    {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+
+        return total > 0 ? (double) hits / total : 0;
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        return this.cache.getEvictionCount();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+/**
+ * Interface of the {@link JMXWeightedCache} MBean.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public interface JMXWeightedCacheMBean
+{
+    /**
+     * @return the number of entries in the cache
+     */
+    int getSize();
+
+    /**
+     * @return the total estimated memory used by the values stored in the cache, in bytes
+     */
+    long getWeight();
+
+    /**
+     * @return the maximum estimated memory that the values stored in the cache can use, in bytes
+     */
+    long getMaxWeight();
+
+    /**
+     * @return the number of times a value was found in the cache
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times a value was not found in the cache
+     */
+    long getMissCount();
+
+    /**
+     * @return the ratio of lookups which found a value in the cache, between 0 and 1
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of entries evicted because the maximum memory was reached
+     */
+    long getEvictionCount();
+}
@@ -0,0 +1,130 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe Bloom filter of {@code long} values: it can tell if a value was definitely never added, at the price
+ * of some false positives.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class LongBloomFilter
+{
+    private static final double LN2 = Math.log(2);
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final long MIX_MULTIPLIER_1 = 0xbf58476d1ce4e5b9L;
+
+    private static final long MIX_MULTIPLIER_2 = 0x94d049bb133111ebL;
+
+    private static final int MIX_SHIFT_1 = 30;
+
+    private static final int MIX_SHIFT_2 = 27;
+
+    private static final int MIX_SHIFT_3 = 31;
+
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    private final int hashes;
+
+    private final long capacity;
+
+    /**
+     * @param capacity the number of values which can be added before the false positive probability goes beyond
+     *            {@code fpp}
+     * @param fpp the wanted false positive probability, between 0 and 1
+     */
+    public LongBloomFilter(long capacity, double fpp)
+    {
+        this.capacity = Math.max(1, capacity);
+
+        long size = (long) Math.ceil(-this.capacity * Math.log(fpp) / (LN2 * LN2));
+        this.bits = new AtomicLongArray((int) Math.max(1, (size + Long.SIZE - 1) / Long.SIZE));
+        this.bitSize = (long) this.bits.length() * Long.SIZE;
+        this.hashes = (int) Math.max(1, Math.round((double) this.bitSize / this.capacity * LN2));
+    }
+
+    /**
+     * @return the number of values which can be added before the false positive probability goes beyond the one
+     *         indicated when creating the filter
+     */
+    public long getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * @param value the value to add
+     */
+    public void put(long value)
+    {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1 + GOLDEN_GAMMA);
+
+        for (int i = 0; i < this.hashes; ++i) {
+            long index = Math.floorMod(hash1 + i * hash2, this.bitSize);
+            int word = (int) (index / Long.SIZE);
+            long mask = 1L << (index % Long.SIZE);
+
+            long current;
+            do {
+                current = this.bits.get(word);
+            } while ((current & mask) == 0 && !this.bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @param value the value to check
+     * @return {@code false} if the value was definitely never added, {@code true} if it might have been added
+     */
+    public boolean mightContain(long value)
+    {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1 + GOLDEN_GAMMA);
+
+        for (int i = 0; i < this.hashes; ++i) {
+            long index = Math.floorMod(hash1 + i * hash2, this.bitSize);
+
+            if ((this.bits.get((int) (index / Long.SIZE)) & (1L << (index % Long.SIZE))) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Spread the bits of the value (the finalizer of the SplitMix64 generator).
+     */
+    private static long mix(long value)
+    {
+        long z = value;
+        z = (z ^ (z >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        z = (z ^ (z >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+
+        return z ^ (z >>> MIX_SHIFT_3);
+    }
+}
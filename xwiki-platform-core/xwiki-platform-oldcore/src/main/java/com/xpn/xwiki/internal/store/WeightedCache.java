@@ -0,0 +1,313 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+
+/**
+ * A {@link Cache} evicting the least recently used entries when the total estimated weight of its values goes beyond
+ * a configured maximum, on top of the eviction policy of the wrapped cache.
+ * <p>
+ * The weights are tracked by listening to the events of the wrapped cache so that they always reflect what it really
+ * contains, whatever the reason an entry is added or removed (eviction, expiration, etc.).
+ *
+ * @param <T> the type of the values stored in the cache
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class WeightedCache<T> implements Cache<T>
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.75F;
+
+    private final Cache<T> cache;
+
+    private final ToLongFunction<T> weigher;
+
+    private final long maxWeight;
+
+    /**
+     * The weight of each entry of the wrapped cache, in access order.
+     */
+    private final LinkedHashMap<String, Long> weights = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    private long weight;
+
+    /**
+     * The key of the value being set by {@link #set(String, Object)}, and its already computed weight.
+     */
+    private String settingKey;
+
+    private long settingWeight;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final class WeightListener implements CacheEntryListener<T>
+    {
+        @Override
+        public void cacheEntryAdded(CacheEntryEvent<T> event)
+        {
+            weigh(event);
+        }
+
+        @Override
+        public void cacheEntryModified(CacheEntryEvent<T> event)
+        {
+            weigh(event);
+        }
+
+        @Override
+        public void cacheEntryRemoved(CacheEntryEvent<T> event)
+        {
+            forget(event.getEntry().getKey());
+        }
+
+        private void weigh(CacheEntryEvent<T> event)
+        {
+            String key = event.getEntry().getKey();
+            Long valueWeight = getSettingWeight(key);
+            if (valueWeight == null) {
+                T value = event.getEntry().getValue();
+                valueWeight = value != null ? WeightedCache.this.weigher.applyAsLong(value) : 0;
+            }
+
+            synchronized (WeightedCache.this.weights) {
+                Long previousWeight = WeightedCache.this.weights.put(key, valueWeight);
+                WeightedCache.this.weight += valueWeight - (previousWeight != null ? previousWeight : 0);
+            }
+        }
+    }
+
+    /**
+     * @param cache the cache in which the values are actually stored
+     * @param weigher the function used to estimate the weight of a value
+     * @param maxWeight the maximum total weight of the values stored in the cache
+     */
+    public WeightedCache(Cache<T> cache, ToLongFunction<T> weigher, long maxWeight)
+    {
+        this.cache = cache;
+        this.weigher = weigher;
+        this.maxWeight = maxWeight;
+
+        this.cache.addCacheEntryListener(new WeightListener());
+    }
+
+    @Override
+    public void set(String key, T value)
+    {
+        long valueWeight = this.weigher.applyAsLong(value);
+        if (valueWeight > this.maxWeight) {
+            // The value would evict everything else
+            remove(key);
+            this.evictionCount.incrementAndGet();
+
+            return;
+        }
+
+        List<String> evictedKeys;
+        synchronized (this.weights) {
+            // The weight of the value is taken into account by the listener, which doesn't need to compute it again
+            this.settingKey = key;
+            this.settingWeight = valueWeight;
+            try {
+                this.cache.set(key, value);
+            } finally {
+                this.settingKey = null;
+            }
+
+            evictedKeys = selectEvicted(key);
+        }
+
+        for (String evictedKey : evictedKeys) {
+            this.cache.remove(evictedKey);
+            this.evictionCount.incrementAndGet();
+        }
+    }
+
+    private Long getSettingWeight(String key)
+    {
+        synchronized (this.weights) {
+            if (key.equals(this.settingKey)) {
+                return this.settingWeight;
+            }
+        }
+
+        return null;
+    }
+
+    private List<String> selectEvicted(String key)
+    {
+        List<String> evictedKeys = new ArrayList<>();
+
+        long remainingWeight = this.weight;
+        for (Iterator<Map.Entry<String, Long>> it = this.weights.entrySet().iterator();
+            remainingWeight > this.maxWeight && it.hasNext();) {
+            Map.Entry<String, Long> entry = it.next();
+
+            if (!entry.getKey().equals(key)) {
+                // The weight itself is updated when the wrapped cache notifies the removal
+                remainingWeight -= entry.getValue();
+                evictedKeys.add(entry.getKey());
+            }
+        }
+
+        return evictedKeys;
+    }
+
+    @Override
+    public T get(String key)
+    {
+        T value = this.cache.get(key);
+
+        if (value != null) {
+            this.hitCount.incrementAndGet();
+
+            // Update the access order
+            synchronized (this.weights) {
+                this.weights.get(key);
+            }
+        } else {
+            this.missCount.incrementAndGet();
+        }
+
+        return value;
+    }
+
+    @Override
+    public void remove(String key)
+    {
+        this.cache.remove(key);
+    }
+
+    @Override
+    public void removeAll()
+    {
+        synchronized (this.weights) {
+            this.cache.removeAll();
+
+            // Not all caches notify the removal of each entry
+            this.weights.clear();
+            this.weight = 0;
+        }
+    }
+
+    @Override
+    public void addCacheEntryListener(CacheEntryListener<T> listener)
+    {
+        this.cache.addCacheEntryListener(listener);
+    }
+
+    @Override
+    public void removeCacheEntryListener(CacheEntryListener<T> listener)
+    {
+        this.cache.removeCacheEntryListener(listener);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.cache.dispose();
+    }
+
+    private void forget(String key)
+    {
+        synchronized (this.weights) {
+            Long previousWeight = this.weights.remove(key);
+            if (previousWeight != null) {
+                this.weight -= previousWeight;
+            }
+        }
+    }
+
+    /**
+     * @return the wrapped cache
+     */
+    public Cache<T> getCache()
+    {
+        return this.cache;
+    }
+
+    /**
+     * @return the number of entries in the cache
+     */
+    public int getSize()
+    {
+        synchronized (this.weights) {
+            return this.weights.size();
+        }
+    }
+
+    /**
+     * @return the total estimated weight of the values stored in the cache
+     */
+    public long getWeight()
+    {
+        synchronized (this.weights) {
+            return this.weight;
+        }
+    }
+
+    /**
+     * @return the maximum total weight of the values stored in the cache
+     */
+    public long getMaxWeight()
+    {
+        return this.maxWeight;
+    }
+
+    /**
+     * @return the number of times a value was found in the cache
+     */
+    public long getHitCount()
+    {
+        return this.hitCount.get();
+    }
+
+    /**
+     * @return the number of times a value was not found in the cache
+     */
+    public long getMissCount()
+    {
+        return this.missCount.get();
+    }
+
+    /**
+     * @return the number of entries evicted because of the maximum weight
+     */
+    public long getEvictionCount()
+    {
+        return this.evictionCount.get();
+    }
+}
@@ -120,6 +120,20 @@ public class HibernateStore implements Disposable, Initializable
 
     private static final String CONTEXT_TRANSACTION = "hibtransaction";
 
+    /**
+     * The name of the execution context property holding the identifier of the wiki of the current batch transaction.
+     *
+     * @see #beginBatchTransaction()
+     * @since 16.3.0RC1
+     */
+    public static final String CONTEXT_BATCH_WIKI = "hibbatchwiki";
+
+    private static final String CONTEXT_BATCH_SESSION = "hibbatchsession";
+
+    private static final String CONTEXT_SUSPENDED_SESSION = "hibsuspendedsession";
+
+    private static final String CONTEXT_SUSPENDED_TRANSACTION = "hibsuspendedtransaction";
+
     /**
      * The name of the property for configuring the environment permanent directory.
      */
@@ -834,20 +848,39 @@ public boolean beginTransaction(SessionFactory sfactory) throws XWikiException
             String sessionDatabase = (String) session.getProperties().get("xwiki.database");
             String contextDatabase = getDatabaseFromWikiName(contextWikiId);
 
+            if (Objects.equals(sessionDatabase, contextDatabase)) {
+                this.logger.debug("Taking session from context [{}]", session);
+                this.logger.debug("Taking transaction from context [{}]", transaction);
+
+                return false;
+            }
+
             // The current context is trying to manipulate a database different from the one in the current session
-            if (!Objects.equals(sessionDatabase, contextDatabase)) {
+            if (session != getBatchSession()) {
                 Object[] args = {contextWikiId};
                 throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
                     XWikiException.ERROR_XWIKI_STORE_HIBERNATE_SWITCH_DATABASE,
                     "Cannot switch to database {0} in an existing session", null, args);
             }
 
-            this.logger.debug("Taking session from context [{}]", session);
-            this.logger.debug("Taking transaction from context [{}]", transaction);
+            // A batch transaction is not supposed to fail because some code (typically a listener) accessed another
+            // wiki in the middle of it: put it aside until the transaction of the other wiki is ended
+            suspendBatchSession(session, transaction);
 
-            return false;
+            try {
+                return openTransaction(sfactory, contextWikiId);
+            } catch (XWikiException | RuntimeException e) {
+                resumeBatchSession();
+
+                throw e;
+            }
         }
 
+        return openTransaction(sfactory, contextWikiId);
+    }
+
+    private boolean openTransaction(SessionFactory sfactory, String contextWikiId) throws XWikiException
+    {
         // We should not try to access the schema/database which is not a registered wiki
         try {
             if (!this.wikis.isMainWiki(contextWikiId) && this.wikis.getById(contextWikiId) == null) {
@@ -871,8 +904,8 @@ public boolean beginTransaction(SessionFactory sfactory) throws XWikiException
                 e);
         }
 
-        // session is obviously null here
         this.logger.debug("Trying to get session from pool");
+        Session session;
         if (sfactory == null) {
             session = getSessionFactory().openSession();
         } else {
@@ -889,7 +922,7 @@ public boolean beginTransaction(SessionFactory sfactory) throws XWikiException
         setCurrentSession(session);
 
         this.logger.debug("Trying to open transaction");
-        transaction = session.beginTransaction();
+        Transaction transaction = session.beginTransaction();
         this.logger.debug("Opened transaction [{}]", transaction);
         setCurrentTransaction(transaction);
 
@@ -900,6 +933,75 @@ public boolean beginTransaction(SessionFactory sfactory) throws XWikiException
         return true;
     }
 
+    /**
+     * Begins a transaction meant to group many operations of the current wiki (e.g. the save of a batch of imported
+     * documents). Contrary to a standard transaction, accessing another wiki while the batch transaction is the current
+     * one (e.g. from a listener of the saved documents) does not fail: the batch session is suspended until the
+     * transaction opened for the other wiki is ended.
+     *
+     * @return true if a new batch transaction has been created, false if an existing transaction is reused
+     * @throws XWikiException if an error occurs while retrieving or creating a new session and transaction
+     * @since 16.3.0RC1
+     */
+    public boolean beginBatchTransaction() throws XWikiException
+    {
+        boolean transaction = beginTransaction();
+
+        if (transaction) {
+            ExecutionContext context = this.execution.getContext();
+            context.setProperty(CONTEXT_BATCH_SESSION, getCurrentSession());
+            context.setProperty(CONTEXT_BATCH_WIKI, this.wikis.getCurrentWikiId());
+        }
+
+        return transaction;
+    }
+
+    private Session getBatchSession()
+    {
+        ExecutionContext context = this.execution.getContext();
+
+        return context != null ? (Session) context.getProperty(CONTEXT_BATCH_SESSION) : null;
+    }
+
+    private void suspendBatchSession(Session session, Transaction transaction)
+    {
+        this.logger.debug("Suspending batch session [{}]", session);
+
+        ExecutionContext context = this.execution.getContext();
+        context.setProperty(CONTEXT_SUSPENDED_SESSION, session);
+        context.setProperty(CONTEXT_SUSPENDED_TRANSACTION, transaction);
+        setCurrentSession(null);
+        setCurrentTransaction(null);
+    }
+
+    private void resumeBatchSession()
+    {
+        ExecutionContext context = this.execution.getContext();
+        Session session = (Session) context.getProperty(CONTEXT_SUSPENDED_SESSION);
+
+        if (session != null) {
+            this.logger.debug("Resuming batch session [{}]", session);
+
+            setCurrentSession(session);
+            setCurrentTransaction((Transaction) context.getProperty(CONTEXT_SUSPENDED_TRANSACTION));
+            context.removeProperty(CONTEXT_SUSPENDED_SESSION);
+            context.removeProperty(CONTEXT_SUSPENDED_TRANSACTION);
+        }
+    }
+
+    private void afterEndTransaction(Session session)
+    {
+        if (session != null) {
+            if (session == getBatchSession()) {
+                ExecutionContext context = this.execution.getContext();
+                context.removeProperty(CONTEXT_BATCH_SESSION);
+                context.removeProperty(CONTEXT_BATCH_WIKI);
+            } else {
+                resumeBatchSession();
+            }
+        }
+    }
+
     /**
      * @since 11.5RC1
      */
@@ -947,7 +1049,12 @@ public void endTransaction(boolean commit)
             throw new HibernateException(
                 "Failed to commit or rollback transaction. Root cause [" + getExceptionMessage(e) + "]", e);
         } finally {
-            closeSession(session);
+            try {
+                closeSession(session);
+            } finally {
+                // Get back to the batch session which was suspended to access another wiki
+                afterEndTransaction(session);
+            }
         }
     }
 
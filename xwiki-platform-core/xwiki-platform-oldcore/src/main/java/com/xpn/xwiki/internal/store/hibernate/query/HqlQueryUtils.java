@@ -32,6 +32,7 @@
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xwiki.query.cache.StatementCache;
 
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Expression;
@@ -136,6 +137,12 @@
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HqlQueryUtils.class);
 
+    /**
+     * The verdict of {@link #isSafe(String)} only depends on the statement, so there is no need to parse the same
+     * statements again and again.
+     */
+    private static final StatementCache<Boolean> SAFE_CACHE = new StatementCache<>(1000);
+
     private HqlQueryUtils()
     {
 
@@ -155,6 +162,20 @@ public static boolean isShortFormStatement(String statement)
      * @return true if the passed SQL statement is allowed
      */
     public static boolean isSafe(String statementString)
+    {
+        return SAFE_CACHE.get(statementString, statementString, HqlQueryUtils::isSafeStatement);
+    }
+
+    /**
+     * @return the cache holding the result of {@link #isSafe(String)}, to access its statistics
+     * @since 16.3.0RC1
+     */
+    public static StatementCache<Boolean> getSafeCache()
+    {
+        return SAFE_CACHE;
+    }
+
+    private static boolean isSafeStatement(String statementString)
     {
         try {
             // TODO: should probably use a more specific Hql parser
@@ -19,25 +19,41 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.bridge.event.WikiReadyEvent;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.CacheManager;
 import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
 import org.xwiki.model.reference.AttachmentReference;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
@@ -55,6 +71,11 @@
 import com.xpn.xwiki.doc.XWikiLink;
 import com.xpn.xwiki.doc.XWikiLock;
 import com.xpn.xwiki.internal.store.AbstractXWikiStore;
+import com.xpn.xwiki.internal.store.DocumentExistenceIndex;
+import com.xpn.xwiki.internal.store.DocumentWeigher;
+import com.xpn.xwiki.internal.store.JMXDocumentCacheRegistration;
+import com.xpn.xwiki.internal.store.WeightedCache;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.web.Utils;
 
@@ -73,6 +94,11 @@ public class XWikiCacheStore extends AbstractXWikiStore
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(XWikiCacheStore.class);
 
+    /**
+     * By default, the documents cache can use up to 10% of the heap.
+     */
+    private static final int DEFAULT_MAX_MEMORY_RATIO = 10;
+
     /**
      * Used to know if a received event is a local or remote one.
      */
@@ -96,17 +122,55 @@ public class XWikiCacheStore extends AbstractXWikiStore
     @Named("xwikicfg")
     private ConfigurationSource configuration;
 
+    @Inject
+    private JMXDocumentCacheRegistration jmxRegistration;
+
+    @Inject
+    private Execution execution;
+
     private XWikiStoreInterface store;
 
     private Cache<XWikiDocument> cache;
 
     private Cache<Boolean> pageExistCache;
 
+    /**
+     * Used to know that a document does not exist without asking the database, {@code null} when disabled.
+     */
+    private DocumentExistenceIndex existenceIndex;
+
     /**
      * Used to cache the values asked by {@link #getLimitSize(XWikiContext, Class, String)}.
      */
     private Cache<Integer> limitSizePropertyCache;
 
+    /**
+     * Make sure the documents removed or evicted from the cache are not considered cached anymore.
+     */
+    private static final class CachedDocumentListener implements CacheEntryListener<XWikiDocument>
+    {
+        @Override
+        public void cacheEntryAdded(CacheEntryEvent<XWikiDocument> event)
+        {
+            // Already marked as cached before being added
+        }
+
+        @Override
+        public void cacheEntryModified(CacheEntryEvent<XWikiDocument> event)
+        {
+            // Already marked as cached before being added
+        }
+
+        @Override
+        public void cacheEntryRemoved(CacheEntryEvent<XWikiDocument> event)
+        {
+            XWikiDocument document = event.getEntry().getValue();
+            if (document != null) {
+                document.setCached(false);
+            }
+        }
+    }
+
     /**
      * Default constructor generally used by the Component Manager.
      */
@@ -127,6 +191,10 @@ public XWikiCacheStore(XWikiStoreInterface store, XWikiContext context) throws X
         this.uidStringEntityReferenceSerializer = Utils.getComponent(EntityReferenceSerializer.TYPE_STRING, "uid");
         this.cacheManager = Utils.getComponent(CacheManager.class);
         this.configuration = Utils.getComponent(ConfigurationSource.class, "xwikicfg");
+        this.execution = Utils.getComponent(Execution.class);
+        if (Utils.getComponentManager().hasComponent(JMXDocumentCacheRegistration.class)) {
+            this.jmxRegistration = Utils.getComponent(JMXDocumentCacheRegistration.class);
+        }
 
         initCache(context);
 
@@ -154,7 +222,7 @@ public String getName()
     @Override
     public List<Event> getEvents()
     {
-        return Arrays.<Event>asList(new WikiDeletedEvent());
+        return Arrays.<Event>asList(new WikiDeletedEvent(), new WikiReadyEvent());
     }
 
     private void initListener()
@@ -166,13 +234,37 @@ private void initListener()
     private void initCache() throws CacheException
     {
         int pageCacheCapacity = this.configuration.getProperty("xwiki.store.cache.capacity", 500);
-        this.cache =
+        Cache<XWikiDocument> documentCache =
             this.cacheManager.createNewCache(new LRUCacheConfiguration("xwiki.store.pagecache", pageCacheCapacity));
+        documentCache.addCacheEntryListener(new CachedDocumentListener());
+
+        // Make sure a few very big documents cannot fill the heap
+        long pageCacheMaxMemory = this.configuration.getProperty("xwiki.store.cache.maxmemory",
+            Runtime.getRuntime().maxMemory() / DEFAULT_MAX_MEMORY_RATIO);
+        if (pageCacheMaxMemory > 0) {
+            WeightedCache<XWikiDocument> weightedCache =
+                new WeightedCache<>(documentCache, new DocumentWeigher(), pageCacheMaxMemory);
+            if (this.jmxRegistration != null) {
+                this.jmxRegistration.register(weightedCache);
+            }
+            this.cache = weightedCache;
+        } else {
+            this.cache = documentCache;
+        }
 
         int pageExistCacheCapacity = this.configuration.getProperty("xwiki.store.cache.pageexistcapacity", 10000);
         this.pageExistCache = this.cacheManager
             .createNewCache(new LRUCacheConfiguration("xwiki.store.pageexistcache", pageExistCacheCapacity));
 
+        if (this.configuration.getProperty("xwiki.store.cache.pageexistindex", true)) {
+            // The indexes are built in the background by a thread which stops when there is nothing left to build
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki document existence index thread").daemon(true).build();
+            ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(0, 1, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), factory);
+            this.existenceIndex = new DocumentExistenceIndex(() -> getStore().getQueryManager(), executor);
+        }
+
         // There won't be many values in this cache, but they will be accessed a lot.
         int limitSizePropertyCacheCapacity = 10;
         this.limitSizePropertyCache = this.cacheManager.createNewCache(
@@ -222,6 +314,8 @@ public void renameXWikiDoc(XWikiDocument doc, DocumentReference newReference, XW
         // Make sure to use the right XWikiContext instance to avoid issues
         XWikiContext context = getExecutionXContext(inputxcontext, true);
         try {
+            indexExistingDocument(new XWikiDocument(newReference, newReference.getLocale()));
+
             this.store.renameXWikiDoc(doc, newReference, context);
         } finally {
             // Flushing the cache for old document
@@ -238,6 +332,7 @@ public void renameXWikiDoc(XWikiDocument doc, DocumentReference newReference, XW
             key = getKey(newDoc, context);
             getCache().remove(key);
             getPageExistCache().remove(key);
+            indexExistingDocument(newDoc);
             context.setWikiReference(originalWikiReference);
 
             // Restore the previous XWikiContext
@@ -252,6 +347,9 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
         XWikiContext context = getExecutionXContext(inputxcontext, true);
 
         try {
+            // Make sure the document is not considered missing as soon as it's committed
+            indexExistingDocument(doc);
+
             this.store.saveXWikiDoc(doc, context, bTransaction);
 
             doc.setStore(this.store);
@@ -260,6 +358,8 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
             String key = getKey(doc, context);
             getCache().remove(key);
             getPageExistCache().remove(key);
+            // Also index the document once committed, in case the existence index was being built during the save
+            indexExistingDocument(doc);
 
             /*
              * We do not want to save the document in the cache at this time. If we did, this would introduce the
@@ -277,6 +377,9 @@ public void flushCache()
         getCache().removeAll();
         getPageExistCache().removeAll();
         getLimitSizePropertyCache().removeAll();
+        if (this.existenceIndex != null) {
+            this.existenceIndex.clear();
+        }
     }
 
     @Override
@@ -287,6 +390,20 @@ public void onEvent(Event event, Object source, Object data)
             if (event instanceof WikiDeletedEvent) {
                 flushCache();
             }
+        } else if (this.existenceIndex != null) {
+            if (event instanceof WikiReadyEvent) {
+                // The database of the wiki is ready to be queried
+                this.existenceIndex.build(((WikiReadyEvent) event).getWikiId());
+            } else if (event instanceof WikiDeletedEvent) {
+                this.existenceIndex.remove(((WikiDeletedEvent) event).getWikiId());
+            }
+        }
+    }
+
+    private void indexExistingDocument(XWikiDocument document)
+    {
+        if (this.existenceIndex != null) {
+            this.existenceIndex.add(document);
         }
     }
 
@@ -307,6 +424,9 @@ public void invalidate(XWikiDocument document)
         if (getPageExistCache() != null) {
             getPageExistCache().remove(key);
         }
+
+        // The document might have been created on another cluster member
+        indexExistingDocument(document);
     }
 
     /**
@@ -365,63 +485,188 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
             // Calculate the cache key
             String key = getKey(doc, context);
 
-            LOGGER.debug("Starting checking for Document [{}] in cache", key);
+            boolean uncommitted = isUncommitted(context.getWikiId());
 
-            XWikiDocument cachedoc;
-            try {
-                cachedoc = getCache().get(key);
-            } catch (Exception e) {
-                LOGGER.error("Failed to get document [{}] from cache", key, e);
+            XWikiDocument cachedoc = uncommitted ? null : getCachedDocument(key, doc);
 
-                cachedoc = null;
+            if (cachedoc == null) {
+                LOGGER.debug("Trying to get Document [{}] from persistent storage", key);
+
+                if (isMissing(doc)) {
+                    cachedoc = doc;
+                    cachedoc.setNew(true);
+                    cachedoc.setOriginalDocument(new XWikiDocument(doc.getDocumentReference(), doc.getLocale()));
+                } else {
+                    cachedoc = this.store.loadXWikiDoc(doc, context);
+                }
+
+                LOGGER.debug("Document [{}] was retrieved from persistent storage", key);
+
+                if (!uncommitted) {
+                    cacheLoadedDocument(key, cachedoc);
+                }
             }
 
-            if (cachedoc != null) {
-                cachedoc.setFromCache(true);
+            cachedoc.setStore(this);
+            LOGGER.debug("Ending checking for Document [{}] in cache", key);
 
-                LOGGER.debug("Document [{}] was retrieved from cache", key);
-            } else {
-                Boolean result = getPageExistCache().get(key);
+            return cachedoc;
+        } finally {
+            restoreExecutionXContext();
+        }
+    }
 
-                if (result == Boolean.FALSE) {
-                    LOGGER.debug("Document [{}] doesn't exist in cache, returning an empty one", key);
+    @Override
+    public Map<DocumentReference, XWikiDocument> loadXWikiDocs(Collection<DocumentReference> references,
+        XWikiContext inputxcontext) throws XWikiException
+    {
+        // Make sure to use the right XWikiContext instance to avoid issues
+        XWikiContext context = getExecutionXContext(inputxcontext, true);
 
-                    cachedoc = doc;
-                    cachedoc.setNew(true);
+        try {
+            Map<DocumentReference, XWikiDocument> documents = new LinkedHashMap<>(references.size());
+            Map<DocumentReference, String> missingKeys = new LinkedHashMap<>();
+            Set<DocumentReference> uncommittedReferences = new HashSet<>();
 
-                    // Make sure to always return a document with an original version, even for one that does not exist.
-                    // Allow writing more generic code.
-                    cachedoc
-                        .setOriginalDocument(new XWikiDocument(cachedoc.getDocumentReference(), cachedoc.getLocale()));
-                } else {
-                    LOGGER.debug("Trying to get Document [{}] from persistent storage", key);
+            String currentWiki = context.getWikiId();
+            try {
+                for (DocumentReference reference : references) {
+                    if (!documents.containsKey(reference)) {
+                        // The cache key is based on the current wiki
+                        context.setWikiId(reference.getWikiReference().getName());
+
+                        Locale locale = reference.getLocale() != null ? reference.getLocale() : Locale.ROOT;
+                        XWikiDocument doc = new XWikiDocument(reference, locale);
+                        String key = getKey(doc, context);
+
+                        XWikiDocument cachedoc;
+                        if (isUncommitted(context.getWikiId())) {
+                            uncommittedReferences.add(reference);
+                            cachedoc = null;
+                        } else {
+                            cachedoc = getCachedDocument(key, doc);
+                        }
+
+                        // Reserve the position of the document in the result even when it needs to be loaded
+                        documents.put(reference, cachedoc);
+                        if (cachedoc == null) {
+                            missingKeys.put(reference, key);
+                        }
+                    }
+                }
+            } finally {
+                context.setWikiId(currentWiki);
+            }
 
-                    cachedoc = this.store.loadXWikiDoc(doc, context);
+            if (!missingKeys.isEmpty()) {
+                LOGGER.debug("Trying to get Documents {} from persistent storage", missingKeys.values());
 
-                    LOGGER.debug("Document [{}] was retrieved from persistent storage", key);
+                Map<DocumentReference, XWikiDocument> loadedDocuments =
+                    this.store.loadXWikiDocs(new ArrayList<>(missingKeys.keySet()), context);
 
-                    if (cachedoc.isNew()) {
-                        getPageExistCache().set(key, Boolean.FALSE);
-                    } else {
-                        getCache().set(key, cachedoc);
+                for (Map.Entry<DocumentReference, String> entry : missingKeys.entrySet()) {
+                    XWikiDocument loadedDocument = loadedDocuments.get(entry.getKey());
 
-                        // Also update exist cache
-                        getPageExistCache().set(key, Boolean.TRUE);
+                    if (!uncommittedReferences.contains(entry.getKey())) {
+                        cacheLoadedDocument(entry.getValue(), loadedDocument);
                     }
 
-                    LOGGER.debug("Document [{}] was put in cache", key);
+                    documents.put(entry.getKey(), loadedDocument);
                 }
             }
 
-            cachedoc.setStore(this);
-            LOGGER.debug("Ending checking for Document [{}] in cache", key);
+            for (XWikiDocument document : documents.values()) {
+                document.setStore(this);
+            }
 
-            return cachedoc;
+            return documents;
         } finally {
             restoreExecutionXContext();
         }
     }
 
+    /**
+     * @param key the cache key of the document
+     * @param doc the document to return when the document is known to not exist
+     * @return the cached document, the passed document marked as new if the document is known to not exist, or
+     *         {@code null} if the document needs to be loaded from the persistent storage
+     */
+    private XWikiDocument getCachedDocument(String key, XWikiDocument doc)
+    {
+        LOGGER.debug("Starting checking for Document [{}] in cache", key);
+
+        XWikiDocument cachedoc;
+        try {
+            cachedoc = getCache().get(key);
+        } catch (Exception e) {
+            LOGGER.error("Failed to get document [{}] from cache", key, e);
+
+            cachedoc = null;
+        }
+
+        if (cachedoc != null) {
+            cachedoc.setFromCache(true);
+
+            LOGGER.debug("Document [{}] was retrieved from cache", key);
+        } else {
+            Boolean result = getPageExistCache().get(key);
+
+            if (result == Boolean.FALSE) {
+                LOGGER.debug("Document [{}] doesn't exist in cache, returning an empty one", key);
+
+                cachedoc = doc;
+                cachedoc.setNew(true);
+
+                // Make sure to always return a document with an original version, even for one that does not exist.
+                // Allow writing more generic code.
+                cachedoc
+                    .setOriginalDocument(new XWikiDocument(cachedoc.getDocumentReference(), cachedoc.getLocale()));
+            }
+        }
+
+        return cachedoc;
+    }
+
+    /**
+     * The existence index is updated with each document saved through this store or invalidated by another cluster
+     * member, and rebuilt when it's saturated, so its negative answer is trusted without asking the persistent store.
+     */
+    private boolean isMissing(XWikiDocument doc)
+    {
+        return this.existenceIndex != null && this.existenceIndex.isMissing(doc);
+    }
+
+    /**
+     * The documents of a wiki in which the current thread is saving a batch of documents are loaded from the batch
+     * transaction, and must not be shared with the other threads through the cache before this transaction is
+     * committed.
+     *
+     * @param wikiId the identifier of the wiki of the document
+     * @return {@code true} if the current thread has a batch transaction which is not committed yet in the passed wiki
+     */
+    private boolean isUncommitted(String wikiId)
+    {
+        ExecutionContext econtext = this.execution != null ? this.execution.getContext() : null;
+
+        return econtext != null && wikiId != null
+            && wikiId.equals(econtext.getProperty(HibernateStore.CONTEXT_BATCH_WIKI));
+    }
+
+    private void cacheLoadedDocument(String key, XWikiDocument doc)
+    {
+        if (doc.isNew()) {
+            getPageExistCache().set(key, Boolean.FALSE);
+        } else {
+            doc.setCached(true);
+            getCache().set(key, doc);
+
+            // Also update exist cache
+            getPageExistCache().set(key, Boolean.TRUE);
+        }
+
+        LOGGER.debug("Document [{}] was put in cache", key);
+    }
+
     @Override
     public void deleteXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext) throws XWikiException
     {
@@ -763,6 +1008,10 @@ public boolean exists(XWikiDocument doc, XWikiContext inputxcontext) throws XWik
             // Calculate the cache key
             String key = getKey(doc, context);
 
+            if (isUncommitted(context.getWikiId())) {
+                return this.store.exists(doc, context);
+            }
+
             try {
                 Boolean result = getPageExistCache().get(key);
 
@@ -781,6 +1030,69 @@ public boolean exists(XWikiDocument doc, XWikiContext inputxcontext) throws XWik
         }
     }
 
+    @Override
+    public Set<DocumentReference> getExistingDocuments(Collection<DocumentReference> references,
+        XWikiContext inputxcontext) throws XWikiException
+    {
+        // Make sure to use the right XWikiContext instance to avoid issues
+        XWikiContext context = getExecutionXContext(inputxcontext, true);
+
+        try {
+            Set<DocumentReference> existingDocuments = new HashSet<>();
+            Map<DocumentReference, String> missingKeys = new LinkedHashMap<>();
+            Set<DocumentReference> uncommittedReferences = new HashSet<>();
+
+            String currentWiki = context.getWikiId();
+            try {
+                for (DocumentReference reference : references) {
+                    // The cache key is based on the current wiki
+                    context.setWikiId(reference.getWikiReference().getName());
+
+                    Locale locale = reference.getLocale() != null ? reference.getLocale() : Locale.ROOT;
+                    XWikiDocument doc = new XWikiDocument(reference, locale);
+                    String key = getKey(doc, context);
+
+                    if (isUncommitted(context.getWikiId())) {
+                        uncommittedReferences.add(reference);
+                        missingKeys.put(reference, key);
+                        continue;
+                    }
+
+                    Boolean result = getPageExistCache().get(key);
+                    if (Boolean.TRUE.equals(result)) {
+                        existingDocuments.add(reference);
+                    } else if (result == null) {
+                        if (isMissing(doc)) {
+                            getPageExistCache().set(key, Boolean.FALSE);
+                        } else {
+                            missingKeys.put(reference, key);
+                        }
+                    }
+                }
+            } finally {
+                context.setWikiId(currentWiki);
+            }
+
+            if (!missingKeys.isEmpty()) {
+                Set<DocumentReference> storedDocuments = this.store.getExistingDocuments(missingKeys.keySet(), context);
+
+                for (Map.Entry<DocumentReference, String> entry : missingKeys.entrySet()) {
+                    boolean result = storedDocuments.contains(entry.getKey());
+                    if (!uncommittedReferences.contains(entry.getKey())) {
+                        getPageExistCache().set(entry.getValue(), Boolean.valueOf(result));
+                    }
+                    if (result) {
+                        existingDocuments.add(entry.getKey());
+                    }
+                }
+            }
+
+            return existingDocuments;
+        } finally {
+            restoreExecutionXContext();
+        }
+    }
+
     public Cache<XWikiDocument> getCache()
     {
         return this.cache;
@@ -31,6 +31,7 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -42,12 +43,14 @@
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.map.ReferenceMap;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -106,9 +109,16 @@
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.BaseProperty;
 import com.xpn.xwiki.objects.BaseStringProperty;
+import com.xpn.xwiki.objects.DBStringListProperty;
+import com.xpn.xwiki.objects.DateProperty;
+import com.xpn.xwiki.objects.DoubleProperty;
+import com.xpn.xwiki.objects.FloatProperty;
+import com.xpn.xwiki.objects.IntegerProperty;
 import com.xpn.xwiki.objects.LargeStringProperty;
 import com.xpn.xwiki.objects.ListProperty;
+import com.xpn.xwiki.objects.LongProperty;
 import com.xpn.xwiki.objects.PropertyInterface;
+import com.xpn.xwiki.objects.StringListProperty;
 import com.xpn.xwiki.objects.StringProperty;
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.objects.classes.PropertyClass;
@@ -127,6 +137,21 @@
 @Singleton
 public class XWikiHibernateStore extends XWikiHibernateBaseStore implements XWikiStoreInterface, Initializable
 {
+    /**
+     * The maximum number of identifiers passed to a single IN-list query when loading several documents at once.
+     */
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    /**
+     * The property types mapped in the default Hibernate mapping, which can be loaded with a single query per type.
+     */
+    private static final Set<String> BATCH_PROPERTY_TYPES = Set.of(IntegerProperty.class.getName(),
+        LongProperty.class.getName(), FloatProperty.class.getName(), DoubleProperty.class.getName(),
+        StringProperty.class.getName(), DateProperty.class.getName(), LargeStringProperty.class.getName(),
+        StringListProperty.class.getName(), DBStringListProperty.class.getName());
+
+    private static final String GROUPS_CLASS = "XWiki.XWikiGroups";
+
     @Inject
     private Logger logger;
 
@@ -531,6 +556,80 @@ public boolean exists(XWikiDocument doc, XWikiContext inputxcontext) throws XWik
         });
     }
 
+    @Override
+    public Set<DocumentReference> getExistingDocuments(Collection<DocumentReference> references,
+        XWikiContext inputxcontext) throws XWikiException
+    {
+        XWikiContext context = getExecutionXContext(inputxcontext, true);
+
+        try {
+            // Several references (e.g. with a null and a root locale) can target the same document
+            Map<String, Map<Long, List<DocumentReference>>> referencesByWiki = new LinkedHashMap<>();
+            for (DocumentReference reference : references) {
+                Locale locale = reference.getLocale() != null ? reference.getLocale() : Locale.ROOT;
+                referencesByWiki.computeIfAbsent(reference.getWikiReference().getName(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(new XWikiDocument(reference, locale).getId(), k -> new ArrayList<>())
+                    .add(reference);
+            }
+
+            Set<DocumentReference> existingDocuments = new HashSet<>();
+
+            String currentWiki = context.getWikiId();
+            try {
+                for (Map.Entry<String, Map<Long, List<DocumentReference>>> entry : referencesByWiki.entrySet()) {
+                    // In order to avoid trying to issue any SQL query to the DB, we first check if the wiki exists
+                    if (wikiExists(entry.getKey())) {
+                        // The database to use is taken from the context
+                        context.setWikiId(entry.getKey());
+
+                        List<Long> ids = new ArrayList<>(entry.getValue().keySet());
+                        for (List<Long> batch : ListUtils.partition(ids, LOAD_BATCH_SIZE)) {
+                            for (Long id : getExistingDocumentIds(batch, context)) {
+                                existingDocuments.addAll(entry.getValue().get(id));
+                            }
+                        }
+                    }
+                }
+            } finally {
+                context.setWikiId(currentWiki);
+            }
+
+            return existingDocuments;
+        } finally {
+            restoreExecutionXContext();
+        }
+    }
+
+    private boolean wikiExists(String wiki) throws XWikiException
+    {
+        try {
+            return this.wikiDescriptorManager.exists(wiki);
+        } catch (WikiManagerException e) {
+            Object[] args = {wiki};
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                XWikiException.ERROR_XWIKI_STORE_HIBERNATE_CHECK_EXISTS_DOC,
+                "Error while checking for existence of the [{0}] wiki", e, args);
+        }
+    }
+
+    private List<Long> getExistingDocumentIds(List<Long> ids, XWikiContext context) throws XWikiException
+    {
+        return executeRead(context, session -> {
+            try {
+                Query<Long> query =
+                    session.createQuery("select doc.id from XWikiDocument as doc where doc.id in (:ids)", Long.class);
+                query.setParameterList("ids", ids);
+
+                return query.list();
+            } catch (Exception e) {
+                Object[] args = {ids};
+                throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                    XWikiException.ERROR_XWIKI_STORE_HIBERNATE_CHECK_EXISTS_DOC,
+                    "Exception while checking the existence of the documents with ids {0}", e, args);
+            }
+        });
+    }
+
     @Override
     public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean bTransaction) throws XWikiException
     {
@@ -1055,118 +1154,7 @@ public XWikiDocument loadXWikiDoc(XWikiDocument defaultDocument, XWikiContext in
                         return defaultDocument;
                     }
 
-                    doc.setStore(this);
-                    doc.setNew(false);
-                    doc.setMostRecent(true);
-                    // Fix for XWIKI-1651
-                    doc.setDate(new Date(doc.getDate().getTime()));
-                    doc.setCreationDate(new Date(doc.getCreationDate().getTime()));
-                    doc.setContentUpdateDate(new Date(doc.getContentUpdateDate().getTime()));
-
-                    // Loading the attachment list
-                    if (doc.hasElement(XWikiDocument.HAS_ATTACHMENTS)) {
-                        loadAttachmentList(doc, context, false);
-                    }
-
-                    // TODO: handle the case where there are no xWikiClass and xWikiObject in the Database
-                    BaseClass bclass = new BaseClass();
-                    String cxml = doc.getXClassXML();
-                    if (cxml != null) {
-                        bclass.fromXML(cxml);
-                        doc.setXClass(bclass);
-                        bclass.setDirty(false);
-                    }
-
-                    // Store this XWikiClass in the context so that we can use it in case of recursive usage
-                    // of classes
-                    context.addBaseClass(bclass);
-
-                    if (doc.hasElement(XWikiDocument.HAS_OBJECTS)) {
-                        Query<BaseObject> query = session.createQuery(
-                            "from BaseObject as bobject where bobject.name = :name order by bobject.number",
-                            BaseObject.class);
-                        query.setParameter("name", doc.getFullName());
-
-                        Iterator<BaseObject> it = query.list().iterator();
-
-                        EntityReference localGroupEntityReference = new EntityReference("XWikiGroups",
-                            EntityType.DOCUMENT, new EntityReference("XWiki", EntityType.SPACE));
-                        DocumentReference groupsDocumentReference = new DocumentReference(context.getWikiId(),
-                            localGroupEntityReference.getParent().getName(), localGroupEntityReference.getName());
-
-                        boolean hasGroups = false;
-                        while (it.hasNext()) {
-                            BaseObject object = it.next();
-                            DocumentReference classReference = object.getXClassReference();
-
-                            if (classReference == null) {
-                                continue;
-                            }
-
-                            // It seems to search before is case insensitive. And this would break the loading if we get
-                            // an
-                            // object which doesn't really belong to this document
-                            if (!object.getDocumentReference().equals(doc.getDocumentReference())) {
-                                continue;
-                            }
-
-                            BaseObject newobject;
-                            if (classReference.equals(doc.getDocumentReference())) {
-                                newobject = bclass.newCustomClassInstance(true);
-                            } else {
-                                newobject = BaseClass.newCustomClassInstance(classReference, true, context);
-                            }
-                            if (newobject != null) {
-                                newobject.setId(object.getId());
-                                newobject.setXClassReference(object.getRelativeXClassReference());
-                                newobject.setDocumentReference(object.getDocumentReference());
-                                newobject.setNumber(object.getNumber());
-                                newobject.setGuid(object.getGuid());
-                                object = newobject;
-                            }
-
-                            if (classReference.equals(groupsDocumentReference)) {
-                                // Groups objects are handled differently.
-                                hasGroups = true;
-                            } else {
-                                loadXWikiCollectionInternal(object, doc, context, false, true);
-                            }
-                            doc.setXObject(object.getNumber(), object);
-                        }
-
-                        // AFAICT this was added as an emergency patch because loading of objects has proven
-                        // too slow and the objects which cause the most overhead are the XWikiGroups objects
-                        // as each group object (each group member) would otherwise cost 2 database queries.
-                        // This will do every group member in a single query.
-                        if (hasGroups) {
-                            Query<Object[]> query2 = session.createQuery(
-                                "select bobject.number, prop.value from StringProperty as prop,"
-                                    + "BaseObject as bobject where bobject.name = :name and bobject.className='XWiki.XWikiGroups' "
-                                    + "and bobject.id=prop.id.id and prop.id.name='member' order by bobject.number",
-                                Object[].class);
-                            query2.setParameter("name", doc.getFullName());
-
-                            Iterator<Object[]> it2 = query2.list().iterator();
-                            while (it2.hasNext()) {
-                                Object[] result = it2.next();
-                                Integer number = (Integer) result[0];
-                                String member = (String) result[1];
-                                BaseObject obj =
-                                    BaseClass.newCustomClassInstance(groupsDocumentReference, true, context);
-                                obj.setDocumentReference(doc.getDocumentReference());
-                                obj.setXClassReference(localGroupEntityReference);
-                                obj.setNumber(number.intValue());
-                                obj.setStringValue("member", member);
-                                doc.setXObject(obj.getNumber(), obj);
-                            }
-                        }
-                    }
-
-                    doc.setContentDirty(false);
-                    doc.setMetaDataDirty(false);
-
-                    // We need to ensure that the loaded document becomes the original document
-                    doc.setOriginalDocument(doc.clone());
+                    initializeLoadedDocument(doc, session, null, null, null, null, context);
 
                     if (bTransaction) {
                         endTransaction(context, false);
@@ -1199,6 +1187,366 @@ public XWikiDocument loadXWikiDoc(XWikiDocument defaultDocument, XWikiContext in
         }
     }
 
+    @Override
+    public Map<DocumentReference, XWikiDocument> loadXWikiDocs(Collection<DocumentReference> references,
+        XWikiContext inputxcontext) throws XWikiException
+    {
+        XWikiContext context = getExecutionXContext(inputxcontext, true);
+
+        try {
+            // Dynamic custom mappings might require a different session factory for each document
+            if (context.getWiki().hasDynamicCustomMappings()) {
+                return XWikiStoreInterface.super.loadXWikiDocs(references, context);
+            }
+
+            Map<DocumentReference, XWikiDocument> documents = new LinkedHashMap<>(references.size());
+            Map<String, List<DocumentReference>> referencesByWiki = new LinkedHashMap<>();
+            for (DocumentReference reference : references) {
+                if (!documents.containsKey(reference)) {
+                    Locale locale = reference.getLocale() != null ? reference.getLocale() : Locale.ROOT;
+                    documents.put(reference, new XWikiDocument(reference, locale));
+                    referencesByWiki.computeIfAbsent(reference.getWikiReference().getName(), k -> new ArrayList<>())
+                        .add(reference);
+                }
+            }
+
+            String currentWiki = context.getWikiId();
+            try {
+                for (Map.Entry<String, List<DocumentReference>> entry : referencesByWiki.entrySet()) {
+                    // The database to use is taken from the context
+                    context.setWikiId(entry.getKey());
+
+                    for (List<DocumentReference> batch : ListUtils.partition(entry.getValue(), LOAD_BATCH_SIZE)) {
+                        loadXWikiDocBatch(batch, documents, context);
+                    }
+                }
+            } finally {
+                context.setWikiId(currentWiki);
+            }
+
+            return documents;
+        } finally {
+            restoreExecutionXContext();
+        }
+    }
+
+    private void loadXWikiDocBatch(List<DocumentReference> batch, Map<DocumentReference, XWikiDocument> documents,
+        XWikiContext context) throws XWikiException
+    {
+        List<XWikiDocument> defaultDocuments = batch.stream().map(documents::get).collect(Collectors.toList());
+
+        Map<Long, XWikiDocument> loadedDocuments = executeRead(context, session -> {
+            try {
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+
+                return loadXWikiDocBatch(defaultDocuments, session, context);
+            } catch (Exception e) {
+                Object[] args = {batch};
+                throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                    XWikiException.ERROR_XWIKI_STORE_HIBERNATE_READING_DOC, "Exception while reading documents {0}", e,
+                    args);
+            }
+        });
+
+        for (DocumentReference reference : batch) {
+            XWikiDocument defaultDocument = documents.get(reference);
+            XWikiDocument document = loadedDocuments.get(defaultDocument.getId());
+            if (document != null) {
+                documents.put(reference, document);
+
+                this.logger.debug("Loaded XWikiDocument: [{}]", document.getDocumentReferenceWithLocale());
+            } else {
+                defaultDocument.setNew(true);
+
+                // Make sure to always return a document with an original version, even for one that does not exist.
+                defaultDocument.setOriginalDocument(
+                    new XWikiDocument(defaultDocument.getDocumentReference(), defaultDocument.getLocale()));
+            }
+        }
+    }
+
+    private Map<Long, XWikiDocument> loadXWikiDocBatch(List<XWikiDocument> defaultDocuments, Session session,
+        XWikiContext context) throws XWikiException
+    {
+        // Documents
+        Query<XWikiDocument> documentQuery =
+            session.createQuery("from XWikiDocument as doc where doc.id in (:ids)", XWikiDocument.class);
+        documentQuery.setParameterList("ids",
+            defaultDocuments.stream().map(XWikiDocument::getId).collect(Collectors.toSet()));
+        List<XWikiDocument> documents = documentQuery.list();
+
+        // Attachments metadata
+        Set<Long> attachmentDocumentIds = documents.stream()
+            .filter(document -> document.hasElement(XWikiDocument.HAS_ATTACHMENTS)).map(XWikiDocument::getId)
+            .collect(Collectors.toSet());
+        Map<Long, List<XWikiAttachment>> attachments = new HashMap<>();
+        if (!attachmentDocumentIds.isEmpty()) {
+            Query<XWikiAttachment> query = session
+                .createQuery("from XWikiAttachment as attach where attach.docId in (:docids)", XWikiAttachment.class);
+            query.setParameterList("docids", attachmentDocumentIds);
+            for (XWikiAttachment attachment : query.list()) {
+                attachments.computeIfAbsent(attachment.getDocId(), k -> new ArrayList<>()).add(attachment);
+            }
+        }
+
+        // Objects
+        Set<String> objectDocumentNames = documents.stream()
+            .filter(document -> document.hasElement(XWikiDocument.HAS_OBJECTS)).map(XWikiDocument::getFullName)
+            .collect(Collectors.toSet());
+        Map<String, List<BaseObject>> objects = new HashMap<>();
+        List<Long> objectIds = new ArrayList<>();
+        Set<String> groupDocumentNames = new HashSet<>();
+        if (!objectDocumentNames.isEmpty()) {
+            Query<BaseObject> query = session.createQuery(
+                "from BaseObject as bobject where bobject.name in (:names) order by bobject.name, bobject.number",
+                BaseObject.class);
+            query.setParameterList("names", objectDocumentNames);
+            for (BaseObject object : query.list()) {
+                objects.computeIfAbsent(object.getName(), k -> new ArrayList<>()).add(object);
+                // The properties of the group objects are loaded separately
+                if (GROUPS_CLASS.equals(object.getClassName())) {
+                    groupDocumentNames.add(object.getName());
+                } else {
+                    objectIds.add(object.getId());
+                }
+            }
+        }
+
+        // Objects properties
+        Map<Long, List<Object[]>> properties = loadProperties(objectIds, session);
+
+        // Groups members
+        Map<String, List<Object[]>> groupMembers = new HashMap<>();
+        for (List<String> groupDocumentNamesBatch : ListUtils.partition(new ArrayList<>(groupDocumentNames),
+            LOAD_BATCH_SIZE)) {
+            Query<Object[]> query = session.createQuery("select bobject.name, bobject.number, prop.value"
+                + " from StringProperty as prop, BaseObject as bobject where bobject.name in (:names)"
+                + " and bobject.className='XWiki.XWikiGroups' and bobject.id=prop.id.id and prop.id.name='member'"
+                + " order by bobject.name, bobject.number", Object[].class);
+            query.setParameterList("names", groupDocumentNamesBatch);
+            for (Object[] result : query.list()) {
+                groupMembers.computeIfAbsent((String) result[0], k -> new ArrayList<>())
+                    .add(new Object[] {result[1], result[2]});
+            }
+        }
+
+        Map<Long, XWikiDocument> loadedDocuments = new HashMap<>(documents.size());
+        for (XWikiDocument document : documents) {
+            initializeLoadedDocument(document, session,
+                attachments.getOrDefault(document.getId(), Collections.emptyList()),
+                objects.getOrDefault(document.getFullName(), Collections.emptyList()), properties,
+                groupMembers.getOrDefault(document.getFullName(), Collections.emptyList()), context);
+
+            loadedDocuments.put(document.getId(), document);
+        }
+
+        return loadedDocuments;
+    }
+
+    /**
+     * Load the properties of several objects with one query for their names and types and one query for each type.
+     *
+     * @param objectIds the identifiers of the objects
+     * @param session the current Hibernate session
+     * @return the name, type and loaded property (or {@code null} when it needs to be loaded individually) of each
+     *         property, indexed by object id
+     */
+    private Map<Long, List<Object[]>> loadProperties(List<Long> objectIds, Session session)
+    {
+        Map<Long, List<Object[]>> properties = new HashMap<>();
+        Map<String, Set<Long>> objectIdsByType = new HashMap<>();
+        for (List<Long> objectIdsBatch : ListUtils.partition(objectIds, LOAD_BATCH_SIZE)) {
+            Query<Object[]> query = session.createQuery(
+                "select prop.id.id, prop.name, prop.classType from BaseProperty as prop where prop.id.id in (:ids)",
+                Object[].class);
+            query.setParameterList("ids", objectIdsBatch);
+            for (Object[] result : query.list()) {
+                properties.computeIfAbsent((Long) result[0], k -> new ArrayList<>())
+                    .add(new Object[] {result[1], result[2], null});
+                if (BATCH_PROPERTY_TYPES.contains(result[2])) {
+                    objectIdsByType.computeIfAbsent((String) result[2], k -> new HashSet<>()).add((Long) result[0]);
+                }
+            }
+        }
+
+        // Filtering on the type makes sure each property is loaded with the class it was saved with, even for the
+        // types sharing the same table. The properties not found (e.g. saved in the table of another type) are left
+        // to the individual loading which knows how to recover them.
+        Map<Long, Map<String, BaseProperty>> loadedProperties = new HashMap<>();
+        for (Map.Entry<String, Set<Long>> entry : objectIdsByType.entrySet()) {
+            for (List<Long> objectIdsBatch : ListUtils.partition(new ArrayList<>(entry.getValue()),
+                LOAD_BATCH_SIZE)) {
+                Query<BaseProperty> query = session.createQuery("from " + entry.getKey()
+                    + " as prop where prop.id.id in (:ids) and prop.classType = :classType", BaseProperty.class);
+                query.setParameterList("ids", objectIdsBatch);
+                query.setParameter("classType", entry.getKey());
+                for (BaseProperty property : query.list()) {
+                    loadedProperties.computeIfAbsent(property.getId(), k -> new HashMap<>())
+                        .put(property.getName(), property);
+                }
+            }
+        }
+
+        for (Map.Entry<Long, List<Object[]>> entry : properties.entrySet()) {
+            Map<String, BaseProperty> objectProperties = loadedProperties.get(entry.getKey());
+            if (objectProperties != null) {
+                for (Object[] property : entry.getValue()) {
+                    property[2] = objectProperties.get(property[0]);
+                }
+            }
+        }
+
+        return properties;
+    }
+
+    /**
+     * Finish the initialization of a document freshly loaded from the database: attachments, class and objects.
+     *
+     * @param doc the document entity loaded by Hibernate
+     * @param session the current Hibernate session
+     * @param attachments the already loaded attachments of the document or {@code null} to load them
+     * @param objects the already loaded objects of the document (ordered by number) or {@code null} to load them
+     * @param properties the already loaded names, types and values of the properties, indexed by object id, or
+     *            {@code null} to load them
+     * @param groupMembers the already loaded numbers and values of the group members or {@code null} to load them
+     * @param context the XWiki context
+     * @throws XWikiException when failing to load the document
+     */
+    private void initializeLoadedDocument(XWikiDocument doc, Session session, List<XWikiAttachment> attachments,
+        List<BaseObject> objects, Map<Long, List<Object[]>> properties, List<Object[]> groupMembers,
+        XWikiContext context) throws XWikiException
+    {
+        doc.setStore(this);
+        doc.setNew(false);
+        doc.setMostRecent(true);
+        // Fix for XWIKI-1651
+        doc.setDate(new Date(doc.getDate().getTime()));
+        doc.setCreationDate(new Date(doc.getCreationDate().getTime()));
+        doc.setContentUpdateDate(new Date(doc.getContentUpdateDate().getTime()));
+
+        // Loading the attachment list
+        if (doc.hasElement(XWikiDocument.HAS_ATTACHMENTS)) {
+            if (attachments != null) {
+                for (XWikiAttachment attachment : attachments) {
+                    doc.setAttachment(attachment);
+                }
+            } else {
+                loadAttachmentList(doc, context, false);
+            }
+        }
+
+        // TODO: handle the case where there are no xWikiClass and xWikiObject in the Database
+        BaseClass bclass = new BaseClass();
+        String cxml = doc.getXClassXML();
+        if (cxml != null) {
+            bclass.fromXML(cxml);
+            doc.setXClass(bclass);
+            bclass.setDirty(false);
+        }
+
+        // Store this XWikiClass in the context so that we can use it in case of recursive usage
+        // of classes
+        context.addBaseClass(bclass);
+
+        if (doc.hasElement(XWikiDocument.HAS_OBJECTS)) {
+            List<BaseObject> documentObjects = objects;
+            if (documentObjects == null) {
+                Query<BaseObject> query = session.createQuery(
+                    "from BaseObject as bobject where bobject.name = :name order by bobject.number",
+                    BaseObject.class);
+                query.setParameter("name", doc.getFullName());
+                documentObjects = query.list();
+            }
+
+            Iterator<BaseObject> it = documentObjects.iterator();
+
+            EntityReference localGroupEntityReference = new EntityReference("XWikiGroups",
+                EntityType.DOCUMENT, new EntityReference("XWiki", EntityType.SPACE));
+            DocumentReference groupsDocumentReference = new DocumentReference(context.getWikiId(),
+                localGroupEntityReference.getParent().getName(), localGroupEntityReference.getName());
+
+            boolean hasGroups = false;
+            while (it.hasNext()) {
+                BaseObject object = it.next();
+                DocumentReference classReference = object.getXClassReference();
+
+                if (classReference == null) {
+                    continue;
+                }
+
+                // It seems to search before is case insensitive. And this would break the loading if we get
+                // an
+                // object which doesn't really belong to this document
+                if (!object.getDocumentReference().equals(doc.getDocumentReference())) {
+                    continue;
+                }
+
+                BaseObject newobject;
+                if (classReference.equals(doc.getDocumentReference())) {
+                    newobject = bclass.newCustomClassInstance(true);
+                } else {
+                    newobject = BaseClass.newCustomClassInstance(classReference, true, context);
+                }
+                if (newobject != null) {
+                    newobject.setId(object.getId());
+                    newobject.setXClassReference(object.getRelativeXClassReference());
+                    newobject.setDocumentReference(object.getDocumentReference());
+                    newobject.setNumber(object.getNumber());
+                    newobject.setGuid(object.getGuid());
+                    object = newobject;
+                }
+
+                if (classReference.equals(groupsDocumentReference)) {
+                    // Groups objects are handled differently.
+                    hasGroups = true;
+                } else {
+                    loadXWikiCollectionInternal(object, doc,
+                        properties != null ? properties.getOrDefault(object.getId(), Collections.emptyList()) : null,
+                        context, false, true);
+                }
+                doc.setXObject(object.getNumber(), object);
+            }
+
+            // AFAICT this was added as an emergency patch because loading of objects has proven
+            // too slow and the objects which cause the most overhead are the XWikiGroups objects
+            // as each group object (each group member) would otherwise cost 2 database queries.
+            // This will do every group member in a single query.
+            if (hasGroups) {
+                List<Object[]> members = groupMembers;
+                if (members == null) {
+                    Query<Object[]> query2 = session.createQuery(
+                        "select bobject.number, prop.value from StringProperty as prop,"
+                            + "BaseObject as bobject where bobject.name = :name"
+                            + " and bobject.className='XWiki.XWikiGroups' "
+                            + "and bobject.id=prop.id.id and prop.id.name='member' order by bobject.number",
+                        Object[].class);
+                    query2.setParameter("name", doc.getFullName());
+                    members = query2.list();
+                }
+
+                Iterator<Object[]> it2 = members.iterator();
+                while (it2.hasNext()) {
+                    Object[] result = it2.next();
+                    Integer number = (Integer) result[0];
+                    String member = (String) result[1];
+                    BaseObject obj =
+                        BaseClass.newCustomClassInstance(groupsDocumentReference, true, context);
+                    obj.setDocumentReference(doc.getDocumentReference());
+                    obj.setXClassReference(localGroupEntityReference);
+                    obj.setNumber(number.intValue());
+                    obj.setStringValue("member", member);
+                    doc.setXObject(obj.getNumber(), obj);
+                }
+            }
+        }
+
+        doc.setContentDirty(false);
+        doc.setMetaDataDirty(false);
+
+        // We need to ensure that the loaded document becomes the original document
+        doc.setOriginalDocument(doc.clone());
+    }
+
     @Override
     public void deleteXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext) throws XWikiException
     {
@@ -1506,6 +1854,13 @@ private void loadXWikiCollectionInternal(BaseCollection object, XWikiContext con
 
     private void loadXWikiCollectionInternal(BaseCollection object1, XWikiDocument doc, XWikiContext inputxcontext,
         boolean bTransaction, boolean alreadyLoaded) throws XWikiException
+    {
+        loadXWikiCollectionInternal(object1, doc, null, inputxcontext, bTransaction, alreadyLoaded);
+    }
+
+    // propertyTypes contains the already loaded names and types of the object properties, null to load them
+    private void loadXWikiCollectionInternal(BaseCollection object1, XWikiDocument doc, List<Object[]> propertyTypes,
+        XWikiContext inputxcontext, boolean bTransaction, boolean alreadyLoaded) throws XWikiException
     {
         XWikiContext context = getExecutionXContext(inputxcontext, true);
 
@@ -1567,11 +1922,15 @@ private void loadXWikiCollectionInternal(BaseCollection object1, XWikiDocument d
 
                     // Load strings, integers, dates all at once
 
-                    Query<Object[]> query = session.createQuery(
-                        "select prop.name, prop.classType from BaseProperty as prop where prop.id.id = :id",
-                        Object[].class);
-                    query.setParameter("id", object.getId());
-                    for (Object[] result : query.list()) {
+                    List<Object[]> objectPropertyTypes = propertyTypes;
+                    if (objectPropertyTypes == null) {
+                        Query<Object[]> query = session.createQuery(
+                            "select prop.name, prop.classType from BaseProperty as prop where prop.id.id = :id",
+                            Object[].class);
+                        query.setParameter("id", object.getId());
+                        objectPropertyTypes = query.list();
+                    }
+                    for (Object[] result : objectPropertyTypes) {
                         String name = (String) result[0];
                         // No need to load fields already loaded from
                         // custom mapping
@@ -1581,6 +1940,16 @@ private void loadXWikiCollectionInternal(BaseCollection object1, XWikiDocument d
                         String classType = (String) result[1];
                         BaseProperty property = null;
 
+                        // Already loaded with the other properties of the same type
+                        if (result.length > 2 && result[2] != null) {
+                            property = (BaseProperty) result[2];
+                            property.setObject(object);
+                            initializeLoadedProperty(property);
+                            object.addField(name, property);
+
+                            continue;
+                        }
+
                         try {
                             property = (BaseProperty) Class.forName(classType).newInstance();
                             property.setObject(object);
@@ -1751,29 +2120,12 @@ private void loadXWikiProperty(PropertyInterface property, XWikiContext context,
             try {
                 try {
                     session.load(property, (Serializable) property);
-                    // In Oracle, empty string are converted to NULL. Since an undefined property is not found at all,
-                    // it is
-                    // safe to assume that a retrieved NULL value should actually be an empty string.
-                    if (property instanceof BaseStringProperty) {
-                        BaseStringProperty stringProperty = (BaseStringProperty) property;
-                        if (stringProperty.getValue() == null) {
-                            stringProperty.setValue("");
-                        }
-                    }
-                    ((BaseProperty) property).setValueDirty(false);
+                    initializeLoadedProperty((BaseProperty) property);
                 } catch (ObjectNotFoundException e) {
                     // Let's accept that there is no data in property tables but log it
                     this.logger.error("No data for property [{}] of object id [{}]", property.getName(),
                         property.getId());
                 }
-
-                // TODO: understand why collections are lazy loaded
-                // Let's force reading lists if there is a list
-                // This seems to be an issue since Hibernate 3.0
-                // Without this test ViewEditTest.testUpdateAdvanceObjectProp fails
-                if (property instanceof ListProperty) {
-                    ((ListProperty) property).getList();
-                }
             } catch (Exception e) {
                 BaseCollection obj = property.getObject();
                 Object[] args = {(obj != null) ? obj.getName() : "unknown", property.getName()};
@@ -1787,6 +2139,27 @@ private void loadXWikiProperty(PropertyInterface property, XWikiContext context,
         });
     }
 
+    private void initializeLoadedProperty(BaseProperty property)
+    {
+        // In Oracle, empty string are converted to NULL. Since an undefined property is not found at all, it is
+        // safe to assume that a retrieved NULL value should actually be an empty string.
+        if (property instanceof BaseStringProperty) {
+            BaseStringProperty stringProperty = (BaseStringProperty) property;
+            if (stringProperty.getValue() == null) {
+                stringProperty.setValue("");
+            }
+        }
+        property.setValueDirty(false);
+
+        // TODO: understand why collections are lazy loaded
+        // Let's force reading lists if there is a list
+        // This seems to be an issue since Hibernate 3.0
+        // Without this test ViewEditTest.testUpdateAdvanceObjectProp fails
+        if (property instanceof ListProperty) {
+            ((ListProperty) property).getList();
+        }
+    }
+
     private void saveXWikiPropertyInternal(final PropertyInterface property, final XWikiContext context,
         final boolean runInOwnTransaction) throws XWikiException
     {
@@ -19,14 +19,18 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Function;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.hibernate.Session;
+import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.suigeneris.jrcs.rcs.Version;
@@ -38,6 +42,7 @@
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.criteria.impl.Range;
 import com.xpn.xwiki.criteria.impl.RangeFactory;
 import com.xpn.xwiki.criteria.impl.RevisionCriteria;
 import com.xpn.xwiki.criteria.impl.RevisionCriteriaFactory;
@@ -63,6 +68,11 @@ public class XWikiHibernateVersioningStore extends XWikiHibernateBaseStore imple
     /** Logger. */
     private static final Logger LOGGER = LoggerFactory.getLogger(XWikiHibernateVersioningStore.class);
 
+    private static final String NODES_PER_FULL_PROPERTY = "xwiki.store.rcs.nodesPerFull";
+
+    /** The number of RCS nodes to fetch at once when loading only the nodes needed to restore a version. */
+    private static final int NODES_PAGE_SIZE = 20;
+
     /**
      * This allows to initialize our storage engine. The hibernate config file path is taken from xwiki.cfg or directly
      * in the WEB-INF directory.
@@ -175,6 +185,80 @@ private XWikiDocumentArchive getXWikiDocumentArchive(XWikiDocument doc, Revision
         return archiveDoc;
     }
 
+    @Override
+    public XWikiRCSNodeInfo getXWikiDocVersionInfo(XWikiDocument doc, Version version, XWikiContext context)
+        throws XWikiException
+    {
+        // Reuse the archive when it's already loaded
+        XWikiDocumentArchive archive = doc.getDocumentArchive();
+        if (archive != null) {
+            return archive.getNode(version);
+        }
+
+        return loadRCSNodeInfo(doc,
+            session -> VersioningStoreQueryFactory.getRCSNodeInfoOfVersionQuery(session, doc.getId(), version),
+            context);
+    }
+
+    @Override
+    public Version getXWikiDocPreviousVersion(XWikiDocument doc, Version version, XWikiContext context)
+        throws XWikiException
+    {
+        // Reuse the archive when it's already loaded
+        XWikiDocumentArchive archive = doc.getDocumentArchive();
+        if (archive != null) {
+            return archive.getPrevVersion(version);
+        }
+
+        XWikiRCSNodeInfo node = loadRCSNodeInfo(doc,
+            session -> VersioningStoreQueryFactory.getPreviousRCSNodeInfoQuery(session, doc.getId(), version),
+            context);
+
+        return node != null ? node.getId().getVersion() : null;
+    }
+
+    /**
+     * Load a single RCS node of the archive of a document.
+     *
+     * @param doc the document
+     * @param queryBuilder creates the query matching the node to load
+     * @param inputxcontext the XWiki context
+     * @return the loaded node, or {@code null} if none matches
+     * @throws XWikiException if any error
+     */
+    private XWikiRCSNodeInfo loadRCSNodeInfo(XWikiDocument doc,
+        Function<Session, Query<XWikiRCSNodeInfo>> queryBuilder, XWikiContext inputxcontext) throws XWikiException
+    {
+        XWikiContext context = getExecutionXContext(inputxcontext, true);
+
+        String db = context.getWikiId();
+        try {
+            if (doc.getDatabase() != null) {
+                context.setWikiId(doc.getDatabase());
+            }
+
+            XWikiRCSNodeInfo node = executeRead(context, session -> {
+                try {
+                    return queryBuilder.apply(session).uniqueResult();
+                } catch (IllegalArgumentException e) {
+                    throw new XWikiException(String.format(
+                        "Encountered invalid history when fetching archive for document [%s]", doc.getId()), e);
+                }
+            });
+
+            // Remember the wiki where the node is from
+            if (node != null) {
+                node.getId().setWikiReference(context.getWikiReference());
+            }
+
+            return node;
+        } finally {
+            context.setWikiId(db);
+
+            restoreExecutionXContext();
+        }
+    }
+
     @Override
     public void loadXWikiDocArchive(XWikiDocumentArchive archivedoc, boolean bTransaction, XWikiContext context)
         throws XWikiException
@@ -196,6 +280,70 @@ private void loadXWikiDocArchive(XWikiDocumentArchive archivedoc, RevisionCriter
         }
     }
 
+    /**
+     * Load only the nodes needed to restore a version: the node of this version and the following ones until the
+     * next full version.
+     *
+     * @param archive the archive to fill
+     * @param doc the document
+     * @param version the version to restore
+     * @param inputxcontext the XWiki context
+     * @return {@code true} if the loaded nodes include the most recent version of the document
+     * @throws XWikiException if any error
+     */
+    private boolean loadXWikiDocArchive(XWikiDocumentArchive archive, XWikiDocument doc, Version version,
+        XWikiContext inputxcontext) throws XWikiException
+    {
+        XWikiContext context = getExecutionXContext(inputxcontext, true);
+
+        String db = context.getWikiId();
+        try {
+            if (doc.getDatabase() != null) {
+                context.setWikiId(doc.getDatabase());
+            }
+
+            List<XWikiRCSNodeInfo> nodes = new ArrayList<>();
+            boolean mostRecent = executeRead(context, session -> {
+                try {
+                    Query<XWikiRCSNodeInfo> query =
+                        VersioningStoreQueryFactory.getRCSNodeInfoFromVersionQuery(session, archive.getId(), version);
+
+                    int offset = 0;
+                    while (true) {
+                        List<XWikiRCSNodeInfo> page =
+                            query.setFirstResult(offset).setMaxResults(NODES_PAGE_SIZE).getResultList();
+                        for (XWikiRCSNodeInfo node : page) {
+                            if (!nodes.isEmpty() && !nodes.get(nodes.size() - 1).isDiff()) {
+                                // There are more recent versions after the full version
+                                return false;
+                            }
+                            nodes.add(node);
+                        }
+
+                        if (page.size() < NODES_PAGE_SIZE) {
+                            return true;
+                        }
+                        offset += page.size();
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new XWikiException(String.format(
+                        "Encountered invalid history when fetching archive for document [%s]", archive.getId()), e);
+                }
+            });
+
+            // Remember the wiki where the nodes are from
+            nodes.forEach(n -> n.getId().setWikiReference(context.getWikiReference()));
+
+            archive.setNodes(nodes);
+
+            return mostRecent;
+        } finally {
+            context.setWikiId(db);
+
+            restoreExecutionXContext();
+        }
+    }
+
     @Override
     public void saveXWikiDocArchive(final XWikiDocumentArchive archivedoc, boolean bTransaction, XWikiContext context)
         throws XWikiException
@@ -227,10 +375,21 @@ public XWikiDocument loadXWikiDoc(XWikiDocument basedoc, String sversion, XWikiC
         XWikiContext context = getExecutionXContext(inputxcontext, true);
 
         try {
-            XWikiDocumentArchive archive = getXWikiDocumentArchive(basedoc, context);
             Version version = new Version(sversion);
 
-            XWikiDocument doc = archive.loadDocument(version, context);
+            XWikiDocument doc;
+            XWikiDocumentArchive archive = basedoc.getDocumentArchive();
+            if (archive != null) {
+                doc = archive.loadDocument(version, context);
+            } else {
+                // Don't load the whole history (which can be very long) to restore a single version
+                archive = new XWikiDocumentArchive(basedoc.getDocumentReference().getWikiReference(), basedoc.getId());
+                boolean mostRecent = loadXWikiDocArchive(archive, basedoc, version, context);
+                doc = archive.loadDocument(version, context);
+                if (doc != null && !mostRecent) {
+                    doc.setMostRecent(false);
+                }
+            }
             if (doc == null) {
                 Object[] args = { basedoc.getDocumentReferenceWithLocale(), version.toString() };
                 throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
@@ -291,7 +450,7 @@ public void updateXWikiDocArchive(XWikiDocument doc, boolean bTransaction, XWiki
         try {
             RevisionCriteria criteria = new RevisionCriteria();
             criteria.setIncludeMinorVersions(true);
-            criteria.setRange(RangeFactory.getLAST());
+            criteria.setRange(getUpdateRange(context));
 
             XWikiDocumentArchive archiveDoc = getXWikiDocumentArchive(doc, criteria, context);
             UserReferenceSerializer<String> userReferenceSerializer = Utils.getComponent(
@@ -326,6 +485,29 @@ protected List<XWikiRCSNodeInfo> loadAllRCSNodeInfo(XWikiContext context, final
         return loadRCSNodeInfo(context, id, new RevisionCriteriaFactory().createRevisionCriteria(true));
     }
 
+    /**
+     * By default only the last node is loaded to update the archive, so the previous version is always stored as a
+     * patch. When {@code xwiki.store.rcs.nodesPerFull} is configured, load the information (but not the content) of
+     * as many nodes as needed to decide if the previous version should be kept as a full version.
+     */
+    private Range getUpdateRange(XWikiContext context)
+    {
+        String nodesPerFull = context.getWiki().getConfig().getProperty(NODES_PER_FULL_PROPERTY);
+        if (nodesPerFull != null) {
+            try {
+                int size = Integer.parseInt(nodesPerFull.trim());
+                if (size > 1) {
+                    return RangeFactory.createTailRange(size);
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid value [{}] for the [{}] configuration property", nodesPerFull,
+                    NODES_PER_FULL_PROPERTY);
+            }
+        }
+
+        return RangeFactory.getLAST();
+    }
+
     /**
      * Loads a part of the RCS nodes present in the archive of a given document, based on criteria.
      *
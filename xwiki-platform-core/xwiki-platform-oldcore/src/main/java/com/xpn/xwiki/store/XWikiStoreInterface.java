@@ -19,12 +19,19 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.AttachmentReference;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.query.QueryManager;
+import org.xwiki.stability.Unstable;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -59,6 +66,79 @@ default void renameXWikiDoc(XWikiDocument doc, DocumentReference newReference, X
 
     XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext context) throws XWikiException;
 
+    /**
+     * Load several documents at once. The locale of each reference indicates which translation to load,
+     * {@link Locale#ROOT} being used when it's {@code null}.
+     * <p>
+     * The default implementation loads the documents one by one, stores are expected to override it with something
+     * more efficient when they can.
+     *
+     * @param references the references of the documents to load
+     * @param context the XWiki context
+     * @return the loaded documents, in the same order as the passed references, documents which don't exist are
+     *         returned as new documents (see {@link XWikiDocument#isNew()})
+     * @throws XWikiException when failing to load the documents
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default Map<DocumentReference, XWikiDocument> loadXWikiDocs(Collection<DocumentReference> references,
+        XWikiContext context) throws XWikiException
+    {
+        Map<DocumentReference, XWikiDocument> documents = new LinkedHashMap<>(references.size());
+
+        String currentWiki = context.getWikiId();
+        try {
+            for (DocumentReference reference : references) {
+                if (!documents.containsKey(reference)) {
+                    context.setWikiId(reference.getWikiReference().getName());
+
+                    Locale locale = reference.getLocale() != null ? reference.getLocale() : Locale.ROOT;
+                    documents.put(reference, loadXWikiDoc(new XWikiDocument(reference, locale), context));
+                }
+            }
+        } finally {
+            context.setWikiId(currentWiki);
+        }
+
+        return documents;
+    }
+
+    /**
+     * Check the existence of several documents at once. The locale of each reference indicates which translation to
+     * check, {@link Locale#ROOT} being used when it's {@code null}.
+     * <p>
+     * The default implementation checks the documents one by one, stores are expected to override it with something
+     * more efficient when they can.
+     *
+     * @param references the references of the documents to check
+     * @param context the XWiki context
+     * @return the references of the passed documents which exist
+     * @throws XWikiException when failing to check the documents existence
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default Set<DocumentReference> getExistingDocuments(Collection<DocumentReference> references, XWikiContext context)
+        throws XWikiException
+    {
+        Set<DocumentReference> existingDocuments = new HashSet<>();
+
+        String currentWiki = context.getWikiId();
+        try {
+            for (DocumentReference reference : references) {
+                context.setWikiId(reference.getWikiReference().getName());
+
+                Locale locale = reference.getLocale() != null ? reference.getLocale() : Locale.ROOT;
+                if (exists(new XWikiDocument(reference, locale), context)) {
+                    existingDocuments.add(reference);
+                }
+            }
+        } finally {
+            context.setWikiId(currentWiki);
+        }
+
+        return existingDocuments;
+    }
+
     void deleteXWikiDoc(XWikiDocument doc, XWikiContext context) throws XWikiException;
 
     List<String> getClassList(XWikiContext context) throws XWikiException;
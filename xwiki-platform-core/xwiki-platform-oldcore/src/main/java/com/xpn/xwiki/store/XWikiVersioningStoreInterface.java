@@ -140,6 +140,42 @@ default long getXWikiDocVersionsCount(XWikiDocument doc, RevisionCriteria criter
         return getXWikiDocStringVersions(doc, criteria, context).size();
     }
 
+    /**
+     * Gets the information about a given version of a document, without loading its whole history when the
+     * implementation allows it.
+     *
+     * @param doc the document
+     * @param version the version
+     * @param context the XWiki context
+     * @return the information about the version, or {@code null} if the document history doesn't contain it
+     * @throws XWikiException if any error
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default XWikiRCSNodeInfo getXWikiDocVersionInfo(XWikiDocument doc, Version version, XWikiContext context)
+        throws XWikiException
+    {
+        return getXWikiDocumentArchive(doc, context).getNode(version);
+    }
+
+    /**
+     * Gets the version preceding a given version of a document, without loading its whole history when the
+     * implementation allows it.
+     *
+     * @param doc the document
+     * @param version the version
+     * @param context the XWiki context
+     * @return the previous version, or {@code null} if there is none
+     * @throws XWikiException if any error
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default Version getXWikiDocPreviousVersion(XWikiDocument doc, Version version, XWikiContext context)
+        throws XWikiException
+    {
+        return getXWikiDocumentArchive(doc, context).getPrevVersion(version);
+    }
+
     XWikiDocument loadXWikiDoc(XWikiDocument doc, String version, XWikiContext context) throws XWikiException;
 
     void resetRCSArchive(XWikiDocument doc, boolean bTransaction, XWikiContext context) throws XWikiException;
@@ -19,8 +19,11 @@
  */
 package com.xpn.xwiki.store.hibernate.query;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -32,10 +35,15 @@
 import javax.inject.Singleton;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.EntityEntry;
 import org.hibernate.engine.spi.NamedQueryDefinition;
 import org.hibernate.engine.spi.NamedSQLQueryDefinition;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.query.NativeQuery;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
@@ -43,17 +51,22 @@
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.context.Execution;
+import org.xwiki.management.JMXBeanRegistration;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryExecutor;
 import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryPageExecutor;
 import org.xwiki.query.QueryParameter;
+import org.xwiki.query.QueryResultConsumer;
 import org.xwiki.query.SecureQuery;
 import org.xwiki.query.WrappingQuery;
+import org.xwiki.query.cache.JMXStatementCache;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
 import com.xpn.xwiki.internal.store.hibernate.query.HqlQueryUtils;
 import com.xpn.xwiki.store.XWikiHibernateStore;
@@ -77,6 +90,8 @@ public class HqlQueryExecutor implements QueryExecutor, Initializable
 
     private static final String ESCAPE_LIKE_PARAMETERS_FILTER = "escapeLikeParameters";
 
+    private static final String SAFE_CACHE_MBEAN_NAME = "type=Query,name=HQLSafetyCache";
+
     @Inject
     private HibernateStore hibernate;
 
@@ -93,6 +108,9 @@ public class HqlQueryExecutor implements QueryExecutor, Initializable
     @Named("context")
     private Provider<ComponentManager> componentManagerProvider;
 
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
     private volatile Set<String> allowedNamedQueries;
 
     @Override
@@ -101,6 +119,9 @@ public void initialize() throws InitializationException
         Configuration configuration = this.hibernate.getConfiguration();
 
         configuration.addInputStream(Util.getResourceAsStream(MAPPING_PATH));
+
+        // Expose the statistics of the statement cache
+        this.jmxRegistration.registerMBean(new JMXStatementCache(HqlQueryUtils.getSafeCache()), SAFE_CACHE_MBEAN_NAME);
     }
 
     private Set<String> getAllowedNamedQueries()
@@ -186,6 +207,110 @@ public <T> List<T> execute(final Query query) throws QueryException
         }
     }
 
+    @Override
+    public <T> void forEach(Query query, int batchSize, QueryResultConsumer<T> consumer) throws QueryException
+    {
+        // Make sure the query is allowed in the current context
+        checkAllowed(query);
+
+        String oldDatabase = getContext().getWikiId();
+        try {
+            if (query.getWiki() != null) {
+                getContext().setWikiId(query.getWiki());
+            }
+
+            // Filter the query
+            Query filteredQuery = filterQuery(query);
+
+            // Scroll the results in the current session, like for #execute()
+            getStore().executeRead(getContext(), session -> {
+                scroll(session, query, filteredQuery, batchSize, consumer, oldDatabase);
+
+                return null;
+            });
+        } catch (XWikiException e) {
+            if (e.getCause() instanceof QueryException) {
+                throw (QueryException) e.getCause();
+            }
+
+            throw new QueryException("Exception while executing query", query, e);
+        } catch (Exception e) {
+            throw new QueryException("Exception while executing query", query, e);
+        } finally {
+            getContext().setWikiId(oldDatabase);
+        }
+    }
+
+    private <T> void scroll(Session session, Query query, Query filteredQuery, int batchSize,
+        QueryResultConsumer<T> consumer, String consumerWiki) throws XWikiException
+    {
+        PersistenceContext persistenceContext = session.unwrap(SessionImplementor.class).getPersistenceContext();
+
+        // The entities which were already loaded in the session before the query are left attached
+        Set<Object> keptEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+            keptEntities.add(entry.getKey());
+        }
+
+        org.hibernate.query.Query<T> hquery = createQuery(session, filteredQuery);
+        hquery.setReadOnly(true);
+        hquery.setFetchSize(batchSize);
+        try (ScrollableResults results = hquery.scroll(ScrollMode.FORWARD_ONLY)) {
+            List<T> batch = new ArrayList<>(batchSize);
+            while (results.next()) {
+                Object[] row = results.get();
+                batch.add((T) (row.length == 1 ? row[0] : row));
+
+                if (batch.size() == batchSize) {
+                    consume(query, batch, consumer, consumerWiki);
+                    // Don't keep the entities of the previous batches
+                    evict(session, persistenceContext, batch, keptEntities);
+                    batch.clear();
+                }
+            }
+            consume(query, batch, consumer, consumerWiki);
+        } catch (QueryException e) {
+            throw new XWikiException("Failed to consume the query results", e);
+        }
+    }
+
+    private void evict(Session session, PersistenceContext persistenceContext, List<?> batch,
+        Set<Object> keptEntities)
+    {
+        for (Object result : batch) {
+            Object[] values = result instanceof Object[] ? (Object[]) result : new Object[] {result};
+            for (Object value : values) {
+                if (value != null && !keptEntities.contains(value) && persistenceContext.getEntry(value) != null) {
+                    session.evict(value);
+                }
+            }
+        }
+    }
+
+    private <T> void consume(Query query, List<T> batch, QueryResultConsumer<T> consumer, String consumerWiki)
+        throws QueryException
+    {
+        // Filter the query results
+        List<T> results = batch;
+        if (query.getFilters() != null && !query.getFilters().isEmpty()) {
+            for (QueryFilter filter : query.getFilters()) {
+                results = filter.filterResults(results);
+            }
+        }
+
+        // Give back to the consumer the context in which the query was executed
+        XWikiContext context = getContext();
+        String queryWiki = context.getWikiId();
+        context.setWikiId(consumerWiki);
+        try {
+            for (T result : results) {
+                QueryPageExecutor.accept(consumer, result, query);
+            }
+        } finally {
+            context.setWikiId(queryWiki);
+        }
+    }
+
     protected Query filterQuery(Query query)
     {
         Query filteredQuery = query;
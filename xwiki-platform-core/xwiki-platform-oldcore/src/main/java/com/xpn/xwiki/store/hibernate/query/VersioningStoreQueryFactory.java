@@ -25,12 +25,14 @@
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
 
 import org.hibernate.Session;
 import org.hibernate.query.Query;
+import org.suigeneris.jrcs.rcs.Version;
 import org.xwiki.stability.Unstable;
 
 import com.xpn.xwiki.criteria.impl.Range;
@@ -208,4 +210,91 @@ public static Query<XWikiRCSNodeInfo> getRCSNodeInfoQuery(Session session, final
         return session.createQuery(queryBuilder.criteriaQuery);
     }
 
+    /**
+     * Returns a query to fetch the RCS nodes of a given document starting from a given version, ordered from the
+     * oldest to the most recent version.
+     *
+     * @param session the hibernate session
+     * @param id the id of the document
+     * @param version the oldest version to fetch
+     * @return the created query
+     * @since 16.3.0RC1
+     */
+    public static Query<XWikiRCSNodeInfo> getRCSNodeInfoFromVersionQuery(Session session, final long id,
+        Version version)
+    {
+        VersioningStoreQueryFactory<XWikiRCSNodeInfo> queryBuilder =
+            new VersioningStoreQueryFactory<>(XWikiRCSNodeInfo.class, session);
+        CriteriaBuilder builder = queryBuilder.builder;
+
+        Path<Object> nodeId = queryBuilder.root.get(FIELD_ID);
+        Path<Integer> version1 = nodeId.get(FIELD_VERSION1);
+        Path<Integer> version2 = nodeId.get(FIELD_VERSION2);
+
+        queryBuilder.criteriaQuery.select(queryBuilder.root);
+        queryBuilder.criteriaQuery.where(builder.equal(nodeId.get(FIELD_DOCID), id),
+            builder.isNotNull(queryBuilder.root.get(FIELD_DIFF)),
+            builder.or(builder.gt(version1, version.at(0)),
+                builder.and(builder.equal(version1, version.at(0)), builder.ge(version2, version.at(1)))));
+        queryBuilder.criteriaQuery.orderBy(builder.asc(version1), builder.asc(version2));
+
+        return session.createQuery(queryBuilder.criteriaQuery);
+    }
+
+    /**
+     * Returns a query to fetch the RCS node of a given version of a document.
+     *
+     * @param session the hibernate session
+     * @param id the id of the document
+     * @param version the version to fetch
+     * @return the created query
+     * @since 16.3.0RC1
+     */
+    public static Query<XWikiRCSNodeInfo> getRCSNodeInfoOfVersionQuery(Session session, final long id,
+        Version version)
+    {
+        VersioningStoreQueryFactory<XWikiRCSNodeInfo> queryBuilder =
+            new VersioningStoreQueryFactory<>(XWikiRCSNodeInfo.class, session);
+        CriteriaBuilder builder = queryBuilder.builder;
+
+        Path<Object> nodeId = queryBuilder.root.get(FIELD_ID);
+
+        queryBuilder.criteriaQuery.select(queryBuilder.root);
+        queryBuilder.criteriaQuery.where(builder.equal(nodeId.get(FIELD_DOCID), id),
+            builder.isNotNull(queryBuilder.root.get(FIELD_DIFF)),
+            builder.equal(nodeId.get(FIELD_VERSION1), version.at(0)),
+            builder.equal(nodeId.get(FIELD_VERSION2), version.at(1)));
+
+        return session.createQuery(queryBuilder.criteriaQuery);
+    }
+
+    /**
+     * Returns a query to fetch the RCS node of the version preceding a given version of a document.
+     *
+     * @param session the hibernate session
+     * @param id the id of the document
+     * @param version the version following the one to fetch
+     * @return the created query
+     * @since 16.3.0RC1
+     */
+    public static Query<XWikiRCSNodeInfo> getPreviousRCSNodeInfoQuery(Session session, final long id,
+        Version version)
+    {
+        VersioningStoreQueryFactory<XWikiRCSNodeInfo> queryBuilder =
+            new VersioningStoreQueryFactory<>(XWikiRCSNodeInfo.class, session);
+        CriteriaBuilder builder = queryBuilder.builder;
+
+        Path<Object> nodeId = queryBuilder.root.get(FIELD_ID);
+        Path<Integer> version1 = nodeId.get(FIELD_VERSION1);
+        Path<Integer> version2 = nodeId.get(FIELD_VERSION2);
+
+        queryBuilder.criteriaQuery.select(queryBuilder.root);
+        queryBuilder.criteriaQuery.where(builder.equal(nodeId.get(FIELD_DOCID), id),
+            builder.isNotNull(queryBuilder.root.get(FIELD_DIFF)),
+            builder.or(builder.lt(version1, version.at(0)),
+                builder.and(builder.equal(version1, version.at(0)), builder.lt(version2, version.at(1)))));
+        queryBuilder.criteriaQuery.orderBy(builder.desc(version1), builder.desc(version2));
+
+        return session.createQuery(queryBuilder.criteriaQuery).setMaxResults(1);
+    }
 }
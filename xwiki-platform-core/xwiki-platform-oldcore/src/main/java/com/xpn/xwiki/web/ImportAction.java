@@ -263,10 +263,14 @@ private void importPackageFilterStream(XWikiAttachment packFile, XWikiRequest re
         observation.notify(new XARImportingEvent(), null, context);
 
         try {
-            xarFilterStream.read(instanceFilterStream.getFilter());
+            try {
+                xarFilterStream.read(instanceFilterStream.getFilter());
 
-            xarFilterStream.close();
-            instanceFilterStream.close();
+                xarFilterStream.close();
+            } finally {
+                // Make sure the current batch of documents is ended (when saving in bulk) even if the import failed
+                instanceFilterStream.close();
+            }
         } finally {
             if (loggerManager != null) {
                 // Stop isolating log
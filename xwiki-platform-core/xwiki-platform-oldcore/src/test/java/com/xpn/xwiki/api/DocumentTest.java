@@ -60,9 +60,12 @@
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -173,6 +176,37 @@ void removeObjectDoesntCauseDataLoss() throws XWikiException
         }
     }
 
+    @Test
+    void modifyObjectOfCachedDocumentBetweenSaves() throws XWikiException
+    {
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+
+        XWikiDocument xdoc = new XWikiDocument(documentReference);
+        xdoc.getXClass().addTextField("key", "Key", 30);
+        xdoc.newXObject(documentReference, xcontext).setStringValue("key", "initial");
+        this.oldcore.getSpyXWiki().saveDocument(xdoc, xcontext);
+
+        XWikiDocument cachedDocument = this.oldcore.getSpyXWiki().getDocument(documentReference, xcontext);
+        cachedDocument.setCached(true);
+
+        doNothing().when(this.oldcore.getSpyXWiki()).checkSavingDocument(any(), any(), any(), anyBoolean(), any());
+
+        Document document = cachedDocument.newDocument(xcontext);
+        Object object = document.getObject(xdoc.getPrefixedFullName());
+
+        object.set("key", "value1");
+        document.saveDocument("", false);
+
+        // The object was copied when saving the document, the next modification must still go to the saved copy
+        object.set("key", "value2");
+        document.saveDocument("", false);
+
+        assertEquals("initial", cachedDocument.getXObject(documentReference).getStringValue("key"));
+        assertEquals("value2", this.oldcore.getSpyXWiki().getDocument(documentReference, xcontext)
+            .getXObject(documentReference).getStringValue("key"));
+    }
+
     @Test
     void saveAsAuthorUsesGuestIfDroppedPermissions() throws XWikiException
     {
@@ -413,6 +413,42 @@ void verifyDiffAndFullRevisionAlgorithm() throws Exception
         assertFalse(archive.getNode(new Version(6, 1)).isDiff());
     }
 
+    @Test
+    void verifyDiffAndFullRevisionAlgorithmWithPartialHistory() throws Exception
+    {
+        XWikiDocument doc = new XWikiDocument(new DocumentReference("Test", "Test", "Test"));
+        String author = "XWiki.some author";
+
+        // Only the last 5 nodes are loaded when saving a document, including the previous full version (5.1)
+        XWikiDocumentArchive archive = createPartialArchive(doc, author);
+        assertFalse(archive.getNode(new Version(5, 1)).isDiff());
+
+        addRevisionToHistory(archive, doc, "content 8.1", author, "8.1");
+        assertTrue(archive.getNode(new Version(7, 1)).isDiff());
+        assertFalse(archive.getNode(new Version(8, 1)).isDiff());
+
+        // All the loaded nodes before the latest one are patches (e.g. a history saved without periodic full versions)
+        archive = createPartialArchive(doc, author);
+        archive.getNode(new Version(5, 1)).setDiff(true);
+
+        addRevisionToHistory(archive, doc, "content 8.1", author, "8.1");
+        assertFalse(archive.getNode(new Version(7, 1)).isDiff());
+        assertFalse(archive.getNode(new Version(8, 1)).isDiff());
+    }
+
+    private XWikiDocumentArchive createPartialArchive(XWikiDocument doc, String author) throws XWikiException
+    {
+        XWikiDocumentArchive archive = new XWikiDocumentArchive(doc.getId());
+        for (int i = 1; i <= 7; i++) {
+            addRevisionToHistory(archive, doc, "content " + i + ".1", author, i + ".1");
+        }
+
+        XWikiDocumentArchive partialArchive = new XWikiDocumentArchive(doc.getId());
+        partialArchive.setNodes(archive.getNodes(new Version(7, 1), new Version(3, 1)));
+
+        return partialArchive;
+    }
+
     private void addRevisionToHistory(XWikiDocumentArchive archive, XWikiDocument document, String content,
         String author, String comment) throws XWikiException
     {
@@ -39,6 +39,7 @@
 import org.dom4j.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.suigeneris.jrcs.rcs.Version;
 import org.xwiki.link.LinkException;
 import org.xwiki.link.LinkStore;
 import org.xwiki.model.EntityType;
@@ -71,6 +72,7 @@
 import com.xpn.xwiki.objects.classes.TextAreaClass;
 import com.xpn.xwiki.objects.meta.MetaClass;
 import com.xpn.xwiki.store.XWikiAttachmentStoreInterface;
+import com.xpn.xwiki.store.XWikiVersioningStoreInterface;
 import com.xpn.xwiki.test.MockitoOldcore;
 import com.xpn.xwiki.test.component.XWikiDocumentFilterUtilsComponentList;
 import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
@@ -92,6 +94,7 @@
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -567,6 +570,24 @@ void testGetPreviousVersion() throws XWikiException
         assertNull(this.document.getPreviousVersion());
     }
 
+    @Test
+    void getPreviousVersionWithoutArchive() throws XWikiException
+    {
+        this.document = new XWikiDocument(new DocumentReference(DOCWIKI, DOCSPACE, DOCNAME));
+        this.document.setNew(false);
+        this.document.setVersion("2.1");
+
+        XWikiVersioningStoreInterface versioningStore = this.oldcore.getMockVersioningStore();
+        doReturn(new Version("1.3")).when(versioningStore).getXWikiDocPreviousVersion(eq(this.document),
+            eq(new Version("2.1")), any());
+
+        assertEquals("1.3", this.document.getPreviousVersion());
+
+        // Only the previous version is loaded, not the whole archive
+        verify(versioningStore, never()).getXWikiDocumentArchive(any(), any());
+        assertNull(this.document.getDocumentArchive());
+    }
+
     @Test
     void testCloneNullObjects()
     {
@@ -609,6 +630,61 @@ void testCloneNullObjects()
         assertEquals(2, duplicatedDocument.getXObjects(duplicatedClassReference).size());
     }
 
+    @Test
+    void cloneCopyOnWrite()
+    {
+        this.document.setAttachment(new XWikiAttachment(this.document, "file.txt"));
+        this.document.setMetaDataDirty(false);
+
+        XWikiDocument clonedDocument = this.document.cloneCopyOnWrite();
+
+        assertFalse(clonedDocument.isMetaDataDirty());
+
+        // XObjects are shared until they are modified
+        assertSame(this.baseObject2, clonedDocument.getXObject(CLASS_REFERENCE, 1));
+
+        BaseObject clonedObject = clonedDocument.unshareXObject(clonedDocument.getXObject(CLASS_REFERENCE, 1));
+        assertNotSame(this.baseObject2, clonedObject);
+        assertEquals(this.baseObject2, clonedObject);
+        assertSame(clonedObject, clonedDocument.getXObject(CLASS_REFERENCE, 1));
+        assertSame(clonedObject, clonedDocument.unshareXObject(clonedObject));
+        assertSame(clonedDocument, clonedObject.getOwnerDocument());
+        assertSame(this.document, this.baseObject2.getOwnerDocument());
+
+        clonedObject.setStringValue("string", "modified");
+        assertEquals("string", this.baseObject2.getStringValue("string"));
+        assertSame(this.baseObject, clonedDocument.getXObject(CLASS_REFERENCE, 0));
+
+        // Attachments are shared until they are modified
+        XWikiAttachment attachment = this.document.getAttachment("file.txt");
+        assertSame(attachment, clonedDocument.getAttachment("file.txt"));
+
+        XWikiAttachment clonedAttachment = clonedDocument.unshareAttachment(attachment);
+        assertNotSame(attachment, clonedAttachment);
+        assertSame(clonedDocument, clonedAttachment.getDoc());
+        assertSame(this.document, attachment.getDoc());
+        assertEquals(List.of(clonedAttachment), clonedDocument.getAttachmentList());
+        assertEquals(List.of(attachment), this.document.getAttachmentList());
+
+        // XClass is shared until it's modified
+        assertSame(this.baseClass, clonedDocument.getXClass());
+
+        clonedDocument.unshareElements();
+
+        assertNotSame(this.baseClass, clonedDocument.getXClass());
+        assertEquals(this.baseClass, clonedDocument.getXClass());
+        assertSame(clonedDocument, clonedDocument.getXClass().getOwnerDocument());
+        assertNotSame(this.baseObject, clonedDocument.getXObject(CLASS_REFERENCE, 0));
+        assertSame(clonedObject, clonedDocument.getXObject(CLASS_REFERENCE, 1));
+
+        // The xobjects and xclass obtained before they were copied are found by reference
+        assertSame(clonedDocument.getXObject(CLASS_REFERENCE, 0), clonedDocument.unshareXObject(this.baseObject));
+        assertSame(clonedDocument.getXClass(), clonedDocument.unshareXClass(this.baseClass));
+
+        assertFalse(clonedDocument.isMetaDataDirty());
+        assertEquals(this.document.getXObjects().keySet(), clonedDocument.getXObjects().keySet());
+    }
+
     @Test
     void testToStringReturnsFullName()
     {
@@ -41,6 +41,10 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.PageReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
 import org.xwiki.rendering.configuration.ExtendedRenderingConfiguration;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.security.authorization.Right;
@@ -381,6 +385,29 @@ public void getSections() throws XWikiException
         assertEquals("1.1", header2.getSectionLevel());
     }
 
+    @Test
+    void getReadOnlyXDOM() throws XWikiException
+    {
+        this.document.setContent("= header 1=\nheader 1 content\n== header 2==\nheader 2 content");
+        this.document.setSyntax(Syntax.XWIKI_2_1);
+
+        XDOM xdom = this.document.getReadOnlyXDOM();
+
+        assertSame(xdom, this.document.getReadOnlyXDOM());
+        assertNotSame(xdom, this.document.getXDOM());
+
+        // Make sure extracting sections does not modify the shared XDOM
+        assertEquals(2, this.document.getSections().size());
+        assertTrue(this.document.getContentOfSection(2).contains("header 2 content"));
+        for (Block block : xdom.getBlocks(new ClassBlockMatcher(HeaderBlock.class), Block.Axes.DESCENDANT)) {
+            assertSame(xdom, block.getRoot());
+        }
+
+        this.document.setContent("new content");
+
+        assertNotSame(xdom, this.document.getReadOnlyXDOM());
+    }
+
     @Test
     public void getDocumentSection10() throws XWikiException
     {
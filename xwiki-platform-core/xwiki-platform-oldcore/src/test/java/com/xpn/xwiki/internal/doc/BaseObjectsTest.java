@@ -19,13 +19,16 @@
  */
 package com.xpn.xwiki.internal.doc;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import com.xpn.xwiki.objects.BaseObject;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -131,6 +134,84 @@ void remove()
         assertSame(XOBJ2, objects.get(0));
     }
 
+    @Test
+    void share()
+    {
+        BaseObjects source = new BaseObjects(Arrays.asList(XOBJ1, null, XOBJ2, XOBJ3));
+
+        List<BaseObject> copied = new ArrayList<>();
+        BaseObjects objects = new BaseObjects(source, object -> {
+            copied.add(object);
+
+            TestBaseObject copy = new TestBaseObject();
+            copy.setNumber(object.getNumber());
+
+            return copy;
+        });
+
+        assertEquals(4, objects.size());
+        assertEquals(List.of(), copied);
+
+        // Reading does not copy anything
+        assertSame(XOBJ2, objects.get(2));
+        assertNull(objects.get(1));
+        assertEquals(List.of(), copied);
+
+        BaseObject copy2 = objects.unshare(2);
+
+        assertNotSame(XOBJ2, copy2);
+        assertEquals(2, copy2.getNumber());
+        assertSame(copy2, objects.get(2));
+        assertSame(copy2, objects.unshare(2));
+        assertEquals(List.of(XOBJ2), copied);
+
+        // Replacing an object does not copy it
+        objects.set(0, XOBJ4);
+
+        assertSame(XOBJ4, objects.get(0));
+        assertEquals(List.of(XOBJ2), copied);
+
+        // The shifted objects are copied since their number is modified
+        objects.remove(1);
+
+        assertEquals(3, objects.size());
+        assertSame(copy2, objects.get(1));
+        assertNotSame(XOBJ3, objects.get(2));
+        assertEquals(2, objects.get(2).getNumber());
+        assertEquals(List.of(XOBJ2, XOBJ3), copied);
+
+        // Make sure the source was not modified
+        assertEquals(4, source.size());
+        assertSame(XOBJ1, source.get(0));
+        assertNull(source.get(1));
+        assertSame(XOBJ2, source.get(2));
+        assertSame(XOBJ3, source.get(3));
+    }
+
+    @Test
+    void unshareAll()
+    {
+        BaseObjects source = new BaseObjects(Arrays.asList(XOBJ1, null, XOBJ2));
+
+        List<BaseObject> copied = new ArrayList<>();
+        BaseObjects objects = new BaseObjects(source, object -> {
+            copied.add(object);
+
+            return new TestBaseObject();
+        });
+
+        objects.unshareAll();
+
+        assertEquals(List.of(XOBJ1, XOBJ2), copied);
+        assertNotSame(XOBJ1, objects.get(0));
+        assertNull(objects.get(1));
+        assertNotSame(XOBJ2, objects.get(2));
+
+        // Nothing is shared anymore
+        objects.unshare(0);
+        assertEquals(List.of(XOBJ1, XOBJ2), copied);
+    }
+
     @Test
     void clear()
     {
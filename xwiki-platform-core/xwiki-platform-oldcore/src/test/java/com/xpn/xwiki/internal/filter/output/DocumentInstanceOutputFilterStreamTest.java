@@ -30,19 +30,24 @@
 
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.suigeneris.jrcs.rcs.Version;
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.instance.output.DocumentInstanceOutputProperties;
 import org.xwiki.model.document.DocumentAuthors;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.EventListener;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.syntax.SyntaxType;
 import org.xwiki.user.UserReference;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.internal.event.DocumentsImportedEvent;
+import com.xpn.xwiki.internal.event.DocumentsImportingEvent;
 import com.xpn.xwiki.internal.filter.AbstractInstanceFilterStreamTest;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.BaseProperty;
@@ -53,6 +58,16 @@
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Validate {@link DocumentInstanceOutputFilterStream}.
@@ -294,6 +309,72 @@ void importDocumentsWithoutLocaleAndRevision() throws FilterException, XWikiExce
         assertEquals(2, otherObject.getIntValue("prop2"));
     }
 
+    @Test
+    void importDocumentsInBulk() throws Exception
+    {
+        EventListener listener = mock(EventListener.class);
+        when(listener.getName()).thenReturn("bulk");
+        when(listener.getEvents()).thenReturn(List.of(DocumentsImportingEvent.EVENT, DocumentsImportedEvent.EVENT));
+        this.oldcore.getObservationManager().addListener(listener);
+
+        DocumentInstanceOutputProperties outputProperties = new DocumentInstanceOutputProperties();
+
+        outputProperties.setVerbose(false);
+        outputProperties.setBulk(true);
+        outputProperties.setBulkBatchSize(1);
+
+        importFromXML("document1-2", outputProperties);
+
+        assertFalse(this.oldcore.getSpyXWiki()
+            .getDocument(new DocumentReference("wiki", "otherspace", "otherclass"), this.oldcore.getXWikiContext())
+            .isNew());
+        assertFalse(this.oldcore.getSpyXWiki()
+            .getDocument(new DocumentReference("wiki", "space", "page"), this.oldcore.getXWikiContext()).isNew());
+
+        // One batch per document
+        verify(listener, times(2)).onEvent(eq(DocumentsImportingEvent.EVENT), isNull(), any());
+        ArgumentCaptor<Object> batchCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(listener, times(2)).onEvent(eq(DocumentsImportedEvent.EVENT), batchCaptor.capture(), any());
+        assertEquals(new DocumentReference("wiki", "otherspace", "otherclass"),
+            ((DocumentReference) ((List<?>) batchCaptor.getAllValues().get(0)).get(0)).withoutLocale());
+        assertEquals(new DocumentReference("wiki", "space", "page"),
+            ((DocumentReference) ((List<?>) batchCaptor.getAllValues().get(1)).get(0)).withoutLocale());
+    }
+
+    @Test
+    void importDocumentsInBulkWithFailure() throws Exception
+    {
+        EventListener listener = mock(EventListener.class);
+        when(listener.getName()).thenReturn("bulk");
+        when(listener.getEvents()).thenReturn(List.of(DocumentsImportingEvent.EVENT, DocumentsImportedEvent.EVENT));
+        this.oldcore.getObservationManager().addListener(listener);
+
+        DocumentReference classReference = new DocumentReference("wiki", "otherspace", "otherclass");
+        DocumentReference pageReference = new DocumentReference("wiki", "space", "page");
+        doThrow(new XWikiException(0, 0, "error")).when(this.oldcore.getSpyXWiki()).saveDocument(
+            argThat(document -> document != null && pageReference.equals(document.getDocumentReference())), any(),
+            anyBoolean(), any(XWikiContext.class));
+
+        DocumentInstanceOutputProperties outputProperties = new DocumentInstanceOutputProperties();
+
+        outputProperties.setVerbose(false);
+        outputProperties.setStoppedWhenSaveFail(false);
+        outputProperties.setBulk(true);
+        outputProperties.setBulkBatchSize(10);
+
+        importFromXML("document1-2", outputProperties);
+
+        // The batch was cancelled and its other document saved again on its own
+        verify(listener).onEvent(eq(DocumentsImportingEvent.EVENT), isNull(), any());
+        verify(listener).onEvent(eq(DocumentsImportedEvent.EVENT), eq(List.of()), any());
+        verify(this.oldcore.getSpyXWiki(), times(2)).saveDocument(
+            argThat(document -> document != null && classReference.equals(document.getDocumentReference())), any(),
+            anyBoolean(), any(XWikiContext.class));
+        assertFalse(
+            this.oldcore.getSpyXWiki().getDocument(classReference, this.oldcore.getXWikiContext()).isNew());
+        assertTrue(this.oldcore.getSpyXWiki().getDocument(pageReference, this.oldcore.getXWikiContext()).isNew());
+    }
+
     @Test
     void documentwithunexistingobjectproperty() throws FilterException, XWikiException
     {
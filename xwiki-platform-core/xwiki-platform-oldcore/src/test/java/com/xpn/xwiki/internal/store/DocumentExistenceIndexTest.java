@@ -0,0 +1,145 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link DocumentExistenceIndex}.
+ *
+ * @version $Id$
+ */
+class DocumentExistenceIndexTest
+{
+    private static final XWikiDocument EXISTING = new XWikiDocument(new DocumentReference("wiki", "space", "existing"));
+
+    private static final XWikiDocument MISSING = new XWikiDocument(new DocumentReference("wiki", "space", "missing"));
+
+    private QueryManager queryManager;
+
+    private DocumentExistenceIndex index;
+
+    @BeforeEach
+    void beforeEach() throws QueryException
+    {
+        this.queryManager = mock(QueryManager.class);
+
+        Query countQuery = mock(Query.class, "count");
+        when(this.queryManager.createQuery(startsWith("select count"), eq(Query.HQL))).thenReturn(countQuery);
+        when(countQuery.setWiki(anyString())).thenReturn(countQuery);
+        when(countQuery.execute()).thenReturn(List.of(1L));
+
+        Query idQuery = mock(Query.class, "ids");
+        when(this.queryManager.createQuery(startsWith("select doc.id"), eq(Query.HQL))).thenReturn(idQuery);
+        when(idQuery.setWiki(anyString())).thenReturn(idQuery);
+        when(idQuery.setLimit(anyInt())).thenReturn(idQuery);
+        when(idQuery.bindValue(anyString(), anyLong())).thenReturn(idQuery);
+        when(idQuery.execute()).thenReturn(List.of(EXISTING.getId()));
+
+        this.index = new DocumentExistenceIndex(() -> this.queryManager, Runnable::run);
+    }
+
+    @Test
+    void isMissing()
+    {
+        // Not built yet
+        assertFalse(this.index.isMissing(MISSING));
+
+        this.index.build("wiki");
+
+        assertFalse(this.index.isMissing(EXISTING));
+        assertTrue(this.index.isMissing(MISSING));
+
+        this.index.add(MISSING);
+
+        assertFalse(this.index.isMissing(MISSING));
+
+        // Other wikis are not indexed
+        assertFalse(this.index.isMissing(new XWikiDocument(new DocumentReference("otherwiki", "space", "page"))));
+    }
+
+    @Test
+    void isMissingWhileBuilding()
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        this.index = new DocumentExistenceIndex(() -> this.queryManager, tasks::add);
+
+        this.index.build("wiki");
+
+        // The index is not ready yet
+        assertFalse(this.index.isMissing(MISSING));
+
+        // Documents created while building are not lost
+        this.index.add(MISSING);
+
+        tasks.forEach(Runnable::run);
+
+        assertFalse(this.index.isMissing(EXISTING));
+        assertFalse(this.index.isMissing(MISSING));
+        assertTrue(this.index.isMissing(new XWikiDocument(new DocumentReference("wiki", "space", "other"))));
+    }
+
+    @Test
+    void clearAndRemove()
+    {
+        this.index.build("wiki");
+        this.index.clear();
+
+        // Rebuilt when needed
+        assertFalse(this.index.isMissing(MISSING));
+        assertTrue(this.index.isMissing(MISSING));
+
+        this.index.remove("wiki");
+
+        assertFalse(this.index.isMissing(MISSING));
+        assertFalse(this.index.isMissing(MISSING));
+    }
+
+    @Test
+    void buildFailure() throws QueryException
+    {
+        when(this.queryManager.createQuery(anyString(), anyString()))
+            .thenThrow(new QueryException("error", null, null));
+
+        this.index.build("wiki");
+
+        assertFalse(this.index.isMissing(MISSING));
+    }
+}
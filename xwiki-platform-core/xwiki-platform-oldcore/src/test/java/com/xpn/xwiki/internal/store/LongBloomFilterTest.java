@@ -0,0 +1,56 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link LongBloomFilter}.
+ *
+ * @version $Id$
+ */
+class LongBloomFilterTest
+{
+    @Test
+    void putAndMightContain()
+    {
+        LongBloomFilter filter = new LongBloomFilter(1000, 0.01);
+
+        for (long value = -500; value < 500; ++value) {
+            filter.put(value * 31);
+        }
+
+        for (long value = -500; value < 500; ++value) {
+            assertTrue(filter.mightContain(value * 31));
+        }
+
+        int falsePositives = 0;
+        for (long value = 1000; value < 11000; ++value) {
+            if (filter.mightContain(value * 31)) {
+                ++falsePositives;
+            }
+        }
+
+        // 1% expected, leave some margin
+        assertTrue(falsePositives < 300, "Too many false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheEntry;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link WeightedCache}.
+ *
+ * @version $Id$
+ */
+class WeightedCacheTest
+{
+    /**
+     * A minimal LRU cache notifying its listener like the real implementations.
+     */
+    private static final class LRUCache implements Cache<String>
+    {
+        private final int maxSize;
+
+        private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+        private CacheEntryListener<String> listener;
+
+        LRUCache(int maxSize)
+        {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void set(String key, String value)
+        {
+            String previous = this.entries.put(key, value);
+            if (previous != null) {
+                this.listener.cacheEntryModified(event(key, value));
+            } else {
+                this.listener.cacheEntryAdded(event(key, value));
+
+                if (this.entries.size() > this.maxSize) {
+                    Map.Entry<String, String> eldest = this.entries.entrySet().iterator().next();
+                    remove(eldest.getKey());
+                }
+            }
+        }
+
+        @Override
+        public String get(String key)
+        {
+            return this.entries.get(key);
+        }
+
+        @Override
+        public void remove(String key)
+        {
+            String value = this.entries.remove(key);
+            if (value != null) {
+                this.listener.cacheEntryRemoved(event(key, value));
+            }
+        }
+
+        @Override
+        public void removeAll()
+        {
+            this.entries.clear();
+        }
+
+        @Override
+        public void addCacheEntryListener(CacheEntryListener<String> listener)
+        {
+            this.listener = listener;
+        }
+
+        @Override
+        public void removeCacheEntryListener(CacheEntryListener<String> listener)
+        {
+            this.listener = null;
+        }
+
+        @Override
+        public void dispose()
+        {
+            // Nothing to dispose
+        }
+
+        private CacheEntryEvent<String> event(String key, String value)
+        {
+            CacheEntry<String> entry = mock(CacheEntry.class);
+            when(entry.getKey()).thenReturn(key);
+            when(entry.getValue()).thenReturn(value);
+            CacheEntryEvent<String> event = mock(CacheEntryEvent.class);
+            when(event.getEntry()).thenReturn(entry);
+
+            return event;
+        }
+    }
+
+    private LRUCache cache;
+
+    private WeightedCache<String> weightedCache;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.cache = new LRUCache(3);
+        this.weightedCache = new WeightedCache<>(this.cache, String::length, 10);
+    }
+
+    @Test
+    void evictLeastRecentlyUsedWhenTooHeavy()
+    {
+        this.weightedCache.set("a", "aaaa");
+        this.weightedCache.set("b", "bbbb");
+
+        // Access "a" so that "b" becomes the least recently used entry
+        assertEquals("aaaa", this.weightedCache.get("a"));
+
+        this.weightedCache.set("c", "cccc");
+
+        assertNull(this.cache.get("b"));
+        assertEquals("aaaa", this.cache.get("a"));
+        assertEquals(2, this.weightedCache.getSize());
+        assertEquals(8, this.weightedCache.getWeight());
+        assertEquals(1, this.weightedCache.getEvictionCount());
+        assertEquals(1, this.weightedCache.getHitCount());
+    }
+
+    @Test
+    void doNotCacheTooHeavyValue()
+    {
+        this.weightedCache.set("a", "a");
+        this.weightedCache.set("a", "aaaaaaaaaaa");
+
+        assertNull(this.cache.get("a"));
+        assertEquals(0, this.weightedCache.getWeight());
+        assertEquals(1, this.weightedCache.getEvictionCount());
+    }
+
+    @Test
+    void weighSetValueOnce()
+    {
+        AtomicInteger weighCount = new AtomicInteger();
+        this.weightedCache = new WeightedCache<>(this.cache, value -> {
+            weighCount.incrementAndGet();
+            return value.length();
+        }, 10);
+
+        this.weightedCache.set("a", "aaa");
+        this.weightedCache.set("a", "aaaa");
+
+        assertEquals(2, weighCount.get());
+        assertEquals(4, this.weightedCache.getWeight());
+
+        // A value set directly in the wrapped cache still has to be weighed
+        this.cache.set("b", "bb");
+
+        assertEquals(3, weighCount.get());
+        assertEquals(6, this.weightedCache.getWeight());
+    }
+
+    @Test
+    void followWrappedCache()
+    {
+        this.weightedCache.set("a", "a");
+        this.weightedCache.set("b", "b");
+        this.weightedCache.set("c", "c");
+
+        // Access "a" directly in the wrapped cache so that it's not the entry the weighted cache would evict first
+        this.cache.get("a");
+        this.weightedCache.set("d", "dd");
+
+        // "b" was evicted by the wrapped cache
+        assertNull(this.cache.get("b"));
+        assertEquals(3, this.weightedCache.getSize());
+        assertEquals(4, this.weightedCache.getWeight());
+
+        // The wrapped cache updated an entry
+        this.cache.set("a", "aaa");
+        assertEquals(6, this.weightedCache.getWeight());
+    }
+
+    @Test
+    void removeAndMiss()
+    {
+        this.weightedCache.set("a", "aaa");
+        this.weightedCache.set("b", "bbb");
+
+        this.weightedCache.remove("a");
+
+        assertNull(this.cache.get("a"));
+        assertEquals(3, this.weightedCache.getWeight());
+
+        // "b" is removed from the wrapped cache for another reason (expiration, etc.)
+        this.cache.remove("b");
+        assertNull(this.weightedCache.get("b"));
+
+        assertEquals(0, this.weightedCache.getWeight());
+        assertEquals(1, this.weightedCache.getMissCount());
+
+        this.weightedCache.set("c", "ccc");
+        this.weightedCache.removeAll();
+
+        assertTrue(this.cache.entries.isEmpty());
+        assertEquals(0, this.weightedCache.getSize());
+        assertEquals(0, this.weightedCache.getWeight());
+    }
+}
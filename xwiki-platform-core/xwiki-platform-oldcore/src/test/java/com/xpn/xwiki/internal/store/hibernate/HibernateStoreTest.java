@@ -0,0 +1,162 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate;
+
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.wiki.descriptor.WikiDescriptor;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.store.DatabaseProduct;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore;
+import com.xpn.xwiki.store.migration.DataMigrationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link HibernateStore}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class HibernateStoreTest
+{
+    @InjectMockComponents
+    private HibernateStore store;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private WikiDescriptorManager wikis;
+
+    @MockComponent
+    private HibernateConfiguration hibernateConfiguration;
+
+    @MockComponent
+    @Named(XWikiHibernateBaseStore.HINT)
+    private DataMigrationManager dataMigrationManager;
+
+    private SessionFactory sessionFactory;
+
+    private ExecutionContext executionContext = new ExecutionContext();
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.execution.getContext()).thenReturn(this.executionContext);
+        when(this.wikis.getMainWikiId()).thenReturn("xwiki");
+        when(this.wikis.getById(any())).thenReturn(mock(WikiDescriptor.class));
+        when(this.hibernateConfiguration.getDBPrefix()).thenReturn("");
+
+        this.sessionFactory = mock(SessionFactory.class);
+        ReflectionUtils.setFieldValue(this.store, "sessionFactory", this.sessionFactory);
+        ReflectionUtils.setFieldValue(this.store, "databaseProductCache", DatabaseProduct.MYSQL);
+    }
+
+    private Session mockSession(String database)
+    {
+        Session session = mock(Session.class);
+        when(session.getProperties()).thenReturn(Map.of("xwiki.database", database));
+        when(session.beginTransaction()).thenReturn(mock(Transaction.class));
+
+        return session;
+    }
+
+    @Test
+    void accessAnotherWikiDuringBatchTransaction() throws Exception
+    {
+        Session batchSession = mockSession("wikia");
+        Session otherSession = mockSession("wikib");
+        when(this.sessionFactory.openSession()).thenReturn(batchSession, otherSession);
+
+        when(this.wikis.getCurrentWikiId()).thenReturn("wikia");
+        assertTrue(this.store.beginBatchTransaction());
+        Transaction batchTransaction = this.store.getCurrentTransaction();
+        assertSame(batchSession, this.store.getCurrentSession());
+        assertEquals("wikia", this.executionContext.getProperty(HibernateStore.CONTEXT_BATCH_WIKI));
+
+        // The documents of the batch wiki are saved in the batch transaction
+        assertFalse(this.store.beginTransaction());
+
+        // A listener reads a document of another wiki in the middle of the batch
+        when(this.wikis.getCurrentWikiId()).thenReturn("wikib");
+        assertTrue(this.store.beginTransaction());
+        assertSame(otherSession, this.store.getCurrentSession());
+        Transaction otherTransaction = this.store.getCurrentTransaction();
+        this.store.endTransaction(false);
+
+        verify(otherTransaction).rollback();
+        verify(otherSession).close();
+
+        // The batch transaction is still the current one
+        assertSame(batchSession, this.store.getCurrentSession());
+        assertSame(batchTransaction, this.store.getCurrentTransaction());
+        verify(batchSession, never()).close();
+
+        when(this.wikis.getCurrentWikiId()).thenReturn("wikia");
+        assertFalse(this.store.beginTransaction());
+        this.store.endTransaction(true);
+
+        verify(batchTransaction).commit();
+        verify(batchSession).close();
+        assertNull(this.store.getCurrentSession());
+        assertNull(this.executionContext.getProperty(HibernateStore.CONTEXT_BATCH_WIKI));
+    }
+
+    @Test
+    void accessAnotherWikiDuringTransaction() throws Exception
+    {
+        Session session = mockSession("wikia");
+        when(this.sessionFactory.openSession()).thenReturn(session);
+
+        when(this.wikis.getCurrentWikiId()).thenReturn("wikia");
+        assertTrue(this.store.beginTransaction());
+
+        when(this.wikis.getCurrentWikiId()).thenReturn("wikib");
+        XWikiException exception = assertThrows(XWikiException.class, () -> this.store.beginTransaction());
+        assertEquals(XWikiException.ERROR_XWIKI_STORE_HIBERNATE_SWITCH_DATABASE, exception.getCode());
+        assertSame(session, this.store.getCurrentSession());
+    }
+}
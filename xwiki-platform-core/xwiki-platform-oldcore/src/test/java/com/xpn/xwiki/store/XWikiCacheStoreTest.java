@@ -19,10 +19,20 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheEntry;
 import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
 import org.xwiki.model.internal.reference.UidStringEntityReferenceSerializer;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.observation.ObservationManager;
@@ -36,11 +46,14 @@
 import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
 
 import static com.xpn.xwiki.test.mockito.OldcoreMatchers.isCacheConfiguration;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -96,6 +109,7 @@ void loadXWikiDoc() throws Exception
             store.loadXWikiDoc(new XWikiDocument(reference), this.oldcore.getXWikiContext());
 
         assertFalse(existingDocument.isNew());
+        verify(this.cache, atLeastOnce()).addCacheEntryListener(any());
         verify(this.cache).set(eq("4:wiki5:space4:page0:"), any(XWikiDocument.class));
         verify(this.existCache).set("4:wiki5:space4:page0:", Boolean.TRUE);
         verify(this.cache).get(any());
@@ -121,6 +135,95 @@ void loadXWikiDoc() throws Exception
         verifyNoMoreInteractions(this.existCache);
     }
 
+    @Test
+    void loadXWikiDocs() throws Exception
+    {
+        this.oldcore.getXWikiContext().setWikiId("wiki");
+        this.oldcore.getSpyXWiki().saveDocument(new XWikiDocument(new DocumentReference("wiki", "space", "page")),
+            this.oldcore.getXWikiContext());
+
+        DocumentReference cachedReference = new DocumentReference("wiki", "space", "cached");
+        DocumentReference existingReference = new DocumentReference("wiki", "space", "page");
+        DocumentReference missingReference = new DocumentReference("wiki", "space", "missing");
+        DocumentReference notExistingReference = new DocumentReference("wiki", "space", "nopage");
+
+        XWikiDocument cachedDocument = new XWikiDocument(cachedReference);
+        when(this.cache.get("4:wiki5:space6:cached0:")).thenReturn(cachedDocument);
+        when(this.existCache.get("4:wiki5:space7:missing0:")).thenReturn(Boolean.FALSE);
+
+        XWikiCacheStore store = new XWikiCacheStore(this.oldcore.getMockStore(), this.oldcore.getXWikiContext());
+
+        Map<DocumentReference, XWikiDocument> documents = store.loadXWikiDocs(
+            List.of(cachedReference, existingReference, missingReference, notExistingReference),
+            this.oldcore.getXWikiContext());
+
+        assertEquals(List.of(cachedReference, existingReference, missingReference, notExistingReference),
+            new ArrayList<>(documents.keySet()));
+        assertSame(cachedDocument, documents.get(cachedReference));
+        assertTrue(cachedDocument.isFromCache());
+        assertFalse(documents.get(existingReference).isNew());
+        assertTrue(documents.get(missingReference).isNew());
+        assertTrue(documents.get(notExistingReference).isNew());
+
+        // Only the documents unknown to the cache are loaded from the store
+        verify(this.oldcore.getMockStore()).loadXWikiDocs(eq(List.of(existingReference, notExistingReference)),
+            any());
+        verify(this.cache).set(eq("4:wiki5:space4:page0:"), any(XWikiDocument.class));
+        verify(this.existCache).set("4:wiki5:space4:page0:", Boolean.TRUE);
+        verify(this.existCache).set("4:wiki5:space6:nopage0:", Boolean.FALSE);
+    }
+
+    @Test
+    void getExistingDocuments() throws Exception
+    {
+        this.oldcore.getXWikiContext().setWikiId("wiki");
+        this.oldcore.getSpyXWiki().saveDocument(new XWikiDocument(new DocumentReference("wiki", "space", "page")),
+            this.oldcore.getXWikiContext());
+
+        DocumentReference cachedReference = new DocumentReference("wiki", "space", "cached");
+        DocumentReference existingReference = new DocumentReference("wiki", "space", "page");
+        DocumentReference missingReference = new DocumentReference("wiki", "space", "missing");
+        DocumentReference notExistingReference = new DocumentReference("wiki", "space", "nopage");
+
+        when(this.existCache.get("4:wiki5:space6:cached0:")).thenReturn(Boolean.TRUE);
+        when(this.existCache.get("4:wiki5:space7:missing0:")).thenReturn(Boolean.FALSE);
+
+        XWikiCacheStore store = new XWikiCacheStore(this.oldcore.getMockStore(), this.oldcore.getXWikiContext());
+
+        assertEquals(Set.of(cachedReference, existingReference),
+            store.getExistingDocuments(
+                List.of(cachedReference, existingReference, missingReference, notExistingReference),
+                this.oldcore.getXWikiContext()));
+
+        // Only the documents unknown to the cache are checked in the store
+        verify(this.oldcore.getMockStore()).getExistingDocuments(
+            eq(new LinkedHashSet<>(List.of(existingReference, notExistingReference))), any());
+        verify(this.existCache).set("4:wiki5:space4:page0:", Boolean.TRUE);
+        verify(this.existCache).set("4:wiki5:space6:nopage0:", Boolean.FALSE);
+    }
+
+    @Test
+    void evictCachedDocument() throws Exception
+    {
+        XWikiCacheStore store = new XWikiCacheStore(this.oldcore.getMockStore(), this.oldcore.getXWikiContext());
+
+        XWikiDocument document = new XWikiDocument(new DocumentReference("wiki", "space", "page"));
+        document.setCached(true);
+
+        CacheEntry<XWikiDocument> entry = mock(CacheEntry.class);
+        when(entry.getValue()).thenReturn(document);
+        CacheEntryEvent<XWikiDocument> event = mock(CacheEntryEvent.class);
+        when(event.getEntry()).thenReturn(entry);
+
+        ArgumentCaptor<CacheEntryListener<XWikiDocument>> listenerCaptor =
+            ArgumentCaptor.forClass(CacheEntryListener.class);
+        verify(this.cache, atLeastOnce()).addCacheEntryListener(listenerCaptor.capture());
+        listenerCaptor.getAllValues().forEach(listener -> listener.cacheEntryRemoved(event));
+
+        // An evicted document can be modified again by whoever still holds it
+        assertFalse(document.isCached());
+    }
+
     @Test
     void saveXWikiDocumentFailing() throws XWikiException
     {
@@ -29,6 +29,7 @@
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Spy;
+import org.suigeneris.jrcs.rcs.Version;
 import org.xwiki.model.document.DocumentAuthors;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
@@ -38,17 +39,26 @@
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.criteria.impl.RevisionCriteria;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.doc.rcs.XWikiRCSNodeId;
 import com.xpn.xwiki.doc.rcs.XWikiRCSNodeInfo;
 import com.xpn.xwiki.store.hibernate.query.VersioningStoreQueryFactory;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
 import com.xpn.xwiki.test.reference.ReferenceComponentList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 
 /**
@@ -60,6 +70,9 @@
 @OldcoreTest
 public class XWikiHibernateVersioningStoreTest
 {
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
     @Spy
     @InjectMockComponents
     private XWikiHibernateVersioningStore versioningStore;
@@ -106,6 +119,87 @@ void checkLoadedRevisionsDuringArchiveUpdate() throws XWikiException
 
             this.versioningStore.updateXWikiDocArchive(this.document, false, null);
             assertEquals(1, this.revisionCriteria.getValue().getRange().getAbsoluteSize());
+            mockedQueryFactory.verify(
+                () -> VersioningStoreQueryFactory.getRCSNodeInfoCountQuery(any(), anyLong(), any()), never());
+        }
+    }
+
+    /**
+     * When periodic full versions are configured, the information of the last nodes is needed to decide if the
+     * previous version should be kept as a full version.
+     */
+    @Test
+    void checkLoadedRevisionsDuringArchiveUpdateWithNodesPerFull() throws XWikiException
+    {
+        this.oldcore.getMockXWikiCfg().setProperty("xwiki.store.rcs.nodesPerFull", "5");
+        doNothing().when(this.versioningStore).saveXWikiDocArchive(any(), anyBoolean(), any());
+
+        try (MockedStatic<?> mockedQueryFactory = mockStatic(VersioningStoreQueryFactory.class)) {
+            mockedQueryFactory.when(
+                () -> VersioningStoreQueryFactory.getRCSNodeInfoQuery(any(), anyLong(), this.revisionCriteria.capture())
+            ).thenReturn(this.nodeInfoQuery);
+
+            this.versioningStore.updateXWikiDocArchive(this.document, false, null);
+            assertEquals(5, this.revisionCriteria.getValue().getRange().getAbsoluteSize());
+            mockedQueryFactory.verify(
+                () -> VersioningStoreQueryFactory.getRCSNodeInfoCountQuery(any(), anyLong(), any()), never());
+        }
+    }
+
+    @Test
+    void getXWikiDocVersionInfoWithoutArchive() throws XWikiException
+    {
+        XWikiRCSNodeInfo node = new XWikiRCSNodeInfo(new XWikiRCSNodeId(42L, new Version("2.1")));
+        when(this.nodeInfoQuery.uniqueResult()).thenReturn(node);
+
+        try (MockedStatic<?> mockedQueryFactory = mockStatic(VersioningStoreQueryFactory.class)) {
+            mockedQueryFactory.when(() -> VersioningStoreQueryFactory.getRCSNodeInfoOfVersionQuery(any(), anyLong(),
+                eq(new Version("2.1")))).thenReturn(this.nodeInfoQuery);
+
+            assertSame(node, this.versioningStore.getXWikiDocVersionInfo(this.document, new Version("2.1"), null));
+
+            // The other nodes of the archive are not loaded
+            mockedQueryFactory.verify(
+                () -> VersioningStoreQueryFactory.getRCSNodeInfoQuery(any(), anyLong(), any(RevisionCriteria.class)),
+                never());
+        }
+    }
+
+    @Test
+    void getXWikiDocPreviousVersionWithoutArchive() throws XWikiException
+    {
+        XWikiRCSNodeInfo node = new XWikiRCSNodeInfo(new XWikiRCSNodeId(42L, new Version("1.3")));
+        when(this.nodeInfoQuery.uniqueResult()).thenReturn(node);
+
+        try (MockedStatic<?> mockedQueryFactory = mockStatic(VersioningStoreQueryFactory.class)) {
+            mockedQueryFactory.when(() -> VersioningStoreQueryFactory.getPreviousRCSNodeInfoQuery(any(), anyLong(),
+                eq(new Version("2.1")))).thenReturn(this.nodeInfoQuery);
+
+            assertEquals(new Version("1.3"),
+                this.versioningStore.getXWikiDocPreviousVersion(this.document, new Version("2.1"), null));
+
+            when(this.nodeInfoQuery.uniqueResult()).thenReturn(null);
+
+            assertNull(this.versioningStore.getXWikiDocPreviousVersion(this.document, new Version("2.1"), null));
+
+            mockedQueryFactory.verify(
+                () -> VersioningStoreQueryFactory.getRCSNodeInfoQuery(any(), anyLong(), any(RevisionCriteria.class)),
+                never());
+        }
+    }
+
+    @Test
+    void getXWikiDocPreviousVersionWithArchive() throws XWikiException
+    {
+        XWikiDocumentArchive archive = mock(XWikiDocumentArchive.class);
+        when(archive.getPrevVersion(new Version("2.1"))).thenReturn(new Version("1.3"));
+        when(this.document.getDocumentArchive()).thenReturn(archive);
+
+        try (MockedStatic<?> mockedQueryFactory = mockStatic(VersioningStoreQueryFactory.class)) {
+            assertEquals(new Version("1.3"),
+                this.versioningStore.getXWikiDocPreviousVersion(this.document, new Version("2.1"), null));
+
+            mockedQueryFactory.verifyNoInteractions();
         }
     }
 }
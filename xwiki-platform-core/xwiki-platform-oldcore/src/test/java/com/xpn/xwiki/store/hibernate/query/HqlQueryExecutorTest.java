@@ -19,6 +19,8 @@
  */
 package com.xpn.xwiki.store.hibernate.query;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -26,10 +28,15 @@
 import java.util.List;
 import java.util.Map;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.boot.Metadata;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.EntityEntry;
 import org.hibernate.engine.spi.NamedSQLQueryDefinition;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.query.NativeQuery;
 import org.junit.Before;
 import org.junit.Rule;
@@ -61,6 +68,7 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -271,6 +279,53 @@ public void executeWhenStoreException() throws Exception
         }
     }
 
+    @Test
+    public void forEach() throws Exception
+    {
+        Session session = mock(Session.class);
+        when(this.store.executeRead(any(XWikiContext.class), any(XWikiHibernateBaseStore.HibernateCallback.class)))
+            .then(invocation -> invocation.<XWikiHibernateBaseStore.HibernateCallback<?>>getArgument(1)
+                .doInHibernate(session));
+
+        // "a" was already loaded in the session before the query, "d" is not an entity
+        Object a = new Object();
+        Object b = new Object();
+        Object c = new Object();
+        Object d = new Object();
+        SessionImplementor sessionImplementor = mock(SessionImplementor.class);
+        when(session.unwrap(SessionImplementor.class)).thenReturn(sessionImplementor);
+        PersistenceContext persistenceContext = mock(PersistenceContext.class);
+        when(sessionImplementor.getPersistenceContext()).thenReturn(persistenceContext);
+        EntityEntry entityEntry = mock(EntityEntry.class);
+        when(persistenceContext.reentrantSafeEntityEntries())
+            .thenReturn(new Map.Entry[] {new AbstractMap.SimpleEntry<>(a, entityEntry)});
+        when(persistenceContext.getEntry(a)).thenReturn(entityEntry);
+        when(persistenceContext.getEntry(b)).thenReturn(entityEntry);
+        when(persistenceContext.getEntry(c)).thenReturn(entityEntry);
+
+        org.hibernate.query.Query hquery = mock(org.hibernate.query.Query.class);
+        when(session.createQuery("select doc from XWikiDocument doc")).thenReturn(hquery);
+        ScrollableResults results = mock(ScrollableResults.class);
+        when(hquery.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(results);
+        when(results.next()).thenReturn(true, true, true, true, true, false);
+        when(results.get()).thenReturn(new Object[] {a}, new Object[] {b}, new Object[] {d}, new Object[] {null},
+            new Object[] {c});
+
+        List<Object> consumed = new ArrayList<>();
+        DefaultQuery query = new DefaultQuery("select doc from XWikiDocument doc", Query.HQL, this.executor);
+        this.executor.forEach(query, 2, consumed::add);
+
+        assertEquals(Arrays.asList(a, b, d, null, c), consumed);
+        verify(hquery).setReadOnly(true);
+        verify(hquery).setFetchSize(2);
+        verify(results).close();
+        // Only the entities loaded by the query are evicted after each full batch
+        verify(session).evict(b);
+        verify(session, never()).evict(a);
+        verify(session, never()).evict(c);
+        verify(session, never()).evict(d);
+    }
+
     @Test
     public void createNamedNativeHibernateQuery() throws Exception
     {
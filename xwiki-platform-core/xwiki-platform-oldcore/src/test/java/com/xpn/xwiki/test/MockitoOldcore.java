@@ -26,11 +26,14 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Provider;
@@ -648,6 +651,46 @@ public XWikiDocument answer(InvocationOnMock invocation) throws Throwable
                 return document;
             }
         });
+        when(getMockStore().loadXWikiDocs(any(), anyXWikiContext())).then(invocation -> {
+            Collection<DocumentReference> references = invocation.getArgument(0);
+            XWikiContext xcontext = invocation.getArgument(1);
+
+            // Load the documents one by one, each in the context of its wiki
+            Map<DocumentReference, XWikiDocument> result = new LinkedHashMap<>();
+            String currentWiki = xcontext.getWikiId();
+            try {
+                for (DocumentReference reference : references) {
+                    xcontext.setWikiId(reference.getWikiReference().getName());
+                    Locale locale = reference.getLocale() != null ? reference.getLocale() : Locale.ROOT;
+                    result.put(reference, getMockStore().loadXWikiDoc(new XWikiDocument(reference, locale), xcontext));
+                }
+            } finally {
+                xcontext.setWikiId(currentWiki);
+            }
+
+            return result;
+        });
+        when(getMockStore().getExistingDocuments(any(), anyXWikiContext())).then(invocation -> {
+            Collection<DocumentReference> references = invocation.getArgument(0);
+            XWikiContext xcontext = invocation.getArgument(1);
+
+            // Check the documents one by one, each in the context of its wiki
+            Set<DocumentReference> result = new HashSet<>();
+            String currentWiki = xcontext.getWikiId();
+            try {
+                for (DocumentReference reference : references) {
+                    xcontext.setWikiId(reference.getWikiReference().getName());
+                    Locale locale = reference.getLocale() != null ? reference.getLocale() : Locale.ROOT;
+                    if (getMockStore().exists(new XWikiDocument(reference, locale), xcontext)) {
+                        result.add(reference);
+                    }
+                }
+            } finally {
+                xcontext.setWikiId(currentWiki);
+            }
+
+            return result;
+        });
         when(getMockStore().exists(anyXWikiDocument(), anyXWikiContext())).then(new Answer<Boolean>()
         {
             @Override
@@ -758,6 +801,11 @@ public Version[] answer(InvocationOnMock invocation) throws Throwable
                     return versions;
                 }
             });
+        // Answer from the archive, like the default implementations
+        when(getMockVersioningStore().getXWikiDocVersionInfo(anyXWikiDocument(), any(), anyXWikiContext()))
+            .thenCallRealMethod();
+        when(getMockVersioningStore().getXWikiDocPreviousVersion(anyXWikiDocument(), any(), anyXWikiContext()))
+            .thenCallRealMethod();
         doAnswer(new Answer<Void>()
         {
             @Override
@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * Iterate over all the results of a query using keyset pagination. Instead of skipping the rows of the previous pages
+ * with an offset, which the database has to read again for each page, each page starts right after the key of the
+ * last row of the previous page. So the cost of a page does not depend on its position.
+ * <p>
+ * The statement must order the rows by a unique key and only select the rows with a key greater than a named
+ * parameter, e.g. {@code select doc.id, doc.fullName from XWikiDocument doc where doc.id > :lastId order by doc.id}.
+ * The key is extracted from the rows returned by the database, before the result filters are applied.
+ *
+ * @param <T> the type of the results
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Unstable
+public class KeysetQueryIterator<T> implements Iterator<T>
+{
+    /**
+     * Remember the last row returned by the database, before the other filters are applied.
+     */
+    private static final class LastRowRecorder implements QueryFilter
+    {
+        private int count;
+
+        private Object lastRow;
+
+        @Override
+        public String filterStatement(String statement, String language)
+        {
+            return statement;
+        }
+
+        @Override
+        public List filterResults(List results)
+        {
+            this.count = results.size();
+            this.lastRow = results.isEmpty() ? null : results.get(results.size() - 1);
+
+            return results;
+        }
+    }
+
+    private final Query query;
+
+    private final String keyParameter;
+
+    private final Function<Object, ?> keyExtractor;
+
+    private final int pageSize;
+
+    private final LastRowRecorder recorder = new LastRowRecorder();
+
+    private Object lastKey;
+
+    private Iterator<T> page = Collections.emptyIterator();
+
+    private boolean lastPage;
+
+    /**
+     * @param query the query to execute, ordered by the key
+     * @param keyParameter the name of the parameter receiving the key of the last row of the previous page
+     * @param firstKey the value of the parameter for the first page, lower than all the keys
+     * @param keyExtractor extract the key from a row returned by the database (an {@code Object[]} if several fields
+     *            are selected)
+     * @param pageSize the number of rows to fetch at once
+     */
+    public KeysetQueryIterator(Query query, String keyParameter, Object firstKey, Function<Object, ?> keyExtractor,
+        int pageSize)
+    {
+        this.query = query;
+        this.keyParameter = keyParameter;
+        this.lastKey = firstKey;
+        this.keyExtractor = keyExtractor;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (!this.page.hasNext() && !this.lastPage) {
+            try {
+                fetchPage();
+            } catch (QueryException e) {
+                throw new IllegalStateException("Failed to fetch the next page of results", e);
+            }
+        }
+
+        return this.page.hasNext();
+    }
+
+    @Override
+    public T next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.page.next();
+    }
+
+    private void fetchPage() throws QueryException
+    {
+        this.query.bindValue(this.keyParameter, this.lastKey);
+        this.query.setLimit(this.pageSize);
+        this.query.setOffset(0);
+
+        List<T> results;
+        int count;
+        Object lastRow;
+        List<QueryFilter> filters = this.query.getFilters();
+        if (filters == null || filters.isEmpty()) {
+            results = this.query.execute();
+            count = results.size();
+            lastRow = count > 0 ? results.get(count - 1) : null;
+        } else {
+            // The recorder needs to see the results before any other filter
+            filters.add(0, this.recorder);
+            try {
+                results = this.query.execute();
+            } finally {
+                filters.remove(this.recorder);
+            }
+            count = this.recorder.count;
+            lastRow = this.recorder.lastRow;
+        }
+
+        if (count < this.pageSize) {
+            this.lastPage = true;
+        } else {
+            this.lastKey = this.keyExtractor.apply(lastRow);
+        }
+
+        this.page = results.iterator();
+    }
+}
@@ -22,6 +22,8 @@
 import java.util.List;
 import java.util.Map;
 
+import org.xwiki.stability.Unstable;
+
 /**
  * This is a Query interface, representing all queries in various languages for various stores.
  *
@@ -192,4 +194,43 @@ default QueryParameter bindValue(String var)
      * @throws QueryException if something goes wrong.
      */
     <T> List<T> execute() throws QueryException;
+
+    /**
+     * Execute the query until {@link #getLimit()} results are left once the filters have been applied (or there are no
+     * more results).
+     * <p>
+     * Filters like the {@code viewable} one remove rows from the results, so {@link #execute()} can return less than
+     * {@link #getLimit()} results even if more are available. This method fetches and filters the following rows in
+     * chunks until the page is filled. The offset and the limit of the query are restored once it's done.
+     *
+     * @param <T> expected type of elements in the result list.
+     * @return the filtered results, whether there are more, and the offset to use to get the following page
+     * @throws QueryException if something goes wrong.
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default <T> QueryResultPage<T> executePage() throws QueryException
+    {
+        return new QueryPageExecutor(this).execute();
+    }
+
+    /**
+     * Iterate over the results of the query without loading them all in memory, which is a lot cheaper than paging
+     * with {@link #setOffset(int)} when the query matches many rows.
+     * <p>
+     * The results are fetched and passed to the filters by batches of {@code batchSize} rows. The limit and the
+     * offset of the query are taken into account. When the query executor does not support streaming the results,
+     * the batches are fetched one after the other with {@link #executePage()}.
+     *
+     * @param <T> expected type of the results. If several fields are selected then T=Object[].
+     * @param batchSize the number of rows to fetch at once
+     * @param consumer called for each result, once the filters have been applied
+     * @throws QueryException if something goes wrong, including when the consumer fails
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default <T> void forEach(int batchSize, QueryResultConsumer<T> consumer) throws QueryException
+    {
+        new QueryPageExecutor(this).forEach(batchSize, consumer);
+    }
 }
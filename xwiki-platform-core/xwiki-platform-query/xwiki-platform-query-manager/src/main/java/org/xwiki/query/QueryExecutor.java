@@ -22,6 +22,7 @@
 import java.util.List;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Execute a query for a given language (one implementation per language).
@@ -41,4 +42,22 @@
      * @see Query#execute()
      */
     <T> List<T> execute(Query query) throws QueryException;
+
+    /**
+     * Iterate over the results of the query without loading them all in memory. The default implementation fetches
+     * the results by pages.
+     *
+     * @param <T> expected type of the results
+     * @param query query to execute
+     * @param batchSize the number of rows to fetch at once
+     * @param consumer called for each result, once the filters have been applied
+     * @throws QueryException if something goes wrong, including when the consumer fails
+     * @see Query#forEach(int, QueryResultConsumer)
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default <T> void forEach(Query query, int batchSize, QueryResultConsumer<T> consumer) throws QueryException
+    {
+        new QueryPageExecutor(query).forEach(batchSize, consumer);
+    }
 }
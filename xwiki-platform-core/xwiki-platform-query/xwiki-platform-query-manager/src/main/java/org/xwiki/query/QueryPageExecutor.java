@@ -0,0 +1,234 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * Execute a query in chunks until the requested number of results is left once the filters are applied.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ * @see Query#executePage()
+ */
+@Unstable
+public class QueryPageExecutor
+{
+    /**
+     * The maximum number of rows to fetch at once.
+     */
+    private static final int MAX_CHUNK_SIZE = 1000;
+
+    /**
+     * Remember the number of rows returned by the store, before the other filters are applied.
+     */
+    private static final class RowCounter implements QueryFilter
+    {
+        private int count;
+
+        @Override
+        public String filterStatement(String statement, String language)
+        {
+            return statement;
+        }
+
+        @Override
+        public List filterResults(List results)
+        {
+            this.count = results.size();
+
+            return results;
+        }
+    }
+
+    private final Query query;
+
+    private final RowCounter counter = new RowCounter();
+
+    /**
+     * @param query the query to execute
+     */
+    public QueryPageExecutor(Query query)
+    {
+        this.query = query;
+    }
+
+    /**
+     * @param <T> expected type of elements in the result list
+     * @return the filtered results
+     * @throws QueryException if something goes wrong
+     */
+    public <T> QueryResultPage<T> execute() throws QueryException
+    {
+        int limit = this.query.getLimit();
+        int offset = this.query.getOffset();
+
+        if (limit <= 0) {
+            List<T> results = this.query.execute();
+
+            return new QueryResultPage<>(results, false, offset + results.size());
+        }
+
+        List<QueryFilter> filters = this.query.getFilters();
+        try {
+            if (filters == null || filters.isEmpty()) {
+                return executeUnfiltered(limit, offset);
+            }
+
+            // The counter needs to see the results before any other filter
+            filters.add(0, this.counter);
+            try {
+                return executeFiltered(limit, offset);
+            } finally {
+                filters.remove(this.counter);
+            }
+        } finally {
+            this.query.setLimit(limit);
+            this.query.setOffset(offset);
+        }
+    }
+
+    /**
+     * Pass all the results of the query to the consumer, fetching them by pages.
+     *
+     * @param <T> expected type of the results
+     * @param batchSize the number of results to fetch at once
+     * @param consumer called for each result
+     * @throws QueryException if something goes wrong, including when the consumer fails
+     * @since 16.3.0RC1
+     */
+    public <T> void forEach(int batchSize, QueryResultConsumer<T> consumer) throws QueryException
+    {
+        int limit = this.query.getLimit();
+        int offset = this.query.getOffset();
+
+        try {
+            int pageOffset = offset;
+            int remaining = limit;
+            boolean hasMore = true;
+            while (hasMore && (limit <= 0 || remaining > 0)) {
+                this.query.setLimit(limit > 0 ? Math.min(batchSize, remaining) : batchSize);
+                this.query.setOffset(pageOffset);
+
+                QueryResultPage<T> page = execute();
+                for (T result : page.getResults()) {
+                    accept(consumer, result, this.query);
+                }
+
+                remaining -= page.getResults().size();
+                hasMore = page.hasMore();
+                pageOffset = page.getNextOffset();
+            }
+        } finally {
+            this.query.setLimit(limit);
+            this.query.setOffset(offset);
+        }
+    }
+
+    /**
+     * @param <T> the type of the result
+     * @param consumer the consumer
+     * @param result the result to pass to the consumer
+     * @param query the executed query
+     * @throws QueryException when the consumer fails
+     * @since 16.3.0RC1
+     */
+    public static <T> void accept(QueryResultConsumer<T> consumer, T result, Query query) throws QueryException
+    {
+        try {
+            consumer.accept(result);
+        } catch (QueryException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new QueryException("Failed to handle the result of the query", query, e);
+        }
+    }
+
+    private <T> QueryResultPage<T> executeUnfiltered(int limit, int offset) throws QueryException
+    {
+        // Ask for one more result to know if there are more
+        this.query.setLimit(limit + 1);
+        List<T> results = this.query.execute();
+
+        if (results.size() > limit) {
+            return new QueryResultPage<>(results.subList(0, limit), true, offset + limit);
+        }
+
+        return new QueryResultPage<>(results, false, offset + results.size());
+    }
+
+    private <T> QueryResultPage<T> executeFiltered(int limit, int offset) throws QueryException
+    {
+        List<T> results = new ArrayList<>(limit);
+
+        int rawOffset = offset;
+        long fetched = 0;
+        long kept = 0;
+        boolean exactChunk = false;
+        while (true) {
+            int remaining = limit - results.size();
+
+            int chunkSize;
+            if (exactChunk) {
+                chunkSize = remaining;
+                exactChunk = false;
+            } else {
+                // Ask for one more result than needed to know if there are more, and anticipate the rows which are
+                // going to be removed by the filters based on what was removed so far
+                double ratio = fetched > 0 ? Math.max(kept, 1) / (double) fetched : 1;
+                chunkSize = Math.max(remaining + 1, (int) Math.min(MAX_CHUNK_SIZE, Math.ceil((remaining + 1) / ratio)));
+            }
+
+            this.query.setOffset(rawOffset);
+            this.query.setLimit(chunkSize);
+            List<T> chunk = this.query.execute();
+            int rawCount = this.counter.count;
+
+            fetched += rawCount;
+            kept += chunk.size();
+
+            if (chunk.size() <= remaining) {
+                results.addAll(chunk);
+                rawOffset += rawCount;
+
+                if (rawCount < chunkSize) {
+                    // There is no more rows to fetch
+                    return new QueryResultPage<>(results, false, rawOffset);
+                }
+            } else if (remaining == 0) {
+                // The page was already full before this chunk
+                return new QueryResultPage<>(results, true, rawOffset);
+            } else if (chunk.size() >= rawCount) {
+                // Nothing was removed from this chunk so the row ending the page is known (filters producing several
+                // results for a row might lead to some results being returned again in the next page)
+                results.addAll(chunk.subList(0, remaining));
+
+                return new QueryResultPage<>(results, true, rawOffset + Math.min(remaining, rawCount));
+            } else {
+                // We don't know which row ends the page, so fetch again only the rows that could be needed (the
+                // filters can only remove some of them)
+                exactChunk = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * Receive the results of a query one by one, as returned by {@link Query#forEach(int, QueryResultConsumer)}.
+ *
+ * @param <T> the type of the results
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@FunctionalInterface
+@Unstable
+public interface QueryResultConsumer<T>
+{
+    /**
+     * @param result the result of the query (an {@code Object[]} if several fields are selected)
+     * @throws Exception when failing to handle the result, which stops the iteration
+     */
+    void accept(T result) throws Exception;
+}
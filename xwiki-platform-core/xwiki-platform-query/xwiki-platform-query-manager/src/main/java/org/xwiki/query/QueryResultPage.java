@@ -0,0 +1,81 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * A page of filtered query results, as returned by {@link Query#executePage()}.
+ *
+ * @param <T> the type of the results
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Unstable
+public class QueryResultPage<T>
+{
+    private final List<T> results;
+
+    private final boolean hasMore;
+
+    private final int nextOffset;
+
+    /**
+     * @param results the filtered results
+     * @param hasMore {@code true} if there are more results after this page
+     * @param nextOffset the offset to set on the query to get the following page
+     */
+    public QueryResultPage(List<T> results, boolean hasMore, int nextOffset)
+    {
+        this.results = Collections.unmodifiableList(results);
+        this.hasMore = hasMore;
+        this.nextOffset = nextOffset;
+    }
+
+    /**
+     * @return the filtered results
+     */
+    public List<T> getResults()
+    {
+        return this.results;
+    }
+
+    /**
+     * @return {@code true} if at least one more result remains after this page once the filters are applied
+     */
+    public boolean hasMore()
+    {
+        return this.hasMore;
+    }
+
+    /**
+     * Since the filters can remove rows, the offset of the following page is generally not the offset of this page
+     * plus its size.
+     *
+     * @return the offset to set on the query to get the following page
+     */
+    public int getNextOffset()
+    {
+        return this.nextOffset;
+    }
+}
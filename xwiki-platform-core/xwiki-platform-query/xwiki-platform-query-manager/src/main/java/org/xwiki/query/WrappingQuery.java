@@ -163,4 +163,10 @@ public <T> List<T> execute() throws QueryException
     {
         return getWrappedQuery().execute();
     }
+
+    @Override
+    public <T> void forEach(int batchSize, QueryResultConsumer<T> consumer) throws QueryException
+    {
+        getWrappedQuery().forEach(batchSize, consumer);
+    }
 }
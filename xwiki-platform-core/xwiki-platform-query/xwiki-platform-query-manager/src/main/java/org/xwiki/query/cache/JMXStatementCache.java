@@ -0,0 +1,72 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.cache;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * Implementation of the JMXStatementCache MBean.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Unstable
+public class JMXStatementCache implements JMXStatementCacheMBean
+{
+    private final StatementCache<?> cache;
+
+    /**
+     * @param cache the cache to expose
+     */
+    public JMXStatementCache(StatementCache<?> cache)
+    {
+        this.cache = cache;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return this.cache.getSize();
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return this.cache.getHitCount();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return this.cache.getMissCount();
+    }
+
+    @Override
+    public double getHitRate()
+    {
+        return this.cache.getHitRate();
+    }
+
+    @Override
+    public void clear()
+    {
+        this.cache.clear();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.cache;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * Interface of the {@link JMXStatementCache} MBean.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Unstable
+public interface JMXStatementCacheMBean
+{
+    /**
+     * @return the number of statements in the cache
+     */
+    int getSize();
+
+    /**
+     * @return the number of times a statement was found in the cache
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times a statement was not found in the cache
+     */
+    long getMissCount();
+
+    /**
+     * @return the ratio of lookups which found a statement in the cache, between 0 and 1
+     */
+    double getHitRate();
+
+    /**
+     * Empty the cache.
+     */
+    void clear();
+}
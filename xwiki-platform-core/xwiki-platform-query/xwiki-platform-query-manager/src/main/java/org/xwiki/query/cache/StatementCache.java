@@ -0,0 +1,184 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * A bounded cache of values computed from query statements (translations, validations, etc.), which keeps the most
+ * recently used entries and counts its hits and misses.
+ *
+ * @param <V> the type of the cached values
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Unstable
+public class StatementCache<V>
+{
+    /**
+     * Compute the value associated with a statement.
+     *
+     * @param <V> the type of the computed value
+     * @param <E> the type of the exception thrown when failing to compute the value
+     */
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception>
+    {
+        /**
+         * @param statement the statement
+         * @return the value associated with the statement
+         * @throws E when failing to compute the value
+         */
+        V load(String statement) throws E;
+    }
+
+    private final Map<String, V> entries;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Incremented each time entries are removed, to not cache a value computed before the removal.
+     */
+    private long generation;
+
+    /**
+     * @param capacity the maximum number of entries to keep
+     */
+    public StatementCache(int capacity)
+    {
+        this.entries = new LinkedHashMap<>(16, 0.75F, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value or compute it. The lock is not held while computing the value so two threads might
+     * compute the value of the same statement at the same time, which is harmless since the value only depends on
+     * the statement.
+     *
+     * @param key the key of the entry, generally the statement itself, possibly combined with what else the value
+     *            depends on
+     * @param statement the statement passed to the loader
+     * @param loader compute the value when it's not cached
+     * @param <E> the type of the exception thrown by the loader
+     * @return the value associated with the statement
+     * @throws E when failing to compute the value (failures are not cached)
+     */
+    public <E extends Exception> V get(String key, String statement, Loader<V, E> loader) throws E
+    {
+        V value;
+        long valueGeneration;
+        synchronized (this.entries) {
+            value = this.entries.get(key);
+            valueGeneration = this.generation;
+        }
+
+        if (value != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+
+            value = loader.load(statement);
+
+            if (value != null) {
+                synchronized (this.entries) {
+                    if (valueGeneration == this.generation) {
+                        this.entries.put(key, value);
+                    }
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Remove the entries matching the passed predicate.
+     *
+     * @param predicate the entries to remove
+     */
+    public void removeIf(Predicate<V> predicate)
+    {
+        synchronized (this.entries) {
+            this.entries.values().removeIf(predicate);
+            this.generation++;
+        }
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear()
+    {
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.generation++;
+        }
+    }
+
+    /**
+     * @return the number of entries in the cache
+     */
+    public int getSize()
+    {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * @return the number of times a value was found in the cache
+     */
+    public long getHitCount()
+    {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of times a value had to be computed
+     */
+    public long getMissCount()
+    {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the ratio of lookups which found a value in the cache, between 0 and 1
+     */
+    public double getHitRate()
+    {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+
+        return total > 0 ? (double) hitCount / total : 0;
+    }
+}
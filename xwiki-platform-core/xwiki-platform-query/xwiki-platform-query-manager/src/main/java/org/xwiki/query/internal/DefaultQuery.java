@@ -32,6 +32,7 @@
 import org.xwiki.query.QueryExecutor;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.query.QueryParameter;
+import org.xwiki.query.QueryResultConsumer;
 import org.xwiki.query.SecureQuery;
 
 /**
@@ -306,6 +307,12 @@ public <T> List<T> execute() throws QueryException
         return getExecuter().execute(this);
     }
 
+    @Override
+    public <T> void forEach(int batchSize, QueryResultConsumer<T> consumer) throws QueryException
+    {
+        getExecuter().forEach(this, batchSize, consumer);
+    }
+
     /**
      * @return QueryExecutor interface for execute the query.
      */
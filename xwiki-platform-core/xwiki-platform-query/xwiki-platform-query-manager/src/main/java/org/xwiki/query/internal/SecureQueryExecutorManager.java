@@ -30,6 +30,7 @@
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryExecutorManager;
+import org.xwiki.query.QueryResultConsumer;
 import org.xwiki.query.SecureQuery;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
@@ -55,6 +56,21 @@ public class SecureQueryExecutorManager implements QueryExecutorManager
 
     @Override
     public <T> List<T> execute(Query query) throws QueryException
+    {
+        checkQuery(query);
+
+        return this.defaultQueryExecutorManager.execute(query);
+    }
+
+    @Override
+    public <T> void forEach(Query query, int batchSize, QueryResultConsumer<T> consumer) throws QueryException
+    {
+        checkQuery(query);
+
+        this.defaultQueryExecutorManager.forEach(query, batchSize, consumer);
+    }
+
+    private void checkQuery(Query query) throws QueryException
     {
         if (query instanceof SecureQuery) {
             SecureQuery secureQuery = (SecureQuery) query;
@@ -63,8 +79,6 @@ public <T> List<T> execute(Query query) throws QueryException
         } else if (!this.authorization.hasAccess(Right.PROGRAM)) {
             throw new QueryException("Unsecure query require programming right", query, null);
         }
-
-        return this.defaultQueryExecutorManager.execute(query);
     }
 
     @Override
@@ -19,8 +19,10 @@
  */
 package org.xwiki.query.internal;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -58,18 +60,36 @@ public String filterStatement(String statement, String language)
     @Override
     public List filterResults(List results)
     {
-        List<Object> filteredResults = new LinkedList<>();
+        List<EntityReference> entityReferences = new ArrayList<>(results.size());
         for (Object result : results) {
-            EntityReference entityReference = null;
-            if (result instanceof EntityReference) {
-                entityReference = (EntityReference) result;
-            } else if (result instanceof Object[] && ((Object[]) result)[0] instanceof EntityReference) {
-                entityReference = (EntityReference) ((Object[]) result)[0];
+            EntityReference entityReference = getEntityReference(result);
+            if (entityReference != null) {
+                entityReferences.add(entityReference);
             }
-            if (entityReference != null && this.authorization.hasAccess(Right.VIEW, entityReference)) {
+        }
+
+        // Check all the entities at once so that the work common to all of them is only done once
+        Set<EntityReference> viewableReferences =
+            new HashSet<>(this.authorization.filterAccessible(Right.VIEW, entityReferences));
+
+        List<Object> filteredResults = new ArrayList<>(viewableReferences.size());
+        for (Object result : results) {
+            EntityReference entityReference = getEntityReference(result);
+            if (entityReference != null && viewableReferences.contains(entityReference)) {
                 filteredResults.add(result);
             }
         }
         return filteredResults;
     }
+
+    private EntityReference getEntityReference(Object result)
+    {
+        if (result instanceof EntityReference) {
+            return (EntityReference) result;
+        } else if (result instanceof Object[] && ((Object[]) result)[0] instanceof EntityReference) {
+            return (EntityReference) ((Object[]) result)[0];
+        }
+
+        return null;
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.query.internal.DefaultQuery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KeysetQueryIterator}.
+ *
+ * @version $Id$
+ */
+class KeysetQueryIteratorTest
+{
+    private static final List<Integer> ROWS = List.of(1, 2, 3, 5, 8, 13, 21);
+
+    private Query query;
+
+    private final List<Object> requestedKeys = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        QueryExecutor executor = mock(QueryExecutor.class);
+        this.query = new DefaultQuery("select row from Table where row > :lastKey order by row", Query.HQL, executor);
+
+        // Simulate a store returning the rows greater than the key and then applying the filters
+        when(executor.execute(any())).then(invocation -> {
+            Query executedQuery = invocation.getArgument(0);
+            int lastKey = (Integer) executedQuery.getNamedParameters().get("lastKey");
+            this.requestedKeys.add(lastKey);
+            List results = ROWS.stream().filter(row -> row > lastKey).limit(executedQuery.getLimit())
+                .collect(Collectors.toList());
+            for (QueryFilter filter : executedQuery.getFilters()) {
+                results = filter.filterResults(results);
+            }
+            return results;
+        });
+    }
+
+    @Test
+    void iterate()
+    {
+        KeysetQueryIterator<Integer> iterator = new KeysetQueryIterator<>(this.query, "lastKey", 0, row -> row, 3);
+
+        List<Integer> results = new ArrayList<>();
+        iterator.forEachRemaining(results::add);
+
+        assertEquals(ROWS, results);
+        assertEquals(List.of(0, 3, 13), this.requestedKeys);
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void iterateWithFilter()
+    {
+        // Remove all the rows of the second page
+        this.query.addFilter(new QueryFilter()
+        {
+            @Override
+            public String filterStatement(String statement, String language)
+            {
+                return statement;
+            }
+
+            @Override
+            public List filterResults(List results)
+            {
+                return ((List<Integer>) results).stream().filter(row -> row < 5 || row > 13)
+                    .collect(Collectors.toList());
+            }
+        });
+
+        KeysetQueryIterator<Integer> iterator = new KeysetQueryIterator<>(this.query, "lastKey", 0, row -> row, 3);
+
+        List<Integer> results = new ArrayList<>();
+        iterator.forEachRemaining(results::add);
+
+        // The key of the next page is taken from the rows removed by the filter
+        assertEquals(List.of(1, 2, 3, 21), results);
+        assertEquals(List.of(0, 3, 13), this.requestedKeys);
+    }
+}
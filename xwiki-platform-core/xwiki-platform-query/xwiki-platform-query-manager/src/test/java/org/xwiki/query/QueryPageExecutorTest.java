@@ -0,0 +1,184 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link QueryPageExecutor}.
+ *
+ * @version $Id$
+ */
+class QueryPageExecutorTest
+{
+    private static final List<Integer> ROWS = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+
+    /**
+     * Keep only the even rows.
+     */
+    private static final QueryFilter EVEN_FILTER = new QueryFilter()
+    {
+        @Override
+        public String filterStatement(String statement, String language)
+        {
+            return statement;
+        }
+
+        @Override
+        public List filterResults(List results)
+        {
+            return ((List<Integer>) results).stream().filter(row -> row % 2 == 0).collect(Collectors.toList());
+        }
+    };
+
+    private Query query;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        QueryExecutor executor = mock(QueryExecutor.class);
+        this.query = new DefaultQuery("select row from Table", Query.HQL, executor);
+
+        // Simulate a store returning the requested rows and then applying the filters
+        when(executor.execute(any())).then(invocation -> {
+            Query executedQuery = invocation.getArgument(0);
+            int from = Math.min(executedQuery.getOffset(), ROWS.size());
+            int to = Math.min(from + executedQuery.getLimit(), ROWS.size());
+            List results = ROWS.subList(from, to);
+            for (QueryFilter filter : executedQuery.getFilters()) {
+                results = filter.filterResults(results);
+            }
+            return results;
+        });
+    }
+
+    @Test
+    void executeWithFilter() throws Exception
+    {
+        this.query.addFilter(EVEN_FILTER);
+        this.query.setLimit(3);
+
+        QueryResultPage<Integer> page = this.query.executePage();
+
+        assertEquals(List.of(0, 2, 4), page.getResults());
+        assertTrue(page.hasMore());
+        assertEquals(5, page.getNextOffset());
+
+        // The query is left untouched
+        assertEquals(List.of(EVEN_FILTER), this.query.getFilters());
+        assertEquals(3, this.query.getLimit());
+        assertEquals(0, this.query.getOffset());
+
+        page = this.query.setOffset(page.getNextOffset()).executePage();
+
+        assertEquals(List.of(6, 8, 10), page.getResults());
+        assertTrue(page.hasMore());
+        assertEquals(11, page.getNextOffset());
+    }
+
+    @Test
+    void executeLastPageWithFilter() throws Exception
+    {
+        this.query.addFilter(EVEN_FILTER);
+        this.query.setLimit(5);
+        this.query.setOffset(14);
+
+        QueryResultPage<Integer> page = this.query.executePage();
+
+        assertEquals(List.of(14, 16, 18), page.getResults());
+        assertFalse(page.hasMore());
+        assertEquals(20, page.getNextOffset());
+    }
+
+    @Test
+    void executeWithoutFilter() throws Exception
+    {
+        this.query.setLimit(3);
+        this.query.setOffset(16);
+
+        QueryResultPage<Integer> page = this.query.executePage();
+
+        assertEquals(List.of(16, 17, 18), page.getResults());
+        assertTrue(page.hasMore());
+        assertEquals(19, page.getNextOffset());
+
+        page = this.query.setOffset(page.getNextOffset()).executePage();
+
+        assertEquals(List.of(19), page.getResults());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void forEachWithFilter() throws Exception
+    {
+        this.query.addFilter(EVEN_FILTER);
+        this.query.setOffset(3);
+
+        List<Integer> results = new ArrayList<>();
+        this.query.<Integer>forEach(3, results::add);
+
+        assertEquals(List.of(4, 6, 8, 10, 12, 14, 16, 18), results);
+
+        // The query is left untouched
+        assertEquals(List.of(EVEN_FILTER), this.query.getFilters());
+        assertEquals(0, this.query.getLimit());
+        assertEquals(3, this.query.getOffset());
+    }
+
+    @Test
+    void forEachWithLimit() throws Exception
+    {
+        this.query.setLimit(7);
+        this.query.setOffset(10);
+
+        List<Integer> results = new ArrayList<>();
+        this.query.<Integer>forEach(3, results::add);
+
+        assertEquals(List.of(10, 11, 12, 13, 14, 15, 16), results);
+        assertEquals(7, this.query.getLimit());
+    }
+
+    @Test
+    void forEachWhenConsumerFails()
+    {
+        Exception cause = new Exception("error");
+
+        QueryException exception = assertThrows(QueryException.class, () -> this.query.forEach(5, result -> {
+            throw cause;
+        }));
+
+        assertSame(cause, exception.getCause());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link StatementCache}.
+ *
+ * @version $Id$
+ */
+class StatementCacheTest
+{
+    private final StatementCache<String> cache = new StatementCache<>(2);
+
+    private int loads;
+
+    private String load(String statement)
+    {
+        this.loads++;
+
+        return statement.toUpperCase();
+    }
+
+    @Test
+    void get()
+    {
+        assertEquals("A", this.cache.get("a", "a", this::load));
+        assertEquals("A", this.cache.get("a", "a", this::load));
+
+        assertEquals(1, this.loads);
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+        assertEquals(0.5, this.cache.getHitRate());
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsed()
+    {
+        this.cache.get("a", "a", this::load);
+        this.cache.get("b", "b", this::load);
+        // Make "b" the least recently used entry
+        this.cache.get("a", "a", this::load);
+        this.cache.get("c", "c", this::load);
+
+        assertEquals(2, this.cache.getSize());
+        assertEquals(3, this.loads);
+
+        this.cache.get("a", "a", this::load);
+        assertEquals(3, this.loads);
+        this.cache.get("b", "b", this::load);
+        assertEquals(4, this.loads);
+    }
+
+    @Test
+    void getWithFailure()
+    {
+        Exception expected = new Exception();
+
+        Exception exception = assertThrows(Exception.class, () -> this.cache.get("a", "a", statement -> {
+            throw expected;
+        }));
+
+        assertEquals(expected, exception);
+        assertEquals(0, this.cache.getSize());
+    }
+
+    @Test
+    void removeIf()
+    {
+        this.cache.get("a", "a", this::load);
+        this.cache.get("b", "b", this::load);
+
+        this.cache.removeIf("A"::equals);
+
+        assertEquals(1, this.cache.getSize());
+        this.cache.get("b", "b", this::load);
+        assertEquals(2, this.loads);
+    }
+}
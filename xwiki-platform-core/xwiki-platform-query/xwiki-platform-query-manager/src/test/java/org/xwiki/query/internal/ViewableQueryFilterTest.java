@@ -37,6 +37,9 @@
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -63,6 +66,7 @@ public void configure() throws Exception
     {
         when(this.authorization.hasAccess(Right.VIEW, authorized)).thenReturn(true);
         when(this.authorization.hasAccess(Right.VIEW, unauthorized)).thenReturn(false);
+        when(this.authorization.filterAccessible(eq(Right.VIEW), any())).thenCallRealMethod();
     }
 
     @Test
@@ -84,6 +88,9 @@ public void filterResultsWithOneEntityReferenceColumn()
     {
         List<Object> results = Arrays.asList(this.unauthorized, this.authorized);
         assertEquals(Arrays.asList(this.authorized), this.filter.filterResults(results));
+
+        // The rights of all the results are checked at once
+        verify(this.authorization).filterAccessible(Right.VIEW, Arrays.asList(this.unauthorized, this.authorized));
     }
 
     @Test
@@ -27,4 +27,15 @@
     String getOutputLanguage();
 
     String translate(String statement) throws Exception;
+
+    /**
+     * @param statement the statement to translate
+     * @return the translated statement and what it depends on
+     * @throws Exception when failing to translate the statement
+     * @since 16.3.0RC1
+     */
+    default TranslatedStatement translateStatement(String statement) throws Exception
+    {
+        return new TranslatedStatement(translate(statement), null);
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.xwql.internal;
+
+import java.util.Set;
+
+/**
+ * The result of the translation of a statement.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class TranslatedStatement
+{
+    private final String statement;
+
+    private final Set<String> classNames;
+
+    /**
+     * @param statement the translated statement
+     * @param classNames the names of the classes the translation depends on, {@code null} if unknown
+     */
+    public TranslatedStatement(String statement, Set<String> classNames)
+    {
+        this.statement = statement;
+        this.classNames = classNames;
+    }
+
+    /**
+     * @return the translated statement
+     */
+    public String getStatement()
+    {
+        return this.statement;
+    }
+
+    /**
+     * @return the names (as written in the statement) of the classes the translation depends on, {@code null} if
+     *         unknown
+     */
+    public Set<String> getClassNames()
+    {
+        return this.classNames;
+    }
+}
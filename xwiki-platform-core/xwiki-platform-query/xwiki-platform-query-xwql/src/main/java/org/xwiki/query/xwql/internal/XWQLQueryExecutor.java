@@ -39,6 +39,7 @@
 import org.xwiki.query.QueryExecutor;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.query.QueryManager;
+import org.xwiki.query.QueryResultConsumer;
 import org.xwiki.query.SecureQuery;
 
 @Component
@@ -50,6 +51,9 @@ public class XWQLQueryExecutor implements QueryExecutor
     @Named("hql")
     private QueryTranslator translator;
 
+    @Inject
+    private XWQLTranslationCache translationCache;
+
     @Inject
     private ComponentManager componentManager;
 
@@ -76,53 +80,95 @@ public <T> List<T> execute(Query query) throws QueryException
     {
         EntityReference currentEntityReference = this.context.getCurrentEntityReference();
 
-        Query nativeQuery;
         try {
-            if (query.getWiki() != null) {
-                if (currentEntityReference.getType() == EntityType.WIKI) {
-                    this.context.setCurrentEntityReference(new WikiReference(query.getWiki()));
-                } else {
-                    this.context.setCurrentEntityReference(currentEntityReference.replaceParent(
-                        currentEntityReference.extractReference(EntityType.WIKI), new WikiReference(query.getWiki())));
-                }
-            }
-
-            nativeQuery = getQueryManager().createQuery(this.translator.translate(query.getStatement()),
-                this.translator.getOutputLanguage());
-            nativeQuery.setLimit(query.getLimit());
-            nativeQuery.setOffset(query.getOffset());
-            nativeQuery.setWiki(query.getWiki());
-            if (query.getFilters() != null) {
-                for (QueryFilter filter : query.getFilters()) {
-                    nativeQuery.addFilter(filter);
-                }
-            }
-            for (Entry<String, Object> e : query.getNamedParameters().entrySet()) {
-                nativeQuery.bindValue(e.getKey(), e.getValue());
-            }
-            for (Entry<Integer, Object> e : query.getPositionalParameters().entrySet()) {
-                nativeQuery.bindValue(e.getKey(), e.getValue());
-            }
-
-            if (nativeQuery instanceof SecureQuery && query instanceof SecureQuery) {
-                // No need to validate the HQL query for short XWQL queries
-                if (((SecureQuery) query).isCurrentAuthorChecked() && !isShortFormStatement(query.getStatement())) {
-                    ((SecureQuery) nativeQuery).checkCurrentAuthor(true);
-                }
+            return createNativeQuery(query).execute();
+        } catch (QueryException qe) {
+            throw qe;
+        } catch (Exception e) {
+            throw createTranslationException(query, e);
+        } finally {
+            this.context.setCurrentEntityReference(currentEntityReference);
+        }
+    }
 
-                // Let HQL module take care of that is supported
-                ((SecureQuery) nativeQuery).checkCurrentUser(((SecureQuery) query).isCurrentUserChecked());
-            }
+    @Override
+    public <T> void forEach(Query query, int batchSize, QueryResultConsumer<T> consumer) throws QueryException
+    {
+        EntityReference currentEntityReference = this.context.getCurrentEntityReference();
 
-            return nativeQuery.execute();
+        Query nativeQuery;
+        try {
+            nativeQuery = createNativeQuery(query);
         } catch (QueryException qe) {
             throw qe;
         } catch (Exception e) {
-            throw new QueryException("Exception while translating [" + query.getStatement() + "] XWQL query to the ["
-                + this.translator.getOutputLanguage() + "] language", query, e);
+            throw createTranslationException(query, e);
         } finally {
             this.context.setCurrentEntityReference(currentEntityReference);
         }
+
+        nativeQuery.forEach(batchSize, consumer);
+    }
+
+    private QueryException createTranslationException(Query query, Exception e)
+    {
+        return new QueryException("Exception while translating [" + query.getStatement() + "] XWQL query to the ["
+            + this.translator.getOutputLanguage() + "] language", query, e);
+    }
+
+    /**
+     * Translate the query. The current entity reference is modified to match the wiki of the query.
+     */
+    private Query createNativeQuery(Query query) throws Exception
+    {
+        EntityReference currentEntityReference = this.context.getCurrentEntityReference();
+
+        if (query.getWiki() != null) {
+            if (currentEntityReference.getType() == EntityType.WIKI) {
+                this.context.setCurrentEntityReference(new WikiReference(query.getWiki()));
+            } else {
+                this.context.setCurrentEntityReference(currentEntityReference.replaceParent(
+                    currentEntityReference.extractReference(EntityType.WIKI), new WikiReference(query.getWiki())));
+            }
+        }
+
+        Query nativeQuery = getQueryManager().createQuery(translate(query.getStatement()),
+            this.translator.getOutputLanguage());
+        nativeQuery.setLimit(query.getLimit());
+        nativeQuery.setOffset(query.getOffset());
+        nativeQuery.setWiki(query.getWiki());
+        if (query.getFilters() != null) {
+            for (QueryFilter filter : query.getFilters()) {
+                nativeQuery.addFilter(filter);
+            }
+        }
+        for (Entry<String, Object> e : query.getNamedParameters().entrySet()) {
+            nativeQuery.bindValue(e.getKey(), e.getValue());
+        }
+        for (Entry<Integer, Object> e : query.getPositionalParameters().entrySet()) {
+            nativeQuery.bindValue(e.getKey(), e.getValue());
+        }
+
+        if (nativeQuery instanceof SecureQuery && query instanceof SecureQuery) {
+            // No need to validate the HQL query for short XWQL queries
+            if (((SecureQuery) query).isCurrentAuthorChecked() && !isShortFormStatement(query.getStatement())) {
+                ((SecureQuery) nativeQuery).checkCurrentAuthor(true);
+            }
+
+            // Let HQL module take care of that is supported
+            ((SecureQuery) nativeQuery).checkCurrentUser(((SecureQuery) query).isCurrentUserChecked());
+        }
+
+        return nativeQuery;
+    }
+
+    private String translate(String statement) throws Exception
+    {
+        // The translation depends on the wiki in which the statement is executed
+        EntityReference currentReference = this.context.getCurrentEntityReference();
+        String wiki = currentReference != null ? currentReference.extractReference(EntityType.WIKI).getName() : null;
+
+        return this.translationCache.translate(wiki, statement, this.translator);
     }
 
     public QueryTranslator getTranslator()
@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.xwql.internal;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.query.cache.JMXStatementCache;
+import org.xwiki.query.cache.StatementCache;
+
+/**
+ * Keep the result of the most recent XWQL translations, since the same statements are generally executed again and
+ * again and their translation requires parsing them and loading the definition of the classes they use.
+ * <p>
+ * The translations are forgotten when the definition of one of the classes they use is modified.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = XWQLTranslationCache.class)
+@Singleton
+public class XWQLTranslationCache implements Initializable
+{
+    /**
+     * The maximum number of translations to keep.
+     */
+    private static final int CAPACITY = 1000;
+
+    private static final String MBEAN_NAME = "type=Query,name=XWQLTranslationCache";
+
+    private static final class Entry
+    {
+        private final String statement;
+
+        private final Set<DocumentReference> classReferences;
+
+        private Entry(String statement, Set<DocumentReference> classReferences)
+        {
+            this.statement = statement;
+            this.classReferences = classReferences;
+        }
+
+        private boolean dependsOn(DocumentReference documentReference)
+        {
+            return this.classReferences == null || this.classReferences.contains(documentReference);
+        }
+    }
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> currentResolver;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    private final StatementCache<Entry> cache = new StatementCache<>(CAPACITY);
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        // Expose the statistics of the cache
+        this.jmxRegistration.registerMBean(new JMXStatementCache(this.cache), MBEAN_NAME);
+    }
+
+    /**
+     * @param wiki the wiki in which the statement is executed
+     * @param statement the statement to translate
+     * @param translator the translator to use when the translation is not cached
+     * @return the translated statement
+     * @throws Exception when failing to translate the statement
+     */
+    public String translate(String wiki, String statement, QueryTranslator translator) throws Exception
+    {
+        // The class names are resolved relative to the current wiki
+        String key = translator.getOutputLanguage() + ':' + wiki + ':' + statement;
+
+        return this.cache.get(key, statement, s -> {
+            TranslatedStatement translated = translator.translateStatement(s);
+
+            Set<String> classNames = translated.getClassNames();
+            Set<DocumentReference> classReferences = classNames != null
+                ? classNames.stream().map(this.currentResolver::resolve).collect(Collectors.toSet()) : null;
+
+            return new Entry(translated.getStatement(), classReferences);
+        }).statement;
+    }
+
+    /**
+     * Forget the translations which depend on the passed class.
+     *
+     * @param classReference the reference of the modified class
+     */
+    public void invalidate(DocumentReference classReference)
+    {
+        this.cache.removeIf(entry -> entry.dependsOn(classReference));
+    }
+
+    /**
+     * @return the cache holding the translations, to access its statistics
+     */
+    public StatementCache<?> getCache()
+    {
+        return this.cache;
+    }
+}
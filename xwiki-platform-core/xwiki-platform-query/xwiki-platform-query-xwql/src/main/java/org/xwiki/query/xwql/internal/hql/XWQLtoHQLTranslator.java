@@ -19,6 +19,9 @@
  */
 package org.xwiki.query.xwql.internal.hql;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -28,6 +31,7 @@
 import org.xwiki.query.xwql.internal.QueryAnalyzer;
 import org.xwiki.query.xwql.internal.QueryContext;
 import org.xwiki.query.xwql.internal.QueryTranslator;
+import org.xwiki.query.xwql.internal.TranslatedStatement;
 import org.xwiki.query.Query;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.component.annotation.Component;
@@ -42,6 +46,12 @@ public class XWQLtoHQLTranslator implements QueryTranslator
 
     @Override
     public String translate(String input) throws Exception
+    {
+        return translateStatement(input).getStatement();
+    }
+
+    @Override
+    public TranslatedStatement translateStatement(String input) throws Exception
     {
         input = input.trim();
         String lcInput = input.toLowerCase();
@@ -58,7 +68,15 @@ public String translate(String input) throws Exception
         tree.apply(new QueryAnalyzer(context));
 
         Printer printer = getPrinter(context);
-        return printer.print();
+        String output = printer.print();
+
+        // The translation depends on the definition of the classes of the objects used in the query
+        Set<String> classNames = new HashSet<>();
+        for (QueryContext.ObjectInfo object : context.getObjects()) {
+            classNames.add(object.className);
+        }
+
+        return new TranslatedStatement(output, classNames);
     }
 
     @Override
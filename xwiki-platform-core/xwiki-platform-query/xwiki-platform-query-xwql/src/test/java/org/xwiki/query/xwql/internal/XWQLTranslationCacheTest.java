@@ -0,0 +1,101 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.xwql.internal;
+
+import java.util.Set;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.query.Query;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XWQLTranslationCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XWQLTranslationCacheTest
+{
+    private static final String STATEMENT = "from doc.object(Space.Class) as obj";
+
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference("wiki", "Space", "Class");
+
+    @InjectMockComponents
+    private XWQLTranslationCache cache;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> currentResolver;
+
+    private QueryTranslator translator;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.translator = mock(QueryTranslator.class);
+        when(this.translator.getOutputLanguage()).thenReturn(Query.HQL);
+        when(this.translator.translateStatement(STATEMENT))
+            .thenReturn(new TranslatedStatement("translated", Set.of("Space.Class")));
+        when(this.currentResolver.resolve("Space.Class")).thenReturn(CLASS_REFERENCE);
+    }
+
+    @Test
+    void translate() throws Exception
+    {
+        assertEquals("translated", this.cache.translate("wiki", STATEMENT, this.translator));
+        assertEquals("translated", this.cache.translate("wiki", STATEMENT, this.translator));
+        verify(this.translator).translateStatement(STATEMENT);
+
+        // The translation depends on the wiki
+        this.cache.translate("otherwiki", STATEMENT, this.translator);
+        verify(this.translator, times(2)).translateStatement(STATEMENT);
+
+        assertEquals(1, this.cache.getCache().getHitCount());
+        assertEquals(2, this.cache.getCache().getMissCount());
+    }
+
+    @Test
+    void invalidate() throws Exception
+    {
+        this.cache.translate("wiki", STATEMENT, this.translator);
+
+        // Modifying another document does not affect the translation
+        this.cache.invalidate(new DocumentReference("wiki", "Space", "Other"));
+        this.cache.translate("wiki", STATEMENT, this.translator);
+        verify(this.translator).translateStatement(STATEMENT);
+
+        this.cache.invalidate(CLASS_REFERENCE);
+        this.cache.translate("wiki", STATEMENT, this.translator);
+        verify(this.translator, times(2)).translateStatement(STATEMENT);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.wiki;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.LinkBlock;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+
+/**
+ * Resolve at once the existence of all the documents targeted by the links of a block before rendering it, so that
+ * {@link XWikiWikiModel#isDocumentAvailable(ResourceReference)} does not need to check them one by one.
+ * <p>
+ * The result is kept in the execution context until {@link #restore(Map)} is called.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = DocumentAvailabilityPrefetcher.class)
+@Singleton
+public class DocumentAvailabilityPrefetcher
+{
+    private static final String ECONTEXT_PROPERTY = "rendering.wikimodel.documentAvailability";
+
+    @Inject
+    private DocumentAccessBridge documentAccessBridge;
+
+    @Inject
+    private EntityReferenceResolver<ResourceReference> resourceReferenceEntityReferenceResolver;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Check the existence of all the documents targeted by the links found in the passed block.
+     *
+     * @param block the block which is about to be rendered
+     * @return the previously prefetched availability, to pass to {@link #restore(Map)} once the block is rendered
+     */
+    public Map<DocumentReference, Boolean> prefetch(Block block)
+    {
+        ExecutionContext econtext = this.execution.getContext();
+        if (econtext == null) {
+            return null;
+        }
+
+        Map<DocumentReference, Boolean> previous = getAvailability(econtext);
+
+        Set<DocumentReference> references = new LinkedHashSet<>();
+        List<LinkBlock> links = block.getBlocks(new ClassBlockMatcher(LinkBlock.class), Block.Axes.DESCENDANT);
+        for (LinkBlock link : links) {
+            DocumentReference documentReference = getDocumentReference(link.getReference());
+            if (documentReference != null && (previous == null || !previous.containsKey(documentReference))) {
+                references.add(documentReference);
+            }
+        }
+
+        Map<DocumentReference, Boolean> availability = previous != null ? new HashMap<>(previous) : new HashMap<>();
+        if (!references.isEmpty()) {
+            try {
+                Set<DocumentReference> existing = this.documentAccessBridge.getExistingDocuments(references);
+                references.forEach(reference -> availability.put(reference, existing.contains(reference)));
+            } catch (Exception e) {
+                // Let the wiki model check the links one by one
+                this.logger.warn("Failed to check the existence of the linked documents: {}",
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        econtext.setProperty(ECONTEXT_PROPERTY, availability);
+
+        return previous;
+    }
+
+    /**
+     * Put back the availability which was prefetched before the last call to {@link #prefetch(Block)}.
+     *
+     * @param previous the value returned by {@link #prefetch(Block)}
+     */
+    public void restore(Map<DocumentReference, Boolean> previous)
+    {
+        ExecutionContext econtext = this.execution.getContext();
+        if (econtext != null) {
+            if (previous != null) {
+                econtext.setProperty(ECONTEXT_PROPERTY, previous);
+            } else {
+                econtext.removeProperty(ECONTEXT_PROPERTY);
+            }
+        }
+    }
+
+    /**
+     * @param documentReference the reference of the document
+     * @return {@code true} or {@code false} if the existence of the document was prefetched, {@code null} otherwise
+     */
+    public Boolean isAvailable(DocumentReference documentReference)
+    {
+        ExecutionContext econtext = this.execution.getContext();
+        if (econtext != null) {
+            Map<DocumentReference, Boolean> availability = getAvailability(econtext);
+            if (availability != null) {
+                return availability.get(documentReference);
+            }
+        }
+
+        return null;
+    }
+
+    private Map<DocumentReference, Boolean> getAvailability(ExecutionContext econtext)
+    {
+        return (Map<DocumentReference, Boolean>) econtext.getProperty(ECONTEXT_PROPERTY);
+    }
+
+    private DocumentReference getDocumentReference(ResourceReference resourceReference)
+    {
+        ResourceType type = resourceReference.getType();
+
+        EntityReference entityReference;
+        try {
+            if (type.equals(ResourceType.PAGE)) {
+                entityReference =
+                    this.resourceReferenceEntityReferenceResolver.resolve(resourceReference, EntityType.PAGE);
+            } else if (type.equals(ResourceType.DOCUMENT) || type.equals(ResourceType.SPACE)) {
+                entityReference =
+                    this.resourceReferenceEntityReferenceResolver.resolve(resourceReference, EntityType.DOCUMENT);
+            } else {
+                // Not a link to a document
+                return null;
+            }
+        } catch (Exception e) {
+            this.logger.debug("Failed to resolve the link reference [{}]", resourceReference, e);
+
+            return null;
+        }
+
+        return entityReference != null ? this.documentAccessBridge.getDocumentReference(entityReference) : null;
+    }
+}
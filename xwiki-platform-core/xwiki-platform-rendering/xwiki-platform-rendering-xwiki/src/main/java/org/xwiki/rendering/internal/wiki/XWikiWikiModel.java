@@ -118,6 +118,12 @@ public class XWikiWikiModel implements WikiModel
     @Inject
     private EntityReferenceResolver<ResourceReference> resourceReferenceEntityReferenceResolver;
 
+    /**
+     * Used to get the existence of the documents checked in bulk before the rendering.
+     */
+    @Inject
+    private DocumentAvailabilityPrefetcher documentAvailabilityPrefetcher;
+
     /**
      * Provides logging for this class.
      */
@@ -211,6 +217,11 @@ public boolean isDocumentAvailable(ResourceReference resourceReference)
 
         DocumentReference documentReference = this.documentAccessBridge.getDocumentReference(documentEntityReference);
 
+        Boolean available = this.documentAvailabilityPrefetcher.isAvailable(documentReference);
+        if (available != null) {
+            return available;
+        }
+
         try {
             return this.documentAccessBridge.exists(documentReference);
         } catch (Exception e) {
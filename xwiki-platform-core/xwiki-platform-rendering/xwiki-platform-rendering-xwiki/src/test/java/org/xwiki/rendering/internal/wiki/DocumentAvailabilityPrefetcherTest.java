@@ -0,0 +1,124 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.wiki;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.rendering.block.LinkBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.reference.DocumentResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DocumentAvailabilityPrefetcher}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DocumentAvailabilityPrefetcherTest
+{
+    private static final DocumentReference EXISTING = new DocumentReference("wiki", "space", "existing");
+
+    private static final DocumentReference MISSING = new DocumentReference("wiki", "space", "missing");
+
+    @InjectMockComponents
+    private DocumentAvailabilityPrefetcher prefetcher;
+
+    @MockComponent
+    private DocumentAccessBridge documentAccessBridge;
+
+    @MockComponent
+    private EntityReferenceResolver<ResourceReference> resolver;
+
+    @MockComponent
+    private Execution execution;
+
+    private XDOM xdom;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.execution.getContext()).thenReturn(new ExecutionContext());
+
+        ResourceReference existingLink = new DocumentResourceReference("existing");
+        ResourceReference missingLink = new DocumentResourceReference("missing");
+        ResourceReference urlLink = new ResourceReference("https://xwiki.org", ResourceType.URL);
+        when(this.resolver.resolve(same(existingLink), same(EntityType.DOCUMENT))).thenReturn(EXISTING);
+        when(this.resolver.resolve(same(missingLink), same(EntityType.DOCUMENT))).thenReturn(MISSING);
+        when(this.documentAccessBridge.getDocumentReference(EXISTING)).thenReturn(EXISTING);
+        when(this.documentAccessBridge.getDocumentReference(MISSING)).thenReturn(MISSING);
+        when(this.documentAccessBridge.getExistingDocuments(any())).thenReturn(Set.of(EXISTING));
+
+        this.xdom = new XDOM(List.of(new ParagraphBlock(List.of(new LinkBlock(List.of(), existingLink, false),
+            new LinkBlock(List.of(), missingLink, false), new LinkBlock(List.of(), urlLink, false)))));
+    }
+
+    @Test
+    void prefetch() throws Exception
+    {
+        assertNull(this.prefetcher.isAvailable(EXISTING));
+
+        Map<DocumentReference, Boolean> previous = this.prefetcher.prefetch(this.xdom);
+
+        assertNull(previous);
+        assertEquals(Boolean.TRUE, this.prefetcher.isAvailable(EXISTING));
+        assertEquals(Boolean.FALSE, this.prefetcher.isAvailable(MISSING));
+        // Only the links to documents are checked, all at once
+        verify(this.documentAccessBridge).getExistingDocuments(Set.of(EXISTING, MISSING));
+
+        this.prefetcher.restore(previous);
+
+        assertNull(this.prefetcher.isAvailable(EXISTING));
+    }
+
+    @Test
+    void prefetchWithoutExecutionContext()
+    {
+        when(this.execution.getContext()).thenReturn(null);
+
+        assertNull(this.prefetcher.prefetch(this.xdom));
+        assertNull(this.prefetcher.isAvailable(EXISTING));
+
+        verifyNoInteractions(this.documentAccessBridge);
+    }
+}
@@ -479,16 +479,33 @@ public Wiki toRestWiki(URI baseUri, String wikiName)
     }
 
     public Space toRestSpace(URI baseUri, String wikiName, List<String> spaces, Document home)
+    {
+        return toRestSpace(baseUri, wikiName, spaces, home != null ? home.getDocumentReference() : null);
+    }
+
+    /**
+     * Create the representation of a space without loading its home page, since only its reference is needed.
+     *
+     * @param baseUri the base URI of the REST API
+     * @param wikiName the name of the wiki
+     * @param spaces the space names, from the top level space
+     * @param homeReference the reference of the home page of the space, or {@code null} if it does not exist
+     * @return the space representation
+     * @since 16.3.0RC1
+     */
+    public Space toRestSpace(URI baseUri, String wikiName, List<String> spaces, DocumentReference homeReference)
     {
         Space space = this.objectFactory.createSpace();
         space.setId(Utils.getSpaceId(wikiName, spaces));
         space.setWiki(wikiName);
         // the name of the space is the last element of the spaces list
         space.setName(spaces.get(spaces.size() - 1));
-        if (home != null) {
-            space.setHome(home.getPrefixedFullName());
-            space.setXwikiRelativeUrl(home.getURL("view"));
-            space.setXwikiAbsoluteUrl(home.getExternalURL("view"));
+        if (homeReference != null) {
+            XWikiContext xcontext = this.xcontextProvider.get();
+            space.setHome(this.defaultEntityReferenceSerializer.serialize(homeReference));
+            space.setXwikiRelativeUrl(xcontext.getWiki().getURL(homeReference, "view", null, null, xcontext));
+            space.setXwikiAbsoluteUrl(
+                xcontext.getWiki().getExternalURL(homeReference, "view", null, null, xcontext));
         }
 
         List<String> restSpacesValue = toRestSpaces(spaces);
@@ -499,9 +516,9 @@ public Space toRestSpace(URI baseUri, String wikiName, List<String> spaces, Docu
         pagesLink.setRel(Relations.PAGES);
         space.getLinks().add(pagesLink);
 
-        if (home != null) {
+        if (homeReference != null) {
             String homeUri = Utils.createURI(baseUri, PageResource.class, wikiName, restSpacesValue,
-                home.getDocumentReference().getName()).toString();
+                homeReference.getName()).toString();
             Link homeLink = this.objectFactory.createLink();
             homeLink.setHref(homeUri);
             homeLink.setRel(Relations.HOME);
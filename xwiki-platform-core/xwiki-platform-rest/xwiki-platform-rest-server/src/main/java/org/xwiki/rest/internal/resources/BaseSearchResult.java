@@ -23,8 +23,10 @@
 import java.util.Calendar;
 import java.util.Formatter;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -397,40 +399,46 @@ protected List<SearchResult> searchSpaces(String keywords, String wikiName, int
             .setWiki(wikiName).setLimit(number).setOffset(start)
             .addFilter(this.hiddenSpaceFilterProvider.get()).execute();
 
-        XWiki xwikiApi = Utils.getXWikiApi(componentManager);
+        Map<SpaceReference, String> spaceIds = new LinkedHashMap<>();
         for (Object object : queryResult) {
             String spaceId = (String) object;
-            List<String> spaces = Utils.getSpacesFromSpaceId(spaceId);
-            SpaceReference spaceReference = new SpaceReference(wikiName, spaces);
+            spaceIds.put(new SpaceReference(wikiName, Utils.getSpacesFromSpaceId(spaceId)), spaceId);
+        }
 
-            if (this.authorizationManager.hasAccess(Right.VIEW, spaceReference)) {
-                Document spaceDoc = xwikiApi.getDocument(spaceReference);
+        // Check the view right on all the found spaces at once.
+        List<SpaceReference> viewableSpaces = this.authorizationManager.filterAccessible(Right.VIEW, spaceIds.keySet());
 
-                SearchResult searchResult = objectFactory.createSearchResult();
-                searchResult.setType("space");
-                searchResult.setId(spaceId);
-                searchResult.setWiki(wikiName);
-                searchResult.setSpace(spaceId);
-                searchResult.setTitle(spaceDoc != null ? spaceDoc.getPlainTitle() : spaceReference.getName());
+        XWiki xwikiApi = Utils.getXWikiApi(componentManager);
+        for (SpaceReference spaceReference : viewableSpaces) {
+            String spaceId = spaceIds.get(spaceReference);
+            List<String> spaces = Utils.getSpacesFromSpaceId(spaceId);
 
-                // Add a link to the space information.
-                Link spaceLink = new Link();
-                spaceLink.setRel(Relations.SPACE);
-                spaceLink.setHref(Utils.createURI(uriInfo.getBaseUri(), SpaceResource.class, wikiName, spaces)
-                    .toString());
-                searchResult.getLinks().add(spaceLink);
+            Document spaceDoc = xwikiApi.getDocument(spaceReference);
 
-                // Add a link to the home page if it exists and it is viewable.
-                if (spaceDoc != null && !spaceDoc.isNew()) {
-                    Link pageLink = new Link();
-                    pageLink.setHref(Utils.createURI(uriInfo.getBaseUri(), PageResource.class, wikiName, spaces,
-                        spaceDoc.getDocumentReference().getName()).toString());
-                    pageLink.setRel(Relations.HOME);
-                    searchResult.getLinks().add(pageLink);
-                }
+            SearchResult searchResult = objectFactory.createSearchResult();
+            searchResult.setType("space");
+            searchResult.setId(spaceId);
+            searchResult.setWiki(wikiName);
+            searchResult.setSpace(spaceId);
+            searchResult.setTitle(spaceDoc != null ? spaceDoc.getPlainTitle() : spaceReference.getName());
 
-                result.add(searchResult);
+            // Add a link to the space information.
+            Link spaceLink = new Link();
+            spaceLink.setRel(Relations.SPACE);
+            spaceLink.setHref(Utils.createURI(uriInfo.getBaseUri(), SpaceResource.class, wikiName, spaces)
+                .toString());
+            searchResult.getLinks().add(spaceLink);
+
+            // Add a link to the home page if it exists and it is viewable.
+            if (spaceDoc != null && !spaceDoc.isNew()) {
+                Link pageLink = new Link();
+                pageLink.setHref(Utils.createURI(uriInfo.getBaseUri(), PageResource.class, wikiName, spaces,
+                    spaceDoc.getDocumentReference().getName()).toString());
+                pageLink.setRel(Relations.HOME);
+                searchResult.getLinks().add(pageLink);
             }
+
+            result.add(searchResult);
         }
 
         return result;
@@ -134,7 +134,10 @@ protected PropertyValues getValues(Query query, int limit, String filter, T prop
             query.addFilter(this.textFilter);
             query.bindValue(TEXT_FILTER).anyChars().literal(filter).anyChars();
         }
-        return getValuesFromQueryResults(query.execute(), propertyDefinition);
+        // Make sure to return the requested number of values even when some query results are filtered out (e.g.
+        // because they are not viewable)
+        List<Object> results = limit > 0 ? query.<Object>executePage().getResults() : query.execute();
+        return getValuesFromQueryResults(results, propertyDefinition);
     }
 
     /**
@@ -19,12 +19,19 @@
  */
 package org.xwiki.rest.internal.resources.objects;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.commons.lang3.StringUtils;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
@@ -39,6 +46,7 @@
 import com.xpn.xwiki.api.Document;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.user.api.XWikiRightService;
 
 /**
  * @version $Id$
@@ -50,6 +58,13 @@ public class AllObjectsForClassNameResourceImpl extends XWikiResource implements
     @Inject
     private ContextualAuthorizationManager authorization;
 
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    @Named("user")
+    private DocumentReferenceResolver<String> userResolver;
+
     @Override
     public Objects getObjects(String wikiName, String className, Integer start, Integer number, String order,
             Boolean withPrettyNames) throws XWikiRestException
@@ -61,27 +76,36 @@ public Objects getObjects(String wikiName, String className, Integer start, Inte
 
             Utils.getXWikiContext(componentManager).setWikiId(wikiName);
 
-            String query = "select doc, obj from BaseObject as obj, XWikiDocument as doc "
-                + "where obj.name=doc.fullName and obj.className=:className";
+            // Select only the document fields needed by the object summaries instead of loading full documents.
+            String query = "select doc.fullName, doc.version, doc.author, obj from BaseObject as obj, "
+                + "XWikiDocument as doc where obj.name=doc.fullName and obj.className=:className";
             if ("date".equals(order)) {
                 query += " order by doc.date desc";
             }
 
-            List<Object> queryResult = null;
-            queryResult =
+            List<Object[]> queryResult =
                     queryManager.createQuery(query, Query.XWQL).bindValue("className", className).setLimit(number)
                             .setOffset(start).execute();
 
-            for (Object object : queryResult) {
-                Object[] fields = (Object[]) object;
-                XWikiDocument xwikiDocument = (XWikiDocument) fields[0];
-                xwikiDocument.setDatabase(wikiName);
+            WikiReference wikiReference = new WikiReference(wikiName);
+            List<DocumentReference> documentReferences = new ArrayList<>(queryResult.size());
+            for (Object[] fields : queryResult) {
+                documentReferences.add(this.resolver.resolve((String) fields[0], wikiReference));
+            }
+            Set<DocumentReference> viewableReferences =
+                new HashSet<>(this.authorization.filterAccessible(Right.VIEW, documentReferences));
 
-                if (authorization.hasAccess(Right.VIEW, xwikiDocument.getDocumentReference())) {
+            for (int i = 0; i < queryResult.size(); i++) {
+                DocumentReference documentReference = documentReferences.get(i);
+                if (viewableReferences.contains(documentReference)) {
+                    Object[] fields = queryResult.get(i);
+                    XWikiDocument xwikiDocument = new XWikiDocument(documentReference);
+                    xwikiDocument.setVersion((String) fields[1]);
+                    xwikiDocument.setAuthorReference(resolveUser((String) fields[2], documentReference));
 
                     Document doc = new Document(xwikiDocument, Utils.getXWikiContext(componentManager));
 
-                    BaseObject xwikiObject = (BaseObject) fields[1];
+                    BaseObject xwikiObject = (BaseObject) fields[3];
 
                     ObjectSummary objectSummary = DomainObjectFactory
                         .createObjectSummary(objectFactory, uriInfo.getBaseUri(), Utils.getXWikiContext(
@@ -99,4 +123,15 @@ public Objects getObjects(String wikiName, String className, Integer start, Inte
             Utils.getXWikiContext(componentManager).setWikiId(database);
         }
     }
+
+    private DocumentReference resolveUser(String user, DocumentReference documentReference)
+    {
+        // Same as what XWikiDocument does when loading the author from the database.
+        if (StringUtils.isEmpty(user)) {
+            return null;
+        }
+
+        DocumentReference userReference = this.userResolver.resolve(user, documentReference.getWikiReference());
+        return XWikiRightService.GUEST_USER.equals(userReference.getName()) ? null : userReference;
+    }
 }
@@ -19,9 +19,10 @@
  */
 package org.xwiki.rest.internal.resources.objects;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -51,28 +52,25 @@ protected BaseObject getBaseObject(Document doc, String className, int objectNum
         return xwikiDocument.getObject(className, objectNumber);
     }
 
-    protected List<BaseObject> getBaseObjects(DocumentReference documentReference, String version)
-        throws XWikiException
+    protected List<BaseObject> getBaseObjects(DocumentReference documentReference, String version, int start,
+        int number) throws XWikiException
     {
         XWikiDocument xwikiDocument = this.documentRevisionProvider.getRevision(documentReference, version);
 
-        return getBaseObjectList(xwikiDocument);
+        return getRange(xwikiDocument.getXObjects().values().stream().flatMap(List::stream), start, number);
     }
 
-    protected List<BaseObject> getBaseObjects(DocumentReference documentReference) throws XWikiException
+    protected List<BaseObject> getBaseObjects(DocumentReference documentReference, int start, int number)
+        throws XWikiException
     {
         XWikiContext xWikiContext = this.xcontextProvider.get();
         XWikiDocument xwikiDocument = xWikiContext.getWiki().getDocument(documentReference, xWikiContext);
 
-        return getBaseObjectList(xwikiDocument);
-    }
-
-    private static List<BaseObject> getBaseObjectList(XWikiDocument xwikiDocument)
-    {
-        return xwikiDocument.getXObjects().values().stream().flatMap(List::stream).toList();
+        return getRange(xwikiDocument.getXObjects().values().stream().flatMap(List::stream), start, number);
     }
 
-    protected List<BaseObject> getBaseObjects(Document doc, String className) throws XWikiException
+    protected List<BaseObject> getBaseObjects(Document doc, String className, int start, int number)
+        throws XWikiException
     {
         XWikiContext xWikiContext = this.xcontextProvider.get();
         XWikiDocument xwikiDocument = xWikiContext.getWiki().getDocument(doc.getDocumentReference(), xWikiContext);
@@ -80,6 +78,21 @@ protected List<BaseObject> getBaseObjects(Document doc, String className) throws
         List<BaseObject> xwikiObjects = xwikiDocument.getXObjects(xwikiDocument.resolveClassReference(className));
 
         // XWikiDocument#getXObjects return internal list so we make sure to return a safe one
-        return xwikiObjects != null ? new ArrayList<>(xwikiObjects) : Collections.emptyList();
+        return xwikiObjects != null ? getRange(xwikiObjects.stream(), start, number) : Collections.emptyList();
+    }
+
+    /**
+     * Copy only the requested range of objects, with the same bounds handling as
+     * {@link org.xwiki.rest.internal.RangeIterable}, instead of copying all the objects of the document first.
+     * Deleted objects are represented by {@code null} and are part of the range.
+     */
+    private static List<BaseObject> getRange(Stream<BaseObject> objects, int start, int number)
+    {
+        Stream<BaseObject> range = objects.skip(Math.max(start, 0));
+        if (number >= 0) {
+            range = range.limit(number);
+        }
+
+        return range.collect(Collectors.toList());
     }
 }
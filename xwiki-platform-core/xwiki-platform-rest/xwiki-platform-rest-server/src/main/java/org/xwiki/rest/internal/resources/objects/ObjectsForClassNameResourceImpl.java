@@ -26,7 +26,6 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
-import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Objects;
 import org.xwiki.rest.resources.objects.ObjectsForClassNameResource;
@@ -52,12 +51,9 @@ public Objects getObjects(String wikiName, String spaceName, String pageName, St
 
             Objects objects = objectFactory.createObjects();
 
-            List<com.xpn.xwiki.objects.BaseObject> objectList = getBaseObjects(doc, className);
+            List<com.xpn.xwiki.objects.BaseObject> objectList = getBaseObjects(doc, className, start, number);
 
-            RangeIterable<com.xpn.xwiki.objects.BaseObject> ri =
-                    new RangeIterable<com.xpn.xwiki.objects.BaseObject>(objectList, start, number);
-
-            for (com.xpn.xwiki.objects.BaseObject object : ri) {
+            for (com.xpn.xwiki.objects.BaseObject object : objectList) {
                 // By deleting objects, some of them might become null, so we must check for this
                 if (object != null) {
                     objects.getObjectSummaries()
@@ -29,7 +29,6 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
-import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Object;
 import org.xwiki.rest.model.jaxb.Objects;
@@ -61,11 +60,9 @@ public Objects getObjects(String wikiName, String spaceName, String pageName, In
 
             Objects objects = objectFactory.createObjects();
 
-            List<BaseObject> objectList = getBaseObjects(doc.getDocumentReference());
+            List<BaseObject> objectList = getBaseObjects(doc.getDocumentReference(), start, number);
 
-            RangeIterable<BaseObject> ri = new RangeIterable<BaseObject>(objectList, start, number);
-
-            for (BaseObject object : ri) {
+            for (BaseObject object : objectList) {
                 /* By deleting objects, some of them might become null, so we must check for this */
                 if (object != null) {
                     objects.getObjectSummaries().add(
@@ -22,7 +22,10 @@
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -110,18 +113,27 @@ public List<SearchResult> search(String partialQueryString, String wikiName, Str
 
         WikiReference wikiReference = new WikiReference(wikiName);
 
+        List<DocumentReference> documentReferences = new ArrayList<>(queryResult.size());
+        for (Object object : queryResult) {
+            String fullName = (String) ((Object[]) object)[0];
+            documentReferences.add(this.resolver.resolve(fullName, wikiReference));
+        }
+
+        /* Check at once which of the found documents the user has the right to see */
+        Set<DocumentReference> viewableReferences =
+            new HashSet<>(this.authorization.filterAccessible(Right.VIEW, documentReferences));
+
         /* Build the result. */
         List<SearchResult> result = new ArrayList<>();
+        Iterator<DocumentReference> documentReferenceIterator = documentReferences.iterator();
         for (Object object : queryResult) {
             Object[] fields = (Object[]) object;
 
-            String fullName = (String) fields[0];
             String language = (String) fields[3];
 
-            DocumentReference documentReference = this.resolver.resolve(fullName, wikiReference);
+            DocumentReference documentReference = documentReferenceIterator.next();
 
-            /* Check if the user has the right to see the found document */
-            if (this.authorization.hasAccess(Right.VIEW, documentReference)) {
+            if (viewableReferences.contains(documentReference)) {
                 Document doc = xwikiApi.getDocument(documentReference);
                 String title = doc.getDisplayTitle();
 
@@ -21,18 +21,22 @@
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Space;
 import org.xwiki.rest.resources.spaces.SpaceResource;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
-import com.xpn.xwiki.api.Document;
 
 /**
  * @version $Id$
@@ -41,6 +45,12 @@
 @Named("org.xwiki.rest.internal.resources.spaces.SpaceResourceImpl")
 public class SpaceResourceImpl extends XWikiResource implements SpaceResource
 {
+    @Inject
+    private ModelFactory factory;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
     @Override
     public Space getSpace(String wikiName, String spaceName) throws XWikiRestException
     {
@@ -50,14 +60,16 @@ public Space getSpace(String wikiName, String spaceName) throws XWikiRestExcepti
         try {
             Utils.getXWikiContext(componentManager).setWikiId(wikiName);
 
-            String homeId = Utils.getPageId(wikiName, spaces, "WebHome");
-            Document home = null;
-
-            if (Utils.getXWikiApi(componentManager).exists(homeId)) {
-                home = Utils.getXWikiApi(componentManager).getDocument(homeId);
+            // Only the reference of the home page is needed so there's no need to load it, but it's exposed only if
+            // the current user can view it.
+            XWikiContext xcontext = this.xcontextProvider.get();
+            DocumentReference homeReference = new DocumentReference(wikiName, spaces, "WebHome");
+            if (!this.authorization.hasAccess(Right.VIEW, homeReference)
+                || !xcontext.getWiki().exists(homeReference, xcontext)) {
+                homeReference = null;
             }
 
-            return DomainObjectFactory.createSpace(objectFactory, uriInfo.getBaseUri(), wikiName, spaces, home);
+            return this.factory.toRestSpace(uriInfo.getBaseUri(), wikiName, spaces, homeReference);
         } catch (XWikiException e) {
             throw new XWikiRestException(e);
         } finally {
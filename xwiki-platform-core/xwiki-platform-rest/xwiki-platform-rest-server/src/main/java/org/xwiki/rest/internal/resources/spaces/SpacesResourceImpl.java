@@ -19,21 +19,27 @@
  */
 package org.xwiki.rest.internal.resources.spaces;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Spaces;
 import org.xwiki.rest.resources.spaces.SpacesResource;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 
-import com.xpn.xwiki.api.Document;
-import com.xpn.xwiki.api.XWiki;
+import com.xpn.xwiki.XWikiContext;
 
 /**
  * @version $Id$
@@ -42,6 +48,12 @@
 @Named("org.xwiki.rest.internal.resources.spaces.SpacesResourceImpl")
 public class SpacesResourceImpl extends XWikiResource implements SpacesResource
 {
+    @Inject
+    private ModelFactory factory;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
     @Override
     public Spaces getSpaces(String wikiName, Integer start, Integer number)
             throws XWikiRestException
@@ -53,19 +65,24 @@ public Spaces getSpaces(String wikiName, Integer start, Integer number)
                     componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden")).setOffset(start)
                     .setLimit(number).setWiki(wikiName).execute();
 
+            List<DocumentReference> homeReferences = new ArrayList<>(spaceNames.size());
             for (String spaceName : spaceNames) {
-                List<String> spaceList = Utils.getSpacesFromSpaceId(spaceName);
-                String homeId = Utils.getPageId(wikiName, spaceList, "WebHome");
-                Document home = null;
+                SpaceReference spaceReference = Utils.resolveLocalSpaceId(spaceName, wikiName);
+                homeReferences.add(new DocumentReference("WebHome", spaceReference));
+            }
+
+            // Check the rights and the existence of all the home pages at once instead of loading them one by one,
+            // only their reference is needed to represent the spaces.
+            XWikiContext xcontext = this.xcontextProvider.get();
+            List<DocumentReference> viewableHomeReferences =
+                this.authorization.filterAccessible(Right.VIEW, homeReferences);
+            Set<DocumentReference> existingHomeReferences =
+                xcontext.getWiki().getStore().getExistingDocuments(viewableHomeReferences, xcontext);
 
-                XWiki xwikiApi = Utils.getXWikiApi(componentManager);
-                if (xwikiApi.hasAccessLevel("view", homeId)) {
-                    if (xwikiApi.exists(homeId)) {
-                        home = Utils.getXWikiApi(componentManager).getDocument(homeId);
-                    }
-                    spaces.getSpaces().add(DomainObjectFactory
-                            .createSpace(objectFactory, uriInfo.getBaseUri(), wikiName, spaceList, home));
-                }
+            for (DocumentReference homeReference : viewableHomeReferences) {
+                List<String> spaceList = Utils.getSpacesHierarchy(homeReference.getLastSpaceReference());
+                spaces.getSpaces().add(this.factory.toRestSpace(uriInfo.getBaseUri(), wikiName, spaceList,
+                    existingHomeReferences.contains(homeReference) ? homeReference : null));
             }
         } catch (Exception e) {
             throw new XWikiRestException(e);
@@ -84,6 +84,9 @@ public void configure() throws Exception
         when(this.classDocument.getDocumentReference()).thenReturn(this.classReference);
         when(this.classDocument.getAuthorReference()).thenReturn(authorReference);
 
+        when(this.allowedValuesQuery.executePage()).thenCallRealMethod();
+        when(this.usedValuesQuery.executePage()).thenCallRealMethod();
+
         QueryParameter queryParameter = mock(QueryParameter.class);
         when(this.allowedValuesQuery.bindValue("text")).thenReturn(queryParameter);
         when(this.usedValuesQuery.bindValue("text")).thenReturn(queryParameter);
@@ -164,6 +164,7 @@ public void getValuesMixedWithUsed() throws Exception
         when(queryParameter.anyChars()).thenReturn(queryParameter);
         when(queryParameter.literal("bar")).thenReturn(queryParameter);
         when(query.execute()).thenReturn(Arrays.asList(new Object[] { "blue", 21L }, new Object[] { "red", 17L }));
+        when(query.executePage()).thenCallRealMethod();
 
         assertSame(values, this.provider.getValues(propertyReference, 3, "bar"));
 
@@ -92,6 +92,7 @@ public void getValues() throws Exception
 
         Query query = mock(Query.class);
         when(query.execute()).thenReturn(Collections.singletonList(pageRef));
+        when(query.executePage()).thenCallRealMethod();
 
         PropertyValues values = this.provider.getValues(query, 3, "", this.pageClass);
         assertEquals(1, values.getPropertyValues().size());
@@ -130,6 +131,7 @@ public void getValuesWithTerminalPage() throws Exception
 
         Query query = mock(Query.class);
         when(query.execute()).thenReturn(Arrays.asList(page1Ref, page2Ref));
+        when(query.executePage()).thenCallRealMethod();
 
         PropertyValues values = this.provider.getValues(query, 3, "", this.pageClass);
         assertEquals(2, values.getPropertyValues().size());
@@ -147,4 +147,25 @@ void getDeletedObjects() throws XWikiException, XWikiRestException, Authorizatio
                 DOCUMENT_REFERENCE.getParent().getName(), DOCUMENT_REFERENCE.getName(), version, 0, 10, false));
         assertEquals(404, webApplicationException.getResponse().getStatus());
     }
+
+    @Test
+    void getObjectsRange() throws XWikiException, XWikiRestException
+    {
+        String version = "deleted:1";
+        XWikiDocument deletedVersion = this.document.clone();
+        BaseObject secondObject = deletedVersion.newXObject(TAG_CLASS, this.mockitoOldcore.getXWikiContext());
+        deletedVersion.newXObject(TAG_CLASS, this.mockitoOldcore.getXWikiContext());
+        when(this.deletedDocumentRevisionProvider.getRevision(this.document.getDocumentReferenceWithLocale(),
+            "1")).thenReturn(deletedVersion);
+        when(this.mockitoOldcore.getMockRightService().hasAccessLevel("view",
+            this.mockitoOldcore.getXWikiContext().getUser(), this.document.getPrefixedFullName(),
+            this.mockitoOldcore.getXWikiContext())).thenReturn(true);
+
+        Objects objects = this.objectsAtPageVersionResource.getObjects(DOCUMENT_REFERENCE.getWikiReference().getName(),
+            DOCUMENT_REFERENCE.getParent().getName(), DOCUMENT_REFERENCE.getName(), version, 1, 1, false);
+
+        assertEquals(1, objects.getObjectSummaries().size());
+        verify(this.modelFactory).toRestObjectSummary(this.uriInfo.getBaseUri(), new Document(deletedVersion,
+            this.mockitoOldcore.getXWikiContext()), secondObject, true, false);
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.resources.spaces;
+
+import java.net.URI;
+import java.util.List;
+
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rest.internal.ModelFactory;
+import org.xwiki.rest.model.jaxb.Space;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SpaceResourceImpl}.
+ *
+ * @version $Id$
+ */
+@OldcoreTest
+@ReferenceComponentList
+class SpaceResourceImplTest
+{
+    private static final DocumentReference HOME = new DocumentReference("test", List.of("A", "B"), "WebHome");
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @MockComponent
+    private ModelFactory modelFactory;
+
+    @InjectMockComponents
+    private SpaceResourceImpl spaceResource;
+
+    @Mock
+    private UriInfo uriInfo;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.uriInfo.getBaseUri()).thenReturn(new URI("https://test/"));
+        FieldUtils.writeField(this.spaceResource, "uriInfo", this.uriInfo, true);
+        when(this.oldcore.getMockContextualAuthorizationManager().hasAccess(Right.VIEW, HOME)).thenReturn(true);
+    }
+
+    @Test
+    void getSpace() throws Exception
+    {
+        this.oldcore.getSpyXWiki().saveDocument(new XWikiDocument(HOME), this.oldcore.getXWikiContext());
+        clearInvocations(this.oldcore.getSpyXWiki(), this.oldcore.getMockStore());
+        Space space = mock(Space.class);
+        when(this.modelFactory.toRestSpace(any(), eq("test"), eq(List.of("A", "B")), eq(HOME))).thenReturn(space);
+
+        assertSame(space, this.spaceResource.getSpace("test", "A/spaces/B"));
+
+        // Only the existence of the home page is checked, it's not loaded.
+        verify(this.oldcore.getSpyXWiki(), never()).getDocument(any(DocumentReference.class), any());
+        assertEquals("xwiki", this.oldcore.getXWikiContext().getWikiId());
+    }
+
+    @Test
+    void getSpaceWithoutHomePage() throws Exception
+    {
+        Space space = mock(Space.class);
+        when(this.modelFactory.toRestSpace(any(), eq("test"), eq(List.of("A", "B")), (DocumentReference) isNull()))
+            .thenReturn(space);
+
+        assertSame(space, this.spaceResource.getSpace("test", "A/spaces/B"));
+    }
+
+    @Test
+    void getSpaceWithoutViewRightOnHomePage() throws Exception
+    {
+        this.oldcore.getSpyXWiki().saveDocument(new XWikiDocument(HOME), this.oldcore.getXWikiContext());
+        when(this.oldcore.getMockContextualAuthorizationManager().hasAccess(Right.VIEW, HOME)).thenReturn(false);
+        Space space = mock(Space.class);
+        when(this.modelFactory.toRestSpace(any(), eq("test"), eq(List.of("A", "B")), (DocumentReference) isNull()))
+            .thenReturn(space);
+
+        // The home page is not exposed to the users who cannot view it.
+        assertSame(space, this.spaceResource.getSpace("test", "A/spaces/B"));
+    }
+}
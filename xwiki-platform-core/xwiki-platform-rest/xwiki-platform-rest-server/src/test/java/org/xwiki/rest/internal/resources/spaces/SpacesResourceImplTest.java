@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.resources.spaces;
+
+import java.net.URI;
+import java.util.List;
+
+import javax.inject.Named;
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+import org.xwiki.rest.internal.ModelFactory;
+import org.xwiki.rest.model.jaxb.Space;
+import org.xwiki.rest.model.jaxb.Spaces;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SpacesResourceImpl}.
+ *
+ * @version $Id$
+ */
+@OldcoreTest
+@ReferenceComponentList
+class SpacesResourceImplTest
+{
+    private static final DocumentReference HOME_A = new DocumentReference("test", "A", "WebHome");
+
+    private static final DocumentReference HOME_B = new DocumentReference("test", "B", "WebHome");
+
+    private static final DocumentReference HOME_AC = new DocumentReference("test", List.of("A", "C"), "WebHome");
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @MockComponent
+    private ModelFactory modelFactory;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    @Named("hidden")
+    private QueryFilter hiddenFilter;
+
+    @InjectMockComponents
+    private SpacesResourceImpl spacesResource;
+
+    @Mock
+    private UriInfo uriInfo;
+
+    @Mock
+    private Query query;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.uriInfo.getBaseUri()).thenReturn(new URI("https://test/"));
+        FieldUtils.writeField(this.spacesResource, "uriInfo", this.uriInfo, true);
+
+        when(this.queryManager.getNamedQuery("getSpaces")).thenReturn(this.query);
+        when(this.query.addFilter(this.hiddenFilter)).thenReturn(this.query);
+        when(this.query.setOffset(0)).thenReturn(this.query);
+        when(this.query.setLimit(10)).thenReturn(this.query);
+        when(this.query.setWiki("test")).thenReturn(this.query);
+        when(this.query.execute()).thenReturn(List.of("A", "B", "A.C"));
+    }
+
+    @Test
+    void getSpaces() throws Exception
+    {
+        // The home page of A.C doesn't exist and B cannot be viewed.
+        this.oldcore.getSpyXWiki().saveDocument(new XWikiDocument(HOME_A), this.oldcore.getXWikiContext());
+        this.oldcore.getSpyXWiki().saveDocument(new XWikiDocument(HOME_B), this.oldcore.getXWikiContext());
+        clearInvocations(this.oldcore.getSpyXWiki(), this.oldcore.getMockStore());
+        when(this.oldcore.getMockContextualAuthorizationManager().filterAccessible(Right.VIEW,
+            List.of(HOME_A, HOME_B, HOME_AC))).thenReturn(List.of(HOME_A, HOME_AC));
+
+        Space spaceA = mock(Space.class);
+        when(this.modelFactory.toRestSpace(any(), eq("test"), eq(List.of("A")), eq(HOME_A))).thenReturn(spaceA);
+        Space spaceAC = mock(Space.class);
+        when(this.modelFactory.toRestSpace(any(), eq("test"), eq(List.of("A", "C")), (DocumentReference) isNull()))
+            .thenReturn(spaceAC);
+
+        Spaces spaces = this.spacesResource.getSpaces("test", 0, 10);
+
+        assertEquals(List.of(spaceA, spaceAC), spaces.getSpaces());
+
+        // The existence of the home pages is checked at once and the home pages are not loaded.
+        verify(this.oldcore.getMockStore()).getExistingDocuments(eq(List.of(HOME_A, HOME_AC)), any());
+        verify(this.oldcore.getSpyXWiki(), never()).getDocument(any(DocumentReference.class), any());
+    }
+}
@@ -124,6 +124,26 @@ public class DefaultSolrConfiguration implements SolrConfiguration
      */
     public static final int SOLR_INDEXER_QUEUE_CAPACITY_DEFAULT = 100000;
 
+    /**
+     * The name of the configuration property containing the number of metadata extraction threads.
+     */
+    public static final String SOLR_INDEXER_THREADS_PROPERTY = "solr.indexer.threads";
+
+    /**
+     * The default number of metadata extraction threads.
+     */
+    public static final int SOLR_INDEXER_THREADS_DEFAULT = 1;
+
+    /**
+     * The name of the configuration property containing the number of synchronization threads.
+     */
+    public static final String SOLR_SYNCHRONIZE_THREADS_PROPERTY = "solr.synchronizeThreads";
+
+    /**
+     * The default number of synchronization threads.
+     */
+    public static final int SOLR_SYNCHRONIZE_THREADS_DEFAULT = 4;
+
     /**
      * The name of the configuration property indicating if a synchronization should be run at startup.
      */
@@ -200,6 +220,18 @@ public int getIndexerQueueCapacity()
             SOLR_INDEXER_QUEUE_CAPACITY_DEFAULT);
     }
 
+    @Override
+    public int getIndexerThreads()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_THREADS_PROPERTY, SOLR_INDEXER_THREADS_DEFAULT);
+    }
+
+    @Override
+    public int getSynchronizationThreads()
+    {
+        return this.configuration.getProperty(SOLR_SYNCHRONIZE_THREADS_PROPERTY, SOLR_SYNCHRONIZE_THREADS_DEFAULT);
+    }
+
     @Override
     public boolean synchronizeAtStartup()
     {
@@ -19,14 +19,25 @@
  */
 package org.xwiki.search.solr.internal;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrInputDocument;
 import org.slf4j.Logger;
 import org.xwiki.bridge.internal.DocumentContextExecutor;
@@ -66,7 +77,9 @@
  * <p>
  * This implementation does not directly process the given leaf-references, but adds them to a processing queue, in the
  * order they were received. The {@link Runnable} part of this implementation is the one that sequentially reads and
- * processes the queue.
+ * processes the queue. When several indexer threads are configured, the metadata of the entities to index is
+ * extracted in parallel by a pool of threads but the result is still sent to Solr by the {@link Runnable} part, in the
+ * order of the queue, so that successive operations on the same entity are applied in the right order.
  * 
  * @version $Id$
  * @since 5.1M2
@@ -238,6 +251,53 @@ public void runInternal()
         }
     }
 
+    /**
+     * An entry read from the index queue which is waiting to be sent to Solr.
+     * 
+     * @version $Id$
+     */
+    private static final class PendingIndexEntry
+    {
+        /**
+         * The entry read from the index queue.
+         */
+        private final IndexQueueEntry entry;
+
+        /**
+         * The metadata extracted in the background, {@code null} if it has to be extracted when sending the entry.
+         */
+        private final Future<LengthSolrInputDocument> solrDocument;
+
+        /**
+         * @param entry the entry read from the index queue
+         * @param solrDocument the metadata extracted in the background, {@code null} if it has to be extracted when
+         *            sending the entry
+         */
+        PendingIndexEntry(IndexQueueEntry entry, Future<LengthSolrInputDocument> solrDocument)
+        {
+            this.entry = entry;
+            this.solrDocument = solrDocument;
+        }
+
+        /**
+         * @return {@code true} if the entry can be sent without waiting for a background extraction
+         */
+        boolean isReady()
+        {
+            return this.solrDocument == null || this.solrDocument.isDone();
+        }
+
+        /**
+         * Cancel the background extraction, if any.
+         */
+        void cancel()
+        {
+            if (this.solrDocument != null) {
+                this.solrDocument.cancel(false);
+            }
+        }
+    }
+
     /**
      * Stop resolver thread.
      */
@@ -321,6 +381,22 @@ public void runInternal()
      */
     private Thread resolveThread;
 
+    /**
+     * The threads extracting the metadata of the entities to index, {@code null} when the metadata is extracted by the
+     * index thread.
+     */
+    private ExecutorService extractionExecutor;
+
+    /**
+     * The maximum number of entries read from the index queue and waiting for their metadata to be extracted.
+     */
+    private int maxPendingEntries;
+
+    /**
+     * The entries read from the index queue which are not yet sent to Solr, in the order of the queue.
+     */
+    private final Deque<PendingIndexEntry> pendingEntries = new ConcurrentLinkedDeque<>();
+
     /**
      * Indicate of the component has been disposed.
      */
@@ -331,6 +407,11 @@ public void runInternal()
      */
     private volatile int batchSize;
 
+    /**
+     * The length of the not yet sent batch.
+     */
+    private int batchLength;
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -338,6 +419,17 @@ public void initialize() throws InitializationException
         this.resolveQueue = new LinkedBlockingQueue<>();
         this.indexQueue = new LinkedBlockingQueue<>(this.configuration.getIndexerQueueCapacity());
 
+        // Start the metadata extraction threads
+        int threads = this.configuration.getIndexerThreads();
+        if (threads > 1) {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki Solr extraction thread %d").daemon(true).priority(Thread.NORM_PRIORITY - 1)
+                .build();
+            this.extractionExecutor = Executors.newFixedThreadPool(threads, factory);
+            // Leave some work in advance to the extraction threads while the oldest entry is being sent.
+            this.maxPendingEntries = threads * 2;
+        }
+
         // Launch the resolve thread
         this.resolveThread = new Thread(new Resolver());
         this.resolveThread.setName("XWiki Solr resolve thread");
@@ -370,6 +462,12 @@ public void dispose() throws ComponentLifecycleException
         // the index queue was full) and just one entry will be added to the queue before the special stop entry.
         this.indexQueue.clear();
         this.indexQueue.offer(INDEX_QUEUE_ENTRY_STOP);
+
+        // Let the extraction threads finish the extractions in progress (the index thread might be waiting for them)
+        // and stop.
+        if (this.extractionExecutor != null) {
+            this.extractionExecutor.shutdown();
+        }
     }
 
     @Override
@@ -407,51 +505,30 @@ public void run()
      */
     private boolean processBatch(IndexQueueEntry queueEntry)
     {
-        int length = 0;
-
         for (IndexQueueEntry batchEntry = queueEntry; batchEntry != null; batchEntry = this.indexQueue.poll()) {
             if (batchEntry == INDEX_QUEUE_ENTRY_STOP) {
                 // Discard the current batch and stop the indexing thread.
+                this.pendingEntries.forEach(PendingIndexEntry::cancel);
+                this.pendingEntries.clear();
+
                 return false;
             }
 
-            IndexOperation operation = batchEntry.operation;
+            this.pendingEntries.add(new PendingIndexEntry(batchEntry, startExtraction(batchEntry)));
 
-            // For the current contiguous operations queue, group the changes
-            try {
-                ExecutionContext executionContext = new ExecutionContext();
-                this.ecim.initialize(executionContext);
-                XWikiContext xcontext = (XWikiContext) executionContext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY);
-                xcontext.setUserReference(indexingUserConfig.getIndexingUserReference());
-
-                if (IndexOperation.INDEX.equals(operation)) {
-                    LengthSolrInputDocument solrDocument = getSolrDocument(batchEntry.reference);
-                    if (solrDocument != null) {
-                        solrInstance.add(solrDocument);
-                        length += solrDocument.getLength();
-                        ++this.batchSize;
-                    }
-                } else if (IndexOperation.DELETE.equals(operation)) {
-                    if (batchEntry.reference == null) {
-                        solrInstance.deleteByQuery(batchEntry.deleteQuery);
-                    } else {
-                        solrInstance.delete(this.solrRefereceResolver.getId(batchEntry.reference));
-                    }
-
-                    ++this.batchSize;
-                }
-            } catch (Throwable e) {
-                this.logger.error("Failed to process entry [{}]", batchEntry, e);
-            } finally {
-                this.execution.removeContext();
+            // Send the entries which are ready, in the order of the queue, and wait for the oldest one when too many
+            // extractions are in progress.
+            while (!this.pendingEntries.isEmpty() && (this.pendingEntries.peek().isReady()
+                || this.pendingEntries.size() > this.maxPendingEntries)) {
+                processEntry(this.pendingEntries.peek());
+                this.pendingEntries.poll();
             }
+        }
 
-            // Commit the index changes so that they become available to queries. This is a costly operation and that is
-            // the reason why we perform it at the end of the batch.
-            if (shouldCommit(length, this.batchSize)) {
-                commit();
-                length = 0;
-            }
+        // Send what's left
+        while (!this.pendingEntries.isEmpty()) {
+            processEntry(this.pendingEntries.peek());
+            this.pendingEntries.poll();
         }
 
         // Commit what's left
@@ -462,6 +539,108 @@ private boolean processBatch(IndexQueueEntry queueEntry)
         return true;
     }
 
+    /**
+     * Start extracting the metadata of the entity to index in the background, if enabled.
+     * 
+     * @param queueEntry the entry read from the index queue
+     * @return the metadata being extracted, {@code null} if it has to be extracted when sending the entry
+     */
+    private Future<LengthSolrInputDocument> startExtraction(IndexQueueEntry queueEntry)
+    {
+        if (this.extractionExecutor != null && IndexOperation.INDEX.equals(queueEntry.operation)) {
+            try {
+                return this.extractionExecutor
+                    .submit(() -> callInContext(() -> getSolrDocument(queueEntry.reference)));
+            } catch (RejectedExecutionException e) {
+                // The extraction threads are stopping: extract the metadata when sending the entry.
+                this.logger.debug("Failed to start the extraction of entry [{}] in the background", queueEntry);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Send an entry to Solr, and commit if the batch is big enough.
+     * 
+     * @param pendingEntry the entry to send
+     */
+    private void processEntry(PendingIndexEntry pendingEntry)
+    {
+        IndexQueueEntry batchEntry = pendingEntry.entry;
+        IndexOperation operation = batchEntry.operation;
+
+        // For the current contiguous operations queue, group the changes
+        try {
+            if (pendingEntry.solrDocument != null) {
+                // The metadata was extracted in the context of an extraction thread, only the result is needed here.
+                addSolrDocument(pendingEntry.solrDocument.get());
+            } else {
+                callInContext(() -> {
+                    if (IndexOperation.INDEX.equals(operation)) {
+                        addSolrDocument(getSolrDocument(batchEntry.reference));
+                    } else if (IndexOperation.DELETE.equals(operation)) {
+                        if (batchEntry.reference == null) {
+                            this.solrInstance.deleteByQuery(batchEntry.deleteQuery);
+                        } else {
+                            this.solrInstance.delete(this.solrRefereceResolver.getId(batchEntry.reference));
+                        }
+
+                        ++this.batchSize;
+                    }
+
+                    return null;
+                });
+            }
+        } catch (InterruptedException e) {
+            this.logger.warn("The SOLR index thread has been interrupted while processing entry [{}]", batchEntry);
+
+            Thread.currentThread().interrupt();
+        } catch (CancellationException e) {
+            // The background extraction was cancelled because the indexer is stopping: not an indexing failure.
+            this.logger.debug("The extraction of entry [{}] has been cancelled", batchEntry);
+        } catch (Throwable e) {
+            this.logger.error("Failed to process entry [{}]", batchEntry, e);
+        }
+
+        // Commit the index changes so that they become available to queries. This is a costly operation and that is
+        // the reason why we perform it at the end of the batch.
+        if (shouldCommit(this.batchLength, this.batchSize)) {
+            commit();
+        }
+    }
+
+    private void addSolrDocument(LengthSolrInputDocument solrDocument) throws SolrServerException, IOException
+    {
+        if (solrDocument != null) {
+            this.solrInstance.add(solrDocument);
+            this.batchLength += solrDocument.getLength();
+            ++this.batchSize;
+        }
+    }
+
+    /**
+     * Execute the passed callable in a new execution context initialized with the indexing user.
+     * 
+     * @param <T> the type of the result
+     * @param callable the code to execute
+     * @return the result of the callable
+     * @throws Exception when failing to initialize the context or to execute the callable
+     */
+    private <T> T callInContext(Callable<T> callable) throws Exception
+    {
+        try {
+            ExecutionContext executionContext = new ExecutionContext();
+            this.ecim.initialize(executionContext);
+            XWikiContext xcontext = (XWikiContext) executionContext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY);
+            xcontext.setUserReference(this.indexingUserConfig.getIndexingUserReference());
+
+            return callable.call();
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
     /**
      * Commit.
      */
@@ -481,6 +660,7 @@ private void commit()
         }
 
         this.batchSize = 0;
+        this.batchLength = 0;
     }
 
     /**
@@ -585,7 +765,7 @@ private void addToQueue(EntityReference reference, boolean recurse, IndexOperati
     @Override
     public int getQueueSize()
     {
-        return this.indexQueue.size() + this.resolveQueue.size() + this.batchSize;
+        return this.indexQueue.size() + this.resolveQueue.size() + this.pendingEntries.size() + this.batchSize;
     }
 
     @Override
@@ -20,8 +20,10 @@
 package org.xwiki.search.solr.internal;
 
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -39,6 +41,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationContext;
 import org.xwiki.observation.event.Event;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 
@@ -50,6 +53,8 @@
 import com.xpn.xwiki.internal.event.AttachmentAddedEvent;
 import com.xpn.xwiki.internal.event.AttachmentDeletedEvent;
 import com.xpn.xwiki.internal.event.AttachmentUpdatedEvent;
+import com.xpn.xwiki.internal.event.DocumentsImportedEvent;
+import com.xpn.xwiki.internal.event.DocumentsImportingEvent;
 import com.xpn.xwiki.internal.event.EntityEvent;
 import com.xpn.xwiki.internal.event.XObjectAddedEvent;
 import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
@@ -76,7 +81,16 @@ public class SolrIndexEventListener implements EventListener
         new DocumentCreatedEvent(), new DocumentDeletedEvent(), new AttachmentAddedEvent(),
         new AttachmentDeletedEvent(), new AttachmentUpdatedEvent(), new XObjectAddedEvent(), new XObjectDeletedEvent(),
         new XObjectUpdatedEvent(), new XObjectPropertyAddedEvent(), new XObjectPropertyDeletedEvent(),
-        new XObjectPropertyUpdatedEvent(), new WikiDeletedEvent(), new GeneralMailConfigurationUpdatedEvent());
+        new XObjectPropertyUpdatedEvent(), new WikiDeletedEvent(), new GeneralMailConfigurationUpdatedEvent(),
+        DocumentsImportedEvent.EVENT);
+
+    /**
+     * The events which are ignored during a bulk import since the imported documents are indexed in one go once each
+     * batch is committed.
+     */
+    private static final List<Event> BULK_IMPORT_EVENTS = Arrays.<Event>asList(new DocumentUpdatedEvent(),
+        new DocumentCreatedEvent(), new AttachmentAddedEvent(), new AttachmentUpdatedEvent(), new XObjectAddedEvent(),
+        new XObjectUpdatedEvent(), new XObjectPropertyAddedEvent(), new XObjectPropertyUpdatedEvent());
 
     /**
      * Logging framework.
@@ -92,6 +106,9 @@ public class SolrIndexEventListener implements EventListener
     @Inject
     private Provider<SolrIndexer> solrIndexer;
 
+    @Inject
+    private ObservationContext observationContext;
+
     @Override
     public List<Event> getEvents()
     {
@@ -107,8 +124,14 @@ public String getName()
     @Override
     public void onEvent(Event event, Object source, Object data)
     {
+        if (isBulkImported(event)) {
+            return;
+        }
+
         try {
-            if (event instanceof DocumentUpdatedEvent) {
+            if (event instanceof DocumentsImportedEvent) {
+                indexImportedDocuments((List<?>) source);
+            } else if (event instanceof DocumentUpdatedEvent) {
                 XWikiDocument document = (XWikiDocument) source;
                 if (Locale.ROOT.equals(document.getLocale())) {
                     // Index all the translations of a document when its default translation has been updated because
@@ -190,6 +213,32 @@ public void onEvent(Event event, Object source, Object data)
         }
     }
 
+    private boolean isBulkImported(Event event)
+    {
+        return BULK_IMPORT_EVENTS.stream().anyMatch(bulkEvent -> bulkEvent.matches(event))
+            && this.observationContext.isIn(DocumentsImportingEvent.EVENT);
+    }
+
+    /**
+     * Index the documents saved by a batch of a bulk import, with their translations, objects and attachments.
+     *
+     * @param documentReferences the references of the imported documents
+     */
+    private void indexImportedDocuments(List<?> documentReferences)
+    {
+        SolrIndexer indexer = this.solrIndexer.get();
+
+        // The translations of a document are indexed with it
+        Set<DocumentReference> references = new LinkedHashSet<>();
+        for (Object documentReference : documentReferences) {
+            references.add(((DocumentReference) documentReference).withoutLocale());
+        }
+
+        for (DocumentReference reference : references) {
+            indexer.index(reference, true);
+        }
+    }
+
     /**
      * Helper method to index all the translations of a document. We don't rely on the {@code recurse} parameter of the
      * {@link SolrIndexer#index(org.xwiki.model.reference.EntityReference, boolean)} because we want to update only the
@@ -98,6 +98,19 @@
      */
     int getIndexerQueueCapacity();
 
+    /**
+     * @return the number of threads used to extract the metadata of the entities to index, {@code 1} to extract them
+     *         in the thread sending them to Solr
+     * @since 16.3.0RC1
+     */
+    int getIndexerThreads();
+
+    /**
+     * @return the maximum number of wikis compared in parallel when synchronizing the Solr index with the database
+     * @since 16.3.0RC1
+     */
+    int getSynchronizationThreads();
+
     /**
      * @return true if a full synchronization job between the database and SOLR index should be run when XWiki starts
      * @since 6.1M2
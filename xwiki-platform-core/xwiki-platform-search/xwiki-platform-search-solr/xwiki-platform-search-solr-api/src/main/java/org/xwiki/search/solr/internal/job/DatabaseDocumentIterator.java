@@ -25,6 +25,7 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -61,6 +62,14 @@
 @Named("database")
 public class DatabaseDocumentIterator extends AbstractDocumentIterator<String>
 {
+    private static final String SELECT =
+        "select doc.space, doc.name, doc.language, doc.version from XWikiDocument doc";
+
+    /**
+     * This iterator must have the same order as the SolrDocumentIterator, otherwise the synchronization fails.
+     */
+    private static final String ORDER_BY = " order by doc.space, doc.name, doc.language";
+
     /**
      * The current index in the list of {@link #results}.
      */
@@ -88,9 +97,24 @@ public class DatabaseDocumentIterator extends AbstractDocumentIterator<String>
     private String wiki;
 
     /**
-     * The offset in the current wiki.
+     * {@code true} when the current 'page' of results is the last one of the current wiki.
      */
-    private int offset;
+    private boolean lastPage;
+
+    /**
+     * The space of the last document returned in the current wiki, {@code null} before the first 'page'.
+     */
+    private String lastSpace;
+
+    /**
+     * The name of the last document returned in the current wiki.
+     */
+    private String lastName;
+
+    /**
+     * The number of translations of the last document returned so far (they share the same space and name).
+     */
+    private int lastNameCount;
 
     /**
      * Used to query the underlying storage.
@@ -111,6 +135,16 @@ public class DatabaseDocumentIterator extends AbstractDocumentIterator<String>
      */
     private Query query;
 
+    /**
+     * The query used to fetch the documents located after the last document of the previous 'page'.
+     */
+    private Query keysetQuery;
+
+    /**
+     * The where clause of the query, restricting it to the root entity.
+     */
+    private String whereClause;
+
     /**
      * The query used to count the documents from the database.
      */
@@ -173,16 +207,22 @@ public long size()
     private List<Object[]> getResults()
     {
         if (index >= results.size()) {
+            results = Collections.emptyList();
             if (wiki == null) {
                 wiki = getNextWiki();
             }
             while (wiki != null) {
-                fetchNextResults();
-                if (results.size() > 0) {
-                    break;
+                if (!lastPage) {
+                    fetchNextResults();
+                    if (results.size() > 0) {
+                        break;
+                    }
                 }
                 wiki = getNextWiki();
-                offset = 0;
+                lastPage = false;
+                lastSpace = null;
+                lastName = null;
+                lastNameCount = 0;
             }
             index = 0;
         }
@@ -195,16 +235,79 @@ private List<Object[]> getResults()
     private void fetchNextResults()
     {
         try {
-            // We use basic pagination (absolute offset) because we don't expect the database to change too much while
-            // the synchronization takes place. Also, the database is used as the reference store, meaning that we
-            // update the Solr index to match the database, not the other way around.
-            results = getQuery().setWiki(wiki).setOffset(offset).execute();
-            offset += LIMIT;
+            // We use keyset pagination (each page starts with the last document of the previous page) because the
+            // database would have to read again all the previous rows of the wiki with an absolute offset, which
+            // makes the synchronization of big wikis very slow.
+            List<Object[]> rows;
+            int skip;
+            int limit;
+            if (lastSpace == null) {
+                rows = getQuery().setWiki(wiki).execute();
+                skip = 0;
+                limit = LIMIT;
+            } else {
+                // The language is not part of the key because it cannot be compared reliably (it's null instead of
+                // empty on some databases) so the translations of the last document which were already returned are
+                // fetched again and skipped.
+                skip = lastNameCount;
+                limit = LIMIT + skip;
+                Query query = getKeysetQuery().setWiki(wiki);
+                query.bindValue("lastSpace", lastSpace);
+                query.bindValue("lastName", lastName);
+                query.setLimit(limit);
+                rows = query.execute();
+            }
+
+            lastPage = rows.size() < limit;
+            results = skipReturnedRows(rows, skip);
         } catch (QueryException e) {
             throw new IllegalStateException("Failed to query the database.", e);
         }
     }
 
+    private List<Object[]> skipReturnedRows(List<Object[]> rows, int skip)
+    {
+        int start = 0;
+        while (start < skip && start < rows.size() && isLastDocument(rows.get(start))) {
+            start++;
+        }
+
+        List<Object[]> newRows = rows.subList(start, rows.size());
+        for (Object[] row : newRows) {
+            if (isLastDocument(row)) {
+                lastNameCount++;
+            } else {
+                lastSpace = (String) row[0];
+                lastName = (String) row[1];
+                lastNameCount = 1;
+            }
+        }
+
+        return newRows;
+    }
+
+    private boolean isLastDocument(Object[] row)
+    {
+        return Objects.equals(row[0], lastSpace) && Objects.equals(row[1], lastName);
+    }
+
+    /**
+     * @return the query used to fetch the documents located after the last document of the previous 'page'
+     * @throws QueryException if creating the query fails
+     */
+    private Query getKeysetQuery() throws QueryException
+    {
+        if (keysetQuery == null) {
+            String keysetClause = (whereClause.isEmpty() ? " where " : whereClause + " and ")
+                + "(doc.space > :lastSpace or (doc.space = :lastSpace and doc.name >= :lastName))";
+            keysetQuery = queryManager.createQuery(SELECT + keysetClause + ORDER_BY, Query.HQL);
+            for (Map.Entry<String, Object> parameter : getQuery().getNamedParameters().entrySet()) {
+                keysetQuery.bindValue(parameter.getKey(), parameter.getValue());
+            }
+        }
+        return keysetQuery;
+    }
+
     /**
      * @return the query used to fetch the documents from the database
      * @throws QueryException if creating the query fails
@@ -212,10 +315,6 @@ private void fetchNextResults()
     private Query getQuery() throws QueryException
     {
         if (query == null) {
-            // This iterator must have the same order as the SolrDocumentIterator, otherwise the synchronization fails.
-            String select = "select doc.space, doc.name, doc.language, doc.version from XWikiDocument doc";
-            String orderBy = " order by doc.space, doc.name, doc.language";
-
             EntityReference spaceReference = null;
             EntityReference documentReference = null;
             if (rootReference != null) {
@@ -223,7 +322,7 @@ private Query getQuery() throws QueryException
                 documentReference = rootReference.extractReference(EntityType.DOCUMENT);
             }
 
-            String whereClause = "";
+            whereClause = "";
             if (spaceReference != null) {
                 whereClause += " where doc.space = :space";
                 if (documentReference != null) {
@@ -231,7 +330,7 @@ private Query getQuery() throws QueryException
                 }
             }
 
-            query = queryManager.createQuery(select + whereClause + orderBy, Query.HQL).setLimit(LIMIT);
+            query = queryManager.createQuery(SELECT + whereClause + ORDER_BY, Query.HQL).setLimit(LIMIT);
             countQuery = queryManager.createQuery(whereClause, Query.HQL).addFilter(countFilter);
 
             if (spaceReference != null) {
@@ -19,24 +19,56 @@
  */
 package org.xwiki.search.solr.internal.job;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.FacetField;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.job.AbstractJob;
 import org.xwiki.job.DefaultJobStatus;
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.JobGroupPath;
+import org.xwiki.logging.LoggerManager;
+import org.xwiki.logging.event.LogEvent;
+import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.search.solr.internal.api.FieldUtils;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrInstance;
 import org.xwiki.search.solr.internal.job.DiffDocumentIterator.Action;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 
 /**
  * Provide progress information and store logging of an advanced indexing.
@@ -59,6 +91,43 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
      */
     private static final JobGroupPath GROUP = new JobGroupPath(Arrays.asList("solr", "indexer"));
 
+    /**
+     * How often the logs of the synchronization threads are copied to the job log while waiting for them.
+     */
+    private static final long LOG_FORWARD_PERIOD = 500;
+
+    /**
+     * Collect the logs of a synchronization thread, which are not part of the job log since the job only listens to
+     * the logs of its own thread.
+     */
+    private static final class LogCollector implements EventListener
+    {
+        private final Queue<LogEvent> logs;
+
+        LogCollector(Queue<LogEvent> logs)
+        {
+            this.logs = logs;
+        }
+
+        @Override
+        public String getName()
+        {
+            return LogCollector.class.getName();
+        }
+
+        @Override
+        public List<Event> getEvents()
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void onEvent(Event event, Object source, Object data)
+        {
+            this.logs.add((LogEvent) event);
+        }
+    }
+
     /**
      * Used to send documents to index or delete to/from Solr index.
      */
@@ -73,9 +142,35 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
     @Named("solr")
     private transient DocumentIterator<String> solrIterator;
 
+    @Inject
+    @Named("database")
+    private transient Provider<DocumentIterator<String>> databaseIteratorProvider;
+
+    @Inject
+    @Named("solr")
+    private transient Provider<DocumentIterator<String>> solrIteratorProvider;
+
     @Inject
     private EntityReferenceSerializer<String> entityReferenceSerializer;
 
+    @Inject
+    private transient SolrConfiguration configuration;
+
+    @Inject
+    private transient WikiDescriptorManager wikiDescriptorManager;
+
+    @Inject
+    private transient Execution execution;
+
+    @Inject
+    private transient ExecutionContextManager executionContextManager;
+
+    @Inject
+    private transient SolrInstance solrInstance;
+
+    @Inject
+    private transient LoggerManager loggerManager;
+
     @Override
     public String getType()
     {
@@ -106,9 +201,21 @@ protected void runInternal() throws Exception
 
     /**
      * Update the Solr index to match the current state of the database.
+     * 
+     * @throws Exception when failing to synchronize a wiki
      */
-    private void updateSolrIndex()
+    private void updateSolrIndex() throws Exception
     {
+        int threads = this.configuration.getSynchronizationThreads();
+        if (getRequest().getRootReference() == null && threads > 1) {
+            Collection<String> wikis = this.wikiDescriptorManager.getAllIds();
+            if (wikis.size() > 1) {
+                updateSolrIndex(wikis, Math.min(threads, wikis.size()));
+
+                return;
+            }
+        }
+
         DiffDocumentIterator<String> iterator = new DiffDocumentIterator<>(this.solrIterator, this.databaseIterator);
         iterator.setRootReference(getRequest().getRootReference());
 
@@ -136,32 +243,198 @@ private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iter
         this.progressManager.pushLevelProgress(progressSize, this);
 
         try {
-            long[] counter = new long[Action.values().length];
+            AtomicLongArray counter = new AtomicLongArray(Action.values().length);
 
             while (iterator.hasNext()) {
                 this.progressManager.startStep(this);
 
-                Pair<DocumentReference, Action> entry = iterator.next();
-                if (entry.getValue() == Action.ADD || entry.getValue() == Action.UPDATE) {
-                    // The database entry has not been indexed or the indexed version doesn't match the latest
-                    // version
-                    // from the database.
-                    this.indexer.index(entry.getKey(), true);
-                } else if (entry.getValue() == Action.DELETE && getRequest().isRemoveMissing()) {
-                    // The index entry doesn't exist anymore in the database.
-                    this.indexer.delete(entry.getKey(), true);
-                }
-
-                counter[entry.getValue().ordinal()]++;
+                apply(iterator.next(), counter);
 
                 this.progressManager.endStep(this);
             }
 
-            this.logger.info(
-                "{} documents added, {} deleted and {} updated during the synchronization of the Solr index.",
-                counter[Action.ADD.ordinal()], counter[Action.DELETE.ordinal()], counter[Action.UPDATE.ordinal()]);
+            logCounter(counter);
+        } finally {
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    /**
+     * Compare each wiki with the Solr index in parallel. The progress is reported by wiki.
+     * 
+     * @param wikis the wikis to synchronize
+     * @param threads the number of wikis to compare at the same time
+     * @throws Exception when failing to synchronize a wiki
+     */
+    private void updateSolrIndex(Collection<String> wikis, int threads) throws Exception
+    {
+        List<String> sortedWikis = new ArrayList<>(wikis);
+        Collections.sort(sortedWikis);
+
+        // The Solr index can still contain the documents of deleted wikis, which are not part of any wiki diff
+        List<String> orphanWikis = new ArrayList<>();
+        if (getRequest().isRemoveMissing()) {
+            orphanWikis.addAll(getIndexedWikis());
+            orphanWikis.removeAll(wikis);
+            Collections.sort(orphanWikis);
+        }
+
+        int tasks = sortedWikis.size() + orphanWikis.size();
+        this.progressManager.pushLevelProgress(tasks, this);
+
+        BasicThreadFactory factory = new BasicThreadFactory.Builder()
+            .namingPattern("XWiki Solr synchronization thread %d").daemon(true).priority(Thread.NORM_PRIORITY - 1)
+            .build();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, factory);
+        Queue<LogEvent> logs = new ConcurrentLinkedQueue<>();
+        try {
+            AtomicLongArray counter = new AtomicLongArray(Action.values().length);
+
+            CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+            for (String wiki : sortedWikis) {
+                // The iterators are not thread safe so each wiki gets its own
+                DiffDocumentIterator<String> iterator =
+                    new DiffDocumentIterator<>(this.solrIteratorProvider.get(), this.databaseIteratorProvider.get());
+                iterator.setRootReference(new WikiReference(wiki));
+
+                completionService.submit(() -> synchronizeWiki(wiki, iterator, counter, logs));
+            }
+            for (String wiki : orphanWikis) {
+                DocumentIterator<String> iterator = this.solrIteratorProvider.get();
+                iterator.setRootReference(new WikiReference(wiki));
+
+                completionService.submit(() -> removeWiki(wiki, iterator, counter, logs));
+            }
+
+            // Report the progress and the logs of the synchronization threads from the job thread
+            for (int remaining = tasks; remaining > 0;) {
+                Future<Void> future = completionService.poll(LOG_FORWARD_PERIOD, TimeUnit.MILLISECONDS);
+
+                forwardLogs(logs);
+
+                if (future != null) {
+                    remaining--;
+
+                    this.progressManager.startStep(this);
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception) {
+                            throw (Exception) e.getCause();
+                        }
+                        throw e;
+                    }
+                    this.progressManager.endStep(this);
+                }
+            }
+
+            logCounter(counter);
         } finally {
+            executor.shutdownNow();
+
+            forwardLogs(logs);
+
             this.progressManager.popLevelProgress(this);
         }
     }
+
+    /**
+     * @return the wikis which have documents in the Solr index
+     * @throws Exception when failing to query the Solr index
+     */
+    private List<String> getIndexedWikis() throws Exception
+    {
+        SolrQuery query = new SolrQuery("*:*");
+        query.addFilterQuery(FieldUtils.TYPE + ':' + EntityType.DOCUMENT.name());
+        query.setRows(0);
+        query.setFacet(true);
+        query.addFacetField(FieldUtils.WIKI);
+        query.setFacetMinCount(1);
+        query.setFacetLimit(-1);
+
+        List<String> indexedWikis = new ArrayList<>();
+        FacetField facet = this.solrInstance.query(query).getFacetField(FieldUtils.WIKI);
+        if (facet != null) {
+            for (FacetField.Count count : facet.getValues()) {
+                indexedWikis.add(count.getName());
+            }
+        }
+
+        return indexedWikis;
+    }
+
+    private void forwardLogs(Queue<LogEvent> logs)
+    {
+        for (LogEvent log = logs.poll(); log != null; log = logs.poll()) {
+            log.log(this.logger);
+        }
+    }
+
+    private Void synchronizeWiki(String wiki, DiffDocumentIterator<String> iterator, AtomicLongArray counter,
+        Queue<LogEvent> logs) throws Exception
+    {
+        this.executionContextManager.initialize(new ExecutionContext());
+        this.loggerManager.pushLogListener(new LogCollector(logs));
+        try {
+            this.logger.debug("Synchronize the Solr index of wiki [{}].", wiki);
+
+            while (iterator.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                apply(iterator.next(), counter);
+            }
+        } finally {
+            this.loggerManager.popLogListener();
+            this.execution.removeContext();
+        }
+
+        return null;
+    }
+
+    private Void removeWiki(String wiki, DocumentIterator<String> iterator, AtomicLongArray counter,
+        Queue<LogEvent> logs) throws Exception
+    {
+        this.executionContextManager.initialize(new ExecutionContext());
+        this.loggerManager.pushLogListener(new LogCollector(logs));
+        try {
+            this.logger.info("Remove the documents of the deleted wiki [{}] from the Solr index.", wiki);
+
+            while (iterator.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                apply(new ImmutablePair<>(iterator.next().getKey(), Action.DELETE), counter);
+            }
+        } finally {
+            this.loggerManager.popLogListener();
+            this.execution.removeContext();
+        }
+
+        return null;
+    }
+
+    private void apply(Pair<DocumentReference, Action> entry, AtomicLongArray counter)
+    {
+        if (entry.getValue() == Action.ADD || entry.getValue() == Action.UPDATE) {
+            // The database entry has not been indexed or the indexed version doesn't match the latest version from
+            // the database.
+            this.indexer.index(entry.getKey(), true);
+        } else if (entry.getValue() == Action.DELETE && getRequest().isRemoveMissing()) {
+            // The index entry doesn't exist anymore in the database.
+            this.indexer.delete(entry.getKey(), true);
+        }
+
+        counter.incrementAndGet(entry.getValue().ordinal());
+    }
+
+    private void logCounter(AtomicLongArray counter)
+    {
+        this.logger.info(
+            "{} documents added, {} deleted and {} updated during the synchronization of the Solr index.",
+            counter.get(Action.ADD.ordinal()), counter.get(Action.DELETE.ordinal()),
+            counter.get(Action.UPDATE.ordinal()));
+    }
 }
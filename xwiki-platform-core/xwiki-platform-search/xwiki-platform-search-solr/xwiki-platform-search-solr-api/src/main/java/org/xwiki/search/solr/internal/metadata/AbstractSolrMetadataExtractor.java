@@ -127,6 +127,9 @@ public abstract class AbstractSolrMetadataExtractor implements SolrMetadataExtra
     @Inject
     protected GeneralMailConfiguration generalMailConfiguration;
 
+    @Inject
+    private AttachmentTextCache attachmentTextCache;
+
     private int shortTextLimit = -1;
 
     /**
@@ -523,6 +526,17 @@ protected void addFieldValueOnce(SolrInputDocument solrDocument, String fieldNam
      * @return the text representation of the attachment's content
      */
     protected String getContentAsText(XWikiAttachment attachment)
+    {
+        String text = this.attachmentTextCache.get(attachment);
+        if (text == null) {
+            text = parseContent(attachment);
+            this.attachmentTextCache.set(attachment, text);
+        }
+
+        return text;
+    }
+
+    private String parseContent(XWikiAttachment attachment)
     {
         try {
             Metadata metadata = new Metadata();
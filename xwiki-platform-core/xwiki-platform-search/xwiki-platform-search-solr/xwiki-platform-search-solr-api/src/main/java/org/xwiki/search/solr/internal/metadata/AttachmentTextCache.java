@@ -0,0 +1,125 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.metadata;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+
+/**
+ * Keep the text extracted from the most recently indexed attachments, so that an attachment is parsed only once per
+ * version and not each time the document holding it is indexed again (for each of its translations).
+ * 
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = AttachmentTextCache.class)
+@Singleton
+public class AttachmentTextCache implements Initializable, Disposable
+{
+    /**
+     * The text of an attachment is limited by Tika to 100k characters so the cache can take up to 40MB.
+     */
+    private static final int CAPACITY = 200;
+
+    private static final char KEY_SEPARATOR = '/';
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    private Cache<String> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.cache = this.cacheManager.createNewCache(new LRUCacheConfiguration("solr.attachment.text", CAPACITY));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to create the attachment text cache.", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.cache.dispose();
+    }
+
+    /**
+     * @param attachment the attachment
+     * @return the text extracted from the current version of the attachment, or {@code null} if it's not in the cache
+     */
+    public String get(XWikiAttachment attachment)
+    {
+        String key = getKey(attachment);
+
+        return key != null ? this.cache.get(key) : null;
+    }
+
+    /**
+     * @param attachment the attachment
+     * @param text the text extracted from the current version of the attachment
+     */
+    public void set(XWikiAttachment attachment, String text)
+    {
+        String key = getKey(attachment);
+
+        if (key != null && text != null) {
+            this.cache.set(key, text);
+        }
+    }
+
+    /**
+     * The version alone is not enough to identify the content because it starts again from 1.1 when an attachment is
+     * deleted and added back, so the date and the size are part of the key too. Hashing the content would require to
+     * read it from the store each time.
+     */
+    private String getKey(XWikiAttachment attachment)
+    {
+        if (attachment.getVersion() == null || attachment.getDate() == null) {
+            return null;
+        }
+
+        StringBuilder key = new StringBuilder();
+        String reference = this.serializer.serialize(attachment.getReference());
+        // Prefix with the length to not have to escape the separator
+        key.append(reference.length()).append(KEY_SEPARATOR).append(reference);
+        key.append(KEY_SEPARATOR).append(attachment.getVersion());
+        key.append(KEY_SEPARATOR).append(attachment.getDate().getTime());
+        key.append(KEY_SEPARATOR).append(attachment.getLongSize());
+
+        return key.toString();
+    }
+}
@@ -85,6 +85,24 @@ public void getIndexerQueueCapacity()
 
     }
 
+    @Test
+    void getIndexerThreads()
+    {
+        when(this.source.getProperty(DefaultSolrConfiguration.SOLR_INDEXER_THREADS_PROPERTY,
+            DefaultSolrConfiguration.SOLR_INDEXER_THREADS_DEFAULT)).thenReturn(4);
+
+        assertEquals(4, this.configuration.getIndexerThreads());
+    }
+
+    @Test
+    void getSynchronizationThreads()
+    {
+        when(this.source.getProperty(DefaultSolrConfiguration.SOLR_SYNCHRONIZE_THREADS_PROPERTY,
+            DefaultSolrConfiguration.SOLR_SYNCHRONIZE_THREADS_DEFAULT)).thenReturn(8);
+
+        assertEquals(8, this.configuration.getSynchronizationThreads());
+    }
+
     @Test
     public void synchronizeAtStartup()
     {
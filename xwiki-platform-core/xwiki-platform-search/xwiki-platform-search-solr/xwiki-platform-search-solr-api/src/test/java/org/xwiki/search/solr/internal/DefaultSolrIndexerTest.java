@@ -0,0 +1,308 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.InOrder;
+import org.xwiki.bridge.internal.DocumentContextExecutor;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.search.solr.internal.api.SolrIndexerException;
+import org.xwiki.search.solr.internal.api.SolrInstance;
+import org.xwiki.search.solr.internal.metadata.LengthSolrInputDocument;
+import org.xwiki.search.solr.internal.metadata.SolrMetadataExtractor;
+import org.xwiki.search.solr.internal.reference.SolrReferenceResolver;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.Utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link DefaultSolrIndexer} when the metadata is extracted by several threads.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultSolrIndexerTest
+{
+    private static final long TIMEOUT = 10000;
+
+    private static final SpaceReference SPACE_REFERENCE = new SpaceReference("wiki", "space");
+
+    private static final DocumentReference DOCUMENT1 = new DocumentReference("document1", SPACE_REFERENCE);
+
+    private static final DocumentReference DOCUMENT2 = new DocumentReference("document2", SPACE_REFERENCE);
+
+    private static final DocumentReference DOCUMENT3 = new DocumentReference("document3", SPACE_REFERENCE);
+
+    @RegisterExtension
+    private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @InjectMockComponents
+    private DefaultSolrIndexer indexer;
+
+    @MockComponent
+    private SolrConfiguration configuration;
+
+    @MockComponent
+    private SolrInstance solrInstance;
+
+    @MockComponent
+    private SolrReferenceResolver solrReferenceResolver;
+
+    @MockComponent
+    private ExecutionContextManager ecim;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private DocumentContextExecutor documentContextExecutor;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    @Named("document")
+    private SolrMetadataExtractor documentExtractor;
+
+    private final LengthSolrInputDocument solrDocument1 = createSolrDocument(DOCUMENT1);
+
+    private final LengthSolrInputDocument solrDocument2 = createSolrDocument(DOCUMENT2);
+
+    private final LengthSolrInputDocument solrDocument3 = createSolrDocument(DOCUMENT3);
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.getIndexerThreads()).thenReturn(4);
+        when(this.configuration.getIndexerQueueCapacity()).thenReturn(100);
+        when(this.configuration.getIndexerBatchSize()).thenReturn(100);
+        when(this.configuration.getIndexerBatchMaxLengh()).thenReturn(100000);
+
+        // Needed by the threads started by the indexer.
+        Utils.setComponentManager(this.componentManager);
+
+        XWikiContext xcontext = mock(XWikiContext.class);
+        when(xcontext.getWiki()).thenReturn(mock(XWiki.class));
+        when(this.xcontextProvider.get()).thenReturn(xcontext);
+        doAnswer(invocation -> {
+            invocation.<ExecutionContext>getArgument(0).setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, xcontext);
+            return null;
+        }).when(this.ecim).initialize(any());
+
+        doAnswer(invocation -> invocation.<Callable<?>>getArgument(0).call()).when(this.documentContextExecutor)
+            .call(any(), any());
+
+        when(this.solrReferenceResolver.getReferences(SPACE_REFERENCE))
+            .thenReturn(Arrays.asList(DOCUMENT1, DOCUMENT2, DOCUMENT3));
+    }
+
+    @AfterEach
+    void afterEach() throws Exception
+    {
+        this.indexer.dispose();
+    }
+
+    private static LengthSolrInputDocument createSolrDocument(EntityReference reference)
+    {
+        LengthSolrInputDocument solrDocument = new LengthSolrInputDocument();
+        solrDocument.setField("id", reference.toString());
+
+        return solrDocument;
+    }
+
+    /**
+     * Block the index thread on a delete entry until the documents of the space are all in the index queue, so that
+     * they are read in the same batch.
+     */
+    private void indexSpaceInOneBatch() throws Exception
+    {
+        CountDownLatch deleteLatch = new CountDownLatch(1);
+        when(this.solrReferenceResolver.getId(DOCUMENT3)).thenReturn("deleted");
+        doAnswer(invocation -> deleteLatch.await(TIMEOUT, TimeUnit.MILLISECONDS)).when(this.solrInstance)
+            .delete("deleted");
+
+        this.indexer.delete(DOCUMENT3, false);
+        this.indexer.index(SPACE_REFERENCE, true);
+        waitForQueueSize(4);
+
+        deleteLatch.countDown();
+    }
+
+    private void waitForQueueSize(int size) throws InterruptedException
+    {
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (this.indexer.getQueueSize() < size && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, this.indexer.getQueueSize());
+    }
+
+    private void assertStopped() throws Exception
+    {
+        Thread indexThread = (Thread) FieldUtils.readField(this.indexer, "indexThread", true);
+        indexThread.join(TIMEOUT);
+        assertFalse(indexThread.isAlive());
+
+        ExecutorService extractionExecutor =
+            (ExecutorService) FieldUtils.readField(this.indexer, "extractionExecutor", true);
+        assertTrue(extractionExecutor.awaitTermination(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void indexInQueueOrderWhenExtractionsEndInAnotherOrder() throws Exception
+    {
+        CountDownLatch document3Extracted = new CountDownLatch(1);
+        AtomicBoolean document1ExtractedLast = new AtomicBoolean();
+        when(this.documentExtractor.getSolrDocument(DOCUMENT1)).then(invocation -> {
+            document1ExtractedLast.set(document3Extracted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+            return this.solrDocument1;
+        });
+        when(this.documentExtractor.getSolrDocument(DOCUMENT2)).thenReturn(this.solrDocument2);
+        when(this.documentExtractor.getSolrDocument(DOCUMENT3)).then(invocation -> {
+            document3Extracted.countDown();
+            return this.solrDocument3;
+        });
+
+        indexSpaceInOneBatch();
+
+        verify(this.solrInstance, timeout(TIMEOUT)).commit();
+        assertTrue(document1ExtractedLast.get());
+
+        InOrder inOrder = inOrder(this.solrInstance);
+        inOrder.verify(this.solrInstance).delete("deleted");
+        inOrder.verify(this.solrInstance).add(this.solrDocument1);
+        inOrder.verify(this.solrInstance).add(this.solrDocument2);
+        inOrder.verify(this.solrInstance).add(this.solrDocument3);
+        inOrder.verify(this.solrInstance).commit();
+    }
+
+    @Test
+    void indexWhenExtractionFails() throws Exception
+    {
+        when(this.documentExtractor.getSolrDocument(DOCUMENT1)).thenReturn(this.solrDocument1);
+        when(this.documentExtractor.getSolrDocument(DOCUMENT2)).thenThrow(new SolrIndexerException("error"));
+        when(this.documentExtractor.getSolrDocument(DOCUMENT3)).thenReturn(this.solrDocument3);
+
+        indexSpaceInOneBatch();
+
+        verify(this.solrInstance, timeout(TIMEOUT)).commit();
+
+        InOrder inOrder = inOrder(this.solrInstance);
+        inOrder.verify(this.solrInstance).add(this.solrDocument1);
+        inOrder.verify(this.solrInstance).add(this.solrDocument3);
+        inOrder.verify(this.solrInstance).commit();
+
+        assertEquals("Failed to process entry [INDEX " + DOCUMENT2 + "]", this.logCapture.getMessage(0));
+    }
+
+    @Test
+    void disposeWhileExtracting() throws Exception
+    {
+        CountDownLatch extractionStarted = new CountDownLatch(1);
+        CountDownLatch extractionLatch = new CountDownLatch(1);
+        when(this.documentExtractor.getSolrDocument(DOCUMENT1)).then(invocation -> {
+            extractionStarted.countDown();
+            extractionLatch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            return this.solrDocument1;
+        });
+        when(this.documentExtractor.getSolrDocument(DOCUMENT2)).thenReturn(this.solrDocument2);
+        when(this.documentExtractor.getSolrDocument(DOCUMENT3)).thenReturn(this.solrDocument3);
+
+        this.indexer.index(SPACE_REFERENCE, true);
+
+        assertTrue(extractionStarted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        this.indexer.dispose();
+        extractionLatch.countDown();
+
+        // The index thread waits for the extractions in progress before stopping.
+        assertStopped();
+    }
+
+    @Test
+    void disposeWhileSending() throws Exception
+    {
+        CountDownLatch deleteStarted = new CountDownLatch(1);
+        CountDownLatch deleteLatch = new CountDownLatch(1);
+        when(this.solrReferenceResolver.getId(DOCUMENT3)).thenReturn("deleted");
+        doAnswer(invocation -> {
+            deleteStarted.countDown();
+            return deleteLatch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+        }).when(this.solrInstance).delete("deleted");
+
+        this.indexer.delete(DOCUMENT3, false);
+
+        assertTrue(deleteStarted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        this.indexer.index(SPACE_REFERENCE, true);
+        // The entry being sent and the 3 documents of the space.
+        waitForQueueSize(4);
+        this.indexer.dispose();
+        deleteLatch.countDown();
+
+        assertStopped();
+
+        // The entries queued after the one being sent are discarded.
+        verify(this.documentExtractor, never()).getSolrDocument(any());
+        verify(this.solrInstance, never()).add(any(LengthSolrInputDocument.class));
+        verify(this.solrInstance, never()).commit();
+    }
+}
@@ -20,6 +20,7 @@
 package org.xwiki.search.solr.internal;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 
 import org.junit.jupiter.api.Test;
@@ -29,6 +30,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.ObservationContext;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
@@ -36,11 +38,14 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.DocumentsImportedEvent;
+import com.xpn.xwiki.internal.event.DocumentsImportingEvent;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -57,6 +62,9 @@
     @MockComponent
     private SolrIndexer indexer;
 
+    @MockComponent
+    private ObservationContext observationContext;
+
     @Test
     void onDocumentDeleted()
     {
@@ -114,4 +122,25 @@ void onGeneralMailConfigurationUpdatedEvent()
         this.listener.onEvent(new GeneralMailConfigurationUpdatedEvent(otherWiki), otherWiki, null);
         verify(this.indexer).index(new WikiReference(otherWiki), true);
     }
+
+    @Test
+    void onBulkImport()
+    {
+        when(this.observationContext.isIn(DocumentsImportingEvent.EVENT)).thenReturn(true);
+
+        XWikiDocument document = mock(XWikiDocument.class);
+        DocumentReference documentReference = new DocumentReference("wiki", "Path", "Page");
+        when(document.getDocumentReferenceWithLocale()).thenReturn(documentReference);
+
+        // The imported documents are indexed only once the batch is committed
+        this.listener.onEvent(new DocumentUpdatedEvent(), document, null);
+
+        verifyNoInteractions(this.indexer);
+
+        this.listener.onEvent(DocumentsImportedEvent.EVENT, List.of(documentReference,
+            new DocumentReference(documentReference, Locale.FRENCH)), null);
+
+        verify(this.indexer).index(documentReference, true);
+        verify(this.indexer, times(1)).index(any(EntityReference.class), any(Boolean.class));
+    }
 }
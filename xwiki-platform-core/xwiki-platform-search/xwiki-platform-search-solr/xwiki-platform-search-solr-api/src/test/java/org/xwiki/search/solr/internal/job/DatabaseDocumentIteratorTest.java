@@ -38,6 +38,8 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReferenceResolver;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryFilter;
@@ -105,12 +107,7 @@ void sizeWithException() throws Exception
     @Test
     void iterateAllWikis() throws Exception
     {
-        Query emptyQuery = mock(Query.class);
-        when(emptyQuery.execute()).thenReturn(Collections.emptyList());
-
         Query chessQuery = mock(Query.class);
-        when(chessQuery.setOffset(0)).thenReturn(chessQuery);
-        when(chessQuery.setOffset(100)).thenReturn(emptyQuery);
         when(chessQuery.execute()).thenReturn(Arrays.asList(new Object[] { "Blog.Code", "WebHome", "", "3.2" },
             new Object[] { "Main", "Welcome", "en", "1.1" }, new Object[] { "XWiki.Syntax", "Links", "fr", "2.5" }));
 
@@ -122,8 +119,6 @@ void iterateAllWikis() throws Exception
             createDocumentReference("chess", Arrays.asList("XWiki", "Syntax"), "Links", Locale.FRENCH);
 
         Query tennisQuery = mock(Query.class);
-        when(tennisQuery.setOffset(0)).thenReturn(tennisQuery);
-        when(tennisQuery.setOffset(100)).thenReturn(emptyQuery);
         when(tennisQuery.execute()).thenReturn(Arrays.asList(new Object[] { "Main", "Welcome", "en", "2.1" },
             new Object[] { "XWiki.Syntax", "Links", "fr", "1.3" }));
 
@@ -178,14 +173,9 @@ void iterateOneWiki() throws Exception
     {
         DocumentReference rootReference = createDocumentReference("gang", Arrays.asList("A", "B"), "C", null);
 
-        Query emptyQuery = mock(Query.class);
-        when(emptyQuery.execute()).thenReturn(Collections.emptyList());
-
         Query query = mock(Query.class);
         when(query.setLimit(anyInt())).thenReturn(query);
         when(query.setWiki(rootReference.getWikiReference().getName())).thenReturn(query);
-        when(query.setOffset(0)).thenReturn(query);
-        when(query.setOffset(100)).thenReturn(emptyQuery);
         when(query.execute()).thenReturn(Collections.singletonList(new Object[] { "A.B", "C", "de", "3.1" }));
 
         Map<String, Object> namedParameters = new HashMap();
@@ -222,6 +212,64 @@ void iterateOneWiki() throws Exception
         verify(countQuery).bindValue("name", "C");
     }
 
+    @Test
+    void iterateSeveralPages() throws Exception
+    {
+        when(this.wikiDescriptorManager.getAllIds()).thenReturn(Arrays.asList("chess"));
+
+        // The first page ends with two translations of the same document
+        List<Object[]> firstPage = new ArrayList<>();
+        for (int i = 0; i < 98; i++) {
+            firstPage.add(new Object[] { "Space", String.format("Page%02d", i), "", "1.1" });
+        }
+        firstPage.add(new Object[] { "Space", "Zed", "de", "1.1" });
+        firstPage.add(new Object[] { "Space", "Zed", "en", "1.1" });
+
+        Query query = mock(Query.class);
+        when(query.setLimit(anyInt())).thenReturn(query);
+        when(query.getNamedParameters()).thenReturn(Collections.emptyMap());
+        when(query.setWiki("chess")).thenReturn(query);
+        when(query.execute()).thenReturn(firstPage);
+
+        // The next page starts with the last document of the previous page
+        Query keysetQuery = mock(Query.class);
+        when(keysetQuery.setWiki("chess")).thenReturn(keysetQuery);
+        when(keysetQuery.execute()).thenReturn(Arrays.asList(new Object[] { "Space", "Zed", "de", "1.1" },
+            new Object[] { "Space", "Zed", "en", "1.1" }, new Object[] { "Space", "Zed", "fr", "2.1" },
+            new Object[] { "Tail", "WebHome", "", "3.1" }));
+
+        String select = "select doc.space, doc.name, doc.language, doc.version from XWikiDocument doc";
+        String orderBy = " order by doc.space, doc.name, doc.language";
+        when(this.queryManager.createQuery(select + orderBy, Query.HQL)).thenReturn(query);
+        when(this.queryManager.createQuery(select
+            + " where (doc.space > :lastSpace or (doc.space = :lastSpace and doc.name >= :lastName))" + orderBy,
+            Query.HQL)).thenReturn(keysetQuery);
+        when(this.queryManager.createQuery("", Query.HQL)).thenReturn(mock(Query.class));
+
+        WikiReference chess = new WikiReference("chess");
+        SpaceReference space = new SpaceReference("Space", chess);
+        SpaceReference tail = new SpaceReference("Tail", chess);
+        when(this.explicitEntityReferenceResolver.resolve("Space", EntityType.SPACE, chess)).thenReturn(space);
+        when(this.explicitEntityReferenceResolver.resolve("Tail", EntityType.SPACE, chess)).thenReturn(tail);
+
+        List<Pair<DocumentReference, String>> actualResults = new ArrayList<>();
+        while (this.databaseIterator.hasNext()) {
+            actualResults.add(this.databaseIterator.next());
+        }
+
+        assertEquals(102, actualResults.size());
+        assertEquals(new DocumentReference(new DocumentReference("Zed", space), Locale.ENGLISH),
+            actualResults.get(99).getKey());
+        assertEquals(new ImmutablePair<>(new DocumentReference(new DocumentReference("Zed", space), Locale.FRENCH),
+            "2.1"), actualResults.get(100));
+        assertEquals(new ImmutablePair<>(new DocumentReference("WebHome", tail), "3.1"), actualResults.get(101));
+
+        verify(keysetQuery).bindValue("lastSpace", "Space");
+        verify(keysetQuery).bindValue("lastName", "Zed");
+        // The translations already returned are fetched again
+        verify(keysetQuery).setLimit(102);
+    }
+
     private DocumentReference createDocumentReference(String wiki, List<String> spaces, String name, Locale locale)
     {
         DocumentReference documentReference = new DocumentReference(wiki, spaces, name);
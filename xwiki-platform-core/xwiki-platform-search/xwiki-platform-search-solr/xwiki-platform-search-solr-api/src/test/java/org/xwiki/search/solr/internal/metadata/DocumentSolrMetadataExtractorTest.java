@@ -95,6 +95,8 @@
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -141,6 +143,9 @@
     @Named("document")
     private SolrReferenceResolver documentSolrReferenceResolver;
 
+    @MockComponent
+    private AttachmentTextCache attachmentTextCache;
+
     private XWikiContext xcontext = mock(XWikiContext.class);
 
     /**
@@ -671,6 +676,22 @@ void getDocumentWithAttachments() throws Exception
             solrDocument.getFieldValues(FieldUtils.ATTACHMENT_AUTHOR_DISPLAY));
     }
 
+    @Test
+    void getDocumentWithCachedAttachmentText() throws Exception
+    {
+        XWikiAttachment logo = createMockAttachment("logo.png", "image/png", new Date(), "foo", "Alice", "Shy Alice");
+        XWikiAttachment todo = createMockAttachment("todo.txt", "text/plain", new Date(), "bar", "Bob", "Angry Bob");
+        when(this.document.getAttachmentList()).thenReturn(Arrays.<XWikiAttachment>asList(logo, todo));
+        when(this.attachmentTextCache.get(logo)).thenReturn("cached");
+
+        SolrInputDocument solrDocument = this.metadataExtractor.getSolrDocument(this.frenchDocumentReference);
+
+        assertEquals(Arrays.asList("cached", "bar\n"), solrDocument.getFieldValues("attcontent_fr"));
+        // Only the attachment which is not in the cache is parsed
+        verify(logo, never()).getContentInputStream(any());
+        verify(this.attachmentTextCache).set(todo, "bar\n");
+    }
+
     @Test
     void testAttachmentExtractFromTxt() throws Exception
     {
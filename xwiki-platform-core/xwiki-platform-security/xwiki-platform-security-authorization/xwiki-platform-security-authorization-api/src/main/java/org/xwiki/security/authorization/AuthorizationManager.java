@@ -19,11 +19,15 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.stability.Unstable;
 
 /**
  * This API is for checking the access rights of any users on any XWiki entities. It replaces
@@ -75,6 +79,28 @@ void checkAccess(Right right, DocumentReference userReference, EntityReference e
      */
     boolean hasAccess(Right right, DocumentReference userReference, EntityReference entityReference);
 
+    /**
+     * Filter the given entities to keep only those on which the user identified by {@code userReference} has the
+     * access identified by {@code right}. The result is the same as calling
+     * {@link #hasAccess(Right, DocumentReference, EntityReference)} for each entity, but implementations may share
+     * the work that is common to all entities, like the resolution of the groups of the user or the evaluation of the
+     * common ancestors of the entities. This function should be used for interface matters, like listing pages.
+     *
+     * @param <T> the type of entity references
+     * @param right the right to check
+     * @param userReference the user to check the right for
+     * @param entityReferences the entities on which to check the right
+     * @return the entities on which the user has the specified right, in the order of the given collection
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default <T extends EntityReference> List<T> filterAccessible(Right right, DocumentReference userReference,
+        Collection<T> entityReferences)
+    {
+        return entityReferences.stream().filter(entityReference -> hasAccess(right, userReference, entityReference))
+            .collect(Collectors.toList());
+    }
+
     /**
      * Register a new custom {@link Right}.
      *
@@ -19,8 +19,13 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.stability.Unstable;
 
 /**
  * This API is for checking the access rights of current user in the current context. It replaces
@@ -80,4 +85,23 @@
      * @return {@code true} if the user has the specified right on the entity, {@code false} otherwise
      */
     boolean hasAccess(Right right, EntityReference entityReference);
+
+    /**
+     * Filter the given entities to keep only those on which the access identified by {@code right} would be allowed in
+     * the current context. The result is the same as calling {@link #hasAccess(Right, EntityReference)} for each
+     * entity, but implementations may share the work that is common to all entities.
+     * This function should be used for interface matters, like listing pages.
+     *
+     * @param <T> the type of entity references
+     * @param right the right to check
+     * @param entityReferences the entities on which to check the right
+     * @return the entities on which the right is allowed, in the order of the given collection
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default <T extends EntityReference> List<T> filterAccessible(Right right, Collection<T> entityReferences)
+    {
+        return entityReferences.stream().filter(entityReference -> hasAccess(right, entityReference))
+            .collect(Collectors.toList());
+    }
 }
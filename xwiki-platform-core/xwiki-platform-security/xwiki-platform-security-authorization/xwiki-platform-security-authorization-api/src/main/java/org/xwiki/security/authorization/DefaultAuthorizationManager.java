@@ -19,9 +19,14 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -55,6 +60,8 @@ public class DefaultAuthorizationManager implements AuthorizationManager
      */
     private static final List<Right> DEFAULT_IMPLIED_BY_RIGHTS = Arrays.asList(Right.ADMIN, Right.PROGRAM);
 
+    private static final String ACCESS_INQUIRY = "access inquiry";
+
     /** Logger. **/
     @Inject
     private Logger logger;
@@ -118,13 +125,59 @@ public boolean hasAccess(Right right, DocumentReference userReference, EntityRef
         try {
             return hasSecurityAccess(right, userReference, entityReference, false);
         } catch (Exception e) {
-            this.logger.error(String.format("Failed to load rights for user [%s] on [%s].",
-                (userReference == null) ? AuthorizationException.NULL_USER : userReference,
-                (entityReference == null) ? AuthorizationException.NULL_ENTITY : entityReference), e);
+            logLoadError(userReference, entityReference, e);
             return false;
         }
     }
 
+    @Override
+    public <T extends EntityReference> List<T> filterAccessible(Right right, DocumentReference userReference,
+        Collection<T> entityReferences)
+    {
+        if (entityReferences.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (isSuperAdmin(userReference)) {
+            return new ArrayList<>(entityReferences);
+        }
+
+        if (right == null || right == Right.ILLEGAL || (!right.isReadOnly() && xwikiBridge.isWikiReadOnly())
+            || (userReference == null && xwikiBridge.needsAuthentication(right))) {
+            return Collections.emptyList();
+        }
+
+        UserSecurityReference user = securityReferenceFactory.newUserReference(userReference);
+        // The access resolved for the entities of the batch, indexed by the references found in their hierarchy, so
+        // that the common ancestors are evaluated only once.
+        Map<SecurityReference, SecurityAccess> resolved = new HashMap<>();
+
+        List<T> result = new ArrayList<>(entityReferences.size());
+        for (T entityReference : entityReferences) {
+            try {
+                SecurityAccess securityAccess =
+                    getAccess(user, securityReferenceFactory.newEntityReference(entityReference), resolved);
+
+                RuleState access = securityAccess.get(right);
+                logAccess(access, userReference, entityReference, right, ACCESS_INQUIRY, true);
+                if (access == RuleState.ALLOW) {
+                    result.add(entityReference);
+                }
+            } catch (Exception e) {
+                logLoadError(userReference, entityReference, e);
+            }
+        }
+
+        return result;
+    }
+
+    private void logLoadError(DocumentReference userReference, EntityReference entityReference, Exception e)
+    {
+        this.logger.error(String.format("Failed to load rights for user [%s] on [%s].",
+            (userReference == null) ? AuthorizationException.NULL_USER : userReference,
+            (entityReference == null) ? AuthorizationException.NULL_ENTITY : entityReference), e);
+    }
+
     /**
      * Verifies if the user identified by {@code userReference} has the access identified by {@code right} on the
      * entity identified by {@code entityReference}. Note that some rights may be checked higher in hierarchy of the
@@ -168,11 +221,12 @@ private boolean evaluateSecurityAccess(Right right, DocumentReference userRefere
     {
         SecurityAccess securityAccess = getAccess(
             securityReferenceFactory.newUserReference(userReference),
-            securityReferenceFactory.newEntityReference(entityReference)
+            securityReferenceFactory.newEntityReference(entityReference),
+            null
         );
 
         RuleState access = securityAccess.get(right);
-        String info = check ? "security checkpoint" : "access inquiry";
+        String info = check ? "security checkpoint" : ACCESS_INQUIRY;
         if (check && access != RuleState.ALLOW) {
             logDeny(userReference, entityReference, right, info);
         } else {
@@ -227,13 +281,26 @@ public void unregister(Right right) throws AuthorizationException
      *
      * @param user The user identity.
      * @param entity The entity.  May be of type DOCUMENT, WIKI, or SPACE.
+     * @param resolved the access already resolved for the same user, indexed by the references of the hierarchy from
+     *            which they can be reused, or {@code null} when a single entity is checked.
      * @return the cached access entry.
      * @exception org.xwiki.security.authorization.AuthorizationException if an error occurs
      */
-    private SecurityAccess getAccess(UserSecurityReference user, SecurityReference entity)
-        throws AuthorizationException
+    private SecurityAccess getAccess(UserSecurityReference user, SecurityReference entity,
+        Map<SecurityReference, SecurityAccess> resolved) throws AuthorizationException
     {
+        List<SecurityReference> visited = (resolved != null) ? new ArrayList<>() : null;
         for (SecurityReference ref = entity; ref != null; ref = ref.getParentSecurityReference()) {
+            if (resolved != null) {
+                // All the references visited until now have no rules, so the access found for this ancestor when
+                // evaluating another entity is also the access for this entity.
+                SecurityAccess access = resolved.get(ref);
+                if (access != null) {
+                    visited.forEach(visitedRef -> resolved.put(visitedRef, access));
+                    return access;
+                }
+                visited.add(ref);
+            }
             if (Right.getEnabledRights(ref.getSecurityType()).isEmpty()) {
                 // Skip search on entity types that will obviously have empty/useless list of rules.
                 continue;
@@ -259,6 +326,10 @@ private SecurityAccess getAccess(UserSecurityReference user, SecurityReference e
 
                     logger.debug("3. Got entry for user {} on {} from cache: [{}]", user, entity, access);
 
+                    if (resolved != null) {
+                        visited.forEach(visitedRef -> resolved.put(visitedRef, access));
+                    }
+
                     return access;
                 }
             } 
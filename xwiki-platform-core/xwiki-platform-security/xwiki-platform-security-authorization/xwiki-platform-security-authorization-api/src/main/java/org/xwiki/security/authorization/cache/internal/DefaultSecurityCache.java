@@ -26,10 +26,14 @@
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.inject.Inject;
@@ -62,6 +66,12 @@
 
 /**
  * Default implementation of the security cache.
+ * <p>
+ * Reads are lock-free: they only go through the underlying thread-safe cache and, on a miss, through a short
+ * synchronized lookup in the map of internal entries. Insertions, removals and invalidations are serialized by a single
+ * write lock since disposing an entry cascades through the whole hierarchy, including across wikis through global
+ * groups and shadow entries. The entries found in the map of internal entries by a read are put back into the cache
+ * by the next modification, so that reads never touch the write lock.
  *
  * @version $Id$
  * @since 4.0M2
@@ -83,14 +93,8 @@ public class DefaultSecurityCache implements SecurityCache, Initializable
     @Inject
     private Logger logger;
 
-    /** Fair read-write lock used for fair scheduling of cache access. */
-    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock(true);
-
-    /** Fair read lock. */
-    private final Lock readLock = readWriteLock.readLock();
-
-    /** Fair write lock. */
-    private final Lock writeLock = readWriteLock.writeLock();
+    /** Fair lock used for scheduling the modifications of the cache, reads don't need it. */
+    private final ReentrantLock writeLock = new ReentrantLock(true);
 
     private final ReadWriteLock invalidationReadWriteLock = new ReentrantReadWriteLock(true);
 
@@ -115,11 +119,18 @@ public class DefaultSecurityCache implements SecurityCache, Initializable
      * complete and to support correct hierarchical cache invalidation. When an entry is removed from the cache, the
      * GC will also remove it from the internal entries unless it is still referenced as a parent somewhere else. For
      * this to work, the only strong references to SecurityCacheEntry are stored during entry creation, in the cache
-     * and in the list of parents.
+     * and in the list of parents. All accesses to this map need to synchronize on it as it is read without the write
+     * lock.
      */
     private final Map<String, SecurityCacheEntry> internalEntries =
         new ReferenceMap<>(AbstractReferenceMap.ReferenceStrength.HARD, AbstractReferenceMap.ReferenceStrength.WEAK);
 
+    /**
+     * The keys of the entries found in the internal entries by a read, which are waiting to be re-inserted into the
+     * cache the next time the write lock is held.
+     */
+    private final Set<String> pendingReinsertions = ConcurrentHashMap.newKeySet();
+
     /**
      * @return a new configured security cache
      * @throws InitializationException if a CacheException arise during creation
@@ -153,12 +164,13 @@ public void initialize() throws InitializationException
         /**
          * The cached security entry.
          */
-        private SecurityEntry entry;
+        private volatile SecurityEntry entry;
 
         /**
-         * Parents of this cached entry.
+         * Parents of this cached entry. The collection is never modified once assigned, it is replaced instead, which
+         * allows reading it without locking.
          */
-        private Collection<SecurityCacheEntry> parents;
+        private volatile Collection<SecurityCacheEntry> parents;
 
         /**
          * Children of this cached entry.
@@ -168,7 +180,7 @@ public void initialize() throws InitializationException
         /**
          * True if this entry has been removed.
          */
-        private boolean disposed;
+        private volatile boolean disposed;
 
         /**
          * Create a new cache entry for a security rule, linking it to its parent.
@@ -455,7 +467,9 @@ public void dispose()
         {
             if (!disposed) {
                 DefaultSecurityCache.this.cache.remove(getKey());
-                DefaultSecurityCache.this.internalEntries.remove(getKey());
+                synchronized (DefaultSecurityCache.this.internalEntries) {
+                    DefaultSecurityCache.this.internalEntries.remove(getKey());
+                }
                 disposed = true;
 
                 disconnectFromParents();
@@ -662,40 +676,91 @@ private SecurityCacheEntry getShadowEntry(SecurityReference userReference, Secur
 
     /**
      * Get a security cache entry from the cache or the internal map. In the latter case, the entry is re-inserted
-     * into the cache. This method can be called without locking, it uses the read lock internally.
+     * into the cache right away when the write lock is held by the current thread, or by the next modification
+     * otherwise. This method doesn't block, it can be called with or without holding the write lock.
+     * <p>
+     * Without the write lock, an entry which is concurrently disposed is considered as missing, exactly like if it
+     * had been read after its removal.
      *
      * @param key the key of the entry to retrieve
-     * @throws IllegalStateException if the entry has been disposed (this should never happen)
+     * @throws IllegalStateException if the entry has been disposed while the write lock is held (this should never
+     *             happen)
      * @return the entry corresponding to the given key, null if none is available in the cache
      */
     private SecurityCacheEntry getInternal(String key)
     {
-        readLock.lock();
-        try {
-            SecurityCacheEntry result = cache.get(key);
-            if (result == null) {
-                // Try to get the entry from the internal map which may have, e.g., parents that are no longer in the
-                // cache but still referenced by entries in the cache.
-                // Synchronize to avoid concurrent modification of the map as get() may trigger the eviction of
-                // garbage collected entries. All other operations are done under the write lock.
-                synchronized (this.internalEntries) {
-                    result = this.internalEntries.get(key);
-                }
+        SecurityCacheEntry result = this.cache.get(key);
+        if (result == null) {
+            // Try to get the entry from the internal map which may have, e.g., parents that are no longer in the
+            // cache but still referenced by entries in the cache.
+            // Synchronize to avoid concurrent modification of the map as get() may trigger the eviction of
+            // garbage collected entries.
+            synchronized (this.internalEntries) {
+                result = this.internalEntries.get(key);
+            }
 
-                if (result != null) {
-                    // Try re-inserting the entry into the cache to give it another chance of being stored directly.
-                    this.cache.set(key, result);
-                }
+            if (result != null) {
+                reinsertEntry(key, result);
             }
+        }
 
-            if (result != null && result.disposed) {
+        if (result != null && result.disposed) {
+            if (this.writeLock.isHeldByCurrentThread()) {
                 throw new IllegalCacheStateException(
                     String.format("Entry [%s] has been disposed without being removed from the cache.", result));
             }
 
-            return result;
-        } finally {
-            readLock.unlock();
+            return null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Re-insert an entry found in the internal map into the cache to give it another chance of being stored
+     * directly. Without the write lock, the re-insertion is only recorded to be done by the next modification of the
+     * cache, as the entry might be in the process of being disposed and the re-insertion is just an optimization.
+     *
+     * @param key the key of the entry
+     * @param entry the entry to re-insert
+     */
+    private void reinsertEntry(String key, SecurityCacheEntry entry)
+    {
+        if (this.writeLock.isHeldByCurrentThread()) {
+            if (!entry.disposed) {
+                this.cache.set(key, entry);
+            }
+        } else {
+            this.pendingReinsertions.add(key);
+        }
+    }
+
+    /**
+     * Acquire the write lock and re-insert into the cache the entries read from the internal map since the last
+     * modification.
+     */
+    private void lockWrite()
+    {
+        this.writeLock.lock();
+
+        try {
+            Iterator<String> iterator = this.pendingReinsertions.iterator();
+            while (iterator.hasNext()) {
+                String key = iterator.next();
+                iterator.remove();
+
+                SecurityCacheEntry entry;
+                synchronized (this.internalEntries) {
+                    entry = this.internalEntries.get(key);
+                }
+                if (entry != null && !entry.disposed && this.cache.get(key) == null) {
+                    this.cache.set(key, entry);
+                }
+            }
+        } catch (RuntimeException e) {
+            this.writeLock.unlock();
+
+            throw e;
         }
     }
 
@@ -755,7 +820,9 @@ private void addEntry(String key, SecurityCacheEntry entry)
         // layer for access entries, this is not the purpose of the internal entries map. Instead, the size of the
         // cache should be increased if this is desired.
         if (!(entry.getEntry() instanceof SecurityAccessEntry)) {
-            this.internalEntries.put(key, entry);
+            synchronized (this.internalEntries) {
+                this.internalEntries.put(key, entry);
+            }
         }
 
         if (entry.disposed) {
@@ -802,7 +869,7 @@ private void add(SecurityEntry entry, Collection<GroupSecurityReference> groups)
     {
         String key = getEntryKey(entry);
 
-        writeLock.lock();
+        lockWrite();
         try {
             if (isAlreadyInserted(key, entry, groups)) {
                 return;
@@ -865,7 +932,7 @@ private void internalAdd(SecurityAccessEntry entry, SecurityReference wiki)
     {
         String key = getEntryKey(entry);
 
-        writeLock.lock();
+        lockWrite();
         try {
             if (isAlreadyInserted(key, entry)) {
                 return;
@@ -928,7 +995,7 @@ public void remove(UserSecurityReference user, SecurityReference entity)
         this.invalidationWriteLock.lock();
 
         try {
-            writeLock.lock();
+            lockWrite();
             try {
                 SecurityCacheEntry entry = getEntry(user, entity);
                 if (entry != null) {
@@ -951,7 +1018,7 @@ public void remove(SecurityReference entity)
         this.invalidationWriteLock.lock();
 
         try {
-            writeLock.lock();
+            lockWrite();
             try {
                 SecurityCacheEntry entry = getEntry(entity);
                 if (entry != null) {
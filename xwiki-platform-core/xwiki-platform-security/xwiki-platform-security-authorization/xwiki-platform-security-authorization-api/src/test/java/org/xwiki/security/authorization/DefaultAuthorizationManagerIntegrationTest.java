@@ -21,10 +21,12 @@
 package org.xwiki.security.authorization;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -550,6 +552,28 @@ void inheritancePolicyForNoAdminFarmAccess() throws Exception
         assertAccess(ALL_DOCUMENT_RIGHTS, getXUser("userA"), getDoc("docAllowA", "any space", "wikiDenyA"));
     }
 
+    @Test
+    void filterAccessible() throws Exception
+    {
+        initialiseWikiMock("inheritancePolicyForNoAdminFarmAccess");
+
+        List<DocumentReference> documents = Arrays.asList(getXDoc("any document", "any space"),
+            getXDoc("any document", "spaceDenyA"), getXDoc("docAllowA", "spaceDenyA"),
+            getXDoc("docDenyA", "any space"), getXDoc("other document", "spaceDenyA"),
+            getDoc("any document", "spaceAllowA", "wikiDenyA"), getDoc("docDenyA", "spaceAllowA", "wikiDenyA"));
+
+        List<DocumentReference> expected = documents.stream()
+            .filter(document -> this.authorizationManager.hasAccess(VIEW, getXUser("userA"), document))
+            .collect(Collectors.toList());
+        assertEquals(Arrays.asList(getXDoc("any document", "any space"), getXDoc("docAllowA", "spaceDenyA"),
+            getDoc("any document", "spaceAllowA", "wikiDenyA")), expected);
+
+        // Check with an empty cache and with a filled cache.
+        this.cache.removeAll();
+        assertEquals(expected, this.authorizationManager.filterAccessible(VIEW, getXUser("userA"), documents));
+        assertEquals(expected, this.authorizationManager.filterAccessible(VIEW, getXUser("userA"), documents));
+    }
+
     @Test
     void inheritancePolicyForNoAdminWikiAccess() throws Exception
     {
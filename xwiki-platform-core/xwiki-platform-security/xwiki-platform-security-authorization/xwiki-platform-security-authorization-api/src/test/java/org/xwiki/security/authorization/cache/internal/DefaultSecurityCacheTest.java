@@ -28,6 +28,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -65,9 +70,11 @@
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -983,4 +990,74 @@ void testAcceptsMainWikiShadowAsUserParent() throws Exception
         // Check that the entry was added
         assertSame(entry, this.securityCache.get(userSecurityReference, documentSecurityReference));
     }
+
+    @Test
+    void concurrentReadsDuringRemovals() throws Exception
+    {
+        // Fill the cache
+        Map<String, SecurityEntry> entries = InsertUsers();
+        entries.putAll(InsertEntities());
+        entries.putAll(InsertAccess());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 4; ++i) {
+                readers.add(executor.submit(() -> {
+                    do {
+                        for (Map.Entry<String, SecurityEntry> entry : entries.entrySet()) {
+                            // Reads never block and either see the entry or a miss, never a disposed entry.
+                            SecurityEntry cachedEntry = this.securityCache.get(entry.getKey());
+                            assertTrue(cachedEntry == null || cachedEntry == entry.getValue());
+                        }
+                        this.securityCache.getGroupsFor(this.groupUserRef, null);
+                    } while (running.get());
+                    return null;
+                }));
+            }
+
+            // Remove entities while the readers are running, this cascades to the access entries.
+            for (SecurityReference ref : this.entityRefs) {
+                this.securityCache.remove(ref);
+            }
+            running.set(false);
+
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        for (SecurityReference ref : this.entityRefs) {
+            assertNull(this.securityCache.get(ref));
+        }
+    }
+
+    @Test
+    void reinsertEvictedEntryOnNextModification() throws Exception
+    {
+        // Fill the cache
+        Map<String, SecurityEntry> entries = InsertUsers();
+        entries.putAll(InsertEntities());
+        entries.putAll(InsertAccess());
+
+        String key = entries.entrySet().stream()
+            .filter(e -> e.getValue() instanceof SecurityRuleEntry && e.getValue().getReference() == this.spaceRef)
+            .map(Map.Entry::getKey).findFirst().get();
+
+        // Evict the space entry which is still referenced as a parent by the documents
+        this.cache.remove(key);
+
+        // Reads find the entry in the internal entries without modifying the cache
+        assertSame(entries.get(key), this.securityCache.get(key));
+        assertNull(this.cache.get(key));
+
+        // The next modification re-inserts it
+        this.securityCache.remove(this.xattachmentRef);
+        assertNotNull(this.cache.get(key));
+        assertSame(entries.get(key), this.securityCache.get(key));
+    }
 }
@@ -19,9 +19,14 @@
  */
 package org.xwiki.security.authorization.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -122,6 +127,30 @@ private boolean hasAccess(Right right, DocumentReference user, EntityReference e
         return checkPreAccess(right) && this.authorizationManager.hasAccess(right, user, getFullReference(entity));
     }
 
+    @Override
+    public <T extends EntityReference> List<T> filterAccessible(Right right, Collection<T> entityReferences)
+    {
+        // The user to check depends on each entity for rights checked for the content author.
+        if (CONTENT_AUTHOR_RIGHTS.contains(right)) {
+            return ContextualAuthorizationManager.super.filterAccessible(right, entityReferences);
+        }
+
+        List<EntityReference> fullReferences =
+            entityReferences.stream().map(this::getFullReference).collect(Collectors.toList());
+        Set<EntityReference> accessibleReferences = new HashSet<>(this.authorizationManager.filterAccessible(right,
+            this.xcontextProvider.get().getUserReference(), fullReferences));
+
+        List<T> result = new ArrayList<>(accessibleReferences.size());
+        Iterator<EntityReference> fullReferencesIterator = fullReferences.iterator();
+        for (T entityReference : entityReferences) {
+            if (accessibleReferences.contains(fullReferencesIterator.next())) {
+                result.add(entityReference);
+            }
+        }
+
+        return result;
+    }
+
     private EntityReference getFullReference(EntityReference reference)
     {
         return reference != null ? this.resolver.resolve(reference, reference.getType()) : null;
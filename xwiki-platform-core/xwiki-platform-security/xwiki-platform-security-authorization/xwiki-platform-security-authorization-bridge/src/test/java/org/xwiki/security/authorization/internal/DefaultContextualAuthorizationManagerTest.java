@@ -19,6 +19,7 @@
  */
 package org.xwiki.security.authorization.internal;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -40,6 +41,7 @@
 import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
 import com.xpn.xwiki.test.reference.ReferenceComponentList;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -104,6 +106,22 @@ void hasAccess()
             eq(new DocumentReference(localReference, this.currentWikiReference)));
     }
 
+    @Test
+    void filterAccessible()
+    {
+        LocalDocumentReference localReference1 = new LocalDocumentReference("space", "page1");
+        LocalDocumentReference localReference2 = new LocalDocumentReference("space", "page2");
+        DocumentReference reference1 = new DocumentReference(localReference1, this.currentWikiReference);
+        DocumentReference reference2 = new DocumentReference(localReference2, this.currentWikiReference);
+
+        when(this.authorizationManager.filterAccessible(Right.VIEW, null, List.of(reference1, reference2)))
+            .thenReturn(List.of(reference2));
+
+        List<LocalDocumentReference> references = List.of(localReference1, localReference2);
+        assertEquals(List.of(localReference2), this.contextualAuthorizationManager.filterAccessible(Right.VIEW,
+            references));
+    }
+
     @ParameterizedTest
     @MethodSource("contentRightsSource")
     void contentAuthorRightPreAccess(Right right)
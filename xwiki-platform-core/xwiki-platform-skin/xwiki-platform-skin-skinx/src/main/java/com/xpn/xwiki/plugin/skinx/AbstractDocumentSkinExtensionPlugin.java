@@ -54,6 +54,9 @@
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.web.Utils;
+import com.xpn.xwiki.web.sx.SxDocumentSource;
+import com.xpn.xwiki.web.sx.SxSource;
+import com.xpn.xwiki.web.sx.SxSource.CachePolicy;
 
 /**
  * Abstract SX plugin for wiki-document-based extensions (Extensions written as object of a XWiki Extension class).
@@ -288,6 +291,31 @@ public void use(String resource, Map<String, Object> parameters, XWikiContext co
         }
     }
 
+    @Override
+    public SxSource getBundledSource(String documentName, XWikiContext context)
+    {
+        DocumentReference documentReference = getCurrentDocumentReferenceResolver().resolve(documentName);
+        if (getBundleExtensionType() == null || !isAccessible(documentReference, context)) {
+            return null;
+        }
+
+        try {
+            XWikiDocument document = context.getWiki().getDocument(documentReference, context);
+            if (document.isNew()) {
+                return null;
+            }
+
+            // The content of the extensions which forbid caching is most probably different for each request.
+            SxSource source = new SxDocumentSource(document, getBundleExtensionType(), context);
+            return source.getCachePolicy() != CachePolicy.FORBID ? source : null;
+        } catch (XWikiException e) {
+            LOGGER.error("Failed to load skin extension [{}] to bundle it: [{}]", documentReference,
+                ExceptionUtils.getRootCauseMessage(e));
+            LOGGER.debug("Original error stack trace: ", e);
+            return null;
+        }
+    }
+
     private DocumentReferenceResolver<String> getDocumentReferenceResolver()
     {
         if (this.stringDocumentReferenceResolver == null) {
@@ -20,10 +20,13 @@
 package com.xpn.xwiki.plugin.skinx;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.web.sx.SxResourceSource;
+import com.xpn.xwiki.web.sx.SxSource;
 
 /**
  * Skin Extension plugin to use extension files from JAR resources.
@@ -84,6 +87,24 @@ public String getLink(String resourceName, XWikiContext context)
         }
     }
 
+    @Override
+    public SxSource getBundledSource(String resourceName, XWikiContext context)
+    {
+        if (getBundleExtensionType() == null) {
+            return null;
+        }
+
+        // Only the existing resources have a version.
+        SxSource source = new SxResourceSource(resourceName);
+        return source.getVersion() != null ? source : null;
+    }
+
+    @Override
+    protected String getBundleLink(String url, List<String> resourceNames, XWikiContext context)
+    {
+        return generateLink(url, resourceNames.get(0), context);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -21,9 +21,12 @@
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -35,7 +38,11 @@
 import org.slf4j.LoggerFactory;
 import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.skinx.SkinExtensionConfiguration;
 import org.xwiki.skinx.internal.async.SkinExtensionAsync;
+import org.xwiki.skinx.internal.bundle.SkinExtensionBundle;
+import org.xwiki.skinx.internal.bundle.SkinExtensionBundleManager;
+import org.xwiki.stability.Unstable;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.api.Api;
@@ -45,6 +52,8 @@
 import com.xpn.xwiki.plugin.XWikiDefaultPlugin;
 import com.xpn.xwiki.plugin.XWikiPluginInterface;
 import com.xpn.xwiki.web.Utils;
+import com.xpn.xwiki.web.sx.Extension;
+import com.xpn.xwiki.web.sx.SxSource;
 
 /**
  * <p>
@@ -97,6 +106,9 @@ public abstract class AbstractSkinExtensionPlugin extends XWikiDefaultPlugin imp
     /** Parameter name force skin action. */
     private static final String FORCE_SKIN_ACTION = "forceSkinAction";
 
+    /** Parameter name for deferring the loading of the extension. */
+    private static final String DEFER_PARAMETER = "defer";
+
     /** The name of the context key for the list of pulled extensions. */
     protected final String contextKey = this.getClass().getCanonicalName();
 
@@ -115,6 +127,10 @@ public abstract class AbstractSkinExtensionPlugin extends XWikiDefaultPlugin imp
 
     private SkinExtensionAsync async;
 
+    private SkinExtensionConfiguration configuration;
+
+    private SkinExtensionBundleManager bundleManager;
+
     /**
      * XWiki plugin constructor.
      *
@@ -161,6 +177,73 @@ public String getLink(String resource, Map<String, Object> parameters, XWikiCont
         return getLink(resource, context);
     }
 
+    /**
+     * Obtain the links pointing to the passed resources, bundling together the consecutive resources which support it
+     * when {@link SkinExtensionConfiguration#isBundlingEnabled() bundling is enabled}.
+     *
+     * @param extensions the names of the resources, in the order they should be loaded, with their parameters
+     * @param context the current request context
+     * @return the linking elements that should be printed in the generated HTML
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public String getLinks(Map<String, Map<String, Object>> extensions, XWikiContext context)
+    {
+        for (Map.Entry<String, Map<String, Object>> extension : extensions.entrySet()) {
+            getParametersMap(context).put(extension.getKey(), extension.getValue());
+        }
+
+        return getLinks(extensions.keySet(), context);
+    }
+
+    /**
+     * Get the source of an extension to include in a bundle. Plugins supporting bundles must also override
+     * {@link #getBundleExtensionType()} and {@link #getBundleLink(String, List, XWikiContext)}.
+     *
+     * @param resource the name of the resource
+     * @param context the current request context
+     * @return the source of the extension, or {@code null} if it cannot be bundled (e.g. because it does not exist, the
+     *         current user cannot view it, or its content cannot be cached)
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public SxSource getBundledSource(String resource, XWikiContext context)
+    {
+        return null;
+    }
+
+    /**
+     * @return the type of the extensions bundled by this plugin, or {@code null} if this plugin does not support
+     *         bundles
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public Extension getBundleExtensionType()
+    {
+        return null;
+    }
+
+    /**
+     * Obtain the linking element pointing to a bundle of resources. The default implementation ignores the bundle and
+     * returns the linking elements of the individual resources.
+     *
+     * @param url the URL of the bundle
+     * @param resources the names of the bundled resources, in the order they are loaded (the bundled resources all
+     *            have the same parameters affecting the linking element)
+     * @param context the current request context
+     * @return the linking element that should be printed in the generated HTML
+     * @since 16.3.0RC1
+     */
+    protected String getBundleLink(String url, List<String> resources, XWikiContext context)
+    {
+        StringBuilder result = new StringBuilder();
+        for (String resource : resources) {
+            result.append(getLink(resource, context));
+        }
+
+        return result.toString();
+    }
+
     /**
      * Returns the list of always used extensions of this type. Which resources are always used depends on the type of
      * resource, for example document based StyleSheet extensions have a property in the object, {@code use}, which can
@@ -340,12 +423,78 @@ public String getImportString(XWikiContext context)
             extensions.add(serializedCurrentDocumentName);
         }
 
-        for (String documentName : extensions) {
-            result.append(getLink(documentName, context));
+        result.append(getLinks(extensions, context));
+        return result.toString();
+    }
+
+    private String getLinks(Collection<String> resources, XWikiContext context)
+    {
+        StringBuilder result = new StringBuilder();
+
+        boolean bundling = isBundlingEnabled(context);
+        List<String> bundledResources = new ArrayList<>();
+        List<SxSource> bundledSources = new ArrayList<>();
+        for (String resource : resources) {
+            SxSource source = bundling ? getBundleSource(resource, context) : null;
+
+            // Only consecutive extensions are bundled, to preserve the order in which they are loaded.
+            if (source == null || (!bundledResources.isEmpty()
+                && isDefer(resource, context) != isDefer(bundledResources.get(0), context))) {
+                appendLinks(result, bundledResources, bundledSources, context);
+            }
+
+            if (source != null) {
+                bundledResources.add(resource);
+                bundledSources.add(source);
+            } else {
+                result.append(getLink(resource, context));
+            }
         }
+        appendLinks(result, bundledResources, bundledSources, context);
+
         return result.toString();
     }
 
+    private void appendLinks(StringBuilder result, List<String> resources, List<SxSource> sources,
+        XWikiContext context)
+    {
+        String url = null;
+        if (resources.size() > 1) {
+            SkinExtensionBundle bundle = getBundleManager().create(getName(), resources, sources);
+            url = getBundleManager().getURL(bundle);
+        }
+
+        if (url != null) {
+            result.append(getBundleLink(url, resources, context));
+        } else {
+            for (String resource : resources) {
+                result.append(getLink(resource, context));
+            }
+        }
+
+        resources.clear();
+        sources.clear();
+    }
+
+    private boolean isBundlingEnabled(XWikiContext context)
+    {
+        // The exported HTML contains copies of the individual extensions.
+        return getBundleExtensionType() != null && getConfiguration().isBundlingEnabled()
+            && !"export".equals(context.getAction());
+    }
+
+    private SxSource getBundleSource(String resource, XWikiContext context)
+    {
+        // The other parameters are passed in the URL of the extension and can change its content.
+        for (String parameter : getParametersForResource(resource, context).keySet()) {
+            if (!DEFER_PARAMETER.equals(parameter)) {
+                return null;
+            }
+        }
+
+        return getBundledSource(resource, context);
+    }
+
     /**
      * Get the parameters for a pulled resource. Note that a valid map is always returned, even if no parameters were
      * given when the resource was pulled.
@@ -494,6 +643,24 @@ protected SkinExtensionAsync getSkinExtensionAsync()
         return this.async;
     }
 
+    private SkinExtensionConfiguration getConfiguration()
+    {
+        if (this.configuration == null) {
+            this.configuration = Utils.getComponent(SkinExtensionConfiguration.class);
+        }
+
+        return this.configuration;
+    }
+
+    private SkinExtensionBundleManager getBundleManager()
+    {
+        if (this.bundleManager == null) {
+            this.bundleManager = Utils.getComponent(SkinExtensionBundleManager.class);
+        }
+
+        return this.bundleManager;
+    }
+
     /**
      * If the loading of given JavaScript script shall be deferred.
      *
@@ -507,6 +674,7 @@ boolean isDefer(String name, XWikiContext context)
     {
         String defaultDeferString = context.getWiki().Param(DEFER_DEFAULT_PARAM);
         boolean defaultDefer = StringUtils.isEmpty(defaultDeferString) || Boolean.parseBoolean(defaultDeferString);
-        return BooleanUtils.toBooleanDefaultIfNull((Boolean) getParameter("defer", name, context), defaultDefer);
+        return BooleanUtils.toBooleanDefaultIfNull((Boolean) getParameter(DEFER_PARAMETER, name, context),
+            defaultDefer);
     }
 }
@@ -19,9 +19,16 @@
  */
 package com.xpn.xwiki.plugin.skinx;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xwiki.skinx.internal.bundle.SkinExtensionBundleManager;
 import org.xwiki.xml.XMLUtils;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.SsxAction;
+import com.xpn.xwiki.web.sx.Extension;
+import com.xpn.xwiki.web.sx.SxSource;
 
 /**
  * Skin Extension plugin to use css files from JAR resources.
@@ -31,6 +38,9 @@
  */
 public class CssResourceSkinExtensionPlugin extends AbstractResourceSkinExtensionPlugin
 {
+    /** Whether the resources can be bundled, indexed by their version (i.e. their URL). */
+    private final Map<String, Boolean> bundleableResources = new ConcurrentHashMap<>();
+
     /**
      * XWiki plugin constructor.
      * 
@@ -56,6 +66,26 @@ protected String getAction()
         return "ssx";
     }
 
+    @Override
+    public Extension getBundleExtensionType()
+    {
+        return SsxAction.CSSX;
+    }
+
+    @Override
+    public SxSource getBundledSource(String resourceName, XWikiContext context)
+    {
+        SxSource source = super.getBundledSource(resourceName, context);
+
+        // The content of a resource changes only with its version so there's no need to read it for each page.
+        if (source != null && !this.bundleableResources.computeIfAbsent(source.getVersion(),
+            version -> SkinExtensionBundleManager.canBundleStyleSheet(source.getContent()))) {
+            return null;
+        }
+
+        return source;
+    }
+
     @Override
     protected String generateLink(String url, String resourceName, XWikiContext context)
     {
@@ -19,11 +19,19 @@
  */
 package com.xpn.xwiki.plugin.skinx;
 
+import java.util.List;
+
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.skinx.internal.bundle.SkinExtensionBundleManager;
 import org.xwiki.xml.XMLUtils;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.web.SsxAction;
+import com.xpn.xwiki.web.sx.Extension;
+import com.xpn.xwiki.web.sx.SxDocumentSource;
+import com.xpn.xwiki.web.sx.SxSource;
 
 /**
  * Skin Extension plugin that allows pulling CSS code stored inside wiki documents as
@@ -84,9 +92,44 @@ public String getLink(String documentName, XWikiContext context)
             return "";
         }
 
-        return "<link rel=\"stylesheet\" type=\"text/css\" href=\"" + XMLUtils.escapeAttributeValue(
-            getDocumentSkinExtensionURL(documentReference, documentName, PLUGIN_NAME,
-                context)) + "\" />\n";
+        return getStyleSheetLink(getDocumentSkinExtensionURL(documentReference, documentName, PLUGIN_NAME,
+            context));
+    }
+
+    @Override
+    public Extension getBundleExtensionType()
+    {
+        return SsxAction.CSSX;
+    }
+
+    @Override
+    public SxSource getBundledSource(String documentName, XWikiContext context)
+    {
+        SxSource source = super.getBundledSource(documentName, context);
+
+        List<BaseObject> objects = source instanceof SxDocumentSource
+            ? ((SxDocumentSource) source).getDocument().getObjects(SSX_CLASS_NAME) : null;
+        if (objects != null) {
+            for (BaseObject object : objects) {
+                if (object != null
+                    && !SkinExtensionBundleManager.canBundleStyleSheet(object.getLargeStringValue("code"))) {
+                    return null;
+                }
+            }
+        }
+
+        return source;
+    }
+
+    @Override
+    protected String getBundleLink(String url, List<String> documentNames, XWikiContext context)
+    {
+        return getStyleSheetLink(url);
+    }
+
+    private String getStyleSheetLink(String url)
+    {
+        return "<link rel=\"stylesheet\" type=\"text/css\" href=\"" + XMLUtils.escapeAttributeValue(url) + "\" />\n";
     }
 
     @Override
@@ -22,6 +22,8 @@
 import org.xwiki.xml.XMLUtils;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.JsxAction;
+import com.xpn.xwiki.web.sx.Extension;
 
 /**
  * Skin Extension plugin that allows pulling javascript files from JAR resources.
@@ -56,6 +58,12 @@ protected String getAction()
         return "jsx";
     }
 
+    @Override
+    public Extension getBundleExtensionType()
+    {
+        return JsxAction.JSX;
+    }
+
     @Override
     protected String generateLink(String url, String resourceName, XWikiContext context)
     {
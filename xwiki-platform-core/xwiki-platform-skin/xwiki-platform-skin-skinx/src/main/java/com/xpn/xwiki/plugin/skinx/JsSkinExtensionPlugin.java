@@ -19,11 +19,15 @@
  */
 package com.xpn.xwiki.plugin.skinx;
 
+import java.util.List;
+
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.xml.XMLUtils;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.JsxAction;
+import com.xpn.xwiki.web.sx.Extension;
 
 /**
  * Skin Extension plugin that allows pulling javascript code stored inside wiki documents as
@@ -88,9 +92,26 @@ public String getLink(String documentName, XWikiContext context)
             return "";
         }
 
+        return getScriptLink(getDocumentSkinExtensionURL(documentReference, documentName, PLUGIN_NAME, context),
+            documentName, context);
+    }
+
+    @Override
+    public Extension getBundleExtensionType()
+    {
+        return JsxAction.JSX;
+    }
+
+    @Override
+    protected String getBundleLink(String url, List<String> documentNames, XWikiContext context)
+    {
+        return getScriptLink(url, documentNames.get(0), context);
+    }
+
+    private String getScriptLink(String url, String documentName, XWikiContext context)
+    {
         StringBuilder result = new StringBuilder("<script src='");
-        result.append(XMLUtils.escapeAttributeValue(
-            getDocumentSkinExtensionURL(documentReference, documentName, PLUGIN_NAME, context)));
+        result.append(XMLUtils.escapeAttributeValue(url));
         if (isDefer(documentName, context)) {
             result.append("' defer='defer");
         }
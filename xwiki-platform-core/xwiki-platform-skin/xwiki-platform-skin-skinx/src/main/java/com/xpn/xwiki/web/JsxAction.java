@@ -21,7 +21,9 @@
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.inject.Named;
@@ -71,6 +73,8 @@ public class JsxAction extends AbstractSxAction
      */
     private static final String SOURCE_MAP_PARAMS = "sourceMap=true&minify=false";
 
+    private static final String SOURCE_MAP_HEADER = "X-SourceMap";
+
     @Override
     public Extension getExtensionType()
     {
@@ -99,7 +103,7 @@ public long getLastModifiedDate()
                 @Override
                 public String getContent()
                 {
-                    return loadSourceMap(context);
+                    return loadSourceMap(sxSource, context);
                 }
 
                 @Override
@@ -133,17 +137,24 @@ protected String compress(String source, SxCompressor compressor, XWikiContext c
             if (sourceMap != null) {
                 // The browser's developer tools will attempt to load the source code when debugging the compressed
                 // code. The source code URL is specified in the source map.
-                sourceMap = fixSourceURL(sourceMap, context);
+                sourceMap = fixSourceURL(sourceMap, context.getURLFactory().getRequestURL(context).toString(),
+                    context);
                 // Indicate the URL to the source map using the dedicated HTTP header. This is how the browser's
                 // developer tools will know how to download the source map.
                 // See https://developer.mozilla.org/en-US/docs/Tools/Debugger/How_to/Use_a_source_map
-                context.getResponse().setHeader("X-SourceMap", saveSourceMap(sourceMap, context));
+                context.getResponse().setHeader(SOURCE_MAP_HEADER, saveSourceMap(sourceMap, context));
             }
         }
 
         return output;
     }
 
+    @Override
+    protected Collection<String> getCachedHeaders()
+    {
+        return List.of(SOURCE_MAP_HEADER);
+    }
+
     /**
      * Saves the given source map in the current HTTP session and returns the URL that can be used to access it.
      * 
@@ -169,24 +180,44 @@ private String saveSourceMap(String sourceMap, XWikiContext context)
     }
 
     /**
+     * @param sxSource the source of the JavaScript extension
      * @param context the XWiki context
      * @return the source map that corresponds to the current HTTP request
      */
-    private String loadSourceMap(XWikiContext context)
+    private String loadSourceMap(SxSource sxSource, XWikiContext context)
     {
         @SuppressWarnings("unchecked")
         Map<String, String> sourceMaps =
             (Map<String, String>) context.getRequest().getSession().getAttribute(SOURCE_MAPS_SESSION_ATTRIBUTE);
+        String sourceMap = null;
         if (sourceMaps != null) {
-            String sourceMapKey = context.getURL().toString();
-            // Remove the source map parameters from the query string.
-            sourceMapKey = sourceMapKey.replaceFirst("(\\?)" + SOURCE_MAP_PARAMS + "(&|$)", "$1");
-            sourceMapKey = StringUtils.removeEnd(sourceMapKey, "?");
-            return sourceMaps.getOrDefault(sourceMapKey, "");
+            sourceMap = sourceMaps.get(removeSourceMapParams(context.getURL().toString()));
+        }
+        if (sourceMap == null) {
+            // The JavaScript extension was taken from the output cache, so it was compressed during another session.
+            sourceMap = generateSourceMap(sxSource, context);
+        }
+        return sourceMap;
+    }
+
+    private String generateSourceMap(SxSource sxSource, XWikiContext context)
+    {
+        JsCompressor compressor = new JsCompressor();
+        compressor.compress(sxSource.getContent());
+        String sourceMap = compressor.getSourceMap();
+        if (sourceMap != null) {
+            String sourceURL = removeSourceMapParams(context.getURLFactory().getRequestURL(context).toString());
+            return fixSourceURL(sourceMap, sourceURL, context);
         }
         return "";
     }
 
+    private String removeSourceMapParams(String url)
+    {
+        // Remove the source map parameters from the query string.
+        return StringUtils.removeEnd(url.replaceFirst("(\\?)" + SOURCE_MAP_PARAMS + "(&|$)", "$1"), "?");
+    }
+
     private String extendQueryString(String url, String params)
     {
         // We add the new parameters at the start of the query string to be sure they are not overwritten by the rest of
@@ -199,7 +230,7 @@ private String extendQueryString(String url, String params)
         }
     }
 
-    private String fixSourceURL(String sourceMapJSON, XWikiContext context)
+    private String fixSourceURL(String sourceMapJSON, String requestURL, XWikiContext context)
     {
         try {
             ObjectMapper objectMapper = new ObjectMapper();
@@ -208,7 +239,7 @@ private String fixSourceURL(String sourceMapJSON, XWikiContext context)
             // Closure compiler can add synthetic sources when polyfills are embedded in the compilation so we need to
             // modify the last source in the array.
             if (!sources.isEmpty()) {
-                sources.set(sources.size() - 1, sources.textNode(getSourceURL(context)));
+                sources.set(sources.size() - 1, sources.textNode(getSourceURL(requestURL, context)));
             }
             return objectMapper.writeValueAsString(sourceMap);
         } catch (Exception e) {
@@ -218,10 +249,10 @@ private String fixSourceURL(String sourceMapJSON, XWikiContext context)
         }
     }
 
-    private String getSourceURL(XWikiContext context)
+    private String getSourceURL(String requestURL, XWikiContext context)
     {
         XWikiURLFactory urlFactory = context.getURLFactory();
-        String sourceURL = extendQueryString(urlFactory.getRequestURL(context).toString(), "minify=false");
+        String sourceURL = extendQueryString(requestURL, "minify=false");
         try {
             // Try to return a relative source URL because this is going to be saved in the source map.
             return urlFactory.getURL(new URL(sourceURL), context);
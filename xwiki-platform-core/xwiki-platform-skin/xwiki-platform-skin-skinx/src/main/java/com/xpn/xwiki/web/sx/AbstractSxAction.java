@@ -20,11 +20,20 @@
 package com.xpn.xwiki.web.sx;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
+import org.xwiki.lesscss.internal.colortheme.CurrentColorThemeGetter;
+import org.xwiki.skinx.internal.SkinExtensionOutput;
+import org.xwiki.skinx.internal.SkinExtensionOutputCache;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -58,14 +67,15 @@ public abstract class AbstractSxAction extends XWikiAction
     /** What http header parameter is used to specify when the cache should expire. */
     private static final String CACHE_EXPIRES_HEADER = "Expires";
 
-    /** The response will be sent to the browser as a byte array in this character set. */
-    private static final String RESPONSE_CHARACTER_SET = "UTF-8";
-
     /** If the user passes this parameter in the URL, we will look for the script in the jar files. */
     private static final String JAR_RESOURCE_REQUEST_PARAMETER = "resource";
 
     private DebugConfiguration debugConfiguration;
 
+    private SkinExtensionOutputCache outputCache;
+
+    private CurrentColorThemeGetter colorThemeGetter;
+
     /** @return the logging object of the concrete subclass. */
     protected abstract Logger getLogger();
 
@@ -83,7 +93,26 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
     {
         XWikiResponse response = context.getResponse();
 
-        String extensionContent = sxSource.getContent();
+        CachePolicy cachePolicy = sxSource.getCachePolicy();
+
+        // The output of the extensions which forbid caching is most probably different for each request.
+        // Note that the entity tag is computed from the output, so a conditional request only saves the generation of
+        // the output when it's still cached: after an eviction or a restart the output is generated again before the
+        // client gets its 304 answer. The extensions which forbid caching never get a 304 answer.
+        String cacheKey = cachePolicy != CachePolicy.FORBID ? getCacheKey(sxSource, sxType, context) : null;
+        SkinExtensionOutput output = null;
+        String extensionContent = null;
+        if (cacheKey != null) {
+            output = getOutputCache().get(cacheKey);
+            if (output == null) {
+                output = createOutput(sxSource, sxType, context);
+                getOutputCache().set(cacheKey, output);
+            } else {
+                output.getHeaders().forEach(response::setHeader);
+            }
+        } else {
+            extensionContent = getContent(sxSource, sxType, context);
+        }
 
         response.setContentType(sxType.getContentType());
 
@@ -91,8 +120,6 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
             response.setDateHeader(LAST_MODIFIED_HEADER, sxSource.getLastModifiedDate());
         }
 
-        CachePolicy cachePolicy = sxSource.getCachePolicy();
-
         if (cachePolicy != CachePolicy.FORBID) {
             response.setHeader(CACHE_CONTROL_HEADER, "public");
         }
@@ -106,18 +133,104 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
             response.setHeader(CACHE_CONTROL_HEADER, "no-cache, no-store, must-revalidate");
         }
 
+        if (output != null) {
+            writeOutput(output, context);
+        } else {
+            write(extensionContent.getBytes(StandardCharsets.UTF_8), response);
+        }
+    }
+
+    private String getContent(SxSource sxSource, Extension sxType, XWikiContext context)
+    {
+        String extensionContent = sxSource.getContent();
+
         if (getDebugConfiguration().isMinify()) {
             extensionContent = compress(extensionContent, sxType.getCompressor(), context);
         }
 
+        return extensionContent;
+    }
+
+    private SkinExtensionOutput createOutput(SxSource sxSource, Extension sxType, XWikiContext context)
+    {
+        String extensionContent = getContent(sxSource, sxType, context);
+
+        // Remember the headers set while generating the content, to send them again when the output is taken from the
+        // cache.
+        Map<String, String> headers = new HashMap<>();
+        for (String header : getCachedHeaders()) {
+            String value = context.getResponse().getHeader(header);
+            if (value != null) {
+                headers.put(header, value);
+            }
+        }
+
+        return new SkinExtensionOutput(extensionContent.getBytes(StandardCharsets.UTF_8), headers);
+    }
+
+    /**
+     * @param sxSource the source of the extension
+     * @param sxType the type of extension
+     * @param context the XWiki context when rendering the skin extension
+     * @return the key identifying the output of the extension in the cache, or {@code null} if it shouldn't be cached
+     */
+    private String getCacheKey(SxSource sxSource, Extension sxType, XWikiContext context)
+    {
+        String version = sxSource.getVersion();
+        if (version == null) {
+            return null;
+        }
+
+        // The request URL covers the wiki, the extension and the request parameters, but the language, the skin and
+        // the color theme can also come from the preferences. The minification can be disabled in the configuration.
+        StringBuilder key = new StringBuilder();
+        appendKeyPart(key, sxType.getClassName());
+        appendKeyPart(key, version);
+        appendKeyPart(key, getDebugConfiguration().isMinify());
+        appendKeyPart(key, context.getLocale());
+        appendKeyPart(key, context.getWiki().getSkin(context));
+        appendKeyPart(key, getColorThemeGetter().getCurrentColorTheme(""));
+        appendKeyPart(key, context.getURL());
+
+        return key.toString();
+    }
+
+    private void appendKeyPart(StringBuilder key, Object part)
+    {
+        String value = Objects.toString(part, "");
+        // Prefix with the length to not have to escape the separator
+        key.append(value.length()).append(':').append(value);
+    }
+
+    private void writeOutput(SkinExtensionOutput output, XWikiContext context)
+    {
+        try {
+            output.send(context.getRequest(), context.getResponse());
+        } catch (IOException ex) {
+            getLogger().warn("Failed to send SX content: [{}]", ex.getMessage());
+        }
+    }
+
+    private void write(byte[] content, XWikiResponse response)
+    {
         try {
-            response.setContentLength(extensionContent.getBytes(RESPONSE_CHARACTER_SET).length);
-            response.getOutputStream().write(extensionContent.getBytes(RESPONSE_CHARACTER_SET));
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
         } catch (IOException ex) {
             getLogger().warn("Failed to send SX content: [{}]", ex.getMessage());
         }
     }
 
+    /**
+     * @return the names of the response headers set while generating the content of the extension that should be sent
+     *         again when the output is taken from the cache
+     * @since 16.3.0RC1
+     */
+    protected Collection<String> getCachedHeaders()
+    {
+        return Collections.emptyList();
+    }
+
     protected String compress(String source, SxCompressor compressor, XWikiContext context)
     {
         return compressor.compress(source);
@@ -156,6 +269,24 @@ protected DebugConfiguration getDebugConfiguration()
         return this.debugConfiguration;
     }
 
+    private SkinExtensionOutputCache getOutputCache()
+    {
+        if (this.outputCache == null) {
+            this.outputCache = Utils.getComponent(SkinExtensionOutputCache.class);
+        }
+
+        return this.outputCache;
+    }
+
+    private CurrentColorThemeGetter getColorThemeGetter()
+    {
+        if (this.colorThemeGetter == null) {
+            this.colorThemeGetter = Utils.getComponent(CurrentColorThemeGetter.class);
+        }
+
+        return this.colorThemeGetter;
+    }
+
     /**
      * Get the type of extension, depends on the type of action.
      *
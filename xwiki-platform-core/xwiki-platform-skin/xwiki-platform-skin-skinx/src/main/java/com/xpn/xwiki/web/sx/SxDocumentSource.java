@@ -32,6 +32,7 @@
 import org.xwiki.lesscss.resources.LESSResourceReference;
 import org.xwiki.lesscss.resources.LESSResourceReferenceFactory;
 import org.xwiki.model.reference.ObjectPropertyReference;
+import org.xwiki.stability.Unstable;
 import org.xwiki.velocity.VelocityManager;
 import org.xwiki.velocity.XWikiVelocityException;
 
@@ -89,6 +90,32 @@ public SxDocumentSource(XWikiContext context, Extension extension)
         this.extension = extension;
     }
 
+    /**
+     * Constructor for this extension source.
+     *
+     * @param document the document containing the extension
+     * @param extension the Extension type
+     * @param context the XWikiContext
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public SxDocumentSource(XWikiDocument document, Extension extension, XWikiContext context)
+    {
+        this.context = context;
+        this.document = document;
+        this.extension = extension;
+    }
+
+    /**
+     * @return the document containing the extension
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    public XWikiDocument getDocument()
+    {
+        return this.document;
+    }
+
     @Override
     public CachePolicy getCachePolicy()
     {
@@ -173,4 +200,13 @@ public long getLastModifiedDate()
         return this.document.getDate().getTime();
     }
 
+    @Override
+    public String getVersion()
+    {
+        // The version alone is not enough because it starts again from 1.1 when the document is deleted and created
+        // back.
+        return this.document.getDocumentReferenceWithLocale() + "/" + this.document.getVersion() + '/'
+            + this.document.getDate().getTime();
+    }
+
 }
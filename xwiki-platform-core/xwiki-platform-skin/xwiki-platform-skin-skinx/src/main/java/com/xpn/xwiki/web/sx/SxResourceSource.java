@@ -21,6 +21,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.io.IOUtils;
@@ -77,4 +78,14 @@ public long getLastModifiedDate()
         return 0;
     }
 
+    @Override
+    public String getVersion()
+    {
+        // The URL of the resource includes the path of the JAR holding it, which changes when the extension providing
+        // the resource is upgraded.
+        URL url = Thread.currentThread().getContextClassLoader().getResource(this.resourceName);
+
+        return url != null ? url.toString() : null;
+    }
+
 }
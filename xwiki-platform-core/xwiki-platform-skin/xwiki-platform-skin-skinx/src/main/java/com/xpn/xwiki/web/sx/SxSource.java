@@ -19,6 +19,8 @@
  */
 package com.xpn.xwiki.web.sx;
 
+import org.xwiki.stability.Unstable;
+
 /**
  * Skin extension source. Can be a document, a resource file, or anything else.
  * 
@@ -68,4 +70,15 @@
      * @return the cache policy associated with this extension source.
      */
     CachePolicy getCachePolicy();
+
+    /**
+     * @return an identifier of the current version of the extension source, which changes whenever its content
+     *         changes, or {@code null} if the output of this source shouldn't be cached on the server side
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default String getVersion()
+    {
+        return null;
+    }
 }
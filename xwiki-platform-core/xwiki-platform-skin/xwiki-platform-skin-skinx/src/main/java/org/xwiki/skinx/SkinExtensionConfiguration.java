@@ -20,6 +20,7 @@
 package org.xwiki.skinx;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Configuration options for skin extensions.
@@ -48,4 +49,18 @@
      *         of JavaScript in strict mode for browsers that supports it, {@code false} otherwise
      */
     boolean shouldRunJavaScriptInStrictMode();
+
+    /**
+     * When bundling is enabled, the document and resource skin extensions pulled by a page are concatenated in a few
+     * bundles (one per type of extension, as long as their order and loading mode allow it) instead of being requested
+     * one by one.
+     *
+     * @return {@code true} if the skin extensions used by a page should be served in bundles, {@code false} otherwise
+     * @since 16.3.0RC1
+     */
+    @Unstable
+    default boolean isBundlingEnabled()
+    {
+        return false;
+    }
 }
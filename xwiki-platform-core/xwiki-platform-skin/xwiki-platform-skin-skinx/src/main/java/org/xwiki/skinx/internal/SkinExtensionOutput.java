@@ -0,0 +1,183 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The output of a skin extension, as sent to the browser, along with its precompressed variant and its entity tag.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class SkinExtensionOutput
+{
+    /**
+     * Compressing a very small output doesn't reduce much its size.
+     */
+    private static final int MIN_COMPRESSED_LENGTH = 256;
+
+    private static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+
+    private static final String GZIP_ENCODING = "gzip";
+
+    private final byte[] content;
+
+    private final byte[] gzipContent;
+
+    private final String etag;
+
+    private final Map<String, String> headers;
+
+    /**
+     * @param content the output of the skin extension
+     * @param headers the additional response headers produced while generating the output
+     */
+    public SkinExtensionOutput(byte[] content, Map<String, String> headers)
+    {
+        this.content = content;
+        this.headers = Map.copyOf(headers);
+        // A strong entity tag since it identifies the exact bytes of the (uncompressed) output.
+        this.etag = '"' + DigestUtils.sha256Hex(content) + '"';
+        this.gzipContent = gzip(content);
+    }
+
+    private static byte[] gzip(byte[] content)
+    {
+        if (content.length < MIN_COMPRESSED_LENGTH) {
+            return null;
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            // Should never happen when writing in memory.
+            throw new UncheckedIOException(e);
+        }
+
+        return output.size() < content.length ? output.toByteArray() : null;
+    }
+
+    /**
+     * Send the output, compressed if the client accepts it, or only a 304 status when the client already has it.
+     *
+     * @param request the request, used to find out which encodings and versions the client has
+     * @param response the response where to write the output
+     * @throws IOException when failing to write the output
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response) throws IOException
+    {
+        byte[] body = this.content;
+        String bodyETag = this.etag;
+        if (this.gzipContent != null) {
+            response.setHeader("Vary", ACCEPT_ENCODING_HEADER);
+            if (acceptsGzip(request.getHeader(ACCEPT_ENCODING_HEADER))) {
+                response.setHeader("Content-Encoding", GZIP_ENCODING);
+                body = this.gzipContent;
+                // Each representation needs its own strong entity tag.
+                bodyETag = getGzipETag();
+            }
+        }
+        response.setHeader("ETag", bodyETag);
+
+        // Answer conditional requests without sending the content again.
+        if (matches(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        } else {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private String getGzipETag()
+    {
+        return StringUtils.removeEnd(this.etag, "\"") + '-' + GZIP_ENCODING + '"';
+    }
+
+    private boolean acceptsGzip(String acceptEncoding)
+    {
+        for (String coding : StringUtils.split(StringUtils.defaultString(acceptEncoding), ',')) {
+            String[] parts = StringUtils.split(coding, ';');
+            if (parts.length > 0 && GZIP_ENCODING.equalsIgnoreCase(parts[0].trim())) {
+                // A zero quality value means the encoding is not acceptable.
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+
+        return false;
+    }
+
+    private boolean matches(String ifNoneMatch)
+    {
+        String gzipETag = getGzipETag();
+        for (String value : StringUtils.split(StringUtils.defaultString(ifNoneMatch), ',')) {
+            // The weak comparison is used for If-None-Match, and the representations only differ by their encoding.
+            String tag = StringUtils.removeStart(value.trim(), "W/");
+            if ("*".equals(tag) || this.etag.equals(tag) || gzipETag.equals(tag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the output of the skin extension
+     */
+    public byte[] getContent()
+    {
+        return this.content;
+    }
+
+    /**
+     * @return the output compressed with gzip, or {@code null} if compressing it doesn't reduce its size
+     */
+    public byte[] getGzipContent()
+    {
+        return this.gzipContent;
+    }
+
+    /**
+     * @return the strong entity tag of the output, including the double quotes
+     */
+    public String getETag()
+    {
+        return this.etag;
+    }
+
+    /**
+     * @return the additional response headers produced while generating the output
+     */
+    public Map<String, String> getHeaders()
+    {
+        return this.headers;
+    }
+}
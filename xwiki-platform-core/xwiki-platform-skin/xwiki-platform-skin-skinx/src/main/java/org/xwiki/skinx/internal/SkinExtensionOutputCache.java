@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+/**
+ * Keep the output of the most recently requested skin extensions, so that their content is not evaluated and minified
+ * again for each request. The keys include the version of the extension so there is no need to invalidate entries:
+ * outdated ones are simply not requested anymore and end up evicted.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = SkinExtensionOutputCache.class)
+@Singleton
+public class SkinExtensionOutputCache implements Initializable, Disposable
+{
+    /**
+     * Minified skin extensions are usually less than 50KB (twice that with the compressed variant).
+     */
+    private static final int CAPACITY = 500;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    private Cache<SkinExtensionOutput> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.cache = this.cacheManager.createNewCache(new LRUCacheConfiguration("skinx.output", CAPACITY));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to create the skin extension output cache.", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.cache.dispose();
+    }
+
+    /**
+     * @param key the key identifying the output
+     * @return the cached output, or {@code null} if it's not in the cache
+     */
+    public SkinExtensionOutput get(String key)
+    {
+        return this.cache.get(key);
+    }
+
+    /**
+     * @param key the key identifying the output
+     * @param output the output to cache
+     */
+    public void set(String key, SkinExtensionOutput output)
+    {
+        this.cache.set(key, output);
+    }
+}
@@ -20,7 +20,9 @@
 package org.xwiki.skinx.internal.async;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -106,6 +108,9 @@ private void addHTMLHead(StringBuilder head, Collection<Object> values, Boolean
         XWikiContext xcontext = this.xcontextProvider.get();
         List<XWikiPluginInterface> plugins = xcontext.getWiki().getPluginManager().getPlugins("endParsing");
 
+        // Group the consecutive extensions of the same type so that they can be bundled
+        AbstractSkinExtensionPlugin currentPlugin = null;
+        Map<String, Map<String, Object>> extensions = new LinkedHashMap<>();
         for (Object value : values) {
             SkinExtensionInfo info = (SkinExtensionInfo) value;
 
@@ -113,12 +118,26 @@ private void addHTMLHead(StringBuilder head, Collection<Object> values, Boolean
 
             if (skinPlugin != null) {
                 if (scripts == null || skinPlugin.getName().startsWith("js") == scripts.booleanValue()) {
-                    head.append(skinPlugin.getLink(info.getResource(), info.getParameters(), xcontext));
+                    if (skinPlugin != currentPlugin) {
+                        appendLinks(head, currentPlugin, extensions, xcontext);
+                        currentPlugin = skinPlugin;
+                    }
+                    extensions.put(info.getResource(), info.getParameters());
                 }
             } else {
                 this.logger.warn("Cannot find skin extension plugin for resource type [{}]", info.getType());
             }
         }
+        appendLinks(head, currentPlugin, extensions, xcontext);
+    }
+
+    private void appendLinks(StringBuilder head, AbstractSkinExtensionPlugin skinPlugin,
+        Map<String, Map<String, Object>> extensions, XWikiContext xcontext)
+    {
+        if (!extensions.isEmpty()) {
+            head.append(skinPlugin.getLinks(extensions, xcontext));
+            extensions.clear();
+        }
     }
 
     @Override
@@ -0,0 +1,107 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A group of skin extensions of the same type, used by a page, which are sent to the browser in a single response.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class SkinExtensionBundle
+{
+    private final String id;
+
+    private final String type;
+
+    private final String wiki;
+
+    private final Locale locale;
+
+    private final List<String> resources;
+
+    /**
+     * @param id the identifier of the bundle, computed from the names and versions of the bundled extensions
+     * @param type the name of the skin extension plugin handling the bundled extensions
+     * @param wiki the wiki where the extensions were used
+     * @param locale the locale of the page which used the extensions
+     * @param resources the names of the bundled extensions, in the order they were used
+     */
+    public SkinExtensionBundle(String id, String type, String wiki, Locale locale, List<String> resources)
+    {
+        this.id = id;
+        this.type = type;
+        this.wiki = wiki;
+        this.locale = locale;
+        this.resources = List.copyOf(resources);
+    }
+
+    /**
+     * @return the identifier of the bundle, computed from the names and versions of the bundled extensions
+     */
+    public String getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * @return the name of the skin extension plugin handling the bundled extensions
+     */
+    public String getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * @return the wiki where the extensions were used
+     */
+    public String getWiki()
+    {
+        return this.wiki;
+    }
+
+    /**
+     * @return the locale of the page which used the extensions
+     */
+    public Locale getLocale()
+    {
+        return this.locale;
+    }
+
+    /**
+     * @return the names of the bundled extensions, in the order they were used
+     */
+    public List<String> getResources()
+    {
+        return this.resources;
+    }
+
+    /**
+     * @return the extension of the bundle file name
+     */
+    public String getFileExtension()
+    {
+        // Same convention as the skin extension async handler: the JavaScript plugins are the ones starting with "js"
+        return this.type.startsWith("js") ? "js" : "css";
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.LocaleUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.resource.ResourceReference;
+import org.xwiki.resource.ResourceReferenceSerializer;
+import org.xwiki.resource.SerializeResourceReferenceException;
+import org.xwiki.resource.UnsupportedResourceReferenceException;
+import org.xwiki.url.ExtendedURL;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.sx.SxSource;
+
+/**
+ * Create the bundles of skin extensions used by the pages.
+ * <p>
+ * The identifier of a bundle is computed from the names and versions of the bundled extensions so the same page
+ * always gets the same bundle URL until one of its extensions is modified. Nothing is kept on the server: the names of
+ * the bundled extensions are part of the URL of the bundle, so any node of a cluster can send the bundle, even after a
+ * restart.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = SkinExtensionBundleManager.class)
+@Singleton
+public class SkinExtensionBundleManager
+{
+    private static final String MINIFY_PARAMETER = "minify";
+
+    private static final String LANGUAGE_PARAMETER = "language";
+
+    private static final String RESOURCE_PARAMETER = "resource";
+
+    /** The rules which are only allowed at the start of a style sheet. */
+    private static final Pattern LEADING_CSS_RULES = Pattern.compile("@(import|charset)\\b", Pattern.CASE_INSENSITIVE);
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private ResourceReferenceSerializer<ResourceReference, ExtendedURL> resourceReferenceSerializer;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Create the bundle of the passed extensions, for the current wiki and locale.
+     *
+     * @param type the name of the skin extension plugin handling the extensions
+     * @param resources the names of the extensions to bundle, in the order they are used
+     * @param sources the sources of the extensions to bundle, in the same order as the names
+     * @return the bundle
+     */
+    public SkinExtensionBundle create(String type, List<String> resources, List<SxSource> sources)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        String id = getId(type, xcontext.getWikiId(), xcontext.getLocale(), resources, sources);
+
+        return new SkinExtensionBundle(id, type, xcontext.getWikiId(), xcontext.getLocale(), resources);
+    }
+
+    /**
+     * Compute the identifier of a bundle.
+     *
+     * @param type the name of the skin extension plugin handling the extensions
+     * @param wiki the wiki where the extensions are used
+     * @param locale the locale of the page which uses the extensions
+     * @param resources the names of the bundled extensions, in the order they are used
+     * @param sources the sources of the bundled extensions, in the same order as the names
+     * @return the identifier of the bundle
+     */
+    public String getId(String type, String wiki, Locale locale, List<String> resources, List<SxSource> sources)
+    {
+        StringBuilder key = new StringBuilder();
+        appendKeyPart(key, type);
+        appendKeyPart(key, wiki);
+        appendKeyPart(key, locale);
+        for (int i = 0; i < resources.size(); i++) {
+            appendKeyPart(key, resources.get(i));
+            appendKeyPart(key, sources.get(i).getVersion());
+        }
+
+        return DigestUtils.sha256Hex(key.toString());
+    }
+
+    /**
+     * Rebuild a bundle from its URL.
+     * <p>
+     * Anybody can craft a bundle URL so the returned bundle must not be trusted: its identifier is only the one which
+     * was requested and the bundled extensions still need to be checked.
+     *
+     * @param reference the reference of the bundle, as resolved from its URL
+     * @return the bundle, or {@code null} if the reference does not contain any extension
+     */
+    public SkinExtensionBundle get(SkinExtensionBundleResourceReference reference)
+    {
+        List<String> resources = reference.getParameterValues(RESOURCE_PARAMETER);
+        if (resources == null || resources.isEmpty()) {
+            return null;
+        }
+
+        Locale locale;
+        try {
+            locale = LocaleUtils.toLocale(reference.getParameterValue(LANGUAGE_PARAMETER));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        return new SkinExtensionBundle(reference.getBundleId(), reference.getPluginName(), reference.getWiki(),
+            locale, resources);
+    }
+
+    /**
+     * @param bundle the bundle
+     * @return the URL of the bundle, or {@code null} if it could not be serialized
+     */
+    public String getURL(SkinExtensionBundle bundle)
+    {
+        SkinExtensionBundleResourceReference reference = new SkinExtensionBundleResourceReference(bundle.getWiki(),
+            bundle.getType(), bundle.getId(), bundle.getFileExtension());
+        if (bundle.getLocale() != null && StringUtils.isNotEmpty(bundle.getLocale().toString())) {
+            reference.addParameter(LANGUAGE_PARAMETER, bundle.getLocale().toString());
+        }
+        for (String resource : bundle.getResources()) {
+            reference.addParameter(RESOURCE_PARAMETER, resource);
+        }
+
+        // If the main page is requested unminified, also send unminified extensions
+        XWikiContext xcontext = this.xcontextProvider.get();
+        if (xcontext.getRequest() != null
+            && Boolean.FALSE.toString().equals(xcontext.getRequest().getParameter(MINIFY_PARAMETER))) {
+            reference.addParameter(MINIFY_PARAMETER, Boolean.FALSE.toString());
+        }
+
+        try {
+            return this.resourceReferenceSerializer.serialize(reference).serialize();
+        } catch (SerializeResourceReferenceException | UnsupportedResourceReferenceException e) {
+            this.logger.warn("Failed to serialize the URL of the skin extension bundle [{}]. Root cause is [{}].",
+                bundle.getId(), ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+    }
+
+    /**
+     * @param styleSheet the code of a style sheet extension
+     * @return {@code true} if the style sheet can be concatenated to other style sheets, {@code false} if it contains
+     *         rules which are ignored when they don't come first (i.e. {@code @import} and {@code @charset})
+     */
+    public static boolean canBundleStyleSheet(String styleSheet)
+    {
+        return styleSheet == null || !LEADING_CSS_RULES.matcher(styleSheet).find();
+    }
+
+    static void appendKeyPart(StringBuilder key, Object part)
+    {
+        String value = Objects.toString(part, "");
+        // Prefix with the length to not have to escape the separator
+        key.append(value.length()).append(':').append(value);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.lesscss.internal.colortheme.CurrentColorThemeGetter;
+import org.xwiki.skinx.internal.SkinExtensionOutput;
+import org.xwiki.skinx.internal.SkinExtensionOutputCache;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.debug.DebugConfiguration;
+import com.xpn.xwiki.plugin.skinx.AbstractSkinExtensionPlugin;
+import com.xpn.xwiki.web.sx.Extension;
+import com.xpn.xwiki.web.sx.SxDocumentSource;
+import com.xpn.xwiki.web.sx.SxSource;
+
+/**
+ * Produce the content of the skin extension bundles, by concatenating the (minified) content of the bundled
+ * extensions. The result is kept in the {@link SkinExtensionOutputCache}.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = SkinExtensionBundleRenderer.class)
+@Singleton
+public class SkinExtensionBundleRenderer
+{
+    private static final String JS_SOURCE_START = "try {\n";
+
+    private static final String JS_SOURCE_END = "\n} catch (e) {\n  console.error(e);\n}";
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private SkinExtensionOutputCache outputCache;
+
+    @Inject
+    private SkinExtensionBundleManager bundleManager;
+
+    @Inject
+    private CurrentColorThemeGetter colorThemeGetter;
+
+    @Inject
+    private DebugConfiguration debugConfiguration;
+
+    /**
+     * Get the sources of the bundled extensions, for the current user.
+     *
+     * @param bundle the bundle
+     * @param plugin the skin extension plugin handling the bundled extensions
+     * @return the sources of the bundled extensions, in the order they are used, or {@code null} if one of the
+     *         extensions cannot be sent to the current user
+     * @throws IllegalArgumentException if one of the bundled extensions doesn't exist
+     */
+    public List<SxSource> getSources(SkinExtensionBundle bundle, AbstractSkinExtensionPlugin plugin)
+    {
+        return executeInBundleContext(bundle, xcontext -> {
+            // Check each extension since the bundle URL can be crafted and the current user is not necessarily the
+            // one who rendered the page.
+            List<SxSource> sources = new ArrayList<>(bundle.getResources().size());
+            for (String resource : bundle.getResources()) {
+                SxSource source = plugin.getBundledSource(resource, xcontext);
+                if (source == null) {
+                    return null;
+                }
+                sources.add(source);
+            }
+
+            return sources;
+        });
+    }
+
+    /**
+     * Produce the content of the bundle.
+     *
+     * @param bundle the bundle
+     * @param sources the sources of the bundled extensions, as returned by
+     *            {@link #getSources(SkinExtensionBundle, AbstractSkinExtensionPlugin)}
+     * @param extension the type of the bundled extensions
+     * @return the content of the bundle
+     */
+    public SkinExtensionOutput getOutput(SkinExtensionBundle bundle, List<SxSource> sources, Extension extension)
+    {
+        return executeInBundleContext(bundle, xcontext -> {
+            // Only cache the output of the bundle identified by the current versions of the extensions: the bundle
+            // URL can be crafted and the pages don't use anymore the bundles of the previous versions.
+            String currentId = this.bundleManager.getId(bundle.getType(), bundle.getWiki(), bundle.getLocale(),
+                bundle.getResources(), sources);
+            String cacheKey = currentId.equals(bundle.getId()) ? getCacheKey(bundle, xcontext) : null;
+            SkinExtensionOutput output = cacheKey != null ? this.outputCache.get(cacheKey) : null;
+            if (output == null) {
+                output = createOutput(bundle, sources, extension, xcontext);
+                if (cacheKey != null) {
+                    this.outputCache.set(cacheKey, output);
+                }
+            }
+
+            return output;
+        });
+    }
+
+    private <T> T executeInBundleContext(SkinExtensionBundle bundle, Function<XWikiContext, T> function)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        String currentWiki = xcontext.getWikiId();
+        Locale currentLocale = xcontext.getLocale();
+        xcontext.setWikiId(bundle.getWiki());
+        xcontext.setLocale(bundle.getLocale());
+        try {
+            return function.apply(xcontext);
+        } finally {
+            xcontext.setWikiId(currentWiki);
+            xcontext.setLocale(currentLocale);
+        }
+    }
+
+    private SkinExtensionOutput createOutput(SkinExtensionBundle bundle, List<SxSource> sources,
+        Extension extension, XWikiContext xcontext)
+    {
+        boolean javaScript = "js".equals(bundle.getFileExtension());
+        boolean minify = this.debugConfiguration.isMinify();
+
+        StringBuilder content = new StringBuilder();
+        for (SxSource source : sources) {
+            String sourceContent = getContent(source, xcontext);
+            if (minify) {
+                sourceContent = extension.getCompressor().compress(sourceContent);
+            }
+            if (content.length() > 0) {
+                content.append('\n');
+            }
+            if (javaScript) {
+                // Isolate the scripts as when they are loaded separately: an exception thrown by one of them must not
+                // prevent the next ones from running. A block (and not a function) keeps their declarations global.
+                content.append(JS_SOURCE_START).append(sourceContent).append(JS_SOURCE_END);
+            } else {
+                content.append(sourceContent);
+            }
+        }
+
+        return new SkinExtensionOutput(content.toString().getBytes(StandardCharsets.UTF_8), Collections.emptyMap());
+    }
+
+    private String getContent(SxSource source, XWikiContext xcontext)
+    {
+        if (source instanceof SxDocumentSource) {
+            // Evaluate the extension as the sx actions do: with its document as current (and secure) document.
+            XWikiDocument document = ((SxDocumentSource) source).getDocument();
+            Map<String, Object> backup = new HashMap<>();
+            XWikiDocument.backupContext(backup, xcontext);
+            try {
+                document.setAsContextDoc(xcontext);
+
+                return source.getContent();
+            } finally {
+                XWikiDocument.restoreContext(backup, xcontext);
+            }
+        }
+
+        return source.getContent();
+    }
+
+    private String getCacheKey(SkinExtensionBundle bundle, XWikiContext xcontext)
+    {
+        // The bundle identifier covers the extensions, the wiki and the language, but the skin and the color theme
+        // come from the preferences and the minification can be disabled in the request or the configuration.
+        StringBuilder key = new StringBuilder();
+        SkinExtensionBundleManager.appendKeyPart(key, SkinExtensionBundleResourceReference.HINT);
+        SkinExtensionBundleManager.appendKeyPart(key, bundle.getId());
+        SkinExtensionBundleManager.appendKeyPart(key, this.debugConfiguration.isMinify());
+        SkinExtensionBundleManager.appendKeyPart(key, xcontext.getWiki().getSkin(xcontext));
+        SkinExtensionBundleManager.appendKeyPart(key, this.colorThemeGetter.getCurrentColorTheme(""));
+
+        return key.toString();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.xwiki.resource.AbstractResourceReference;
+import org.xwiki.resource.ResourceType;
+
+/**
+ * Represents a reference to a bundle of skin extensions.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+public class SkinExtensionBundleResourceReference extends AbstractResourceReference
+{
+    /**
+     * The role hint of the components handling this type of resource.
+     */
+    public static final String HINT = "sxbundle";
+
+    /**
+     * Represents a skin extension bundle Resource Type.
+     */
+    public static final ResourceType TYPE = new ResourceType(HINT);
+
+    private final String wiki;
+
+    private final String pluginName;
+
+    private final String bundleId;
+
+    private final String fileExtension;
+
+    /**
+     * @param wiki see {@link #getWiki()}
+     * @param pluginName see {@link #getPluginName()}
+     * @param bundleId see {@link #getBundleId()}
+     * @param fileExtension see {@link #getFileExtension()}
+     */
+    public SkinExtensionBundleResourceReference(String wiki, String pluginName, String bundleId,
+        String fileExtension)
+    {
+        setType(TYPE);
+        this.wiki = wiki;
+        this.pluginName = pluginName;
+        this.bundleId = bundleId;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * @return the identifier of the wiki where the bundled extensions were used
+     */
+    public String getWiki()
+    {
+        return this.wiki;
+    }
+
+    /**
+     * @return the name of the skin extension plugin handling the bundled extensions
+     */
+    public String getPluginName()
+    {
+        return this.pluginName;
+    }
+
+    /**
+     * @return the identifier of the bundle
+     */
+    public String getBundleId()
+    {
+        return this.bundleId;
+    }
+
+    /**
+     * @return the extension of the bundle file name (e.g. {@code js} or {@code css})
+     */
+    public String getFileExtension()
+    {
+        return this.fileExtension;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return new HashCodeBuilder(5, 5)
+            .append(getType())
+            .append(getWiki())
+            .append(getPluginName())
+            .append(getBundleId())
+            .append(getFileExtension())
+            .append(getParameters())
+            .toHashCode();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object == null) {
+            return false;
+        }
+        if (object == this) {
+            return true;
+        }
+        if (object.getClass() != getClass()) {
+            return false;
+        }
+        SkinExtensionBundleResourceReference rhs = (SkinExtensionBundleResourceReference) object;
+        return new EqualsBuilder()
+            .append(getType(), rhs.getType())
+            .append(getWiki(), rhs.getWiki())
+            .append(getPluginName(), rhs.getPluginName())
+            .append(getBundleId(), rhs.getBundleId())
+            .append(getFileExtension(), rhs.getFileExtension())
+            .append(getParameters(), rhs.getParameters())
+            .isEquals();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.container.Container;
+import org.xwiki.container.servlet.ServletRequest;
+import org.xwiki.container.servlet.ServletResponse;
+import org.xwiki.resource.AbstractResourceReferenceHandler;
+import org.xwiki.resource.ResourceReference;
+import org.xwiki.resource.ResourceReferenceHandlerChain;
+import org.xwiki.resource.ResourceReferenceHandlerException;
+import org.xwiki.resource.ResourceType;
+import org.xwiki.resource.annotations.Authenticate;
+import org.xwiki.skinx.internal.SkinExtensionOutput;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.plugin.XWikiPluginInterface;
+import com.xpn.xwiki.plugin.skinx.AbstractSkinExtensionPlugin;
+import com.xpn.xwiki.web.sx.Extension;
+import com.xpn.xwiki.web.sx.SxSource;
+import com.xpn.xwiki.web.sx.SxSource.CachePolicy;
+
+/**
+ * Send the content of a skin extension bundle.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component
+@Named(SkinExtensionBundleResourceReference.HINT)
+@Singleton
+@Authenticate
+public class SkinExtensionBundleResourceReferenceHandler extends AbstractResourceReferenceHandler<ResourceType>
+{
+    /** How many milliseconds a bundle should be cached for if its cache policy is LONG (30 days). */
+    private static final long LONG_CACHE_DURATION = 30 * 24 * 3600 * 1000L;
+
+    /** How many milliseconds a bundle should be cached for if its cache policy is SHORT (1 day). */
+    private static final long SHORT_CACHE_DURATION = 1 * 24 * 3600 * 1000L;
+
+    private static final String CACHE_CONTROL_HEADER = "Cache-Control";
+
+    private static final String CACHE_EXPIRES_HEADER = "Expires";
+
+    @Inject
+    private SkinExtensionBundleManager bundleManager;
+
+    @Inject
+    private SkinExtensionBundleRenderer bundleRenderer;
+
+    @Inject
+    private Container container;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Override
+    public List<ResourceType> getSupportedResourceReferences()
+    {
+        return List.of(SkinExtensionBundleResourceReference.TYPE);
+    }
+
+    @Override
+    public void handle(ResourceReference resourceReference, ResourceReferenceHandlerChain chain)
+        throws ResourceReferenceHandlerException
+    {
+        SkinExtensionBundleResourceReference reference = (SkinExtensionBundleResourceReference) resourceReference;
+
+        HttpServletRequest request = ((ServletRequest) this.container.getRequest()).getHttpServletRequest();
+        HttpServletResponse response = ((ServletResponse) this.container.getResponse()).getHttpServletResponse();
+
+        SkinExtensionBundle bundle = this.bundleManager.get(reference);
+        AbstractSkinExtensionPlugin plugin = bundle != null ? getPlugin(bundle.getType()) : null;
+        if (plugin == null || plugin.getBundleExtensionType() == null
+            || !bundle.getFileExtension().equals(reference.getFileExtension())) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        } else {
+            sendBundle(bundle, plugin, request, response);
+        }
+
+        // Be a good citizen, continue the chain, in case some lower-priority Handler has something to do for this
+        // Resource Reference.
+        chain.handleNext(reference);
+    }
+
+    private void sendBundle(SkinExtensionBundle bundle, AbstractSkinExtensionPlugin plugin,
+        HttpServletRequest request, HttpServletResponse response) throws ResourceReferenceHandlerException
+    {
+        Extension extension = plugin.getBundleExtensionType();
+
+        List<SxSource> sources;
+        try {
+            sources = this.bundleRenderer.getSources(bundle, plugin);
+        } catch (IllegalArgumentException e) {
+            // One of the bundled resources doesn't exist (anymore).
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        if (sources == null) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        SkinExtensionOutput output = this.bundleRenderer.getOutput(bundle, sources, extension);
+
+        response.setContentType(extension.getContentType());
+        // Same cache headers as the sx actions sending the extensions separately.
+        CachePolicy cachePolicy = getCachePolicy(sources);
+        if (cachePolicy == CachePolicy.FORBID) {
+            response.setHeader(CACHE_CONTROL_HEADER, "no-cache, no-store, must-revalidate");
+        } else {
+            response.setHeader(CACHE_CONTROL_HEADER, "public");
+            if (cachePolicy == CachePolicy.LONG) {
+                response.setDateHeader(CACHE_EXPIRES_HEADER, System.currentTimeMillis() + LONG_CACHE_DURATION);
+            } else if (cachePolicy == CachePolicy.SHORT) {
+                response.setDateHeader(CACHE_EXPIRES_HEADER, System.currentTimeMillis() + SHORT_CACHE_DURATION);
+            }
+        }
+
+        try {
+            output.send(request, response);
+        } catch (IOException e) {
+            throw new ResourceReferenceHandlerException(
+                String.format("Failed to send the skin extension bundle [%s]", bundle.getId()), e);
+        }
+    }
+
+    private CachePolicy getCachePolicy(List<SxSource> sources)
+    {
+        // The most restrictive cache policy of the bundled extensions
+        CachePolicy cachePolicy = CachePolicy.LONG;
+        for (SxSource source : sources) {
+            if (source.getCachePolicy().compareTo(cachePolicy) > 0) {
+                cachePolicy = source.getCachePolicy();
+            }
+        }
+
+        return cachePolicy;
+    }
+
+    private AbstractSkinExtensionPlugin getPlugin(String name)
+    {
+        for (XWikiPluginInterface plugin : this.xcontextProvider.get().getWiki().getPluginManager()
+            .getPlugins("endParsing")) {
+            if (plugin instanceof AbstractSkinExtensionPlugin && plugin.getName().equals(name)) {
+                return (AbstractSkinExtensionPlugin) plugin;
+            }
+        }
+
+        return null;
+    }
+}
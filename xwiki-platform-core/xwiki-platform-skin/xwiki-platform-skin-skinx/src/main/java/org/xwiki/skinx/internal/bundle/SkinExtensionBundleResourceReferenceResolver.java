@@ -0,0 +1,68 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.resource.CreateResourceReferenceException;
+import org.xwiki.resource.ResourceType;
+import org.xwiki.resource.UnsupportedResourceReferenceException;
+import org.xwiki.url.ExtendedURL;
+import org.xwiki.url.internal.AbstractResourceReferenceResolver;
+
+/**
+ * Transform skin extension bundle URL into a typed Resource Reference. The URL format handled is
+ * {@code http://server/context/sxbundle/<wiki>/<plugin>/<bundleId>.<js|css>?language=<locale>&resource=<name>
+ * [&resource=<name>...][&minify=false]}.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component
+@Named(SkinExtensionBundleResourceReference.HINT)
+@Singleton
+public class SkinExtensionBundleResourceReferenceResolver extends AbstractResourceReferenceResolver
+{
+    @Override
+    public SkinExtensionBundleResourceReference resolve(ExtendedURL extendedURL, ResourceType resourceType,
+        Map<String, Object> parameters) throws CreateResourceReferenceException, UnsupportedResourceReferenceException
+    {
+        List<String> segments = extendedURL.getSegments();
+
+        if (segments.size() != 3 || segments.get(2).indexOf('.') <= 0) {
+            throw new CreateResourceReferenceException(
+                String.format("Invalid skin extension bundle URL format [%s]", extendedURL.toString()));
+        }
+
+        String fileName = segments.get(2);
+        SkinExtensionBundleResourceReference reference = new SkinExtensionBundleResourceReference(segments.get(0),
+            segments.get(1), StringUtils.substringBeforeLast(fileName, "."),
+            StringUtils.substringAfterLast(fileName, "."));
+        copyParameters(extendedURL, reference);
+
+        return reference;
+    }
+}
@@ -25,6 +25,8 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -47,7 +49,10 @@
 import org.xwiki.security.authorization.AuthorizationManager;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
+import org.xwiki.skinx.SkinExtensionConfiguration;
 import org.xwiki.skinx.internal.async.SkinExtensionAsync;
+import org.xwiki.skinx.internal.bundle.SkinExtensionBundle;
+import org.xwiki.skinx.internal.bundle.SkinExtensionBundleManager;
 import org.xwiki.test.LogLevel;
 import org.xwiki.test.junit5.LogCaptureExtension;
 import org.xwiki.test.junit5.mockito.MockComponent;
@@ -67,7 +72,11 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -124,6 +133,12 @@
     @MockComponent
     private SkinExtensionAsync skinExtensionAsync;
 
+    @MockComponent
+    private SkinExtensionConfiguration skinExtensionConfiguration;
+
+    @MockComponent
+    private SkinExtensionBundleManager bundleManager;
+
     @RegisterExtension
     private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
 
@@ -239,6 +254,59 @@ void endParsingAlwaysUsedExtensions() throws XWikiException, MalformedURLExcepti
         assertEquals(expectedContent, obtainedContent);
     }
 
+    @Test
+    void getLinksWithBundle() throws XWikiException
+    {
+        when(this.skinExtensionConfiguration.isBundlingEnabled()).thenReturn(true);
+
+        SpaceReference spaceReference = new SpaceReference("Space", new WikiReference("xwiki"));
+        DocumentReference referenceExt1 = new DocumentReference("Extension1", spaceReference);
+        DocumentReference referenceExt2 = new DocumentReference("Extension2", spaceReference);
+        DocumentReference referenceExt3 = new DocumentReference("Extension3", spaceReference);
+        when(this.currentDocumentReferenceResolver.resolve("extension1")).thenReturn(referenceExt1);
+        when(this.currentDocumentReferenceResolver.resolve("extension2")).thenReturn(referenceExt2);
+        when(this.currentDocumentReferenceResolver.resolve("extension3")).thenReturn(referenceExt3);
+        when(this.contextualAuthorizationManager.hasAccess(Right.VIEW, referenceExt1)).thenReturn(true);
+        when(this.contextualAuthorizationManager.hasAccess(Right.VIEW, referenceExt2)).thenReturn(true);
+
+        XWiki wiki = this.context.getWiki();
+        when(wiki.getDocument(referenceExt1, this.context)).thenReturn(mock(XWikiDocument.class));
+        when(wiki.getDocument(referenceExt2, this.context)).thenReturn(mock(XWikiDocument.class));
+
+        SkinExtensionBundle bundle = mock(SkinExtensionBundle.class);
+        when(this.bundleManager.create(eq(CssSkinExtensionPlugin.PLUGIN_NAME),
+            eq(List.of("extension1", "extension2")), any())).thenReturn(bundle);
+        when(this.bundleManager.getURL(bundle)).thenReturn("/xwiki/sxbundle/xwiki/ssx/bundle.css");
+
+        Map<String, Map<String, Object>> extensions = new LinkedHashMap<>();
+        extensions.put("extension1", null);
+        extensions.put("extension2", Collections.singletonMap("defer", true));
+        // Not viewable by the current user.
+        extensions.put("extension3", null);
+
+        assertEquals("<link rel=\"stylesheet\" type=\"text/css\" href=\"/xwiki/sxbundle/xwiki/ssx/bundle.css\" />\n",
+            this.skinExtensionPlugin.getLinks(extensions, this.context));
+    }
+
+    @Test
+    void getBundledSourceWithImportRule() throws XWikiException
+    {
+        DocumentReference documentReference = new DocumentReference("xwiki", "Space", "Extension");
+        when(this.currentDocumentReferenceResolver.resolve("extension")).thenReturn(documentReference);
+        when(this.contextualAuthorizationManager.hasAccess(Right.VIEW, documentReference)).thenReturn(true);
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(this.context.getWiki().getDocument(documentReference, this.context)).thenReturn(document);
+        BaseObject object = mock(BaseObject.class);
+        when(document.getObjects(CssSkinExtensionPlugin.SSX_CLASS_NAME)).thenReturn(new Vector<>(List.of(object)));
+
+        when(object.getLargeStringValue("code")).thenReturn(".a { color: red; }");
+        assertNotNull(this.skinExtensionPlugin.getBundledSource("extension", this.context));
+
+        // The @import rules must stay at the start of the style sheet.
+        when(object.getLargeStringValue("code")).thenReturn("@import url('other.css');\n.a { color: red; }");
+        assertNull(this.skinExtensionPlugin.getBundledSource("extension", this.context));
+    }
+
     @Test
     void use() throws XWikiException
     {
@@ -0,0 +1,199 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.web;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.xwiki.lesscss.internal.colortheme.CurrentColorThemeGetter;
+import org.xwiki.skinx.internal.SkinExtensionOutput;
+import org.xwiki.skinx.internal.SkinExtensionOutputCache;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.debug.DebugConfiguration;
+import com.xpn.xwiki.web.sx.SxSource;
+import com.xpn.xwiki.web.sx.SxSource.CachePolicy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SsxAction}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SsxActionTest
+{
+    private static final String CSS = ".box {\n  color: red;\n}\n".repeat(20);
+
+    private static final String ETAG = "ETag";
+
+    @MockComponent
+    private DebugConfiguration debugConfiguration;
+
+    @MockComponent
+    private SkinExtensionOutputCache outputCache;
+
+    @MockComponent
+    private CurrentColorThemeGetter colorThemeGetter;
+
+    @Mock
+    private XWikiContext context;
+
+    @Mock
+    private XWikiRequest request;
+
+    @Mock
+    private XWikiResponse response;
+
+    @Mock
+    private ServletOutputStream responseOutputStream;
+
+    @Mock
+    private XWiki xwiki;
+
+    @Mock
+    private SxSource source;
+
+    private final Map<String, SkinExtensionOutput> cache = new HashMap<>();
+
+    private final SsxAction action = new SsxAction();
+
+    @BeforeEach
+    void beforeEach(MockitoComponentManager componentManager) throws Exception
+    {
+        Utils.setComponentManager(componentManager);
+
+        when(this.outputCache.get(anyString())).then(invocation -> this.cache.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cache.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(this.outputCache).set(anyString(), any());
+
+        when(this.context.getRequest()).thenReturn(this.request);
+        when(this.context.getResponse()).thenReturn(this.response);
+        when(this.context.getWiki()).thenReturn(this.xwiki);
+        when(this.context.getURL()).thenReturn(new URL("http://localhost:8080/xwiki/bin/ssx/Space/Page?language=en"));
+        when(this.context.getLocale()).thenReturn(Locale.ENGLISH);
+        when(this.xwiki.getSkin(this.context)).thenReturn("XWiki.DefaultSkin");
+        when(this.colorThemeGetter.getCurrentColorTheme("")).thenReturn("xwiki:FlamingoThemes.Charcoal");
+        when(this.response.getOutputStream()).thenReturn(this.responseOutputStream);
+
+        when(this.source.getCachePolicy()).thenReturn(CachePolicy.LONG);
+        when(this.source.getVersion()).thenReturn("xwiki:Space.Page/1.1/123");
+        when(this.source.getContent()).thenReturn(CSS);
+    }
+
+    @Test
+    void renderExtensionFromCache() throws Exception
+    {
+        this.action.renderExtension(this.source, SsxAction.CSSX, this.context);
+        this.action.renderExtension(this.source, SsxAction.CSSX, this.context);
+
+        // The content is generated only once.
+        verify(this.source).getContent();
+        verify(this.responseOutputStream, times(2)).write(CSS.getBytes(StandardCharsets.UTF_8));
+        verify(this.response, times(2)).setHeader("Cache-Control", "public");
+        verify(this.response, times(2)).setHeader(eq(ETAG), anyString());
+
+        // A new version of the extension is generated again.
+        when(this.source.getVersion()).thenReturn("xwiki:Space.Page/1.2/456");
+        this.action.renderExtension(this.source, SsxAction.CSSX, this.context);
+
+        verify(this.source, times(2)).getContent();
+        assertEquals(2, this.cache.size());
+    }
+
+    @Test
+    void renderExtensionNotModified() throws Exception
+    {
+        this.action.renderExtension(this.source, SsxAction.CSSX, this.context);
+
+        ArgumentCaptor<String> etagCaptor = ArgumentCaptor.forClass(String.class);
+        verify(this.response).setHeader(eq(ETAG), etagCaptor.capture());
+
+        when(this.request.getHeader("If-None-Match")).thenReturn("\"other\", " + etagCaptor.getValue());
+        this.action.renderExtension(this.source, SsxAction.CSSX, this.context);
+
+        verify(this.response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(this.source).getContent();
+        verify(this.responseOutputStream).write(any(byte[].class));
+    }
+
+    @Test
+    void renderExtensionCompressed() throws Exception
+    {
+        when(this.request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate, br");
+
+        this.action.renderExtension(this.source, SsxAction.CSSX, this.context);
+
+        verify(this.response).setHeader("Content-Encoding", "gzip");
+        verify(this.response).setHeader("Vary", "Accept-Encoding");
+
+        ArgumentCaptor<String> etagCaptor = ArgumentCaptor.forClass(String.class);
+        verify(this.response).setHeader(eq(ETAG), etagCaptor.capture());
+        assertNotEquals(this.cache.values().iterator().next().getETag(), etagCaptor.getValue());
+
+        ArgumentCaptor<byte[]> contentCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(this.responseOutputStream).write(contentCaptor.capture());
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(contentCaptor.getValue()))) {
+            assertEquals(CSS, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        verify(this.response).setContentLength(contentCaptor.getValue().length);
+    }
+
+    @Test
+    void renderExtensionWithoutCache() throws Exception
+    {
+        when(this.source.getCachePolicy()).thenReturn(CachePolicy.FORBID);
+
+        this.action.renderExtension(this.source, SsxAction.CSSX, this.context);
+        this.action.renderExtension(this.source, SsxAction.CSSX, this.context);
+
+        verify(this.source, times(2)).getContent();
+        verify(this.responseOutputStream, times(2)).write(CSS.getBytes(StandardCharsets.UTF_8));
+        verify(this.response, never()).setHeader(eq(ETAG), anyString());
+        verifyNoInteractions(this.outputCache);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.xwiki.resource.ResourceReference;
+import org.xwiki.resource.ResourceReferenceSerializer;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.url.ExtendedURL;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.XWikiRequest;
+import com.xpn.xwiki.web.sx.SxSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link SkinExtensionBundleManager}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SkinExtensionBundleManagerTest
+{
+    private static final List<String> RESOURCES = List.of("Space.Extension1", "Space.Extension2");
+
+    @InjectMockComponents
+    private SkinExtensionBundleManager bundleManager;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    private ResourceReferenceSerializer<ResourceReference, ExtendedURL> resourceReferenceSerializer;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    @Mock
+    private XWikiRequest request;
+
+    @Mock
+    private SxSource source1;
+
+    @Mock
+    private SxSource source2;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWikiId()).thenReturn("wiki");
+        when(this.xcontext.getLocale()).thenReturn(Locale.FRENCH);
+        when(this.xcontext.getRequest()).thenReturn(this.request);
+
+        when(this.source1.getVersion()).thenReturn("wiki:Space.Extension1/1.1/123");
+        when(this.source2.getVersion()).thenReturn("wiki:Space.Extension2/2.1/456");
+    }
+
+    private SkinExtensionBundle create()
+    {
+        return this.bundleManager.create("ssx", RESOURCES, List.of(this.source1, this.source2));
+    }
+
+    @Test
+    void create()
+    {
+        SkinExtensionBundle bundle = create();
+
+        assertEquals("ssx", bundle.getType());
+        assertEquals("wiki", bundle.getWiki());
+        assertEquals(Locale.FRENCH, bundle.getLocale());
+        assertEquals(RESOURCES, bundle.getResources());
+        assertEquals("css", bundle.getFileExtension());
+
+        // Same extensions, same identifier.
+        assertEquals(bundle.getId(), create().getId());
+
+        // The identifier changes with the version of an extension.
+        when(this.source2.getVersion()).thenReturn("wiki:Space.Extension2/2.2/789");
+        assertNotEquals(bundle.getId(), create().getId());
+    }
+
+    @Test
+    void getURL() throws Exception
+    {
+        when(this.request.getParameter("minify")).thenReturn("false");
+        ExtendedURL extendedURL = mock(ExtendedURL.class);
+        when(extendedURL.serialize()).thenReturn("/xwiki/sxbundle/wiki/ssx/bundle.css");
+        when(this.resourceReferenceSerializer.serialize(any())).thenReturn(extendedURL);
+
+        SkinExtensionBundle bundle = create();
+
+        assertEquals("/xwiki/sxbundle/wiki/ssx/bundle.css", this.bundleManager.getURL(bundle));
+
+        ArgumentCaptor<SkinExtensionBundleResourceReference> referenceCaptor =
+            ArgumentCaptor.forClass(SkinExtensionBundleResourceReference.class);
+        verify(this.resourceReferenceSerializer).serialize(referenceCaptor.capture());
+        SkinExtensionBundleResourceReference reference = referenceCaptor.getValue();
+        assertEquals("wiki", reference.getWiki());
+        assertEquals("ssx", reference.getPluginName());
+        assertEquals(bundle.getId(), reference.getBundleId());
+        assertEquals("css", reference.getFileExtension());
+        assertEquals(RESOURCES, reference.getParameterValues("resource"));
+        assertEquals("fr", reference.getParameterValue("language"));
+        assertEquals("false", reference.getParameterValue("minify"));
+
+        // The bundle can be rebuilt from its URL, by any instance.
+        SkinExtensionBundle resolvedBundle = this.bundleManager.get(reference);
+        assertEquals(bundle.getId(), resolvedBundle.getId());
+        assertEquals(bundle.getType(), resolvedBundle.getType());
+        assertEquals(bundle.getWiki(), resolvedBundle.getWiki());
+        assertEquals(bundle.getLocale(), resolvedBundle.getLocale());
+        assertEquals(bundle.getResources(), resolvedBundle.getResources());
+    }
+
+    @Test
+    void getWithoutLanguage()
+    {
+        SkinExtensionBundleResourceReference reference =
+            new SkinExtensionBundleResourceReference("wiki", "jsx", "bundle", "js");
+        reference.addParameter("resource", "Space.Extension1");
+
+        SkinExtensionBundle bundle = this.bundleManager.get(reference);
+
+        assertEquals("bundle", bundle.getId());
+        assertNull(bundle.getLocale());
+        assertEquals(List.of("Space.Extension1"), bundle.getResources());
+        assertEquals("js", bundle.getFileExtension());
+    }
+
+    @Test
+    void getInvalid()
+    {
+        SkinExtensionBundleResourceReference reference =
+            new SkinExtensionBundleResourceReference("wiki", "jsx", "bundle", "js");
+
+        // No extension
+        assertNull(this.bundleManager.get(reference));
+
+        // Invalid language
+        reference.addParameter("resource", "Space.Extension1");
+        reference.addParameter("language", "not a locale");
+        assertNull(this.bundleManager.get(reference));
+    }
+
+    @Test
+    void canBundleStyleSheet()
+    {
+        assertTrue(SkinExtensionBundleManager.canBundleStyleSheet(null));
+        assertTrue(SkinExtensionBundleManager.canBundleStyleSheet(".important { color: red; }"));
+        assertFalse(SkinExtensionBundleManager.canBundleStyleSheet("@import url(\"other.css\");\n.a { color: red; }"));
+        assertFalse(SkinExtensionBundleManager.canBundleStyleSheet("@CHARSET \"UTF-8\";"));
+    }
+}
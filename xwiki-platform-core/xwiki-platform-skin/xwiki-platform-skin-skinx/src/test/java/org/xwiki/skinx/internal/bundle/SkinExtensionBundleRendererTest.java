@@ -0,0 +1,222 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.xwiki.lesscss.internal.colortheme.CurrentColorThemeGetter;
+import org.xwiki.skinx.internal.SkinExtensionOutput;
+import org.xwiki.skinx.internal.SkinExtensionOutputCache;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.debug.DebugConfiguration;
+import com.xpn.xwiki.plugin.skinx.AbstractSkinExtensionPlugin;
+import com.xpn.xwiki.web.sx.Extension;
+import com.xpn.xwiki.web.sx.SxSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link SkinExtensionBundleRenderer}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SkinExtensionBundleRendererTest
+{
+    private static final List<String> RESOURCES = List.of("Space.Extension1", "Space.Extension2");
+
+    private static final SkinExtensionBundle BUNDLE =
+        new SkinExtensionBundle("bundle", "jsx", "subwiki", Locale.FRENCH, RESOURCES);
+
+    private static final String JS_OUTPUT = "try {\nvar a = 1\n} catch (e) {\n  console.error(e);\n}\n"
+        + "try {\nvar b = 2\n} catch (e) {\n  console.error(e);\n}";
+
+    @InjectMockComponents
+    private SkinExtensionBundleRenderer bundleRenderer;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    private SkinExtensionOutputCache outputCache;
+
+    @MockComponent
+    private SkinExtensionBundleManager bundleManager;
+
+    @MockComponent
+    private CurrentColorThemeGetter colorThemeGetter;
+
+    @MockComponent
+    private DebugConfiguration debugConfiguration;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    @Mock
+    private XWiki xwiki;
+
+    @Mock
+    private AbstractSkinExtensionPlugin plugin;
+
+    @Mock
+    private Extension extension;
+
+    @Mock
+    private SxSource source1;
+
+    @Mock
+    private SxSource source2;
+
+    private final Map<String, SkinExtensionOutput> cache = new HashMap<>();
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWikiId()).thenReturn("xwiki");
+        when(this.xcontext.getLocale()).thenReturn(Locale.ENGLISH);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.xwiki.getSkin(this.xcontext)).thenReturn("XWiki.DefaultSkin");
+        when(this.colorThemeGetter.getCurrentColorTheme("")).thenReturn("theme");
+
+        when(this.outputCache.get(anyString())).then(invocation -> this.cache.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cache.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(this.outputCache).set(anyString(), any());
+
+        when(this.source1.getContent()).thenReturn("var a = 1");
+        when(this.source2.getContent()).thenReturn("var b = 2");
+        when(this.bundleManager.getId("jsx", "subwiki", Locale.FRENCH, RESOURCES,
+            List.of(this.source1, this.source2))).thenReturn("bundle");
+    }
+
+    @Test
+    void getSources()
+    {
+        when(this.plugin.getBundledSource("Space.Extension1", this.xcontext)).thenReturn(this.source1);
+        when(this.plugin.getBundledSource("Space.Extension2", this.xcontext)).thenReturn(this.source2);
+
+        assertEquals(List.of(this.source1, this.source2), this.bundleRenderer.getSources(BUNDLE, this.plugin));
+
+        // The extensions are loaded from the wiki and in the locale of the bundle.
+        InOrder inOrder = inOrder(this.xcontext, this.plugin);
+        inOrder.verify(this.xcontext).setWikiId("subwiki");
+        inOrder.verify(this.xcontext).setLocale(Locale.FRENCH);
+        inOrder.verify(this.plugin).getBundledSource("Space.Extension1", this.xcontext);
+        inOrder.verify(this.xcontext).setWikiId("xwiki");
+        inOrder.verify(this.xcontext).setLocale(Locale.ENGLISH);
+    }
+
+    @Test
+    void getSourcesWhenRightsChanged()
+    {
+        when(this.plugin.getBundledSource("Space.Extension1", this.xcontext)).thenReturn(this.source1);
+
+        assertNull(this.bundleRenderer.getSources(BUNDLE, this.plugin));
+
+        verify(this.xcontext).setWikiId("xwiki");
+        verify(this.xcontext).setLocale(Locale.ENGLISH);
+    }
+
+    @Test
+    void getSourcesWhenExtensionDeleted()
+    {
+        when(this.plugin.getBundledSource("Space.Extension1", this.xcontext))
+            .thenThrow(new IllegalArgumentException());
+
+        assertThrows(IllegalArgumentException.class, () -> this.bundleRenderer.getSources(BUNDLE, this.plugin));
+
+        verify(this.xcontext).setWikiId("xwiki");
+        verify(this.xcontext).setLocale(Locale.ENGLISH);
+    }
+
+    @Test
+    void getOutput()
+    {
+        SkinExtensionOutput output =
+            this.bundleRenderer.getOutput(BUNDLE, List.of(this.source1, this.source2), this.extension);
+
+        assertEquals(JS_OUTPUT, new String(output.getContent(), StandardCharsets.UTF_8));
+
+        // The output is cached for the skin, the color theme and the minification.
+        assertSame(output, this.cache.get("8:sxbundle6:bundle5:false17:XWiki.DefaultSkin5:theme"));
+        assertSame(output,
+            this.bundleRenderer.getOutput(BUNDLE, List.of(this.source1, this.source2), this.extension));
+        verify(this.source1).getContent();
+
+        // Another color theme gets another output.
+        when(this.colorThemeGetter.getCurrentColorTheme("")).thenReturn("otherTheme");
+        this.bundleRenderer.getOutput(BUNDLE, List.of(this.source1, this.source2), this.extension);
+        assertEquals(2, this.cache.size());
+    }
+
+    @Test
+    void getOutputWithOtherVersions()
+    {
+        // The requested bundle doesn't match the current versions of the extensions (e.g. crafted or outdated URL).
+        when(this.bundleManager.getId("jsx", "subwiki", Locale.FRENCH, RESOURCES,
+            List.of(this.source1, this.source2))).thenReturn("otherBundle");
+
+        SkinExtensionOutput output =
+            this.bundleRenderer.getOutput(BUNDLE, List.of(this.source1, this.source2), this.extension);
+
+        assertEquals(JS_OUTPUT, new String(output.getContent(), StandardCharsets.UTF_8));
+        verify(this.outputCache, never()).set(anyString(), any());
+    }
+
+    @Test
+    void getOutputWithStyleSheets()
+    {
+        SkinExtensionBundle bundle = new SkinExtensionBundle("cssBundle", "ssx", "subwiki", Locale.FRENCH, RESOURCES);
+        when(this.source1.getContent()).thenReturn(".a { color: red; }");
+        when(this.source2.getContent()).thenReturn(".b { color: blue; }");
+
+        SkinExtensionOutput output =
+            this.bundleRenderer.getOutput(bundle, List.of(this.source1, this.source2), this.extension);
+
+        // The style sheets are simply concatenated.
+        assertEquals(".a { color: red; }\n.b { color: blue; }",
+            new String(output.getContent(), StandardCharsets.UTF_8));
+    }
+}
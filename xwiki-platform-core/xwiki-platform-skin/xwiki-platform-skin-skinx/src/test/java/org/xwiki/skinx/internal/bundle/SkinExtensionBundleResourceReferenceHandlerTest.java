@@ -0,0 +1,232 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal.bundle;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Vector;
+
+import javax.inject.Provider;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.container.Container;
+import org.xwiki.container.servlet.ServletRequest;
+import org.xwiki.container.servlet.ServletResponse;
+import org.xwiki.resource.ResourceReferenceHandlerChain;
+import org.xwiki.skinx.internal.SkinExtensionOutput;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.plugin.XWikiPluginInterface;
+import com.xpn.xwiki.plugin.XWikiPluginManager;
+import com.xpn.xwiki.plugin.skinx.AbstractSkinExtensionPlugin;
+import com.xpn.xwiki.web.sx.Extension;
+import com.xpn.xwiki.web.sx.SxSource;
+import com.xpn.xwiki.web.sx.SxSource.CachePolicy;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link SkinExtensionBundleResourceReferenceHandler}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SkinExtensionBundleResourceReferenceHandlerTest
+{
+    private static final SkinExtensionBundleResourceReference REFERENCE =
+        new SkinExtensionBundleResourceReference("xwiki", "jsx", "bundle", "js");
+
+    private static final SkinExtensionBundle BUNDLE =
+        new SkinExtensionBundle("bundle", "jsx", "xwiki", Locale.ENGLISH, List.of("Space.Extension1"));
+
+    @InjectMockComponents
+    private SkinExtensionBundleResourceReferenceHandler handler;
+
+    @MockComponent
+    private SkinExtensionBundleManager bundleManager;
+
+    @MockComponent
+    private SkinExtensionBundleRenderer bundleRenderer;
+
+    @MockComponent
+    private Container container;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private ResourceReferenceHandlerChain chain;
+
+    @Mock
+    private AbstractSkinExtensionPlugin plugin;
+
+    @Mock
+    private Extension extension;
+
+    @Mock
+    private SxSource source;
+
+    @Mock
+    private SkinExtensionOutput output;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.container.getRequest()).thenReturn(new ServletRequest(this.request));
+        when(this.container.getResponse()).thenReturn(new ServletResponse(this.response));
+
+        XWikiContext xcontext = mock(XWikiContext.class);
+        when(this.xcontextProvider.get()).thenReturn(xcontext);
+        XWiki xwiki = mock(XWiki.class);
+        when(xcontext.getWiki()).thenReturn(xwiki);
+        XWikiPluginManager pluginManager = mock(XWikiPluginManager.class);
+        when(xwiki.getPluginManager()).thenReturn(pluginManager);
+        when(pluginManager.getPlugins("endParsing")).thenReturn(new Vector<XWikiPluginInterface>(List.of(this.plugin)));
+        when(this.plugin.getName()).thenReturn("jsx");
+        when(this.plugin.getBundleExtensionType()).thenReturn(this.extension);
+        when(this.extension.getContentType()).thenReturn("text/javascript");
+
+        when(this.bundleManager.get(REFERENCE)).thenReturn(BUNDLE);
+        when(this.bundleRenderer.getSources(BUNDLE, this.plugin)).thenReturn(List.of(this.source));
+        when(this.bundleRenderer.getOutput(BUNDLE, List.of(this.source), this.extension)).thenReturn(this.output);
+        when(this.source.getCachePolicy()).thenReturn(CachePolicy.LONG);
+    }
+
+    @Test
+    void handle() throws Exception
+    {
+        this.handler.handle(REFERENCE, this.chain);
+
+        verify(this.response).setContentType("text/javascript");
+        verify(this.response).setHeader("Cache-Control", "public");
+        verify(this.response).setDateHeader(eq("Expires"), anyLong());
+        verify(this.output).send(this.request, this.response);
+        verify(this.chain).handleNext(REFERENCE);
+    }
+
+    @Test
+    void handleWithDefaultCachePolicy() throws Exception
+    {
+        when(this.source.getCachePolicy()).thenReturn(CachePolicy.DEFAULT);
+
+        this.handler.handle(REFERENCE, this.chain);
+
+        verify(this.response, never()).setDateHeader(any(), anyLong());
+        verify(this.output).send(this.request, this.response);
+    }
+
+    @Test
+    void handleWithForbiddenCachePolicy() throws Exception
+    {
+        when(this.source.getCachePolicy()).thenReturn(CachePolicy.FORBID);
+
+        this.handler.handle(REFERENCE, this.chain);
+
+        verify(this.response).setHeader("Cache-Control", "no-cache, no-store, must-revalidate");
+        verify(this.response, never()).setHeader("Cache-Control", "public");
+        verify(this.response, never()).setDateHeader(any(), anyLong());
+        verify(this.output).send(this.request, this.response);
+    }
+
+    @Test
+    void handleUnknownBundle() throws Exception
+    {
+        SkinExtensionBundleResourceReference reference =
+            new SkinExtensionBundleResourceReference("xwiki", "jsx", "unknown", "js");
+
+        this.handler.handle(reference, this.chain);
+
+        verify(this.response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        verifyNoInteractions(this.bundleRenderer);
+        verify(this.chain).handleNext(reference);
+    }
+
+    @Test
+    void handleUnknownPlugin() throws Exception
+    {
+        SkinExtensionBundleResourceReference reference =
+            new SkinExtensionBundleResourceReference("xwiki", "unknown", "bundle", "js");
+        when(this.bundleManager.get(reference))
+            .thenReturn(new SkinExtensionBundle("bundle", "unknown", "xwiki", null, List.of("Space.Extension1")));
+
+        this.handler.handle(reference, this.chain);
+
+        verify(this.response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        verifyNoInteractions(this.bundleRenderer);
+    }
+
+    @Test
+    void handleWrongFileExtension() throws Exception
+    {
+        SkinExtensionBundleResourceReference reference =
+            new SkinExtensionBundleResourceReference("xwiki", "jsx", "bundle", "css");
+        when(this.bundleManager.get(reference)).thenReturn(BUNDLE);
+
+        this.handler.handle(reference, this.chain);
+
+        verify(this.response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        verifyNoInteractions(this.bundleRenderer);
+    }
+
+    @Test
+    void handleDeletedExtension() throws Exception
+    {
+        when(this.bundleRenderer.getSources(BUNDLE, this.plugin)).thenThrow(new IllegalArgumentException());
+
+        this.handler.handle(REFERENCE, this.chain);
+
+        verify(this.response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        verify(this.bundleRenderer, never()).getOutput(any(), any(), any());
+    }
+
+    @Test
+    void handleWhenRightsChanged() throws Exception
+    {
+        // One of the extensions cannot be viewed anymore by the current user.
+        when(this.bundleRenderer.getSources(BUNDLE, this.plugin)).thenReturn(null);
+
+        this.handler.handle(REFERENCE, this.chain);
+
+        verify(this.response).setStatus(HttpServletResponse.SC_FORBIDDEN);
+        verify(this.bundleRenderer, never()).getOutput(any(), any(), any());
+        verify(this.chain).handleNext(REFERENCE);
+    }
+}
@@ -29,6 +29,7 @@
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.model.internal.reference.EntityReferenceFactory;
@@ -46,6 +47,7 @@
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.user.api.XWikiGroupService;
+import com.xpn.xwiki.user.impl.xwiki.XWikiGroupServiceImpl;
 
 /**
  * Fast access to group membership.
@@ -63,6 +65,9 @@ public class DefaultGroupManager implements GroupManager
     @Inject
     private MembersCache membersCache;
 
+    @Inject
+    private GroupMembershipIndex membershipIndex;
+
     @Inject
     private WikiDescriptorManager wikis;
 
@@ -265,8 +270,20 @@ private Collection<DocumentReference> getGroups(DocumentReference reference, Obj
 
         Set<DocumentReference> groups = new LinkedHashSet<>();
 
+        // The index reproduces the behavior of the default group service only
+        boolean useIndex = groupService.getClass() == XWikiGroupServiceImpl.class;
+
         WikiReference currrentWiki = xcontext.getWikiReference();
         for (String wiki : searchWikis) {
+            if (useIndex) {
+                Collection<DocumentReference> wikiGroups = getIndexedGroups(reference, wiki);
+                if (wikiGroups != null) {
+                    groups.addAll(wikiGroups);
+
+                    continue;
+                }
+            }
+
             try {
                 xcontext.setWikiId(wiki);
 
@@ -284,6 +301,18 @@ private Collection<DocumentReference> getGroups(DocumentReference reference, Obj
         return groups;
     }
 
+    private Collection<DocumentReference> getIndexedGroups(DocumentReference reference, String wiki)
+    {
+        try {
+            return this.membershipIndex.getGroups(reference, wiki);
+        } catch (GroupException e) {
+            this.logger.warn("Failed to get the groups of member [{}] in wiki [{}] from the index: {}", reference,
+                wiki, ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+    }
+
     private Collection<DocumentReference> get(GroupCacheEntry entry, boolean recurse)
     {
         Collection<DocumentReference> references;
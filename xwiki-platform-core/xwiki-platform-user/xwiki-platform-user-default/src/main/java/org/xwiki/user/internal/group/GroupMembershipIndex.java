@@ -0,0 +1,326 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.user.internal.group;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.internal.reference.EntityReferenceFactory;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.user.group.GroupException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.mandatory.XWikiGroupsDocumentInitializer;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.store.DatabaseProduct;
+import com.xpn.xwiki.user.api.XWikiRightService;
+
+/**
+ * Index of the direct group memberships of each wiki, to not query the database each time the groups of a member are
+ * resolved.
+ * <p>
+ * The memberships of a wiki are loaded with a single query the first time they are needed and then kept up to date
+ * from the modifications of the group documents. The member names are matched the same way as the default
+ * implementation of {@code XWikiGroupService#getAllGroupsReferencesForMember()}, including the case insensitivity of
+ * the database collation when there is one.
+ *
+ * @version $Id$
+ * @since 16.3.0RC1
+ */
+@Component(roles = GroupMembershipIndex.class)
+@Singleton
+public class GroupMembershipIndex
+{
+    private static final String MEMBERS_STATEMENT = "select distinct doc.fullName, prop.value"
+        + " from XWikiDocument as doc, BaseObject as obj, StringProperty as prop where obj.name = doc.fullName"
+        + " and obj.className = 'XWiki.XWikiGroups' and obj.id = prop.id.id and prop.id.name = 'member'";
+
+    /**
+     * The tables of a MySQL wiki are created with the default collation of its database.
+     */
+    private static final String MYSQL_COLLATION_STATEMENT =
+        "select DEFAULT_COLLATION_NAME from INFORMATION_SCHEMA.SCHEMATA where SCHEMA_NAME = :schema";
+
+    private static final String MYSQL_CASE_INSENSITIVE_SUFFIX = "_ci";
+
+    private static final String MEMBER_FIELD = "member";
+
+    /**
+     * The direct memberships of a wiki.
+     */
+    private final class WikiIndex
+    {
+        private final String wiki;
+
+        /**
+         * The groups (local full names) associated with each normalized member value.
+         */
+        private final Map<String, Set<String>> groupsByMember = new HashMap<>();
+
+        /**
+         * The normalized member values of each group, to know what to update when a group is modified.
+         */
+        private final Map<String, Set<String>> membersByGroup = new HashMap<>();
+
+        private boolean loaded;
+
+        private boolean caseSensitive;
+
+        WikiIndex(String wiki)
+        {
+            this.wiki = wiki;
+        }
+
+        synchronized void load() throws GroupException
+        {
+            if (!this.loaded) {
+                this.caseSensitive = isCaseSensitive(this.wiki);
+
+                List<Object[]> memberships;
+                try {
+                    memberships = queryManager.createQuery(MEMBERS_STATEMENT, Query.HQL).setWiki(this.wiki).execute();
+                } catch (QueryException e) {
+                    throw new GroupException("Failed to load the group memberships of wiki [" + this.wiki + "]", e);
+                }
+
+                for (Object[] membership : memberships) {
+                    add((String) membership[0], (String) membership[1]);
+                }
+
+                this.loaded = true;
+            }
+        }
+
+        /**
+         * Match the member values like the database would in the group service queries.
+         */
+        private String normalize(String member)
+        {
+            return this.caseSensitive ? member : member.toLowerCase(Locale.ROOT);
+        }
+
+        private void add(String group, String member)
+        {
+            if (StringUtils.isNotEmpty(member)) {
+                String key = normalize(member);
+                this.groupsByMember.computeIfAbsent(key, k -> new HashSet<>()).add(group);
+                this.membersByGroup.computeIfAbsent(group, k -> new HashSet<>()).add(key);
+            }
+        }
+
+        synchronized Set<String> getGroups(Collection<String> members) throws GroupException
+        {
+            load();
+
+            Set<String> groups = new LinkedHashSet<>();
+            for (String member : members) {
+                Set<String> memberGroups = this.groupsByMember.get(normalize(member));
+                if (memberGroups != null) {
+                    groups.addAll(memberGroups);
+                }
+            }
+
+            return groups;
+        }
+
+        synchronized void update(String group, Collection<String> members)
+        {
+            // If not loaded yet, the index will be loaded from the database which already contains the modification
+            if (this.loaded) {
+                Set<String> previousMembers = this.membersByGroup.remove(group);
+                if (previousMembers != null) {
+                    for (String previousMember : previousMembers) {
+                        Set<String> groups = this.groupsByMember.get(previousMember);
+                        groups.remove(group);
+                        if (groups.isEmpty()) {
+                            this.groupsByMember.remove(previousMember);
+                        }
+                    }
+                }
+
+                for (String member : members) {
+                    add(group, member);
+                }
+            }
+        }
+    }
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private EntityReferenceFactory referenceFactory;
+
+    @Inject
+    private HibernateStore hibernateStore;
+
+    private final Map<String, WikiIndex> wikis = new ConcurrentHashMap<>();
+
+    /**
+     * @param member the reference of the user or group
+     * @param wiki the wiki where to search the groups
+     * @return the groups of the passed wiki which directly contain the passed member, or {@code null} if the index
+     *         cannot answer (in which case the group service should be used)
+     * @throws GroupException when failing to load the group memberships of the wiki
+     */
+    public Collection<DocumentReference> getGroups(DocumentReference member, String wiki) throws GroupException
+    {
+        // The guest user is matched in a specific way
+        if (XWikiRightService.isGuest(member)) {
+            return null;
+        }
+
+        // Same member names as the ones used by the group service queries
+        boolean local = member.getWikiReference().getName().equals(wiki);
+        Collection<String> memberNames;
+        if (local) {
+            memberNames = List.of(this.serializer.serialize(member), this.localSerializer.serialize(member),
+                member.getName());
+        } else {
+            memberNames = List.of(this.serializer.serialize(member));
+        }
+
+        WikiIndex wikiIndex = this.wikis.computeIfAbsent(wiki, WikiIndex::new);
+
+        WikiReference wikiReference = new WikiReference(wiki);
+        Set<DocumentReference> groups = new LinkedHashSet<>();
+        for (String group : wikiIndex.getGroups(memberNames)) {
+            groups.add(this.referenceFactory.getReference(this.resolver.resolve(group, wikiReference)));
+        }
+
+        // If the 'XWiki.XWikiAllGroup' is implicit, all users/groups except XWikiGuest and XWikiAllGroup itself are
+        // part of it
+        if (local && this.xcontextProvider.get().getWiki().isAllGroupImplicit()) {
+            DocumentReference allGroup = new DocumentReference(wiki, "XWiki", XWikiRightService.ALLGROUP_GROUP);
+
+            if (!allGroup.equals(member)) {
+                groups.add(allGroup);
+            }
+        }
+
+        return groups;
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @return {@code true} if the database of the passed wiki compares the string properties in a case sensitive way
+     * @throws GroupException when failing to get the collation of the database
+     */
+    private boolean isCaseSensitive(String wiki) throws GroupException
+    {
+        DatabaseProduct product = this.hibernateStore.getDatabaseProductName();
+
+        if (product == DatabaseProduct.MYSQL) {
+            String collation = getMySQLCollation(wiki);
+
+            return collation == null || !collation.toLowerCase(Locale.ROOT).endsWith(MYSQL_CASE_INSENSITIVE_SUFFIX);
+        }
+
+        // The default collation of SQL Server is case insensitive, the other supported databases compare strings in a
+        // case sensitive way
+        return product != DatabaseProduct.MSSQL;
+    }
+
+    private String getMySQLCollation(String wiki) throws GroupException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        String currentWiki = xcontext.getWikiId();
+        try {
+            xcontext.setWikiId(wiki);
+
+            return xcontext.getWiki().getHibernateStore().executeRead(xcontext,
+                session -> (String) session.createNativeQuery(MYSQL_COLLATION_STATEMENT)
+                    .setParameter("schema", this.hibernateStore.getDatabaseFromWikiName(wiki)).uniqueResult());
+        } catch (XWikiException e) {
+            throw new GroupException("Failed to get the collation of the database of wiki [" + wiki + "]", e);
+        } finally {
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+
+    /**
+     * Update the index after the modification of a document.
+     *
+     * @param document the new version of the document (without any group object if it was deleted)
+     */
+    public void update(XWikiDocument document)
+    {
+        WikiIndex wikiIndex = this.wikis.get(document.getDocumentReference().getWikiReference().getName());
+
+        if (wikiIndex != null) {
+            Set<String> members = new HashSet<>();
+            for (BaseObject memberObject : document
+                .getXObjects(XWikiGroupsDocumentInitializer.XWIKI_GROUPS_DOCUMENT_REFERENCE)) {
+                if (memberObject != null) {
+                    members.add(memberObject.getStringValue(MEMBER_FIELD));
+                }
+            }
+
+            wikiIndex.update(this.localSerializer.serialize(document.getDocumentReference()), members);
+        }
+    }
+
+    /**
+     * Forget the memberships of a wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void remove(String wiki)
+    {
+        this.wikis.remove(wiki);
+    }
+}
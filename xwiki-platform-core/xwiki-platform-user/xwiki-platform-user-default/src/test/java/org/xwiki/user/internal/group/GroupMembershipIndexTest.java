@@ -0,0 +1,273 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.user.internal.group;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.mandatory.XWikiGroupsDocumentInitializer;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.store.DatabaseProduct;
+import com.xpn.xwiki.store.XWikiHibernateStore;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link GroupMembershipIndex}.
+ * 
+ * @version $Id$
+ */
+@OldcoreTest
+@ReferenceComponentList
+class GroupMembershipIndexTest
+{
+    private static final DocumentReference USER = new DocumentReference("xwiki", "XWiki", "user");
+
+    private static final DocumentReference GROUP1 = new DocumentReference("xwiki", "XWiki", "group1");
+
+    private static final DocumentReference GROUP2 = new DocumentReference("xwiki", "XWiki", "group2");
+
+    private static final DocumentReference GROUP3 = new DocumentReference("xwiki", "XWiki", "group3");
+
+    private static final DocumentReference SUBWIKI_GROUP1 = new DocumentReference("subwiki", "XWiki", "group1");
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    private HibernateStore hibernateStore;
+
+    @InjectMockComponents
+    private GroupMembershipIndex index;
+
+    private Query query;
+
+    private List<Object[]> memberships = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.query = mock(Query.class);
+        when(this.queryManager.createQuery(anyString(), eq(Query.HQL))).thenReturn(this.query);
+        when(this.query.setWiki(any())).thenReturn(this.query);
+        when(this.query.execute()).then(invocation -> new ArrayList<>(this.memberships));
+
+        when(this.hibernateStore.getDatabaseProductName()).thenReturn(DatabaseProduct.HSQLDB);
+    }
+
+    private void addMembership(String group, String member)
+    {
+        this.memberships.add(new Object[] { group, member });
+    }
+
+    private XWikiDocument createGroup(DocumentReference group, String... members)
+    {
+        XWikiDocument document = new XWikiDocument(group);
+        for (String member : members) {
+            BaseObject memberObject = new BaseObject();
+            memberObject.setXClassReference(XWikiGroupsDocumentInitializer.XWIKI_GROUPS_DOCUMENT_REFERENCE);
+            memberObject.setStringValue("member", member);
+            document.addXObject(memberObject);
+        }
+
+        return document;
+    }
+
+    @Test
+    void getGroups() throws Exception
+    {
+        addMembership("XWiki.group1", "XWiki.user");
+        addMembership("XWiki.group2", "xwiki:XWiki.user");
+        addMembership("XWiki.group3", "user");
+        addMembership("XWiki.group4", "XWiki.otheruser");
+        addMembership("XWiki.group5", "otherwiki:XWiki.user");
+
+        assertEquals(Set.of(GROUP1, GROUP2, GROUP3), Set.copyOf(this.index.getGroups(USER, "xwiki")));
+
+        // The memberships are loaded only once
+        assertEquals(Set.of(GROUP1, GROUP2, GROUP3), Set.copyOf(this.index.getGroups(USER, "xwiki")));
+        verify(this.query).setWiki("xwiki");
+        verify(this.query, times(1)).execute();
+    }
+
+    @Test
+    void getGroupsWithCaseInsensitiveDatabase() throws Exception
+    {
+        when(this.hibernateStore.getDatabaseProductName()).thenReturn(DatabaseProduct.MSSQL);
+
+        addMembership("XWiki.group1", "xwiki.USER");
+        addMembership("XWiki.group2", "XWIKI:XWiki.User");
+        addMembership("XWiki.group3", "XWiki.otheruser");
+
+        assertEquals(Set.of(GROUP1, GROUP2), Set.copyOf(this.index.getGroups(USER, "xwiki")));
+
+        this.index.update(createGroup(GROUP3, "XWiki.otheruser", "XWiki.USER"));
+
+        assertEquals(Set.of(GROUP1, GROUP2, GROUP3), Set.copyOf(this.index.getGroups(USER, "xwiki")));
+    }
+
+    @Test
+    void getGroupsWithCaseInsensitiveMySQLCollation() throws Exception
+    {
+        when(this.hibernateStore.getDatabaseProductName()).thenReturn(DatabaseProduct.MYSQL);
+        XWikiHibernateStore store = mock(XWikiHibernateStore.class);
+        doReturn(store).when(this.oldcore.getSpyXWiki()).getHibernateStore();
+        when(store.executeRead(any(), any())).thenReturn("utf8mb4_general_ci");
+
+        addMembership("XWiki.group1", "xwiki.USER");
+
+        assertEquals(List.of(GROUP1), List.copyOf(this.index.getGroups(USER, "xwiki")));
+    }
+
+    @Test
+    void getGroupsWithCaseSensitiveMySQLCollation() throws Exception
+    {
+        when(this.hibernateStore.getDatabaseProductName()).thenReturn(DatabaseProduct.MYSQL);
+        XWikiHibernateStore store = mock(XWikiHibernateStore.class);
+        doReturn(store).when(this.oldcore.getSpyXWiki()).getHibernateStore();
+        when(store.executeRead(any(), any())).thenReturn("utf8mb4_bin");
+
+        addMembership("XWiki.group1", "xwiki.USER");
+
+        assertEquals(List.of(), List.copyOf(this.index.getGroups(USER, "xwiki")));
+    }
+
+    @Test
+    void getGroupsWithCaseSensitiveDatabase() throws Exception
+    {
+        addMembership("XWiki.group1", "xwiki.USER");
+        addMembership("XWiki.group2", "XWiki.user");
+
+        assertEquals(List.of(GROUP2), List.copyOf(this.index.getGroups(USER, "xwiki")));
+    }
+
+    @Test
+    void getGroupsFromOtherWiki() throws Exception
+    {
+        addMembership("XWiki.group1", "xwiki:XWiki.user");
+        addMembership("XWiki.group2", "XWiki.user");
+        addMembership("XWiki.group3", "user");
+
+        assertEquals(List.of(SUBWIKI_GROUP1), List.copyOf(this.index.getGroups(USER, "subwiki")));
+        verify(this.query).setWiki("subwiki");
+    }
+
+    @Test
+    void getGroupsWithImplicitAllGroup() throws Exception
+    {
+        doReturn(true).when(this.oldcore.getSpyXWiki()).isAllGroupImplicit();
+
+        DocumentReference allGroup = new DocumentReference("xwiki", "XWiki", "XWikiAllGroup");
+
+        assertEquals(List.of(allGroup), List.copyOf(this.index.getGroups(USER, "xwiki")));
+        assertEquals(List.of(), List.copyOf(this.index.getGroups(allGroup, "xwiki")));
+        assertEquals(List.of(), List.copyOf(this.index.getGroups(USER, "subwiki")));
+    }
+
+    @Test
+    void getGroupsOfGuest() throws Exception
+    {
+        assertNull(this.index.getGroups(new DocumentReference("xwiki", "XWiki", "XWikiGuest"), "xwiki"));
+
+        verifyNoInteractions(this.queryManager);
+    }
+
+    @Test
+    void update() throws Exception
+    {
+        addMembership("XWiki.group1", "XWiki.user");
+
+        assertEquals(List.of(GROUP1), List.copyOf(this.index.getGroups(USER, "xwiki")));
+
+        // Add a group
+        this.index.update(createGroup(GROUP2, "XWiki.user", "XWiki.otheruser"));
+
+        assertEquals(Set.of(GROUP1, GROUP2), Set.copyOf(this.index.getGroups(USER, "xwiki")));
+
+        // Remove the user from a group
+        this.index.update(createGroup(GROUP1, "XWiki.otheruser"));
+
+        assertEquals(List.of(GROUP2), List.copyOf(this.index.getGroups(USER, "xwiki")));
+
+        // Delete a group
+        this.index.update(new XWikiDocument(GROUP2));
+
+        assertEquals(List.of(), List.copyOf(this.index.getGroups(USER, "xwiki")));
+        assertEquals(Set.of(GROUP1), Set.copyOf(this.index.getGroups(
+            new DocumentReference("xwiki", "XWiki", "otheruser"), "xwiki")));
+
+        verify(this.query, times(1)).execute();
+    }
+
+    @Test
+    void updateBeforeLoad() throws Exception
+    {
+        this.index.update(createGroup(GROUP1, "XWiki.user"));
+
+        verifyNoInteractions(this.queryManager);
+
+        // The loaded memberships are the ones from the database
+        addMembership("XWiki.group1", "XWiki.user");
+
+        assertEquals(List.of(GROUP1), List.copyOf(this.index.getGroups(USER, "xwiki")));
+    }
+
+    @Test
+    void remove() throws Exception
+    {
+        addMembership("XWiki.group1", "XWiki.user");
+
+        assertEquals(List.of(GROUP1), List.copyOf(this.index.getGroups(USER, "xwiki")));
+
+        this.index.remove("xwiki");
+        this.memberships.clear();
+
+        assertEquals(List.of(), List.copyOf(this.index.getGroups(USER, "xwiki")));
+        verify(this.query, times(2)).execute();
+    }
+}